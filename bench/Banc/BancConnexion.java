@@ -0,0 +1,142 @@
+package Banc;
+
+import DAO.MigrationsSchema;
+import DAO.PoolConnexions;
+import DAO.ProfilBase;
+import Modele.User;
+import Service.HachageMotDePasse;
+import Service.VerificateurIdentifiants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Banc d'essai des connexions, pour régler le facteur de travail du hachage des mots de passe.
+ * <p>
+ * 1. Coût d'une empreinte PBKDF2 sur un thread, pour plusieurs nombres d'itérations, et nombre d'itérations
+ *    recommandé pour la latence visée (à reporter dans {@code -Dattraction.mdp.iterations}).
+ * 2. Afflux de connexions : tous les clients se connectent au même instant via le {@link VerificateurIdentifiants}
+ *    (propriétés {@code attraction.mdp.*} de l'application) ; latences p50/p99, débit, identifiants refusés
+ *    et connexions rejetées par le pool de calcul plein.
+ * <p>
+ * Propriétés système :
+ * - banc.mdp.iterations : nombres d'itérations mesurés, séparés par des virgules (100000,210000,310000,600000)
+ * - banc.mdp.cible : latence visée d'une empreinte, en ms (250)
+ * - banc.mdp.mesures : empreintes calculées par nombre d'itérations (10)
+ * - banc.connexions : connexions simultanées (500)
+ * - banc.clients : clients distincts dans la base (200)
+ * - banc.echecs : part des connexions avec un mauvais mot de passe, en % (10)
+ */
+public class BancConnexion {
+
+    public static void main(String[] args) throws Exception {
+        mesurerHachage();
+        mesurerAfflux();
+    }
+
+    private static void mesurerHachage() {
+        String[] iterations = System.getProperty("banc.mdp.iterations", "100000,210000,310000,600000").split(",");
+        double cibleMs = Double.parseDouble(System.getProperty("banc.mdp.cible", "250"));
+        int mesures = Integer.getInteger("banc.mdp.mesures", 10);
+        int processeurs = Runtime.getRuntime().availableProcessors();
+
+        // Échauffement : le calcul HMAC n'est compilé par le JIT qu'après quelques empreintes
+        HachageMotDePasse echauffement = new HachageMotDePasse(100_000);
+        for (int i = 0; i < 5; i++) {
+            echauffement.hacher("echauffement");
+        }
+
+        System.out.printf("%n== Coût d'une empreinte (%d processeurs) ==%n", processeurs);
+        System.out.printf("%-12s %10s %14s%n", "itérations", "p50 ms", "max connexions/s");
+        double iterationsParMs = 0;
+        for (String texte : iterations) {
+            int n = Integer.parseInt(texte.trim());
+            HachageMotDePasse hachage = new HachageMotDePasse(n);
+            long[] durees = new long[mesures];
+            for (int i = 0; i < mesures; i++) {
+                long debut = System.nanoTime();
+                hachage.hacher("mdp" + i);
+                durees[i] = System.nanoTime() - debut;
+            }
+            Arrays.sort(durees);
+            double p50 = centile(durees, 0.50);
+            iterationsParMs = Math.max(iterationsParMs, n / p50);
+            System.out.printf("%-12d %10.1f %14.0f%n", n, p50, processeurs * 1000 / p50);
+        }
+        long recommande = Math.max(10_000, (long) (iterationsParMs * cibleMs) / 10_000 * 10_000);
+        System.out.printf("Pour %.0f ms par empreinte : -Dattraction.mdp.iterations=%d%n", cibleMs, recommande);
+    }
+
+    private static void mesurerAfflux() throws Exception {
+        int connexions = Integer.getInteger("banc.connexions", 500);
+        int clients = Integer.getInteger("banc.clients", 200);
+        int partEchecs = Integer.getInteger("banc.echecs", 10);
+
+        PoolConnexions pool = new PoolConnexions(ProfilBase.H2.getUrl().replace("mem:attraction", "mem:connexion"),
+                ProfilBase.H2.getUtilisateur(), "");
+        try {
+            if (!new MigrationsSchema(pool).migrer()) {
+                throw new IllegalStateException("Migration de la base de banc impossible");
+            }
+            new GenerateurDonnees(pool).remplir(clients * 10);
+            VerificateurIdentifiants verificateur = VerificateurIdentifiants.de(pool);
+            System.out.printf("%n== Afflux : %d connexions simultanées, %d clients, %d itérations ==%n",
+                    connexions, clients, verificateur.getIterations());
+
+            AtomicInteger acceptees = new AtomicInteger();
+            AtomicInteger refusees = new AtomicInteger();
+            AtomicInteger rejetees = new AtomicInteger();
+            long[] latences = new long[connexions];
+            List<CompletableFuture<?>> futurs = new ArrayList<>();
+            CountDownLatch depart = new CountDownLatch(1);
+            for (int c = 0; c < connexions; c++) {
+                int indice = c;
+                futurs.add(CompletableFuture.runAsync(() -> {
+                    ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+                    String email = GenerateurDonnees.emailClient(1 + aleatoire.nextInt(clients));
+                    String mdp = aleatoire.nextInt(100) < partEchecs ? "faux" : GenerateurDonnees.MOT_DE_PASSE;
+                    try {
+                        depart.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long t = System.nanoTime();
+                    try {
+                        User user = verificateur.connecter(email, mdp).join();
+                        (user != null ? acceptees : refusees).incrementAndGet();
+                    } catch (CompletionException e) {
+                        rejetees.incrementAndGet();
+                    }
+                    latences[indice] = System.nanoTime() - t;
+                }, Thread.ofVirtual()::start));
+            }
+            long debut = System.nanoTime();
+            depart.countDown();
+            CompletableFuture.allOf(futurs.toArray(new CompletableFuture<?>[0])).join();
+            long dureeNs = System.nanoTime() - debut;
+
+            Arrays.sort(latences);
+            System.out.printf("Acceptées : %d, identifiants refusés : %d, rejetées (pool plein) : %d%n",
+                    acceptees.get(), refusees.get(), rejetees.get());
+            System.out.printf("Latence p50 : %.1f ms, p99 : %.1f ms, max : %.1f ms%n",
+                    centile(latences, 0.50), centile(latences, 0.99), latences[latences.length - 1] / 1e6);
+            System.out.printf("Débit : %.0f connexions/s (%d en %d ms)%n",
+                    connexions * 1e9 / dureeNs, connexions, dureeNs / 1_000_000);
+        } finally {
+            pool.close();
+        }
+    }
+
+    /** Centile (en ms) d'un tableau trié de durées en nanosecondes */
+    private static double centile(long[] tries, double rang) {
+        int indice = (int) Math.ceil(rang * tries.length) - 1;
+        return tries[Math.max(0, Math.min(indice, tries.length - 1))] / 1e6;
+    }
+}
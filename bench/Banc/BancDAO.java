@@ -0,0 +1,101 @@
+package Banc;
+
+import DAO.*;
+import Modele.StatistiqueAttraction.Periode;
+import Modele.User;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Banc d'essai des chemins critiques des DAO sur une base H2 embarquée (mode MySQL), à plusieurs volumes.
+ * <p>
+ * Pour chaque taille, une base en mémoire neuve est migrée ({@link MigrationsSchema}) puis remplie par
+ * {@link GenerateurDonnees} ; chaque méthode est ensuite mesurée en débit (op/s) et en allocation
+ * (octets par opération, Mo/s, collectes et temps de GC pendant la mesure).
+ * <p>
+ * Lancement (classpath : src, bench, ressources compilés et le pilote H2) :
+ * <pre>
+ * java -Xmx4g -cp ... Banc.BancDAO
+ * </pre>
+ * Propriétés système :
+ * - banc.tailles : nombres de réservations, séparés par des virgules (10000,100000,1000000)
+ * - banc.echauffements : itérations d'échauffement (3)
+ * - banc.iterations : itérations mesurées (5)
+ * - banc.duree : durée d'une itération en ms (1000)
+ */
+public class BancDAO {
+
+    public static void main(String[] args) throws SQLException {
+        String[] tailles = System.getProperty("banc.tailles", "10000,100000,1000000").split(",");
+        Mesure mesure = new Mesure(
+                Integer.getInteger("banc.echauffements", 3),
+                Integer.getInteger("banc.iterations", 5),
+                Long.getLong("banc.duree", 1000));
+
+        for (String texte : tailles) {
+            int taille = Integer.parseInt(texte.trim());
+            String url = ProfilBase.H2.getUrl().replace("mem:attraction", "mem:banc" + taille);
+            PoolConnexions pool = new PoolConnexions(url, ProfilBase.H2.getUtilisateur(), "");
+            try {
+                if (!new MigrationsSchema(pool).migrer()) {
+                    throw new IllegalStateException("Migration de la base de banc impossible");
+                }
+                long debut = System.nanoTime();
+                new GenerateurDonnees(pool).remplir(taille);
+                System.out.printf("%n== %,d réservations (générées en %d ms) ==%n", taille, (System.nanoTime() - debut) / 1_000_000);
+                System.out.println(Mesure.Resultat.entete());
+                mesurer(mesure, pool, taille);
+            } finally {
+                pool.close();
+            }
+        }
+    }
+
+    private static void mesurer(Mesure mesure, ConnectionProvider pool, int taille) throws SQLException {
+        AttractionDAO attractionDAO = new AttractionDAO(pool);
+        ReservationDAO reservationDAO = new ReservationDAO(pool);
+        StatistiquesDAO statistiquesDAO = new StatistiquesDAO(pool);
+        UserDAO userDAO = new UserDAO(pool);
+
+        int nbAttractions = GenerateurDonnees.nombreAttractions(taille);
+        int nbClients = GenerateurDonnees.nombreClients(taille);
+        int nbInvites = GenerateurDonnees.nombreInvites(taille);
+        LocalDate premierJour = LocalDate.of(GenerateurDonnees.ANNEE, 1, 1);
+
+        System.out.println(mesure.mesurer("AttractionDAO.findAll (catalogue en cache)", attractionDAO::findAll));
+        System.out.println(mesure.mesurer("AttractionDAO.findAll (catalogue invalidé)", () -> {
+            attractionDAO.getCatalogue().invalider();
+            return attractionDAO.findAll();
+        }));
+        System.out.println(mesure.mesurer("ReservationDAO.recupererToutesReservations",
+                reservationDAO::recupererToutesReservations));
+        System.out.println(mesure.mesurer("ReservationDAO.recupererPage (100 lignes)", () ->
+                reservationDAO.recupererPage(FiltreReservations.aucun(), aleatoire(taille), 100)));
+        System.out.println(mesure.mesurer("ReservationDAO.getReservationsInvite", () ->
+                reservationDAO.getReservationsInvite(GenerateurDonnees.emailInvite(1 + aleatoire(nbInvites)))));
+        System.out.println(mesure.mesurer("ReservationDAO.getReservations (client)", () -> {
+            User client = new User();
+            client.setUserId(1 + aleatoire(nbClients));
+            return reservationDAO.getReservations(client);
+        }));
+        System.out.println(mesure.mesurer("ReservationDAO.compterReservationsActives", () ->
+                reservationDAO.compterReservationsActives(1 + aleatoire(nbAttractions), premierJour.plusDays(aleatoire(365)))));
+        System.out.println(mesure.mesurer("StatistiquesDAO.statistiques (1 an, par mois)", () ->
+                statistiquesDAO.statistiques(premierJour, premierJour.plusYears(1).minusDays(1), Periode.MOIS)));
+        System.out.println(mesure.mesurer("StatistiquesDAO.totaux", () -> {
+            try {
+                return statistiquesDAO.totaux();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        System.out.println(mesure.mesurer("UserDAO.findByEmail", () ->
+                userDAO.findByEmail(GenerateurDonnees.emailClient(1 + aleatoire(nbClients)))));
+    }
+
+    private static int aleatoire(int borne) {
+        return ThreadLocalRandom.current().nextInt(borne);
+    }
+}
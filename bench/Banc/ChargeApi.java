@@ -0,0 +1,241 @@
+package Banc;
+
+import Api.ServeurApi;
+import DAO.MigrationsSchema;
+import DAO.PoolConnexions;
+import DAO.ProfilBase;
+import Service.ServiceStatistiques;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outil de charge de l'API HTTP ({@link ServeurApi}) : des bornes et téléphones simulés, un thread virtuel chacun,
+ * partent au même signal et enchaînent leurs requêtes.
+ * <p>
+ * Chaque client garde le dernier ETag reçu pour chaque ressource et le renvoie dans {@code If-None-Match},
+ * comme le ferait un client HTTP avec cache : la part de réponses 304 mesure l'efficacité du cache.
+ * <p>
+ * Sans {@code charge.url}, l'outil démarre lui-même le serveur sur une base H2 en mémoire remplie par
+ * {@link GenerateurDonnees}.
+ * <p>
+ * Propriétés système :
+ * - charge.url : adresse d'un serveur déjà lancé (http://localhost:8080) ; serveur embarqué sinon
+ * - charge.clients : clients simultanés (500)
+ * - charge.operations : requêtes par client (20)
+ * - charge.mix : répartition (catalogue:50,historique:20,statistiques:15,reservation:15)
+ * - charge.base : réservations générées pour le serveur embarqué (10000)
+ */
+public class ChargeApi {
+
+    /** Types de requêtes simulées */
+    enum Requete { CATALOGUE, HISTORIQUE, STATISTIQUES, RESERVATION }
+
+    /** Jour réservé par les clients : l'API refuse les dates passées */
+    private static final LocalDate JOUR = LocalDate.now().plusMonths(1);
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("charge.clients", 500);
+        int operations = Integer.getInteger("charge.operations", 20);
+        Map<Requete, Integer> mix = lireMix(System.getProperty("charge.mix",
+                "catalogue:50,historique:20,statistiques:15,reservation:15"));
+        String url = System.getProperty("charge.url");
+
+        PoolConnexions pool = null;
+        ServeurApi serveur = null;
+        int nbAttractions = 20;
+        try {
+            if (url == null) {
+                int base = Integer.getInteger("charge.base", 10_000);
+                pool = new PoolConnexions(ProfilBase.H2.getUrl().replace("mem:attraction", "mem:chargeapi"),
+                        ProfilBase.H2.getUtilisateur(), "");
+                if (!new MigrationsSchema(pool).migrer()) {
+                    throw new IllegalStateException("Migration de la base impossible");
+                }
+                new GenerateurDonnees(pool).remplir(base);
+                new ServiceStatistiques(pool).initialiser();
+                nbAttractions = GenerateurDonnees.nombreAttractions(base);
+                serveur = new ServeurApi(pool, 0);
+                serveur.demarrer();
+                url = "http://localhost:" + serveur.getPort();
+            }
+            new ChargeApi(url, nbAttractions, mix).executer(clients, operations);
+        } finally {
+            if (serveur != null) serveur.arreter();
+            if (pool != null) pool.close();
+        }
+    }
+
+    private final String url;
+    private final int nbAttractions;
+    private final Requete[] tirage;
+    private final HttpClient client;
+    private final AtomicInteger nonModifiees = new AtomicInteger();
+    private final AtomicInteger refus = new AtomicInteger();
+    private final AtomicInteger erreurs = new AtomicInteger();
+
+    private ChargeApi(String url, int nbAttractions, Map<Requete, Integer> mix) {
+        this.url = url;
+        this.nbAttractions = nbAttractions;
+        List<Requete> urne = new ArrayList<>();
+        mix.forEach((requete, poids) -> {
+            for (int i = 0; i < poids; i++) urne.add(requete);
+        });
+        this.tirage = urne.toArray(new Requete[0]);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    private void executer(int clients, int operations) throws InterruptedException {
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Latences> toutes = new ArrayList<>();
+        try (ExecutorService executeur = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                Latences latences = new Latences();
+                toutes.add(latences);
+                executeur.submit(() -> {
+                    String[] etags = new String[Requete.values().length];
+                    depart.await();
+                    for (int i = 0; i < operations; i++) {
+                        Requete requete = tirage[ThreadLocalRandom.current().nextInt(tirage.length)];
+                        long debut = System.nanoTime();
+                        envoyer(requete, etags);
+                        latences.ajouter(requete, System.nanoTime() - debut);
+                    }
+                    return null;
+                });
+            }
+            System.out.printf("%n%d clients x %d requêtes sur %s...%n", clients, operations, url);
+            long debut = System.nanoTime();
+            depart.countDown();
+            executeur.shutdown();
+            executeur.awaitTermination(1, TimeUnit.HOURS);
+            afficher(toutes, System.nanoTime() - debut);
+        }
+    }
+
+    private void envoyer(Requete requete, String[] etags) {
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        HttpRequest.Builder requeteHttp;
+        switch (requete) {
+            case CATALOGUE:
+                requeteHttp = HttpRequest.newBuilder(URI.create(url + "/api/attractions"));
+                break;
+            case HISTORIQUE:
+                requeteHttp = HttpRequest.newBuilder(URI.create(url + "/api/reservations?email="
+                        + GenerateurDonnees.emailInvite(1 + aleatoire.nextInt(1000))));
+                break;
+            case STATISTIQUES:
+                requeteHttp = HttpRequest.newBuilder(URI.create(url + "/api/statistiques"));
+                break;
+            default:
+                String corps = "{\"idAttraction\":" + (1 + aleatoire.nextInt(nbAttractions))
+                        + ",\"date\":\"" + JOUR + "\",\"places\":" + (1 + aleatoire.nextInt(3))
+                        + ",\"nom\":\"Borne\",\"email\":\"" + GenerateurDonnees.emailInvite(1 + aleatoire.nextInt(1000)) + "\"}";
+                requeteHttp = HttpRequest.newBuilder(URI.create(url + "/api/reservations"))
+                        .header("Content-Type", "application/json")
+                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                        .POST(HttpRequest.BodyPublishers.ofString(corps));
+        }
+        int r = requete.ordinal();
+        if (requete != Requete.RESERVATION && etags[r] != null) {
+            requeteHttp.header("If-None-Match", etags[r]);
+        }
+        try {
+            HttpResponse<byte[]> reponse = client.send(requeteHttp.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            int statut = reponse.statusCode();
+            if (statut == 304) {
+                nonModifiees.incrementAndGet();
+            } else if (statut == 409 || statut == 404) {
+                refus.incrementAndGet();
+            } else if (statut >= 400) {
+                erreurs.incrementAndGet();
+            }
+            reponse.headers().firstValue("ETag").ifPresent(etag -> etags[r] = etag);
+        } catch (Exception e) {
+            erreurs.incrementAndGet();
+        }
+    }
+
+    private void afficher(List<Latences> toutes, long dureeNs) {
+        System.out.printf("%n%-14s %9s %10s %10s %10s %10s%n", "Requête", "nombre", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long total = 0;
+        for (Requete requete : Requete.values()) {
+            long[] valeurs = Latences.fusionner(toutes, requete);
+            total += valeurs.length;
+            if (valeurs.length == 0) {
+                continue;
+            }
+            System.out.printf("%-14s %9d %10.2f %10.2f %10.2f %10.2f%n", requete, valeurs.length,
+                    centile(valeurs, 0.50), centile(valeurs, 0.99), centile(valeurs, 0.999), valeurs[valeurs.length - 1] / 1e6);
+        }
+        System.out.printf("%nDébit : %.0f requêtes/s (%d requêtes en %d ms)%n", total * 1e9 / dureeNs, total, dureeNs / 1_000_000);
+        System.out.printf("304 Not Modified : %d, refus (complet, fermée) : %d, erreurs : %d%n",
+                nonModifiees.get(), refus.get(), erreurs.get());
+    }
+
+    /** Centile (en ms) d'un tableau trié de durées en nanosecondes */
+    private static double centile(long[] tries, double rang) {
+        int indice = (int) Math.ceil(rang * tries.length) - 1;
+        return tries[Math.max(0, Math.min(indice, tries.length - 1))] / 1e6;
+    }
+
+    private static Map<Requete, Integer> lireMix(String texte) {
+        Map<Requete, Integer> mix = new EnumMap<>(Requete.class);
+        for (String partie : texte.split(",")) {
+            String[] cleValeur = partie.split(":");
+            mix.put(Requete.valueOf(cleValeur[0].trim().toUpperCase()), Integer.parseInt(cleValeur[1].trim()));
+        }
+        return mix;
+    }
+
+    /**
+     * Latences d'un client simulé, par type de requête ; un seul thread y écrit.
+     */
+    private static final class Latences {
+        private final long[][] valeurs = new long[Requete.values().length][16];
+        private final int[] tailles = new int[Requete.values().length];
+
+        void ajouter(Requete requete, long dureeNs) {
+            int r = requete.ordinal();
+            if (tailles[r] == valeurs[r].length) {
+                valeurs[r] = Arrays.copyOf(valeurs[r], tailles[r] * 2);
+            }
+            valeurs[r][tailles[r]++] = dureeNs;
+        }
+
+        static long[] fusionner(List<Latences> toutes, Requete requete) {
+            int r = requete.ordinal();
+            int taille = 0;
+            for (Latences l : toutes) taille += l.tailles[r];
+            long[] fusion = new long[taille];
+            int position = 0;
+            for (Latences l : toutes) {
+                System.arraycopy(l.valeurs[r], 0, fusion, position, l.tailles[r]);
+                position += l.tailles[r];
+            }
+            Arrays.sort(fusion);
+            return fusion;
+        }
+    }
+}
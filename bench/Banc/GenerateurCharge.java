@@ -0,0 +1,276 @@
+package Banc;
+
+import DAO.*;
+import Modele.Attraction;
+import Modele.Paiement;
+import Modele.Reservation;
+import Modele.Reservation.StatutReservation;
+import Modele.User;
+import Service.ServiceReservation;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Générateur de charge sans interface : simule l'ouverture des portes, quand des milliers de clients et d'invités
+ * réservent au même instant les mêmes quelques attractions.
+ * <p>
+ * Chaque client virtuel est un thread virtuel ; tous attendent le même signal de départ puis enchaînent leurs opérations,
+ * tirées selon le mélange demandé, sur les couches utilisées par les contrôleurs ({@link ServiceReservation}, DAO) :
+ * - `INVITE` / `MEMBRE` : réservation payée (1 à 4 places) d'une attraction « chaude » pour le jour d'ouverture ;
+ * - `HISTORIQUE` : historique d'un invité ou d'un client ;
+ * - `ADMIN` : annulation d'une réservation faite pendant l'essai.
+ * <p>
+ * En fin d'essai : latences p50/p99/p999 par type d'opération, débit global, et pour chaque attraction chaude
+ * le nombre de places occupées en base comparé à sa capacité (survente).
+ * <p>
+ * Propriétés système :
+ * - charge.clients : clients simultanés (2000)
+ * - charge.operations : opérations par client (10)
+ * - charge.mix : répartition des opérations (invite:40,membre:40,historique:15,admin:5)
+ * - charge.attractions : nombre d'attractions chaudes (3)
+ * - charge.base : réservations générées avant l'essai (10000)
+ * - charge.pool : connexions du pool (10)
+ * - attraction.db.url, attraction.db.user, attraction.db.password : base visée (H2 en mémoire par défaut) ;
+ *   une base existante doit déjà contenir des attractions et des clients
+ */
+public class GenerateurCharge {
+
+    /** Types d'opérations simulées */
+    enum Operation { INVITE, MEMBRE, HISTORIQUE, ADMIN }
+
+    /** Jour d'ouverture réservé par tous les clients, hors de l'année des données générées */
+    private static final LocalDate OUVERTURE = LocalDate.of(GenerateurDonnees.ANNEE + 1, 7, 14);
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("charge.clients", 2000);
+        int operations = Integer.getInteger("charge.operations", 10);
+        Map<Operation, Integer> mix = lireMix(System.getProperty("charge.mix", "invite:40,membre:40,historique:15,admin:5"));
+        int nbChaudes = Integer.getInteger("charge.attractions", 3);
+        int base = Integer.getInteger("charge.base", 10_000);
+        int taillePool = Integer.getInteger("charge.pool", PoolConnexions.TAILLE_MAX_DEFAUT);
+
+        String url = System.getProperty("attraction.db.url");
+        boolean embarquee = url == null;
+        PoolConnexions pool = new PoolConnexions(
+                embarquee ? ProfilBase.H2.getUrl().replace("mem:attraction", "mem:charge") : url,
+                System.getProperty("attraction.db.user", embarquee ? ProfilBase.H2.getUtilisateur() : ProfilBase.MYSQL.getUtilisateur()),
+                System.getProperty("attraction.db.password", ""),
+                taillePool, PoolConnexions.DELAI_EMPRUNT_DEFAUT_MS, PoolConnexions.DUREE_INACTIVITE_DEFAUT_MS,
+                PoolConnexions.TAILLE_CACHE_REQUETES_DEFAUT);
+        try {
+            if (!new MigrationsSchema(pool).migrer()) {
+                throw new IllegalStateException("Migration de la base impossible");
+            }
+            if (embarquee) {
+                new GenerateurDonnees(pool).remplir(base);
+            }
+            new GenerateurCharge(pool, nbChaudes, mix).executer(clients, operations);
+        } finally {
+            pool.close();
+        }
+    }
+
+    private final ServiceReservation service;
+    private final ReservationDAO reservationDAO;
+    private final List<Attraction> chaudes;
+    private final int nbClients;
+    private final Operation[] tirage;
+    /** Réservations faites pendant l'essai, candidates aux annulations de l'administrateur */
+    private final ConcurrentLinkedQueue<Reservation> creees = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger placesVendues = new AtomicInteger();
+    private final AtomicInteger complet = new AtomicInteger();
+    private final AtomicInteger echecs = new AtomicInteger();
+    private final AtomicInteger annulations = new AtomicInteger();
+
+    private GenerateurCharge(ConnectionProvider pool, int nbChaudes, Map<Operation, Integer> mix) {
+        this.service = new ServiceReservation(pool);
+        this.reservationDAO = new ReservationDAO(pool);
+        List<Attraction> actives = new AttractionDAO(pool).getAllActive();
+        if (actives.isEmpty()) {
+            throw new IllegalStateException("Aucune attraction active dans la base");
+        }
+        this.chaudes = actives.subList(0, Math.min(nbChaudes, actives.size()));
+        this.nbClients = Math.max(1, new UserDAO(pool).getAllClients().size());
+        List<Operation> urne = new ArrayList<>();
+        mix.forEach((operation, poids) -> {
+            for (int i = 0; i < poids; i++) urne.add(operation);
+        });
+        this.tirage = urne.toArray(new Operation[0]);
+    }
+
+    private void executer(int clients, int operations) throws InterruptedException {
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Latences> toutes = new ArrayList<>();
+        try (ExecutorService executeur = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                Latences latences = new Latences();
+                toutes.add(latences);
+                executeur.submit(() -> {
+                    depart.await();
+                    for (int i = 0; i < operations; i++) {
+                        Operation operation = tirage[ThreadLocalRandom.current().nextInt(tirage.length)];
+                        long debut = System.nanoTime();
+                        executer(operation);
+                        latences.ajouter(operation, System.nanoTime() - debut);
+                    }
+                    return null;
+                });
+            }
+            System.out.printf("%n%d clients x %d opérations, %d attraction(s) chaude(s), ouverture des portes...%n",
+                    clients, operations, chaudes.size());
+            long debut = System.nanoTime();
+            depart.countDown();
+            executeur.shutdown();
+            executeur.awaitTermination(1, TimeUnit.HOURS);
+            afficher(toutes, System.nanoTime() - debut);
+        }
+    }
+
+    private void executer(Operation operation) {
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        switch (operation) {
+            case INVITE:
+            case MEMBRE: {
+                Attraction attraction = chaudes.get(aleatoire.nextInt(chaudes.size()));
+                int places = aleatoire.nextInt(10) < 7 ? 1 : 2 + aleatoire.nextInt(3);
+                User user = null;
+                String email = GenerateurDonnees.emailInvite(1 + aleatoire.nextInt(1000));
+                if (operation == Operation.MEMBRE) {
+                    user = new User();
+                    user.setUserId(1 + aleatoire.nextInt(nbClients));
+                }
+                User titulaire = user;
+                Paiement paiement = new Paiement(user, attraction.getPrix() * places);
+                paiement.setStatut(Paiement.StatutPaiement.EFFECTUE);
+                paiement.setMoyenPaiement("Carte");
+                List<Reservation> lot = new ArrayList<>();
+                List<Integer> ids = service.reserver(attraction, Date.valueOf(OUVERTURE), places, () -> {
+                    Reservation reservation = new Reservation();
+                    if (titulaire != null) {
+                        reservation.setUser(titulaire);
+                    } else {
+                        reservation.setInviteNom("Invite");
+                        reservation.setInviteEmail(email);
+                    }
+                    lot.add(reservation);
+                    return reservation;
+                }, paiement, UUID.randomUUID().toString());
+                if (!ids.isEmpty()) {
+                    placesVendues.addAndGet(ids.size());
+                    creees.addAll(lot);
+                } else if (lot.isEmpty()) {
+                    complet.incrementAndGet();
+                } else {
+                    echecs.incrementAndGet();
+                }
+                break;
+            }
+            case HISTORIQUE:
+                if (aleatoire.nextBoolean()) {
+                    reservationDAO.getReservationsInvite(GenerateurDonnees.emailInvite(1 + aleatoire.nextInt(1000)));
+                } else {
+                    User client = new User();
+                    client.setUserId(1 + aleatoire.nextInt(nbClients));
+                    reservationDAO.getReservations(client);
+                }
+                break;
+            case ADMIN: {
+                Reservation reservation = creees.poll();
+                if (reservation != null) {
+                    reservation.setStatut(StatutReservation.annulee);
+                    if (service.changerStatut(reservation) != null) {
+                        annulations.incrementAndGet();
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    private void afficher(List<Latences> toutes, long dureeNs) {
+        System.out.printf("%n%-12s %9s %10s %10s %10s %10s%n", "Opération", "nombre", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            long[] valeurs = Latences.fusionner(toutes, operation);
+            total += valeurs.length;
+            if (valeurs.length == 0) {
+                continue;
+            }
+            System.out.printf("%-12s %9d %10.2f %10.2f %10.2f %10.2f%n", operation, valeurs.length,
+                    centile(valeurs, 0.50), centile(valeurs, 0.99), centile(valeurs, 0.999), valeurs[valeurs.length - 1] / 1e6);
+        }
+        System.out.printf("%nDébit : %.0f op/s (%d opérations en %d ms)%n", total * 1e9 / dureeNs, total, dureeNs / 1_000_000);
+        System.out.printf("Places vendues : %d, refus (complet) : %d, échecs : %d, annulations : %d%n",
+                placesVendues.get(), complet.get(), echecs.get(), annulations.get());
+
+        System.out.printf("%n%-20s %9s %9s %9s%n", "Attraction", "capacité", "occupées", "survente");
+        int survente = 0;
+        for (Attraction attraction : chaudes) {
+            int occupees = reservationDAO.compterReservationsActives(attraction.getIdAttraction(), OUVERTURE).orElse(-1);
+            int exces = Math.max(0, occupees - attraction.getCapacite());
+            survente += exces;
+            System.out.printf("%-20s %9d %9d %9d%n", attraction.getNom(), attraction.getCapacite(), occupees, exces);
+        }
+        System.out.println(survente == 0 ? "Aucune survente." : "SURVENTE : " + survente + " place(s) au-delà de la capacité !");
+    }
+
+    /** Centile (en ms) d'un tableau trié de durées en nanosecondes */
+    private static double centile(long[] tries, double rang) {
+        int indice = (int) Math.ceil(rang * tries.length) - 1;
+        return tries[Math.max(0, Math.min(indice, tries.length - 1))] / 1e6;
+    }
+
+    private static Map<Operation, Integer> lireMix(String texte) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String partie : texte.split(",")) {
+            String[] cleValeur = partie.split(":");
+            mix.put(Operation.valueOf(cleValeur[0].trim().toUpperCase()), Integer.parseInt(cleValeur[1].trim()));
+        }
+        return mix;
+    }
+
+    /**
+     * Latences d'un client virtuel, par type d'opération ; un seul thread y écrit.
+     */
+    private static final class Latences {
+        private final long[][] valeurs = new long[Operation.values().length][16];
+        private final int[] tailles = new int[Operation.values().length];
+
+        void ajouter(Operation operation, long dureeNs) {
+            int o = operation.ordinal();
+            if (tailles[o] == valeurs[o].length) {
+                valeurs[o] = Arrays.copyOf(valeurs[o], tailles[o] * 2);
+            }
+            valeurs[o][tailles[o]++] = dureeNs;
+        }
+
+        /** Réunit les latences d'un type d'opération de tous les clients, triées */
+        static long[] fusionner(List<Latences> toutes, Operation operation) {
+            int o = operation.ordinal();
+            int total = 0;
+            for (Latences l : toutes) total += l.tailles[o];
+            long[] resultat = new long[total];
+            int position = 0;
+            for (Latences l : toutes) {
+                System.arraycopy(l.valeurs[o], 0, resultat, position, l.tailles[o]);
+                position += l.tailles[o];
+            }
+            Arrays.sort(resultat);
+            return resultat;
+        }
+    }
+}
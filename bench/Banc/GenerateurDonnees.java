@@ -0,0 +1,151 @@
+package Banc;
+
+import DAO.ConnectionProvider;
+import DAO.StatistiquesDAO;
+import Service.HachageMotDePasse;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Remplit une base migrée (vide) avec des données synthétiques, reproductibles (graine fixe).
+ * <p>
+ * Pour N réservations : max(20, N / 5000) attractions, N / 10 clients et N / 20 adresses d'invités ;
+ * la moitié des réservations sont celles d'invités, réparties sur l'année {@value #ANNEE},
+ * avec 60 % de confirmées, 30 % en attente et 10 % d'annulées.
+ * <p>
+ * Les clients ont tous le même mot de passe, et la même empreinte calculée une seule fois
+ * (avec {@code attraction.mdp.iterations} itérations, comme le {@link Service.VerificateurIdentifiants}) :
+ * hacher chaque mot de passe prendrait des minutes pour les plus gros volumes.
+ */
+final class GenerateurDonnees {
+
+    static final int ANNEE = 2025;
+    private static final int TAILLE_LOT = 5_000;
+    private static final String[] TYPES = {"Manège", "Parcours", "Spectacle", "Autre"};
+
+    private final ConnectionProvider fournisseur;
+    private final Random aleatoire = new Random(42);
+    private final String empreinte;
+
+    GenerateurDonnees(ConnectionProvider fournisseur) {
+        this.fournisseur = fournisseur;
+        this.empreinte = new HachageMotDePasse(
+                Integer.getInteger("attraction.mdp.iterations", HachageMotDePasse.ITERATIONS_DEFAUT)).hacher(MOT_DE_PASSE);
+    }
+
+    static int nombreAttractions(int nbReservations) {
+        return Math.max(20, nbReservations / 5000);
+    }
+
+    static int nombreClients(int nbReservations) {
+        return Math.max(1, nbReservations / 10);
+    }
+
+    static int nombreInvites(int nbReservations) {
+        return Math.max(1, nbReservations / 20);
+    }
+
+    /** Mot de passe de tous les clients générés */
+    static final String MOT_DE_PASSE = "mdp-banc";
+
+    /** Email du client numéro i (à partir de 1) ; son mot de passe est {@link #MOT_DE_PASSE}. */
+    static String emailClient(int i) {
+        return "client" + i + "@parc.fr";
+    }
+
+    /** Email de l'invité numéro i (à partir de 1). */
+    static String emailInvite(int i) {
+        return "invite" + i + "@parc.fr";
+    }
+
+    /**
+     * Insère les attractions, les clients et les réservations, puis reconstruit les statistiques.
+     * @param nbReservations Le nombre de réservations à créer.
+     * @throws SQLException En cas d'erreur SQL
+     */
+    void remplir(int nbReservations) throws SQLException {
+        int nbAttractions = nombreAttractions(nbReservations);
+        int nbClients = nombreClients(nbReservations);
+        int nbInvites = nombreInvites(nbReservations);
+
+        try (Connection connexion = fournisseur.getConnection()) {
+            connexion.setAutoCommit(false);
+
+            try (PreparedStatement stmt = connexion.prepareStatement(
+                    "INSERT INTO attraction (nom, type, description, capacite, duree, prix, statut) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= nbAttractions; i++) {
+                    stmt.setString(1, "Attraction " + i);
+                    stmt.setString(2, TYPES[i % TYPES.length]);
+                    stmt.setString(3, "Attraction générée n°" + i);
+                    stmt.setInt(4, 20 + aleatoire.nextInt(200));
+                    stmt.setString(5, "00:" + String.format("%02d", 5 + aleatoire.nextInt(40)) + ":00");
+                    stmt.setInt(6, 3 + aleatoire.nextInt(12));
+                    stmt.setString(7, i % 10 == 0 ? "inactive" : "active");
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            connexion.commit();
+
+            try (PreparedStatement stmt = connexion.prepareStatement(
+                    "INSERT INTO user (nom, prenom, date_naissance, email, tel, mdp, type_client, role, reduction) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= nbClients; i++) {
+                    stmt.setString(1, "Nom" + i);
+                    stmt.setString(2, "Prenom" + i);
+                    stmt.setDate(3, Date.valueOf(LocalDate.of(1940 + aleatoire.nextInt(80), 1 + aleatoire.nextInt(12), 1 + aleatoire.nextInt(28))));
+                    stmt.setString(4, emailClient(i));
+                    stmt.setString(5, "0600000000");
+                    stmt.setString(6, empreinte);
+                    stmt.setString(7, "ADULTE");
+                    stmt.setString(8, "client");
+                    stmt.setFloat(9, 0f);
+                    stmt.addBatch();
+                    if (i % TAILLE_LOT == 0) {
+                        stmt.executeBatch();
+                        connexion.commit();
+                    }
+                }
+                stmt.executeBatch();
+            }
+            connexion.commit();
+
+            LocalDate premierJour = LocalDate.of(ANNEE, 1, 1);
+            try (PreparedStatement stmt = connexion.prepareStatement(
+                    "INSERT INTO reservation (id_user, invite_nom, invite_email, id_attraction, date_reservation, statut) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= nbReservations; i++) {
+                    if (aleatoire.nextBoolean()) {
+                        stmt.setInt(1, 1 + aleatoire.nextInt(nbClients));
+                        stmt.setNull(2, Types.VARCHAR);
+                        stmt.setNull(3, Types.VARCHAR);
+                    } else {
+                        int invite = 1 + aleatoire.nextInt(nbInvites);
+                        stmt.setNull(1, Types.INTEGER);
+                        stmt.setString(2, "Invite" + invite);
+                        stmt.setString(3, emailInvite(invite));
+                    }
+                    stmt.setInt(4, 1 + aleatoire.nextInt(nbAttractions));
+                    stmt.setDate(5, Date.valueOf(premierJour.plusDays(aleatoire.nextInt(365))));
+                    int tirage = aleatoire.nextInt(10);
+                    stmt.setString(6, tirage < 6 ? "confirmee" : tirage < 9 ? "en_attente" : "annulee");
+                    stmt.addBatch();
+                    if (i % TAILLE_LOT == 0) {
+                        stmt.executeBatch();
+                        connexion.commit();
+                    }
+                }
+                stmt.executeBatch();
+            }
+            connexion.commit();
+        }
+
+        new StatistiquesDAO(fournisseur).reconstruire();
+    }
+}
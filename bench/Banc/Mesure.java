@@ -0,0 +1,135 @@
+package Banc;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Harnais de mesure minimal, sur le modèle de JMH (débit, profileur GC) mais sans dépendance :
+ * itérations d'échauffement, puis itérations mesurées de durée fixe sur le thread courant.
+ * <p>
+ * Pour chaque itération on relève le nombre d'opérations, les octets alloués par le thread
+ * ({@code com.sun.management.ThreadMXBean}) et l'activité des ramasse-miettes.
+ * Le résultat de chaque opération est consommé pour que le JIT ne puisse pas l'éliminer.
+ */
+final class Mesure {
+
+    private final int echauffements;
+    private final int iterations;
+    private final long dureeIterationNs;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> ramasseMiettes = ManagementFactory.getGarbageCollectorMXBeans();
+
+    /** Puits des résultats, lu nulle part : empêche l'élimination du code mesuré */
+    private static volatile int puits;
+
+    /**
+     * @param echauffements Le nombre d'itérations d'échauffement (non mesurées).
+     * @param iterations Le nombre d'itérations mesurées.
+     * @param dureeIterationMs La durée de chaque itération (ms) ; une itération exécute au moins une opération.
+     */
+    Mesure(int echauffements, int iterations, long dureeIterationMs) {
+        this.echauffements = echauffements;
+        this.iterations = iterations;
+        this.dureeIterationNs = dureeIterationMs * 1_000_000L;
+    }
+
+    /**
+     * Mesure une opération.
+     * @param nom Le nom affiché du banc.
+     * @param operation L'opération ; sa valeur de retour est consommée.
+     * @return Le résultat agrégé des itérations mesurées.
+     */
+    Resultat mesurer(String nom, Supplier<?> operation) {
+        for (int i = 0; i < echauffements; i++) {
+            iteration(operation);
+        }
+        System.gc();
+
+        double[] debits = new double[iterations];
+        long operations = 0, octets = 0, collectes = 0, tempsGcMs = 0, dureeNs = 0;
+        for (int i = 0; i < iterations; i++) {
+            long collectesAvant = collectes(), tempsGcAvant = tempsGc();
+            long octetsAvant = threads.getCurrentThreadAllocatedBytes();
+            long debut = System.nanoTime();
+            long n = iteration(operation);
+            long duree = System.nanoTime() - debut;
+            octets += threads.getCurrentThreadAllocatedBytes() - octetsAvant;
+            collectes += collectes() - collectesAvant;
+            tempsGcMs += tempsGc() - tempsGcAvant;
+            operations += n;
+            dureeNs += duree;
+            debits[i] = n * 1e9 / duree;
+        }
+        return new Resultat(nom, debits, (double) octets / operations, octets * 1e9 / dureeNs / (1024 * 1024),
+                collectes, tempsGcMs);
+    }
+
+    private long iteration(Supplier<?> operation) {
+        long fin = System.nanoTime() + dureeIterationNs;
+        long n = 0;
+        do {
+            Object resultat = operation.get();
+            puits ^= resultat == null ? 0 : System.identityHashCode(resultat);
+            n++;
+        } while (System.nanoTime() < fin);
+        return n;
+    }
+
+    private long collectes() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ramasseMiettes) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private long tempsGc() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ramasseMiettes) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Résultat d'un banc : débit moyen et écart type sur les itérations, allocation et activité GC.
+     */
+    static final class Resultat {
+        final String nom;
+        final double debitMoyen;
+        final double ecartType;
+        final double octetsParOperation;
+        final double allocationMoParSeconde;
+        final long collectes;
+        final long tempsGcMs;
+
+        private Resultat(String nom, double[] debits, double octetsParOperation, double allocationMoParSeconde,
+                         long collectes, long tempsGcMs) {
+            this.nom = nom;
+            double somme = 0;
+            for (double d : debits) somme += d;
+            this.debitMoyen = somme / debits.length;
+            double variance = 0;
+            for (double d : debits) variance += (d - debitMoyen) * (d - debitMoyen);
+            this.ecartType = debits.length > 1 ? Math.sqrt(variance / (debits.length - 1)) : 0;
+            this.octetsParOperation = octetsParOperation;
+            this.allocationMoParSeconde = allocationMoParSeconde;
+            this.collectes = collectes;
+            this.tempsGcMs = tempsGcMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-48s %14.1f ± %-10.1f %14.0f %10.1f %6d %7d",
+                    nom, debitMoyen, ecartType, octetsParOperation, allocationMoParSeconde, collectes, tempsGcMs);
+        }
+
+        static String entete() {
+            return String.format("%-48s %27s %14s %10s %6s %7s",
+                    "Banc", "op/s", "octets/op", "Mo/s", "GC", "GC ms");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+-- Données de démonstration (celles de attraction.sql), chargées dans une base embarquée vide.
+
+INSERT INTO `attraction` (`id_attraction`, `nom`, `type`, `description`, `capacite`, `duree`, `prix`, `statut`) VALUES
+(1, 'Att1', 'Parcours', '', 22, '00:00:22', 7, 'active'),
+(2, 'Att2', 'Manège', '', 50, '00:00:10', 5, 'active'),
+(3, 'Att3', 'Parcours', '', 10, '00:00:15', 4, 'active'),
+(4, 'Att4', 'Spectacle', '', 30, '00:00:20', 6, 'active'),
+(5, 'Att5', 'Autre', NULL, 20, '00:00:10', 8, 'active');
+
+INSERT INTO `reservation` (`id_reservation`, `id_user`, `id_attraction`, `date_reservation`, `statut`, `invite_nom`, `invite_email`) VALUES
+(1, 7, 1, '2025-04-29', 'confirmee', '', ''),
+(2, 8, 2, '2025-04-30', 'annulee', '', ''),
+(3, 9, 4, '2025-05-27', 'annulee', '', ''),
+(4, 7, 2, '2025-04-26', 'en_attente', '', ''),
+(5, 8, 2, '2025-04-29', 'en_attente', '', ''),
+(6, 9, 1, '2025-05-09', 'en_attente', '', ''),
+(7, 7, 2, '2025-06-18', 'en_attente', '', ''),
+(8, 1, 2, '2025-04-27', 'en_attente', '', ''),
+(9, 1, 1, '2025-04-26', 'en_attente', '', ''),
+(10, NULL, 2, '2025-04-24', 'en_attente', 'test invite nom', 'test invité email'),
+(11, NULL, 1, '2025-04-24', 'en_attente', 'invite nom', 'invite mail'),
+(12, 7, 3, '2025-05-09', 'annulee', NULL, NULL),
+(13, 8, 3, '2025-06-08', 'annulee', NULL, NULL),
+(14, 9, 1, '2025-05-08', 'confirmee', NULL, NULL),
+(15, NULL, 1, '2025-04-30', 'en_attente', 'samedi', 'samedi@mail.fr'),
+(16, 7, 5, '2025-05-10', 'annulee', NULL, NULL),
+(17, 9, 5, '2025-05-11', 'confirmee', NULL, NULL),
+(18, NULL, 4, '2025-05-09', 'en_attente', 'test nom', 'test email'),
+(19, NULL, 4, '2025-05-04', 'en_attente', 'test encore', 'test encore'),
+(20, NULL, 1, '2025-07-08', 'confirmee', 'moi', 'moi'),
+(21, 8, 2, '2025-05-29', 'confirmee', NULL, NULL),
+(22, NULL, 1, '2025-06-09', 'confirmee', 'moi', 'moi'),
+(23, NULL, 3, '2025-05-03', 'confirmee', 'moi', 'moi'),
+(24, NULL, 3, '2025-07-01', 'confirmee', 'test encore', 'test encore'),
+(25, 9, 4, '2025-05-10', 'confirmee', NULL, NULL);
+
+INSERT INTO `user` (`id_user`, `nom`, `prenom`, `date_naissance`, `email`, `tel`, `mdp`, `type_client`, `role`, `reduction`) VALUES
+(1, 'ZHU', 'Cécilia', '2004-07-04', 'zhuce@edu.ece.fr', '123456789', 'pbkdf2-sha256$310000$k0YxHUMAkI4L7rkBMGt5vA$1QZ3EsqjxOv1MpoD6rkkNTP+UWWMDYaeePxGHdZbXvA', 'ADULTE', 'client', 0.15),
+(6, 'testadmin', 'testadmin', '2004-07-04', 'test admin', 'zgge', 'pbkdf2-sha256$310000$S+fSaDtM7ceuyeTLoNyNcQ$jXxmFHx7lEEZpIcaK1mV65EeuIlzGuGcXBImTjUeOKw', 'ADULTE', 'admin', 0.15),
+(7, 'zhu', 'test', '2014-07-04', 'test enfant', 'test', 'pbkdf2-sha256$310000$RyK5h2fmgnR2mlENgae4Qw$2yZnMw/7ftWG6Fk5V6xJo48DAPQo3nb3oaI//Krlym8', 'ENFANT', 'client', 0.5),
+(8, 'test test', 'test test', '2014-07-12', 'test client test', '1234567890', 'pbkdf2-sha256$310000$oAd8GG8cBa/6U+YUArZbYg$wtRKUPPCBAxmh44Wf1cU7e+BJvZFcTLy9EdYowzgku8', 'ENFANT', 'client', 0.5),
+(9, 'test client2', 'test client 2', '1940-04-17', 'test client2', '123456789', 'pbkdf2-sha256$310000$2l3omGTKSif4wms8fxNSoQ$gy1dwWsU+nhWhe50an3nCN93cmoDK8QIrpm0gAPlGkI', 'SENIOR', 'client', 0.3),
+(10, 'Dubois', 'Pierre', '2000-04-23', 'dubois.pierre@mail.fr', '1234567890', 'pbkdf2-sha256$310000$GHD8LCiv20DjT1912xSQpA$yLpvakhS5U7lASixV3/aH9bSRceMWXd305t6cH6Wu5w', 'INVITE', 'admin', 0),
+(11, 'yryr', 'ruru', '2004-04-17', 'fuu', '123456789', 'pbkdf2-sha256$310000$88uVYVI5oNEMd4wcEAFN5A$lezs7MXqaXJ1Lpsaj3/GgG/nAJ2/sOYzuQo7mzdKhEI', 'INVITE', 'admin', 0);
@@ -0,0 +1,93 @@
+-- Schéma de référence de la base `attraction` (celui de attraction.sql, sans données).
+-- Sur une base existante, toutes les tables sont déjà là : ce script ne fait qu'enregistrer la version 1.
+
+CREATE TABLE IF NOT EXISTS `attraction` (
+  `id_attraction` int(11) NOT NULL AUTO_INCREMENT,
+  `nom` varchar(100) NOT NULL,
+  `type` varchar(50) NOT NULL,
+  `description` text,
+  `capacite` int(11) NOT NULL,
+  `duree` time NOT NULL,
+  `prix` int(10) NOT NULL,
+  `statut` enum('active','inactive') DEFAULT 'active',
+  PRIMARY KEY (`id_attraction`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS `billet` (
+  `id_billet` int(11) NOT NULL AUTO_INCREMENT,
+  `id_reservation` int(11) DEFAULT NULL,
+  `statut` enum('valide','utilise','expire') DEFAULT 'valide',
+  PRIMARY KEY (`id_billet`),
+  KEY `idx_billet_reservation` (`id_reservation`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS `historique` (
+  `id_historique` int(11) NOT NULL AUTO_INCREMENT,
+  `id_user` int(11) DEFAULT NULL,
+  `id_reservation` int(11) DEFAULT NULL,
+  `date_visite` date DEFAULT NULL,
+  PRIMARY KEY (`id_historique`),
+  KEY `idx_historique_user` (`id_user`),
+  KEY `idx_historique_reservation` (`id_reservation`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS `paiement` (
+  `id_paiement` int(11) NOT NULL AUTO_INCREMENT,
+  `id_reservation` int(11) DEFAULT NULL,
+  `montant` decimal(10,2) DEFAULT NULL,
+  `statut` enum('en_attente','effectue','refuse') DEFAULT 'en_attente',
+  `date_paiement` date DEFAULT NULL,
+  `moyen_paiement` varchar(20) DEFAULT NULL,
+  `cle_idempotence` varchar(64) DEFAULT NULL,
+  PRIMARY KEY (`id_paiement`),
+  UNIQUE KEY `cle_idempotence` (`cle_idempotence`),
+  KEY `id_reservation` (`id_reservation`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS `reduction` (
+  `id_reduction` int(11) NOT NULL AUTO_INCREMENT,
+  `id_user` int(11) DEFAULT NULL,
+  `pourcentage` decimal(5,2) DEFAULT NULL,
+  `raison` varchar(100) DEFAULT NULL,
+  PRIMARY KEY (`id_reduction`),
+  KEY `idx_reduction_user` (`id_user`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS `reservation` (
+  `id_reservation` int(11) NOT NULL AUTO_INCREMENT,
+  `id_user` int(11) DEFAULT NULL,
+  `id_attraction` int(11) DEFAULT NULL,
+  `date_reservation` date DEFAULT NULL,
+  `statut` enum('en_attente','confirmee','annulee') DEFAULT 'en_attente',
+  `invite_nom` varchar(20) DEFAULT NULL,
+  `invite_email` varchar(20) DEFAULT NULL,
+  `id_paiement` int(11) DEFAULT NULL,
+  PRIMARY KEY (`id_reservation`),
+  KEY `id_user` (`id_user`),
+  KEY `id_attraction` (`id_attraction`),
+  KEY `id_paiement` (`id_paiement`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS `stat_reservation_jour` (
+  `id_attraction` int(11) NOT NULL,
+  `jour` date NOT NULL,
+  `nb_reservations` int(11) NOT NULL DEFAULT '0',
+  `chiffre_affaires` decimal(12,2) NOT NULL DEFAULT '0.00',
+  PRIMARY KEY (`id_attraction`,`jour`),
+  KEY `jour` (`jour`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE IF NOT EXISTS `user` (
+  `id_user` int(11) NOT NULL AUTO_INCREMENT,
+  `nom` varchar(50) NOT NULL,
+  `prenom` varchar(50) NOT NULL,
+  `date_naissance` date DEFAULT NULL,
+  `email` varchar(100) NOT NULL,
+  `tel` varchar(20) NOT NULL,
+  `mdp` varchar(255) NOT NULL,
+  `type_client` enum('ENFANT','ADULTE','SENIOR','INVITE') DEFAULT NULL,
+  `role` enum('client','admin') NOT NULL,
+  `reduction` float DEFAULT NULL,
+  PRIMARY KEY (`id_user`),
+  UNIQUE KEY `email` (`email`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
@@ -0,0 +1,17 @@
+-- Index couvrant les requêtes des DAO.
+
+-- Historique invité (ReservationDAO.getReservationsInvite) : filtre, jointure et colonne lue dans l'index
+CREATE INDEX `idx_reservation_invite` ON `reservation` (`invite_email`, `id_attraction`, `date_reservation`);
+
+-- Historique client (ReservationDAO.getReservations) : toutes les colonnes lues sont dans l'index
+CREATE INDEX `idx_reservation_user` ON `reservation` (`id_user`, `id_attraction`, `date_reservation`, `statut`);
+
+-- Places occupées (ReservationDAO.compterReservationsActives) : le comptage ne lit que l'index
+CREATE INDEX `idx_reservation_occupation` ON `reservation` (`id_attraction`, `date_reservation`, `statut`);
+
+-- Connexion (UserDAO.findByEmailAndPassword) : la clé unique `email` existante donne déjà au plus une ligne,
+-- un index (email, mdp) ne serait jamais choisi ; seul son usage est surveillé au démarrage.
+
+-- Les anciens index sur une seule colonne sont des préfixes des nouveaux
+ALTER TABLE `reservation` DROP INDEX `id_user`;
+ALTER TABLE `reservation` DROP INDEX `id_attraction`;
@@ -0,0 +1,3 @@
+-- Verrouillage optimiste des attractions (AttractionDAO.mettreAJourLot) : chaque mise à jour
+-- vérifie la version lue puis l'incrémente ; une ligne modifiée entre-temps n'est pas écrasée.
+ALTER TABLE `attraction` ADD COLUMN `version` INT NOT NULL DEFAULT 0;
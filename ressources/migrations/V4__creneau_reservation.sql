@@ -0,0 +1,8 @@
+-- Réservations sur un créneau horaire (Service.PlanificateurCreneaux) : heure de début du créneau réservé,
+-- NULL pour un billet à la journée compté par le moteur de capacité.
+ALTER TABLE `reservation` ADD COLUMN `creneau` TIME DEFAULT NULL;
+
+-- Places occupées à la journée (creneau IS NULL) et par créneau (ReservationDAO.compterParCreneau) :
+-- les deux comptages ne lisent que l'index
+ALTER TABLE `reservation` DROP INDEX `idx_reservation_occupation`;
+CREATE INDEX `idx_reservation_occupation` ON `reservation` (`id_attraction`, `date_reservation`, `creneau`, `statut`);
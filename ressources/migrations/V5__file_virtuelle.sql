@@ -0,0 +1,25 @@
+-- Files d'attente virtuelles (Service.GestionnaireFiles) : instantanés périodiques de l'état tenu en mémoire,
+-- relus au démarrage pour que les visiteurs en attente gardent leur place.
+
+-- Compteurs de chaque file : numéros distribués, visiteurs appelés et attente cumulée depuis l'ouverture de la file
+CREATE TABLE IF NOT EXISTS `file_virtuelle` (
+  `id_attraction` int(11) NOT NULL,
+  `ouverture` datetime NOT NULL,
+  `dernier_numero` bigint NOT NULL,
+  `appeles` bigint NOT NULL,
+  `attente_cumulee_s` bigint NOT NULL,
+  PRIMARY KEY (`id_attraction`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- Visiteurs encore en attente, dans l'ordre de leur numéro
+CREATE TABLE IF NOT EXISTS `file_virtuelle_passage` (
+  `id_attraction` int(11) NOT NULL,
+  `numero` bigint NOT NULL,
+  `id_reservation` int(11) DEFAULT NULL,
+  `id_user` int(11) DEFAULT NULL,
+  `invite_nom` varchar(20) DEFAULT NULL,
+  `invite_email` varchar(100) DEFAULT NULL,
+  `entree` datetime NOT NULL,
+  `retour_estime` datetime NOT NULL,
+  PRIMARY KEY (`id_attraction`, `numero`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
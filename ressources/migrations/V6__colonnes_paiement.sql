@@ -0,0 +1,10 @@
+-- Colonnes du schéma de référence (V1) absentes des bases créées avec l'ancien attraction.sql :
+-- `CREATE TABLE IF NOT EXISTS` laisse ces tables telles quelles, sans moyen de paiement, clé d'idempotence
+-- (PaiementDAO.enregistrerAvecReservations) ni lien de la réservation vers son paiement.
+-- Sur une base créée par V1, colonnes et index sont déjà là et ces instructions sont ignorées (MigrationsSchema).
+ALTER TABLE `paiement` ADD COLUMN `moyen_paiement` varchar(20) DEFAULT NULL;
+ALTER TABLE `paiement` ADD COLUMN `cle_idempotence` varchar(64) DEFAULT NULL;
+CREATE UNIQUE INDEX `idx_paiement_cle_idempotence` ON `paiement` (`cle_idempotence`);
+
+ALTER TABLE `reservation` ADD COLUMN `id_paiement` int(11) DEFAULT NULL;
+CREATE INDEX `idx_reservation_paiement` ON `reservation` (`id_paiement`);
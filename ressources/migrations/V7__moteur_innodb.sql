@@ -0,0 +1,16 @@
+-- Les bases créées avec l'ancien attraction.sql ont des tables MyISAM : `CREATE TABLE IF NOT EXISTS` les laisse
+-- telles quelles, sans transactions ni verrous de ligne, et les écritures groupées des DAO (paiement et réservations,
+-- statistiques) y restent à moitié faites en cas d'échec.
+-- Une table déjà InnoDB n'est pas reconstruite, et H2 n'a pas de moteur de stockage : l'instruction est alors ignorée
+-- (MigrationsSchema).
+ALTER TABLE `attraction` ENGINE=InnoDB;
+ALTER TABLE `billet` ENGINE=InnoDB;
+ALTER TABLE `historique` ENGINE=InnoDB;
+ALTER TABLE `paiement` ENGINE=InnoDB;
+ALTER TABLE `reduction` ENGINE=InnoDB;
+ALTER TABLE `reservation` ENGINE=InnoDB;
+ALTER TABLE `stat_reservation_jour` ENGINE=InnoDB;
+ALTER TABLE `user` ENGINE=InnoDB;
+ALTER TABLE `file_virtuelle` ENGINE=InnoDB;
+ALTER TABLE `file_virtuelle_passage` ENGINE=InnoDB;
+ALTER TABLE `schema_version` ENGINE=InnoDB;
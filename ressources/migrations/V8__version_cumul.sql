@@ -0,0 +1,4 @@
+-- Version de chaque ligne de cumul, incrémentée par chaque écriture dans la même transaction (StatistiquesDAO.ajouter).
+-- Les événements portent la version qu'ils ont écrite : la projection des statistiques ignore ceux
+-- que son instantané comprend déjà, sans se fier à l'ordre des ID de réservation.
+ALTER TABLE `stat_reservation_jour` ADD COLUMN `version` bigint(20) NOT NULL DEFAULT '0';
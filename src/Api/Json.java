@@ -0,0 +1,161 @@
+package Api;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lecture et écriture JSON minimales pour l'API, sans dépendance.
+ * <p>
+ * L'écriture se fait avec un {@link StringBuilder} et {@link #chaine} pour échapper les textes ;
+ * la lecture ne gère que les objets plats (valeurs texte, nombre, booléen ou null), ce qui suffit
+ * aux corps de requête de l'API.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * Ajoute une chaîne JSON (entre guillemets, échappée), ou null.
+     * @param sb Le tampon de sortie.
+     * @param texte Le texte à écrire.
+     * @return Le tampon.
+     */
+    static StringBuilder chaine(StringBuilder sb, String texte) {
+        if (texte == null) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"');
+    }
+
+    /**
+     * Lit un objet JSON plat.
+     * @param texte Le corps de la requête.
+     * @return Les valeurs par nom, sous forme de texte (null pour la valeur null).
+     * @throws IllegalArgumentException Si le texte n'est pas un objet JSON plat.
+     */
+    static Map<String, String> lireObjet(String texte) {
+        Lecteur lecteur = new Lecteur(texte);
+        Map<String, String> valeurs = new HashMap<>();
+        lecteur.attendre('{');
+        if (!lecteur.suivantEst('}')) {
+            do {
+                String nom = lecteur.chaine();
+                lecteur.attendre(':');
+                valeurs.put(nom, lecteur.valeur());
+            } while (lecteur.suivantEst(','));
+            lecteur.attendre('}');
+        }
+        lecteur.fin();
+        return valeurs;
+    }
+
+    private static final class Lecteur {
+        private final String texte;
+        private int position;
+
+        Lecteur(String texte) {
+            this.texte = texte;
+        }
+
+        private void espaces() {
+            while (position < texte.length() && Character.isWhitespace(texte.charAt(position))) {
+                position++;
+            }
+        }
+
+        void attendre(char c) {
+            espaces();
+            if (position >= texte.length() || texte.charAt(position) != c) {
+                throw new IllegalArgumentException("'" + c + "' attendu à la position " + position);
+            }
+            position++;
+        }
+
+        /** Consomme le caractère s'il est le prochain (hors espaces). */
+        boolean suivantEst(char c) {
+            espaces();
+            if (position < texte.length() && texte.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void fin() {
+            espaces();
+            if (position != texte.length()) {
+                throw new IllegalArgumentException("Contenu inattendu à la position " + position);
+            }
+        }
+
+        String chaine() {
+            attendre('"');
+            StringBuilder sb = new StringBuilder();
+            while (position < texte.length()) {
+                char c = texte.charAt(position++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c == '\\') {
+                    if (position >= texte.length()) {
+                        break;
+                    }
+                    char e = texte.charAt(position++);
+                    switch (e) {
+                        case 'n': sb.append('\n'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            if (position + 4 > texte.length()) {
+                                throw new IllegalArgumentException("Échappement \\u incomplet");
+                            }
+                            sb.append((char) Integer.parseInt(texte.substring(position, position + 4), 16));
+                            position += 4;
+                            break;
+                        default: sb.append(e);
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+            throw new IllegalArgumentException("Chaîne non terminée");
+        }
+
+        String valeur() {
+            espaces();
+            if (position < texte.length() && texte.charAt(position) == '"') {
+                return chaine();
+            }
+            int debut = position;
+            while (position < texte.length() && ",}".indexOf(texte.charAt(position)) < 0
+                    && !Character.isWhitespace(texte.charAt(position))) {
+                position++;
+            }
+            String brut = texte.substring(debut, position);
+            if (brut.isEmpty() || brut.startsWith("{") || brut.startsWith("[")) {
+                throw new IllegalArgumentException("Valeur simple attendue à la position " + debut);
+            }
+            return brut.equals("null") ? null : brut;
+        }
+    }
+}
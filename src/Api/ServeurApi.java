@@ -0,0 +1,508 @@
+package Api;
+
+import Controleur.Main;
+import DAO.ConnectionProvider;
+import Modele.Attraction;
+import Modele.EtatFileVirtuelle;
+import Modele.Paiement;
+import Modele.PassageFile;
+import Modele.Reservation;
+import Modele.StatistiqueAttraction;
+import Service.CreneauHoraire;
+import Service.DemandeReservation;
+import Service.GestionnaireFiles;
+import Service.MoteurTarifaire;
+import Service.ServiceCatalogue;
+import Service.ServiceReservation;
+import Service.ServiceStatistiques;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * API HTTP/JSON embarquée pour les bornes d'entrée et les applications mobiles, sur les mêmes services
+ * que l'interface JavaFX ({@link ServiceCatalogue}, {@link ServiceReservation}, {@link ServiceStatistiques}).
+ * <p>
+ * Serveur du JDK ({@code com.sun.net.httpserver}) : chaque requête est traitée sur son propre thread virtuel,
+ * le nombre d'accès simultanés à la base restant borné par le pool de connexions.
+ * <p>
+ * Ressources :
+ * <pre>
+ * GET  /api/attractions                 attractions actives
+ * GET  /api/reservations?email=...      historique d'un invité
+ * POST /api/reservations                réservation payée d'un invité, à la journée ou sur un créneau, au prix du moment :
+ *                                       {"idAttraction": 1, "date": "2025-07-14", "places": 2, "creneau": "14:30",
+ *                                        "nom": "...", "email": "...", "moyenPaiement": "Carte"}
+ * GET  /api/creneaux?date=...&places=...              premier créneau libre de chaque attraction
+ * GET  /api/creneaux?date=...&idAttraction=...        créneaux d'une attraction
+ * GET  /api/tarifs?idAttraction=...&date=...&creneau=...   prix d'une place selon le remplissage (créneau facultatif)
+ * GET  /api/statistiques                totaux par attraction
+ * GET    /api/files                                  attente et débits de chaque file virtuelle
+ * GET    /api/files?idAttraction=...&numero=...      place d'un visiteur dans une file
+ * POST   /api/files                                  entrée dans la file d'une attraction (coupe-file) :
+ *                                                    {"idAttraction": 1, "idReservation": 12, "email": "..."}
+ * DELETE /api/files?idAttraction=...&numero=...      sortie de la file
+ * </pre>
+ * Les réponses GET portent un ETag (empreinte du corps) : un client qui renvoie {@code If-None-Match}
+ * reçoit un 304 sans corps si la ressource n'a pas changé.
+ * Le paiement d'un POST est encaissé par la borne ; l'en-tête {@code Idempotency-Key} permet de rejouer
+ * une requête sans créer de doublon (réponse 200 au lieu de 201).
+ */
+public class ServeurApi {
+
+    /** Port d'écoute par défaut */
+    public static final int PORT_DEFAUT = 8080;
+
+    /** Nombre maximal de places par réservation */
+    static final int PLACES_MAX = 20;
+    /** Taille maximale d'une clé d'idempotence (colonne `paiement.cle_idempotence`) */
+    static final int TAILLE_CLE_MAX = 64;
+
+    private static final String TYPE_JSON = "application/json; charset=utf-8";
+
+    private final HttpServer serveur;
+    private final ExecutorService executeur;
+    private final ServiceCatalogue serviceCatalogue;
+    private final ServiceReservation serviceReservation;
+    private final ServiceStatistiques serviceStatistiques;
+    private final GestionnaireFiles files;
+    private final MoteurTarifaire moteurTarifaire;
+
+    /**
+     * Crée le serveur, sans le démarrer.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     * @param port Le port d'écoute (0 pour un port libre quelconque).
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    public ServeurApi(ConnectionProvider fournisseur, int port) throws IOException {
+        this.serviceCatalogue = new ServiceCatalogue(fournisseur);
+        this.serviceReservation = new ServiceReservation(fournisseur);
+        this.serviceStatistiques = new ServiceStatistiques(fournisseur);
+        this.files = GestionnaireFiles.de(fournisseur);
+        this.moteurTarifaire = MoteurTarifaire.de(fournisseur);
+
+        this.serveur = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executeur = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("api-", 0).factory());
+        serveur.setExecutor(executeur);
+        serveur.createContext("/api/attractions", echange -> traiter(echange, "/api/attractions", this::attractions));
+        serveur.createContext("/api/reservations", echange -> traiter(echange, "/api/reservations", this::reservations));
+        serveur.createContext("/api/creneaux", echange -> traiter(echange, "/api/creneaux", this::creneaux));
+        serveur.createContext("/api/tarifs", echange -> traiter(echange, "/api/tarifs", this::tarifs));
+        serveur.createContext("/api/statistiques", echange -> traiter(echange, "/api/statistiques", this::statistiques));
+        serveur.createContext("/api/files", echange -> traiter(echange, "/api/files", this::files));
+    }
+
+    /**
+     * Lance le serveur seul, sans interface graphique : base choisie comme pour {@link Main}
+     * (mêmes propriétés système), port donné par {@code attraction.api.port}.
+     * @param args Non utilisés.
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    public static void main(String[] args) throws IOException {
+        ConnectionProvider connexion = Main.connecterBD();
+        Main.preparerBase(connexion);
+        new ServiceStatistiques(connexion).initialiser();
+        GestionnaireFiles files = GestionnaireFiles.de(connexion);
+        files.demarrer();
+        ServeurApi serveur = new ServeurApi(connexion, Integer.getInteger("attraction.api.port", PORT_DEFAUT));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            serveur.arreter();
+            files.arreter();
+            connexion.close();
+        }));
+        serveur.demarrer();
+    }
+
+    /**
+     * Démarre l'écoute.
+     */
+    public void demarrer() {
+        serveur.start();
+        System.out.println("API démarrée sur le port " + getPort());
+    }
+
+    /**
+     * Arrête le serveur : les échanges en cours ont une seconde pour se terminer.
+     */
+    public void arreter() {
+        serveur.stop(1);
+        executeur.close();
+    }
+
+    /**
+     * @return Le port d'écoute effectif.
+     */
+    public int getPort() {
+        return serveur.getAddress().getPort();
+    }
+
+    // ---------------------------------------------------------------- Ressources
+
+    private Reponse attractions(HttpExchange echange) {
+        if (!echange.getRequestMethod().equals("GET")) {
+            return Reponse.methodeNonAutorisee("GET");
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (Attraction a : serviceCatalogue.listerActives()) {
+            if (sb.length() > 1) sb.append(',');
+            sb.append("{\"id\":").append(a.getIdAttraction()).append(",\"nom\":");
+            Json.chaine(sb, a.getNom()).append(",\"type\":");
+            Json.chaine(sb, a.getType()).append(",\"description\":");
+            Json.chaine(sb, a.getDescription()).append(",\"capacite\":").append(a.getCapacite()).append(",\"duree\":");
+            Json.chaine(sb, a.getDuree()).append(",\"prix\":").append(a.getPrix()).append('}');
+        }
+        return Reponse.ok(sb.append(']').toString());
+    }
+
+    private Reponse reservations(HttpExchange echange) throws IOException {
+        switch (echange.getRequestMethod()) {
+            case "GET":
+                return historiqueInvite(echange);
+            case "POST":
+                return reserver(echange);
+            default:
+                return Reponse.methodeNonAutorisee("GET, POST");
+        }
+    }
+
+    private Reponse historiqueInvite(HttpExchange echange) {
+        String email = parametre(echange, "email");
+        if (email == null || email.isBlank()) {
+            return Reponse.erreur(400, "Paramètre email manquant");
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (String reservation : serviceReservation.reservationsInvite(email)) {
+            if (sb.length() > 1) sb.append(',');
+            Json.chaine(sb, reservation);
+        }
+        return Reponse.ok(sb.append(']').toString());
+    }
+
+    private Reponse reserver(HttpExchange echange) throws IOException {
+        Map<String, String> corps = Json.lireObjet(
+                new String(echange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        int idAttraction = Integer.parseInt(requis(corps, "idAttraction"));
+        LocalDate jour = LocalDate.parse(requis(corps, "date"));
+        int places = corps.get("places") == null ? 1 : Integer.parseInt(corps.get("places"));
+        String nom = requis(corps, "nom");
+        String email = requis(corps, "email");
+        String cle = echange.getRequestHeaders().getFirst("Idempotency-Key");
+        if (places < 1 || places > PLACES_MAX) {
+            return Reponse.erreur(400, "Le nombre de places doit être entre 1 et " + PLACES_MAX);
+        }
+        if (jour.isBefore(LocalDate.now())) {
+            return Reponse.erreur(400, "La date est passée");
+        }
+        // Une valeur trop longue ferait échouer l'insertion, et le client croirait l'attraction complète
+        if (nom.length() > Reservation.TAILLE_NOM_INVITE || email.length() > Reservation.TAILLE_EMAIL_INVITE) {
+            return Reponse.erreur(400, "Le nom et l'email ne doivent pas dépasser " + Reservation.TAILLE_NOM_INVITE
+                    + " et " + Reservation.TAILLE_EMAIL_INVITE + " caractères");
+        }
+        if (cle != null && cle.length() > TAILLE_CLE_MAX) {
+            return Reponse.erreur(400, "La clé d'idempotence ne doit pas dépasser " + TAILLE_CLE_MAX + " caractères");
+        }
+        Attraction attraction = serviceCatalogue.trouver(idAttraction);
+        if (attraction == null || attraction.getStatut() != Attraction.StatutAttraction.active) {
+            return Reponse.erreur(404, "Attraction inconnue ou fermée");
+        }
+
+        LocalTime creneau = corps.get("creneau") == null ? null : LocalTime.parse(corps.get("creneau"));
+        DemandeReservation demande = serviceReservation.tarifer(
+                DemandeReservation.pourInvite(nom, email, attraction, Date.valueOf(jour), places).surCreneau(creneau));
+        Paiement paiement = new Paiement(null, demande.getMontant());
+        paiement.setStatut(Paiement.StatutPaiement.EFFECTUE);
+        paiement.setMoyenPaiement(corps.getOrDefault("moyenPaiement", "Carte"));
+        List<Integer> ids = serviceReservation.reserver(demande, paiement,
+                cle == null || cle.isBlank() ? UUID.randomUUID().toString() : cle);
+        if (ids.isEmpty()) {
+            return Reponse.erreur(409, creneau == null ? "Plus assez de places pour cette attraction à cette date"
+                    : "Plus assez de places sur ce créneau");
+        }
+
+        StringBuilder sb = new StringBuilder("{\"reservations\":[");
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(ids.get(i));
+        }
+        sb.append("],\"montant\":").append(demande.getMontant()).append('}');
+        return new Reponse(paiement.getIdPaiement() == 0 ? 200 : 201, sb.toString());
+    }
+
+    private Reponse creneaux(HttpExchange echange) {
+        if (!echange.getRequestMethod().equals("GET")) {
+            return Reponse.methodeNonAutorisee("GET");
+        }
+        String date = parametre(echange, "date");
+        LocalDate jour = date == null ? LocalDate.now() : LocalDate.parse(date);
+        String nombre = parametre(echange, "places");
+        int places = nombre == null ? 1 : Integer.parseInt(nombre);
+        String idAttraction = parametre(echange, "idAttraction");
+        // Aujourd'hui, seuls les créneaux pas encore commencés sont proposés
+        LocalTime maintenant = jour.equals(LocalDate.now()) ? LocalTime.now() : null;
+
+        List<CreneauHoraire> creneaux;
+        if (idAttraction != null) {
+            creneaux = new ArrayList<>();
+            for (CreneauHoraire c : serviceReservation.creneaux(Integer.parseInt(idAttraction), jour)) {
+                if (maintenant == null || c.getDebut().isAfter(maintenant)) {
+                    creneaux.add(c);
+                }
+            }
+        } else {
+            creneaux = serviceReservation.prochainsCreneaux(jour, maintenant, places);
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (CreneauHoraire c : creneaux) {
+            if (sb.length() > 1) sb.append(',');
+            sb.append("{\"idAttraction\":").append(c.getIdAttraction())
+                    .append(",\"debut\":\"").append(c.getDebut()).append("\",\"fin\":\"").append(c.getFin())
+                    .append("\",\"capacite\":").append(c.getCapacite())
+                    .append(",\"placesRestantes\":").append(c.getPlacesRestantes()).append('}');
+        }
+        return Reponse.ok(sb.append(']').toString());
+    }
+
+    private Reponse tarifs(HttpExchange echange) {
+        if (!echange.getRequestMethod().equals("GET")) {
+            return Reponse.methodeNonAutorisee("GET");
+        }
+        Attraction attraction = serviceCatalogue.trouver(Integer.parseInt(parametreRequis(echange, "idAttraction")));
+        if (attraction == null || attraction.getStatut() != Attraction.StatutAttraction.active) {
+            return Reponse.erreur(404, "Attraction inconnue ou fermée");
+        }
+        String date = parametre(echange, "date");
+        String creneau = parametre(echange, "creneau");
+        float prix = moteurTarifaire.prixBase(attraction, date == null ? LocalDate.now() : LocalDate.parse(date),
+                creneau == null ? null : LocalTime.parse(creneau));
+        return Reponse.ok("{\"idAttraction\":" + attraction.getIdAttraction() +
+                ",\"prixBase\":" + attraction.getPrix() + ",\"prix\":" + prix + '}');
+    }
+
+    private Reponse statistiques(HttpExchange echange) {
+        if (!echange.getRequestMethod().equals("GET")) {
+            return Reponse.methodeNonAutorisee("GET");
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (StatistiqueAttraction s : serviceStatistiques.totaux()) {
+            if (sb.length() > 1) sb.append(',');
+            sb.append("{\"idAttraction\":").append(s.getIdAttraction()).append(",\"nom\":");
+            Json.chaine(sb, s.getNomAttraction()).append(",\"reservations\":").append(s.getNombreReservations())
+                    .append(",\"chiffreAffaires\":").append(s.getChiffreAffaires()).append('}');
+        }
+        return Reponse.ok(sb.append(']').toString());
+    }
+
+    private Reponse files(HttpExchange echange) throws IOException {
+        switch (echange.getRequestMethod()) {
+            case "GET":
+                return parametre(echange, "numero") == null ? etatFiles() : passageFile(echange);
+            case "POST":
+                return rejoindreFile(echange);
+            case "DELETE":
+                return files.quitter(Integer.parseInt(parametreRequis(echange, "idAttraction")),
+                        Long.parseLong(parametreRequis(echange, "numero")))
+                        ? Reponse.ok("{}") : Reponse.erreur(404, "Place inconnue ou déjà appelée");
+            default:
+                return Reponse.methodeNonAutorisee("GET, POST, DELETE");
+        }
+    }
+
+    private Reponse etatFiles() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        StringBuilder sb = new StringBuilder("[");
+        for (EtatFileVirtuelle e : files.metriques()) {
+            if (sb.length() > 1) sb.append(',');
+            sb.append("{\"idAttraction\":").append(e.getIdAttraction()).append(",\"nom\":");
+            Json.chaine(sb, e.getNomAttraction()).append(",\"enAttente\":").append(e.getEnAttente())
+                    .append(",\"attenteEstimeeMinutes\":").append(e.getAttenteEstimee().toMinutes())
+                    .append(",\"attenteMoyenneMinutes\":").append(e.getAttenteMoyenne().toMinutes())
+                    .append(",\"appeles\":").append(e.getAppeles())
+                    .append(",\"debitTheorique\":").append(e.getDebitTheorique())
+                    .append(",\"debitMesure\":").append(Math.round(e.getDebitMesure(maintenant))).append('}');
+        }
+        return Reponse.ok(sb.append(']').toString());
+    }
+
+    private Reponse passageFile(HttpExchange echange) {
+        PassageFile passage = files.passage(Integer.parseInt(parametreRequis(echange, "idAttraction")),
+                Long.parseLong(parametreRequis(echange, "numero")));
+        if (passage == null) {
+            return Reponse.erreur(404, "Place inconnue, annulée ou déjà appelée");
+        }
+        return Reponse.ok(passageJson(passage));
+    }
+
+    private Reponse rejoindreFile(HttpExchange echange) throws IOException {
+        Map<String, String> corps = Json.lireObjet(
+                new String(echange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        PassageFile passage = files.rejoindre(Integer.parseInt(requis(corps, "idAttraction")),
+                Integer.parseInt(requis(corps, "idReservation")), requis(corps, "email"));
+        if (passage == null) {
+            return Reponse.erreur(404, "Attraction fermée, ou aucune réservation confirmée d'aujourd'hui "
+                    + "à cet email pour cette attraction, ou réservation déjà en file");
+        }
+        return new Reponse(201, passageJson(passage));
+    }
+
+    private static String passageJson(PassageFile passage) {
+        return "{\"idAttraction\":" + passage.getAttraction().getIdAttraction() +
+                ",\"numero\":" + passage.getNumero() +
+                ",\"retourEstime\":\"" + passage.getRetourEstime().withNano(0) + "\"}";
+    }
+
+    // ---------------------------------------------------------------- Protocole
+
+    @FunctionalInterface
+    private interface Ressource {
+        Reponse traiter(HttpExchange echange) throws IOException;
+    }
+
+    /**
+     * Traite un échange : chemin exact, erreurs de saisie en 400, autres erreurs en 500,
+     * puis ETag et 304 pour les réponses GET réussies.
+     */
+    private void traiter(HttpExchange echange, String chemin, Ressource ressource) throws IOException {
+        try (echange) {
+            Reponse reponse;
+            if (!echange.getRequestURI().getPath().equals(chemin)) {
+                reponse = Reponse.erreur(404, "Ressource inconnue");
+            } else {
+                try {
+                    reponse = ressource.traiter(echange);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    reponse = Reponse.erreur(400, "Requête invalide : " + e.getMessage());
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                    reponse = Reponse.erreur(500, "Erreur interne");
+                }
+            }
+            envoyer(echange, reponse);
+        }
+    }
+
+    private static void envoyer(HttpExchange echange, Reponse reponse) throws IOException {
+        Headers entetes = echange.getResponseHeaders();
+        if (reponse.autorise != null) {
+            entetes.set("Allow", reponse.autorise);
+        }
+        byte[] corps = reponse.json.getBytes(StandardCharsets.UTF_8);
+        if (reponse.statut == 200 && echange.getRequestMethod().equals("GET")) {
+            String etag = etag(corps);
+            entetes.set("ETag", etag);
+            entetes.set("Cache-Control", "no-cache");
+            if (correspond(echange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                echange.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+        entetes.set("Content-Type", TYPE_JSON);
+        echange.sendResponseHeaders(reponse.statut, corps.length);
+        try (OutputStream sortie = echange.getResponseBody()) {
+            sortie.write(corps);
+        }
+    }
+
+    /** ETag fort : empreinte SHA-256 (tronquée) du corps de la réponse. */
+    static String etag(byte[] corps) {
+        try {
+            byte[] empreinte = MessageDigest.getInstance("SHA-256").digest(corps);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(empreinte).substring(0, 22) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Vrai si l'en-tête If-None-Match (liste d'ETags ou *) contient l'ETag courant. */
+    static boolean correspond(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidat : ifNoneMatch.split(",")) {
+            String c = candidat.trim();
+            if (c.startsWith("W/")) {
+                c = c.substring(2);
+            }
+            if (c.equals("*") || c.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String parametre(HttpExchange echange, String nom) {
+        String requete = echange.getRequestURI().getRawQuery();
+        if (requete == null) {
+            return null;
+        }
+        for (String paire : requete.split("&")) {
+            int egal = paire.indexOf('=');
+            String cle = URLDecoder.decode(egal < 0 ? paire : paire.substring(0, egal), StandardCharsets.UTF_8);
+            if (cle.equals(nom)) {
+                return egal < 0 ? "" : URLDecoder.decode(paire.substring(egal + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static String parametreRequis(HttpExchange echange, String nom) {
+        String valeur = parametre(echange, nom);
+        if (valeur == null || valeur.isBlank()) {
+            throw new IllegalArgumentException("paramètre " + nom + " manquant");
+        }
+        return valeur;
+    }
+
+    private static String requis(Map<String, String> corps, String nom) {
+        String valeur = corps.get(nom);
+        if (valeur == null || valeur.isBlank()) {
+            throw new IllegalArgumentException("champ " + nom + " manquant");
+        }
+        return valeur;
+    }
+
+    /** Réponse JSON à envoyer. */
+    private static final class Reponse {
+        final int statut;
+        final String json;
+        String autorise;
+
+        Reponse(int statut, String json) {
+            this.statut = statut;
+            this.json = json;
+        }
+
+        static Reponse ok(String json) {
+            return new Reponse(200, json);
+        }
+
+        static Reponse erreur(int statut, String message) {
+            return new Reponse(statut, Json.chaine(new StringBuilder("{\"erreur\":"), message).append('}').toString());
+        }
+
+        static Reponse methodeNonAutorisee(String methodes) {
+            Reponse reponse = erreur(405, "Méthode non autorisée");
+            reponse.autorise = methodes;
+            return reponse;
+        }
+    }
+}
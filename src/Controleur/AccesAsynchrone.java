@@ -0,0 +1,52 @@
+package Controleur;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Exécute les accès à la base de données hors du thread de l'interface.
+ * <p>
+ * Chaque appel tourne sur son propre thread virtuel : une requête lente ne bloque ni l'interface
+ * ni les autres requêtes, le nombre de connexions simultanées restant borné par le pool.
+ * Chaque appel a un délai maximal (propriété système {@code attraction.db.async.timeout}, en millisecondes) ;
+ * passé ce délai, le futur échoue avec une {@link java.util.concurrent.TimeoutException}.
+ * <p>
+ * Les futurs renvoyés se terminent sur un thread d'arrière-plan : les vues doivent repasser
+ * sur leur thread graphique ({@code Platform::runLater}, {@code SwingUtilities::invokeLater})
+ * avant de toucher à leurs composants.
+ */
+public final class AccesAsynchrone {
+
+    /** Délai maximal par défaut d'un accès aux données (ms) */
+    public static final long DELAI_DEFAUT_MS = 10_000;
+
+    private static final ExecutorService EXECUTEUR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("acces-donnees-", 0).factory());
+
+    private static final long DELAI_MS = Long.getLong("attraction.db.async.timeout", DELAI_DEFAUT_MS);
+
+    private AccesAsynchrone() {
+    }
+
+    /**
+     * Lance un accès aux données en arrière-plan.
+     * @param acces L'accès à exécuter (appel d'un DAO).
+     * @param <T> Le type du résultat.
+     * @return Un futur du résultat, en échec si l'accès lève une exception ou dépasse le délai.
+     */
+    public static <T> CompletableFuture<T> executer(Supplier<T> acces) {
+        return CompletableFuture.supplyAsync(acces, EXECUTEUR).orTimeout(DELAI_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lance en arrière-plan un accès aux données sans résultat.
+     * @param acces L'accès à exécuter.
+     * @return Un futur terminé à la fin de l'accès.
+     */
+    public static CompletableFuture<Void> executer(Runnable acces) {
+        return CompletableFuture.runAsync(acces, EXECUTEUR).orTimeout(DELAI_MS, TimeUnit.MILLISECONDS);
+    }
+}
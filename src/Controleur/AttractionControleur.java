@@ -1,30 +1,37 @@
 package Controleur;
 
-import DAO.AttractionDAO;
+import DAO.ConnectionProvider;
 import Modele.Attraction;
-import DAO.ReservationDAO;
+import Modele.Attraction.Champ;
 import Modele.Reservation;
 import Modele.User;
+import Service.BilanModifications;
+import Service.ServiceCatalogue;
+import Service.ServiceReservation;
 
-import java.sql.Connection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Le contrôleur qui gère les opérations liées aux attractions et aux réservations.
- * Il interagit avec les classes DAO pour effectuer des actions sur les données et la logique métier.
+ * Il convertit les saisies de la vue et délègue au {@link ServiceCatalogue} et au {@link ServiceReservation}.
  */
 public class AttractionControleur {
 
-    private AttractionDAO attractionDAO;
-    private ReservationDAO reservationDAO;
+    private ServiceCatalogue serviceCatalogue;
+    private ServiceReservation serviceReservation;
 
     /**
      * Constructeur du contrôleur.
-     * @param connexion La connexion à la base de données.
+     * @param connexion Le fournisseur de connexions à la base de données.
      */
-    public AttractionControleur(Connection connexion) {
-        this.attractionDAO = new AttractionDAO(connexion);
-        this.reservationDAO = new ReservationDAO(connexion);
+    public AttractionControleur(ConnectionProvider connexion) {
+        this.serviceCatalogue = new ServiceCatalogue(connexion);
+        this.serviceReservation = new ServiceReservation(connexion);
     }
 
     /**
@@ -36,96 +43,66 @@ public class AttractionControleur {
      * @param prixStr Le prix de l'attraction (sous forme de chaîne).
      * @param statutStr Le statut de l'attraction (sous forme de chaîne).
      * @param description La description de l'attraction.
-     * @return true si l'attraction a été ajoutée avec succès, false sinon.
+     * @return Un futur valant true si l'attraction a été ajoutée avec succès, false sinon.
      */
-    public boolean ajouterAttraction(String nom, String type, String capaciteStr, String duree, String prixStr, String statutStr, String description) {
+    public CompletableFuture<Boolean> ajouterAttraction(String nom, String type, String capaciteStr, String duree, String prixStr, String statutStr, String description) {
+        Attraction attraction;
         try {
             int capacite = Integer.parseInt(capaciteStr);
             float prix = Float.parseFloat(prixStr);
             Attraction.StatutAttraction statut = Attraction.StatutAttraction.valueOf(statutStr);
 
-            Attraction attraction = new Attraction(0, nom, type, description, capacite, duree, prix, statut);
-
-            return attractionDAO.insert(attraction);
-
+            attraction = new Attraction(0, nom, type, description, capacite, duree, prix, statut);
         } catch (Exception e) {
             e.printStackTrace();
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
+        return AccesAsynchrone.executer(() -> serviceCatalogue.ajouter(attraction));
     }
 
     /**
      * Supprime une attraction de la base de données.
      * @param idAttraction L'identifiant de l'attraction à supprimer.
-     * @return true si l'attraction a été supprimée avec succès, false sinon.
+     * @return Un futur valant true si l'attraction a été supprimée avec succès, false sinon.
      */
-    public boolean supprimerAttraction(int idAttraction) {
-        return attractionDAO.deleteById(idAttraction);
+    public CompletableFuture<Boolean> supprimerAttraction(int idAttraction) {
+        return AccesAsynchrone.executer(() -> serviceCatalogue.supprimer(idAttraction));
     }
 
     /**
      * Récupère toutes les attractions de la base de données.
-     * @return Une liste d'attractions.
+     * @return Un futur de la liste des attractions.
      */
-    public List<Attraction> getAttractions() {
-        return attractionDAO.findAll();
+    public CompletableFuture<List<Attraction>> getAttractions() {
+        return AccesAsynchrone.executer(() -> serviceCatalogue.lister());
     }
 
     /**
      * Récupère toutes les attractions actives de la base de données.
-     * @return Une liste d'attractions actives.
+     * @return Un futur de la liste des attractions actives.
      */
-    public List<Attraction> getAttractionsActives() {
-        return attractionDAO.getAllActive();
+    public CompletableFuture<List<Attraction>> getAttractionsActives() {
+        return AccesAsynchrone.executer(() -> serviceCatalogue.listerActives());
     }
 
     /**
      * Récupère toutes les réservations d'un utilisateur spécifique.
      * @param user L'utilisateur pour lequel récupérer les réservations.
-     * @return Une liste de réservations.
-     */
-    public List<Reservation> getReservationsUser(User user) {
-        return reservationDAO.getReservations(user);
-    }
-
-    /**
-     * Valide les informations d'une attraction avant son ajout ou modification.
-     * @param a L'attraction à valider.
-     * @return true si l'attraction est valide, false sinon.
+     * @return Un futur de la liste des réservations.
      */
-    private boolean validerAttraction(Attraction a) {
-        if (a.getNom() == null || a.getNom().trim().isEmpty()) {
-            return false;
-        }
-        if (a.getCapacite() <= 0) {
-            return false;
-        }
-        if (a.getPrix() < 0) {
-            return false;
-        }
-        return true;
+    public CompletableFuture<List<Reservation>> getReservationsUser(User user) {
+        return AccesAsynchrone.executer(() -> serviceReservation.reservationsUtilisateur(user));
     }
 
     /**
-     * Sauvegarde les modifications des attractions dans la base de données.
-     * @param attractions La liste des attractions à sauvegarder.
-     * @return true si toutes les modifications ont été sauvegardées avec succès, false sinon.
+     * Sauvegarde les champs modifiés des attractions, en une transaction.
+     * Les attractions ne doivent plus être modifiées avant la fin de la sauvegarde.
+     * @param modifications Les champs modifiés de chaque attraction, relevés par la grille.
+     * @return Un futur du bilan de l'enregistrement.
      */
-    public boolean sauvegarderModifications(List<Attraction> attractions) {
-        boolean allSuccess = true;
-        for (Attraction attraction : attractions) {
-            if (!validerAttraction(attraction)) {
-                System.out.println("Validation échouée pour: " + attraction.getNom());
-                allSuccess = false;
-                continue;
-            }
-
-            if (!attractionDAO.updateAttraction(attraction)) {
-                System.out.println("Échec DAO pour: " + attraction.getNom());
-                allSuccess = false;
-            }
-        }
-        return allSuccess;
+    public CompletableFuture<BilanModifications> sauvegarderModifications(Map<Attraction, Set<Champ>> modifications) {
+        Map<Attraction, Set<Champ>> copie = new LinkedHashMap<>();
+        modifications.forEach((attraction, champs) -> copie.put(attraction, EnumSet.copyOf(champs)));
+        return AccesAsynchrone.executer(() -> serviceCatalogue.enregistrer(copie));
     }
-
 }
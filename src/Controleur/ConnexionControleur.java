@@ -1,36 +1,35 @@
 package Controleur;
 
-import DAO.UserDAO;
+import DAO.ConnectionProvider;
 import Modele.User;
-import Vue.AdminVue;
-import Vue.UserVue;
-import javafx.scene.control.Alert;
+import Service.ServiceUtilisateur;
+
+import java.util.concurrent.CompletableFuture;
 
-import java.sql.Connection;
 
 /**
  * Le contrôleur pour gérer le processus de connexion de l'utilisateur.
- * Il interagit avec la vue et le modèle pour effectuer la logique de connexion et rediriger l'utilisateur.
+ * Il vérifie les identifiants via le {@link ServiceUtilisateur} ; la vue se charge de la redirection.
  */
 public class ConnexionControleur {
 
-    private UserDAO userDAO;
-    private Connection connexion;
+    private ServiceUtilisateur serviceUtilisateur;
+    private ConnectionProvider connexion;
 
     /**
      * Constructeur du contrôleur de connexion.
-     * @param connexion La connexion à la base de données.
+     * @param connexion Le fournisseur de connexions à la base de données.
      */
-    public ConnexionControleur(Connection connexion) {
+    public ConnexionControleur(ConnectionProvider connexion) {
         this.connexion = connexion;
-        this.userDAO = new UserDAO(connexion);
+        this.serviceUtilisateur = new ServiceUtilisateur(connexion);
     }
 
     /**
-     * Récupère la connexion à la base de données.
-     * @return La connexion à la base de données.
+     * Récupère le fournisseur de connexions à la base de données.
+     * @return Le fournisseur de connexions à la base de données.
      */
-    public Connection getConnexion() {
+    public ConnectionProvider getConnexion() {
         return connexion;
     }
 
@@ -38,35 +37,10 @@ public class ConnexionControleur {
      * Connecte un utilisateur en fonction de son email et de son mot de passe.
      * @param email L'email de l'utilisateur.
      * @param password Le mot de passe de l'utilisateur.
-     * @return Un objet User représentant l'utilisateur connecté, ou null si les informations sont incorrectes.
-     */
-    public User connecterUtilisateur(String email, String password) {
-        return userDAO.findByEmailAndPassword(email, password);
-    }
-
-    /**
-     * Gère la redirection de l'utilisateur en fonction de son rôle après une connexion réussie.
-     * Si l'utilisateur est un administrateur, il est redirigé vers la vue administrateur.
-     * Si l'utilisateur est un utilisateur standard, il est redirigé vers la vue utilisateur.
-     * @param utilisateur L'utilisateur connecté.
-     */
-    public void gererConnexionReussie(User utilisateur) {
-        if (utilisateur.getRole() == User.Role.ADMIN) {
-            new AdminVue(utilisateur.getUserNom(), connexion, utilisateur);
-        } else {
-            new UserVue(utilisateur.getUserNom(), connexion, utilisateur);
-        }
-    }
-
-    /**
-     * Affiche une alerte en cas de connexion échouée.
-     * Un message d'erreur est affiché lorsque les informations d'identification sont incorrectes.
+     * @return Un futur de l'utilisateur connecté, valant null si les informations sont incorrectes ;
+     *         la vérification tourne sur le pool borné du service, pas sur le thread JavaFX.
      */
-    public void afficherErreurConnexion() {
-        Alert alert = new Alert(Alert.AlertType.ERROR);
-        alert.setTitle("La connexion a échouée");
-        alert.setHeaderText(null);
-        alert.setContentText("Email ou mot de passe incorrect.");
-        alert.showAndWait();
+    public CompletableFuture<User> connecterUtilisateur(String email, String password) {
+        return serviceUtilisateur.connecter(email, password);
     }
 }
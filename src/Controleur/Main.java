@@ -1,8 +1,15 @@
 package Controleur;
 
+import Api.ServeurApi;
+import DAO.ConnectionProvider;
+import DAO.MigrationsSchema;
+import DAO.PoolConnexions;
+import DAO.ProfilBase;
+import Service.GestionnaireFiles;
 import Vue.AccueilVue;
-import java.sql.Connection;
-import java.sql.DriverManager;
+import Vue.CacheImages;
+
+import java.io.IOException;
 
 
 /**
@@ -11,7 +18,7 @@ import java.sql.DriverManager;
  * Cette classe a deux responsabilités principales :
  *
  *   Initialiser l'application JavaFX et lancer l'interface utilisateur
- *  Établir la connexion à la base de données
+ *  Créer le pool de connexions à la base de données
  *
  */
 public class Main {
@@ -21,43 +28,95 @@ public class Main {
      *
      * <p>Cette méthode :</p>
      * <ul>
+     *   <li>Crée le pool de connexions à la base de données</li>
+     *   <li>Met le schéma de la base à jour (et remplit une base embarquée vide), puis vérifie en arrière-plan que les requêtes utilisent leurs index</li>
+     *   <li>Restaure les files d'attente virtuelles du jour et lance leurs tours</li>
      *   <li>Initialise la plateforme JavaFX</li>
-     *   <li>Établit la connexion à la base de données</li>
+     *   <li>Remplit la table de cumul des statistiques au premier démarrage et charge les totaux en mémoire</li>
+     *   <li>Lance le décodage en arrière-plan des images de l'accueil et des attractions</li>
+     *   <li>Démarre l'API HTTP des bornes si la propriété attraction.api.port est renseignée</li>
      *   <li>Lance l'interface d'accueil de l'application</li>
      * </ul>
      *
      * @param args Arguments de ligne de commande (non utilisés dans cette application)
      */
     public static void main(String[] args) {
+        ConnectionProvider connexion = connecterBD();
+        preparerBase(connexion);
+        GestionnaireFiles files = GestionnaireFiles.de(connexion);
+        files.demarrer();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            files.arreter(); // Dernier instantané des files avant de fermer le pool
+            connexion.close();
+        }));
+
         // Lancer JavaFX proprement (initialisation du thread JavaFX)
         javafx.application.Platform.startup(() -> {
-            Connection connexion = connecterBD();
+            new StatistiquesControleur(connexion).initialiser(); // En arrière-plan
+            CacheImages.partage().prechauffer(); // Décodage des images en arrière-plan
             new AccueilVue(connexion); // Lancer la fenêtre JavaFX
         });
+
+        Integer portApi = Integer.getInteger("attraction.api.port");
+        if (portApi != null) {
+            try {
+                new ServeurApi(connexion, portApi).demarrer();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
     }
 
     /**
-     * Établit une connexion à la base de données MySQL.
+     * Met le schéma de la base à jour, remplit une base embarquée vide avec les données de démonstration,
+     * puis vérifie en arrière-plan que les requêtes utilisent leurs index.
      *
-     *Les paramètres de connexion sont :
+     * @param connexion Le fournisseur de connexions de l'application
+     */
+    public static void preparerBase(ConnectionProvider connexion) {
+        MigrationsSchema migrations = new MigrationsSchema(connexion);
+        if (migrations.migrer()) {
+            if (profilBD().isDonneesDemo()) {
+                migrations.chargerDonnees("/donnees/demo.sql");
+            }
+            AccesAsynchrone.executer(migrations::verifierPlans);
+        }
+    }
+
+    /**
+     * Crée le pool de connexions partagé par toutes les vues et tous les DAO.
+     *
+     *Les paramètres de connexion peuvent être surchargés par des propriétés système
+     *(par exemple pour pointer vers une base embarquée lors des tests) :
      *
-     *   URL : jdbc:mysql://localhost:3306/attraction
-     *   Utilisateur : root
-     *   Mot de passe : vide
+     *   attraction.db.profil : mysql (serveur local) ou h2 (base embarquée en mémoire, remplie au démarrage)
+     *   attraction.db.url : jdbc:mysql://localhost:3306/attraction (URL du profil)
+     *   attraction.db.user : root (sa pour h2)
+     *   attraction.db.password : vide
+     *   attraction.db.pool.max : 10 connexions
+     *   attraction.db.pool.timeout : 5000 ms d'attente maximale par emprunt
+     *   attraction.db.pool.idle : 300000 ms d'inactivité avant fermeture
+     *   attraction.db.pool.statements : 64 requêtes préparées gardées par connexion
      *
      *
-     * @return Un objet Connection représentant la connexion à la base de données,
-     *         ou null si la connexion a échoué
+     * @return Le fournisseur de connexions de l'application
      */
-    public static Connection connecterBD() {
-        try {
-            String url = "jdbc:mysql://localhost:3306/attraction";
-            String user = "root";
-            String password = "";
-            return DriverManager.getConnection(url, user, password);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
+    public static ConnectionProvider connecterBD() {
+        ProfilBase profil = profilBD();
+        String url = System.getProperty("attraction.db.url", profil.getUrl());
+        String user = System.getProperty("attraction.db.user", profil.getUtilisateur());
+        String password = System.getProperty("attraction.db.password", "");
+        int tailleMax = Integer.getInteger("attraction.db.pool.max", PoolConnexions.TAILLE_MAX_DEFAUT);
+        long delaiEmprunt = Long.getLong("attraction.db.pool.timeout", PoolConnexions.DELAI_EMPRUNT_DEFAUT_MS);
+        long dureeInactivite = Long.getLong("attraction.db.pool.idle", PoolConnexions.DUREE_INACTIVITE_DEFAUT_MS);
+        int tailleCacheRequetes = Integer.getInteger("attraction.db.pool.statements", PoolConnexions.TAILLE_CACHE_REQUETES_DEFAUT);
+        return new PoolConnexions(url, user, password, tailleMax, delaiEmprunt, dureeInactivite, tailleCacheRequetes);
+    }
+
+    /**
+     * @return Le profil de base choisi par la propriété système attraction.db.profil (mysql par défaut)
+     */
+    public static ProfilBase profilBD() {
+        return ProfilBase.depuisNom(System.getProperty("attraction.db.profil", "mysql"));
     }
-}
\ No newline at end of file
+}
@@ -1,101 +1,121 @@
 package Controleur;
 
-import DAO.ReservationDAO;
-import Modele.Attraction;
+import DAO.ConnectionProvider;
+import DAO.FiltreReservations;
+import Modele.Paiement;
 import Modele.Reservation;
-import Modele.User;
-import Vue.PaiementVue;
+import Service.BilanPaiement;
+import Service.CreneauHoraire;
+import Service.DemandeReservation;
+import Service.ServiceReservation;
 
-import java.sql.Connection;
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Contrôleur qui gère les opérations liées aux réservations et aux paiements.
- * Il interagit avec les classes DAO et Vue pour effectuer des actions sur les données et afficher les informations.
+ * Il délègue le parcours de réservation au {@link ServiceReservation}, hors du thread JavaFX ;
+ * la fenêtre de paiement est ouverte par la vue, entre {@link #bloquerPlaces} et {@link #confirmerPaiement}.
  */
 public class ReservationControleur {
 
-    private ReservationDAO reservationDAO;
+    private ServiceReservation serviceReservation;
 
     /**
      * Constructeur du contrôleur de réservation.
-     * @param connexion La connexion à la base de données utilisée pour l'accès aux données.
+     * @param connexion Le fournisseur de connexions à la base de données utilisé pour l'accès aux données.
      */
-    public ReservationControleur(Connection connexion) {
-        this.reservationDAO = new ReservationDAO(connexion);
+    public ReservationControleur(ConnectionProvider connexion) {
+        this.serviceReservation = new ServiceReservation(connexion);
     }
 
     /**
-     * Récupère toutes les réservations depuis la base de données.
-     * @return Une liste de toutes les réservations.
+     * Récupère une page de réservations correspondant aux critères, triées par ID.
+     * @param filtre Les critères de recherche.
+     * @param apresId L'ID de la dernière réservation déjà affichée (0 pour la première page).
+     * @param taille Le nombre maximal de réservations à récupérer.
+     * @return Un futur de la page de réservations, ou de null si la lecture a échoué.
      */
-    public List<Reservation> recupererToutesReservations() {
-        return reservationDAO.recupererToutesReservations();
+    public CompletableFuture<List<Reservation>> recupererPage(FiltreReservations filtre, int apresId, int taille) {
+        return AccesAsynchrone.executer(() -> serviceReservation.page(filtre, apresId, taille));
     }
 
     /**
-     * Met à jour le statut d'une réservation.
+     * Met à jour le statut d'une réservation et répercute le changement sur le moteur de capacité.
      * @param reservation La réservation dont le statut doit être mis à jour.
+     * @return Un futur de true si le statut a été enregistré, false si la réservation est introuvable
+     *         ou si la mise à jour a échoué.
      */
-    public void mettreAJourStatut(Reservation reservation) {
-        reservationDAO.mettreAJourStatut(reservation);
+    public CompletableFuture<Boolean> mettreAJourStatut(Reservation reservation) {
+        return AccesAsynchrone.executer(() -> serviceReservation.changerStatut(reservation) != null);
     }
 
     /**
-     * Crée une nouvelle réservation avec paiement pour un utilisateur.
-     * Ce processus inclut la création d'une réservation et le paiement de l'attraction.
-     * @param user L'utilisateur qui effectue la réservation.
-     * @param attraction L'attraction pour laquelle l'utilisateur souhaite réserver.
-     * @param dateReservation La date à laquelle l'utilisateur souhaite effectuer la réservation.
-     * @param onSuccess Une action à exécuter après la création de la réservation (par exemple, une mise à jour de l'interface).
+     * Récupère les créneaux horaires d'une attraction pour un jour, avec leurs places restantes.
+     * @param idAttraction L'ID de l'attraction.
+     * @param jour Le jour choisi.
+     * @return Un futur de la liste des créneaux de la journée.
      */
-    public void creerReservationAvecPaiement(User user, Attraction attraction, Date dateReservation, Runnable onSuccess) {
-        PaiementVue paiementVue = new PaiementVue();
-        paiementVue.afficher(attraction.getPrix(), paiement -> {
-            Reservation reservation = new Reservation();
-            reservation.setUser(user);
-            reservation.setAttraction(attraction);
-            reservation.setDateReservation(dateReservation);
-            reservation.setStatut(Reservation.StatutReservation.confirmee);
-            reservation.setPaiement(paiement);
+    public CompletableFuture<List<CreneauHoraire>> recupererCreneaux(int idAttraction, LocalDate jour) {
+        return AccesAsynchrone.executer(() -> serviceReservation.creneaux(idAttraction, jour));
+    }
+
+    /**
+     * Fixe le prix d'une demande selon le remplissage du moment, puis bloque ses places
+     * avant l'ouverture de la fenêtre de paiement.
+     * @param demande La demande de réservation.
+     * @return Un futur de la demande tarifée, ou de null s'il ne reste pas assez de places à cette date.
+     */
+    public CompletableFuture<DemandeReservation> bloquerPlaces(DemandeReservation demande) {
+        return AccesAsynchrone.executer(() -> {
+            DemandeReservation tarifee = serviceReservation.tarifer(demande);
+            return serviceReservation.bloquer(tarifee) ? tarifee : null;
+        });
+    }
 
-            reservationDAO.creationReservation(reservation);
-            if (onSuccess != null) onSuccess.run();
-        }, user);
+    /**
+     * Rend les places bloquées d'une demande dont le paiement a été abandonné.
+     * @param demande La demande de réservation.
+     * @return Un futur terminé quand les places ont été rendues.
+     */
+    public CompletableFuture<Void> libererPlaces(DemandeReservation demande) {
+        return AccesAsynchrone.executer(() -> {
+            serviceReservation.liberer(demande);
+        });
     }
 
     /**
-     * Crée une nouvelle réservation avec paiement pour un invité.
-     * Ce processus inclut la création d'une réservation et le paiement de l'attraction, sans nécessiter de compte utilisateur.
-     * @param nom Le nom de l'invité.
-     * @param email L'email de l'invité.
-     * @param attraction L'attraction pour laquelle l'invité souhaite réserver.
-     * @param dateReservation La date à laquelle l'invité souhaite effectuer la réservation.
-     * @param onSuccess Une action à exécuter après la création de la réservation (par exemple, une mise à jour de l'interface).
+     * Enregistre le paiement et les réservations d'une demande dont les places sont bloquées,
+     * dans une seule transaction. Les places sont rendues si l'enregistrement échoue.
+     * @param demande La demande de réservation.
+     * @param paiement Le paiement validé.
+     * @param cleIdempotence La clé d'idempotence tirée pour la fenêtre de paiement.
+     * @return Un futur du bilan : réservations créées, devis refusé ou échec.
      */
-    public void creerReservationInviteAvecPaiement(String nom, String email, Attraction attraction, Date dateReservation, Runnable onSuccess) {
-        PaiementVue paiementVue = new PaiementVue();
-        paiementVue.afficher(attraction.getPrix(), paiement -> {
-            Reservation reservation = new Reservation();
-            reservation.setInviteNom(nom);
-            reservation.setInviteEmail(email);
-            reservation.setAttraction(attraction);
-            reservation.setDateReservation(dateReservation);
-            reservation.setStatut(Reservation.StatutReservation.confirmee);
-            reservation.setPaiement(paiement);
+    public CompletableFuture<BilanPaiement> confirmerPaiement(DemandeReservation demande, Paiement paiement, String cleIdempotence) {
+        return AccesAsynchrone.executer(() -> serviceReservation.enregistrerPaiement(demande, paiement, cleIdempotence));
+    }
 
-            reservationDAO.creationReservationInvite(reservation);
-            if (onSuccess != null) onSuccess.run();
-        }, null);
+    /**
+     * Reprend un paiement dont l'enregistrement n'a pas abouti (délai dépassé, erreur) avec la même clé
+     * d'idempotence : renvoie les réservations si le premier essai a été enregistré, sinon bloque de nouveau
+     * les places et enregistre le paiement. Le client n'est jamais débité deux fois.
+     * @param demande La demande de réservation.
+     * @param paiement Le paiement validé lors du premier essai.
+     * @param cleIdempotence La clé d'idempotence du premier essai.
+     * @return Un futur du bilan : réservations, attraction complète, devis refusé ou échec.
+     */
+    public CompletableFuture<BilanPaiement> reprendrePaiement(DemandeReservation demande, Paiement paiement, String cleIdempotence) {
+        return AccesAsynchrone.executer(() -> serviceReservation.reprendrePaiement(demande, paiement, cleIdempotence));
     }
 
     /**
      * Récupère toutes les réservations d'un invité donné par son adresse email.
      * @param emailInvite L'email de l'invité pour lequel récupérer les réservations.
-     * @return Une liste des réservations sous forme de chaînes de caractères pour l'invité spécifié.
+     * @return Un futur de la liste des réservations, sous forme de chaînes de caractères, pour l'invité spécifié.
      */
-    public List<String> recupererReservationsInvite(String emailInvite) {
-        return reservationDAO.getReservationsInvite(emailInvite);
+    public CompletableFuture<List<String>> recupererReservationsInvite(String emailInvite) {
+        return AccesAsynchrone.executer(() -> serviceReservation.reservationsInvite(emailInvite));
     }
 }
@@ -1,32 +1,79 @@
 package Controleur;
 
-import DAO.ReservationDAO;
+import DAO.ConnectionProvider;
+import Modele.StatistiqueAttraction;
+import Modele.StatistiqueAttraction.Periode;
+import Service.ProjectionStatistiques;
+import Service.ServiceStatistiques;
 
-import java.sql.Connection;
-import java.util.Map;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Contrôleur qui gère les opérations liées aux statistiques des réservations.
- * Il interagit avec la classe DAO pour récupérer les données relatives aux réservations.
+ * Les statistiques par période sont calculées sur la table de cumul ;
+ * les totaux par attraction sont lus dans la {@link ProjectionStatistiques} en mémoire, sans requête.
+ * Les calculs sont faits par le {@link ServiceStatistiques}, hors du thread JavaFX.
  */
 public class StatistiquesControleur {
 
-    private ReservationDAO reservationDAO;
+    private ServiceStatistiques serviceStatistiques;
 
     /**
      * Constructeur du contrôleur des statistiques.
-     * @param connexion La connexion à la base de données utilisée pour l'accès aux données.
+     * @param connexion Le fournisseur de connexions à la base de données utilisé pour l'accès aux données.
      */
-    public StatistiquesControleur(Connection connexion) {
-        this.reservationDAO = new ReservationDAO(connexion);
+    public StatistiquesControleur(ConnectionProvider connexion) {
+        this.serviceStatistiques = new ServiceStatistiques(connexion);
     }
 
     /**
-     * Récupère les statistiques des réservations par attraction.
-     * Cette méthode utilise la classe DAO pour obtenir le nombre de réservations par attraction.
-     * @return Un map où les clés sont les noms des attractions et les valeurs sont le nombre de réservations pour chaque attraction.
+     * Récupère le nombre total de réservations actives et le chiffre d'affaires de chaque attraction,
+     * depuis les compteurs en mémoire (chargés depuis la base au premier appel seulement).
+     * @return Un futur des totaux, triés par nom d'attraction.
      */
-    public Map<String, Integer> getReservationsParAttraction() {
-        return reservationDAO.getReservationsParAttraction();
+    public CompletableFuture<List<StatistiqueAttraction>> getTotaux() {
+        return AccesAsynchrone.executer(() -> serviceStatistiques.totaux());
+    }
+
+    /**
+     * Abonne un observateur aux changements des totaux par attraction.
+     * Il est appelé hors du thread JavaFX, à chaque réservation créée ou annulée et à chaque suppression d'attraction.
+     * @param observateur Reçoit les nouveaux totaux.
+     * @return Une action qui désabonne l'observateur.
+     */
+    public Runnable observerTotaux(Consumer<List<StatistiqueAttraction>> observateur) {
+        return serviceStatistiques.observerTotaux(observateur);
+    }
+
+    /**
+     * Récupère le nombre de réservations, le chiffre d'affaires et le taux de remplissage
+     * de chaque attraction, par jour, semaine ou mois.
+     * @param debut Le premier jour inclus.
+     * @param fin Le dernier jour inclus.
+     * @param periode La granularité du découpage.
+     * @return Un futur des statistiques, triées par attraction puis par période.
+     */
+    public CompletableFuture<List<StatistiqueAttraction>> getStatistiques(LocalDate debut, LocalDate fin, Periode periode) {
+        return AccesAsynchrone.executer(() -> serviceStatistiques.statistiques(debut, fin, periode));
+    }
+
+    /**
+     * Remplit la table de cumul des statistiques si elle est encore vide (premier démarrage),
+     * puis charge les totaux en mémoire.
+     * @return Un futur valant true si les totaux ont été chargés.
+     */
+    public CompletableFuture<Boolean> initialiser() {
+        return AccesAsynchrone.executer(() -> serviceStatistiques.initialiser());
+    }
+
+    /**
+     * Recalcule entièrement les statistiques depuis les réservations, puis recharge les totaux en mémoire.
+     * @return Un futur valant true si le recalcul a réussi.
+     */
+    public CompletableFuture<Boolean> recalculer() {
+        return AccesAsynchrone.executer(() -> serviceStatistiques.recalculer());
     }
 }
@@ -2,25 +2,36 @@ package DAO;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import Modele.Attraction;
+import Modele.Attraction.Champ;
 import Modele.Attraction.StatutAttraction;
+import Modele.Evenement;
 
 /**
  * Classe DAO pour gérer les opérations sur la table `attraction` dans la base de données.
  * Elle permet d'effectuer des opérations CRUD (Create, Read, Update, Delete) sur les objets `Attraction`.
+ * Les lectures passent par le {@link CacheCatalogue} partagé, invalidé à chaque écriture.
  */
 public class AttractionDAO {
 
-    private Connection connexion;
+    private ConnectionProvider fournisseur;
+    private CacheCatalogue catalogue;
+    private BusEvenements bus;
 
     /**
      * Constructeur du DAO pour les attractions.
-     * @param connexion La connexion à la base de données utilisée pour exécuter les requêtes SQL.
+     * @param fournisseur Le fournisseur de connexions utilisé pour exécuter les requêtes SQL.
      */
-    public AttractionDAO(Connection connexion) {
-        this.connexion = connexion;
+    public AttractionDAO(ConnectionProvider fournisseur) {
+        this.fournisseur = fournisseur;
+        this.catalogue = CacheCatalogue.de(fournisseur, this::chargerCatalogue);
+        this.bus = BusEvenements.de(fournisseur);
     }
 
     /**
@@ -29,9 +40,9 @@ public class AttractionDAO {
      * @return true si l'insertion a réussi, false sinon.
      */
     public boolean insert(Attraction attraction) {
-        try {
-            String sql = "INSERT INTO attraction (nom, type, description, capacite, duree, prix, statut) VALUES (?, ?, ?, ?, ?, ?,?)";
-            PreparedStatement stmt = connexion.prepareStatement(sql);
+        String sql = "INSERT INTO attraction (nom, type, description, capacite, duree, prix, statut) VALUES (?, ?, ?, ?, ?, ?,?)";
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql)) {
             stmt.setString(1, attraction.getNom());
             stmt.setString(2, attraction.getType());
             stmt.setString(3, attraction.getDescription());
@@ -41,6 +52,7 @@ public class AttractionDAO {
             stmt.setString(7, attraction.getStatut().toString()); // Enum to string
 
             stmt.executeUpdate();
+            catalogue.invalider();
             return true;
 
         } catch (SQLException e) {
@@ -55,8 +67,9 @@ public class AttractionDAO {
      * @return true si la mise à jour a réussi, false sinon.
      */
     public boolean updateAttraction(Attraction a) {
-        try (PreparedStatement stmt = connexion.prepareStatement(
-                "UPDATE attraction SET nom = ?, type = ?, description = ?, capacite = ?, duree = ?, prix = ?, statut = ? WHERE id_attraction = ?")) {
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(
+                "UPDATE attraction SET nom = ?, type = ?, description = ?, capacite = ?, duree = ?, prix = ?, statut = ?, version = version + 1 WHERE id_attraction = ?")) {
 
             stmt.setString(1, a.getNom());
             stmt.setString(2, a.getType());
@@ -68,6 +81,7 @@ public class AttractionDAO {
             stmt.setInt(8, a.getIdAttraction());
 
             int rowsUpdated = stmt.executeUpdate();
+            catalogue.invalider();
             return rowsUpdated > 0;
 
         } catch (SQLException e) {
@@ -77,46 +91,179 @@ public class AttractionDAO {
     }
 
     /**
-     * Récupère toutes les attractions de la base de données.
+     * Enregistre en une transaction les champs modifiés de plusieurs attractions, avec verrouillage optimiste.
+     * <p>
+     * Les attractions sont regroupées par ensemble de champs modifiés : une requête préparée par ensemble,
+     * exécutée en lot, qui ne met à jour que ces colonnes. Chaque ligne n'est modifiée que si sa version
+     * en base est encore celle lue ({@link Attraction#getVersion()}), puis sa version est incrémentée.
+     * Si une seule ligne a changé (ou disparu) entre-temps, toute la transaction est annulée.
+     *
+     * @param modifications Les champs modifiés de chaque attraction ; les attractions sans champ sont ignorées.
+     * @return Les ID des attractions modifiées par ailleurs (liste vide si tout a été enregistré),
+     *         ou null en cas d'erreur SQL.
+     */
+    public List<Integer> mettreAJourLot(Map<Attraction, Set<Champ>> modifications) {
+        Map<Set<Champ>, List<Attraction>> groupes = new LinkedHashMap<>();
+        for (Map.Entry<Attraction, Set<Champ>> entree : modifications.entrySet()) {
+            if (!entree.getValue().isEmpty()) {
+                groupes.computeIfAbsent(EnumSet.copyOf(entree.getValue()), c -> new ArrayList<>()).add(entree.getKey());
+            }
+        }
+        List<Integer> conflits = new ArrayList<>();
+        if (groupes.isEmpty()) {
+            return conflits;
+        }
+
+        try (Connection connexion = fournisseur.getConnection()) {
+            connexion.setAutoCommit(false);
+            try {
+                for (Map.Entry<Set<Champ>, List<Attraction>> groupe : groupes.entrySet()) {
+                    Set<Champ> champs = groupe.getKey();
+                    List<Attraction> lot = groupe.getValue();
+                    try (PreparedStatement stmt = connexion.prepareStatement(requeteMiseAJour(champs))) {
+                        for (Attraction a : lot) {
+                            int indice = 1;
+                            for (Champ champ : champs) {
+                                lierChamp(stmt, indice++, a, champ);
+                            }
+                            stmt.setInt(indice++, a.getIdAttraction());
+                            stmt.setInt(indice, a.getVersion());
+                            stmt.addBatch();
+                        }
+                        int[] comptes = stmt.executeBatch();
+                        for (int i = 0; i < comptes.length; i++) {
+                            if (comptes[i] == 0) {
+                                conflits.add(lot.get(i).getIdAttraction());
+                            }
+                        }
+                    }
+                }
+                if (!conflits.isEmpty()) {
+                    connexion.rollback();
+                    return conflits;
+                }
+                connexion.commit();
+            } catch (SQLException | RuntimeException e) {
+                connexion.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        catalogue.invalider();
+        return conflits;
+    }
+
+    /**
+     * Requête de mise à jour des seules colonnes données, conditionnée par la version lue.
+     */
+    private static String requeteMiseAJour(Set<Champ> champs) {
+        StringBuilder sql = new StringBuilder("UPDATE attraction SET ");
+        for (Champ champ : champs) {
+            sql.append(colonne(champ)).append(" = ?, ");
+        }
+        return sql.append("version = version + 1 WHERE id_attraction = ? AND version = ?").toString();
+    }
+
+    private static String colonne(Champ champ) {
+        switch (champ) {
+            case NOM: return "nom";
+            case TYPE: return "type";
+            case DESCRIPTION: return "description";
+            case CAPACITE: return "capacite";
+            case DUREE: return "duree";
+            case PRIX: return "prix";
+            case STATUT: return "statut";
+            default: throw new IllegalArgumentException("Champ inconnu : " + champ);
+        }
+    }
+
+    private static void lierChamp(PreparedStatement stmt, int indice, Attraction a, Champ champ) throws SQLException {
+        switch (champ) {
+            case NOM: stmt.setString(indice, a.getNom()); break;
+            case TYPE: stmt.setString(indice, a.getType()); break;
+            case DESCRIPTION: stmt.setString(indice, a.getDescription()); break;
+            case CAPACITE: stmt.setInt(indice, a.getCapacite()); break;
+            case DUREE: stmt.setString(indice, a.getDuree()); break;
+            case PRIX: stmt.setFloat(indice, a.getPrix()); break;
+            case STATUT: stmt.setString(indice, a.getStatut().toString()); break;
+            default: throw new IllegalArgumentException("Champ inconnu : " + champ);
+        }
+    }
+
+    /**
+     * Récupère toutes les attractions, depuis le catalogue en mémoire.
      * @return Une liste d'attractions.
      */
     public List<Attraction> findAll() {
-        List<Attraction> attractions = new ArrayList<>();
         try {
-            String sql = "SELECT * FROM attraction";
-            PreparedStatement stmt = connexion.prepareStatement(sql);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Attraction a = new Attraction(
-                        rs.getInt("id_attraction"),
-                        rs.getString("nom"),
-                        rs.getString("type"),
-                        rs.getString("description"),
-                        rs.getInt("capacite"),
-                        rs.getString("duree"),
-                        rs.getFloat("prix"),
-                        StatutAttraction.valueOf(rs.getString("statut"))
-                );
-                attractions.add(a);
-            }
+            return catalogue.toutes();
         } catch (SQLException e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        return attractions;
     }
 
     /**
-     * Récupère toutes les attractions actives de la base de données.
+     * Récupère toutes les attractions actives, depuis le catalogue en mémoire.
      * @return Une liste d'attractions actives.
      */
     public List<Attraction> getAllActive() {
-        List<Attraction> attractionsActives = new ArrayList<>();
         try {
-            String sql = "SELECT * FROM attraction WHERE statut = ?";
-            PreparedStatement stmt = connexion.prepareStatement(sql);
-            stmt.setString(1, StatutAttraction.active.toString());
-            ResultSet rs = stmt.executeQuery();
+            return catalogue.parStatut(StatutAttraction.active);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Récupère une attraction par son ID, depuis le catalogue en mémoire.
+     * @param id L'ID de l'attraction.
+     * @return L'attraction, ou null si elle n'existe pas.
+     */
+    public Attraction findById(int id) {
+        try {
+            return catalogue.parId(id);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Récupère les attractions d'un type donné, depuis le catalogue en mémoire.
+     * @param type Le type recherché.
+     * @return Une liste d'attractions de ce type.
+     */
+    public List<Attraction> findByType(String type) {
+        try {
+            return catalogue.parType(type);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * @return Le catalogue en mémoire partagé par les DAO de cette base.
+     */
+    public CacheCatalogue getCatalogue() {
+        return catalogue;
+    }
+
+    /**
+     * Lit le catalogue complet dans la base ; utilisé par le cache pour se (re)charger.
+     * @return Toutes les attractions, triées par ID.
+     * @throws SQLException En cas d'erreur SQL.
+     */
+    private List<Attraction> chargerCatalogue() throws SQLException {
+        List<Attraction> attractions = new ArrayList<>();
+        String sql = "SELECT * FROM attraction ORDER BY id_attraction";
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
                 Attraction a = new Attraction(
@@ -129,31 +276,45 @@ public class AttractionDAO {
                         rs.getFloat("prix"),
                         StatutAttraction.valueOf(rs.getString("statut"))
                 );
-                attractionsActives.add(a);
+                a.setVersion(rs.getInt("version"));
+                attractions.add(a);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
-        return attractionsActives;
+        return attractions;
     }
 
     /**
-     * Supprime une attraction de la base de données en fonction de son ID.
+     * Supprime une attraction et ses lignes de statistiques dans une seule transaction,
+     * puis publie un événement {@link Evenement.AttractionSupprimee}.
      * @param id L'ID de l'attraction à supprimer.
      * @return true si l'attraction a été supprimée avec succès, false sinon.
      */
     public boolean deleteById(int id) {
-        try {
-            String sql = "DELETE FROM attraction WHERE id_attraction = ?";
-            PreparedStatement stmt = connexion.prepareStatement(sql);
-            stmt.setInt(1, id);
-
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+        String sql = "DELETE FROM attraction WHERE id_attraction = ?";
+        String stats = "DELETE FROM stat_reservation_jour WHERE id_attraction = ?";
+        int rowsAffected;
+        try (Connection connexion = fournisseur.getConnection()) {
+            connexion.setAutoCommit(false);
+            try (PreparedStatement stmt = connexion.prepareStatement(sql);
+                 PreparedStatement stmtStats = connexion.prepareStatement(stats)) {
+                stmt.setInt(1, id);
+                stmtStats.setInt(1, id);
 
+                rowsAffected = stmt.executeUpdate();
+                stmtStats.executeUpdate();
+                connexion.commit();
+            } catch (SQLException | RuntimeException e) {
+                connexion.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
+        catalogue.invalider();
+        if (rowsAffected > 0) {
+            bus.publier(new Evenement.AttractionSupprimee(id));
+        }
+        return rowsAffected > 0;
     }
-}
\ No newline at end of file
+}
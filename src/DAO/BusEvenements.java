@@ -0,0 +1,70 @@
+package DAO;
+
+import Modele.Evenement;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus d'événements en mémoire, partagé par tous les DAO d'une même base.
+ * <p>
+ * Les DAO publient un {@link Evenement} après chaque écriture validée ; une transaction annulée ne publie rien.
+ * Les abonnés sont appelés dans l'ordre d'abonnement, sur le thread de l'écrivain :
+ * ils doivent être rapides et ne jamais toucher à l'interface directement.
+ * L'exception d'un abonné est journalisée sans empêcher les autres d'être notifiés.
+ */
+public class BusEvenements {
+
+    private static final Map<ConnectionProvider, BusEvenements> BUS = new ConcurrentHashMap<>();
+
+    private final List<Consumer<Evenement>> abonnes = new CopyOnWriteArrayList<>();
+
+    /**
+     * Renvoie le bus partagé associé à un fournisseur de connexions, retiré à la fermeture du fournisseur.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     * @return Le bus d'événements de cette base.
+     */
+    public static BusEvenements de(ConnectionProvider fournisseur) {
+        return BUS.computeIfAbsent(fournisseur, f -> {
+            f.aLaFermeture(() -> BUS.remove(f));
+            return new BusEvenements();
+        });
+    }
+
+    /**
+     * Abonne un consommateur à tous les événements publiés.
+     * @param abonne Le consommateur.
+     * @return Une action qui désabonne le consommateur.
+     */
+    public Runnable abonner(Consumer<Evenement> abonne) {
+        abonnes.add(abonne);
+        return () -> abonnes.remove(abonne);
+    }
+
+    /**
+     * Publie un événement à tous les abonnés.
+     * @param evenement L'événement.
+     */
+    void publier(Evenement evenement) {
+        for (Consumer<Evenement> abonne : abonnes) {
+            try {
+                abonne.accept(evenement);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Publie des événements dans l'ordre de la liste.
+     * @param evenements Les événements.
+     */
+    void publier(List<? extends Evenement> evenements) {
+        for (Evenement evenement : evenements) {
+            publier(evenement);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package DAO;
+
+import Modele.Attraction;
+import Modele.Attraction.StatutAttraction;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache en mémoire du catalogue des attractions, placé devant {@link AttractionDAO}.
+ * Le catalogue est chargé en une seule requête puis indexé par identifiant, statut et type.
+ * Il est invalidé à chaque écriture sur la table `attraction` et rechargé au plus tard
+ * après sa durée de vie (propriété système {@code attraction.catalogue.ttl}, en millisecondes).
+ * <p>
+ * Le cache renvoie des copies : les vues peuvent modifier les attractions reçues
+ * sans altérer le catalogue partagé.
+ */
+public class CacheCatalogue {
+
+    /** Durée de vie par défaut du catalogue (ms) */
+    public static final long TTL_DEFAUT_MS = 60_000;
+
+    private static final Map<ConnectionProvider, CacheCatalogue> CATALOGUES = new ConcurrentHashMap<>();
+
+    /** Chargeur du catalogue complet depuis la base */
+    interface Chargeur {
+        List<Attraction> charger() throws SQLException;
+    }
+
+    private final Chargeur chargeur;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long ttlMs;
+    private volatile Instantane instantane;
+
+    /**
+     * Renvoie le catalogue partagé associé à un fournisseur de connexions, retiré à la fermeture du fournisseur.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     * @param chargeur Le chargeur utilisé à la création du catalogue.
+     * @return Le catalogue partagé.
+     */
+    static CacheCatalogue de(ConnectionProvider fournisseur, Chargeur chargeur) {
+        return CATALOGUES.computeIfAbsent(fournisseur, f -> {
+            f.aLaFermeture(() -> CATALOGUES.remove(f));
+            return new CacheCatalogue(chargeur, Long.getLong("attraction.catalogue.ttl", TTL_DEFAUT_MS));
+        });
+    }
+
+    CacheCatalogue(Chargeur chargeur, long ttlMs) {
+        this.chargeur = chargeur;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * @return Toutes les attractions, triées par identifiant.
+     */
+    List<Attraction> toutes() throws SQLException {
+        return copier(instantane().toutes);
+    }
+
+    /**
+     * @param statut Le statut recherché.
+     * @return Les attractions ayant ce statut.
+     */
+    List<Attraction> parStatut(StatutAttraction statut) throws SQLException {
+        return copier(instantane().parStatut.getOrDefault(statut, Collections.emptyList()));
+    }
+
+    /**
+     * @param type Le type recherché (Manège, Spectacle...).
+     * @return Les attractions de ce type.
+     */
+    List<Attraction> parType(String type) throws SQLException {
+        return copier(instantane().parType.getOrDefault(type, Collections.emptyList()));
+    }
+
+    /**
+     * @param id L'identifiant de l'attraction.
+     * @return L'attraction, ou null si elle n'existe pas.
+     */
+    Attraction parId(int id) throws SQLException {
+        Attraction a = instantane().parId.get(id);
+        return a == null ? null : copier(a);
+    }
+
+    /**
+     * Oublie le catalogue : la prochaine lecture le rechargera depuis la base.
+     */
+    public void invalider() {
+        generation.incrementAndGet();
+        instantane = null;
+    }
+
+    /**
+     * Modifie la durée de vie du catalogue.
+     * @param ttlMs La nouvelle durée de vie, en millisecondes (0 pour toujours relire la base).
+     */
+    public void setTtl(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Renvoie l'instantané courant, en le rechargeant s'il est absent ou expiré.
+     * Un seul thread recharge à la fois ; un chargement commencé avant une invalidation n'est pas publié.
+     */
+    private Instantane instantane() throws SQLException {
+        Instantane courant = instantane;
+        if (courant != null && !courant.estExpire(ttlMs)) {
+            return courant;
+        }
+        synchronized (this) {
+            courant = instantane;
+            if (courant != null && !courant.estExpire(ttlMs)) {
+                return courant;
+            }
+            long gen = generation.get();
+            Instantane nouveau = new Instantane(chargeur.charger());
+            if (generation.get() == gen) {
+                instantane = nouveau;
+            }
+            return nouveau;
+        }
+    }
+
+    private static List<Attraction> copier(List<Attraction> source) {
+        List<Attraction> copies = new ArrayList<>(source.size());
+        for (Attraction a : source) {
+            copies.add(copier(a));
+        }
+        return copies;
+    }
+
+    private static Attraction copier(Attraction a) {
+        Attraction copie = new Attraction(a.getIdAttraction(), a.getNom(), a.getType(), a.getDescription(),
+                a.getCapacite(), a.getDuree(), a.getPrix(), a.getStatut());
+        copie.setVersion(a.getVersion());
+        return copie;
+    }
+
+    /** Catalogue figé et ses index, tel que chargé à un instant donné. */
+    private static final class Instantane {
+        private final long chargeLe = System.currentTimeMillis();
+        private final List<Attraction> toutes;
+        private final Map<Integer, Attraction> parId = new LinkedHashMap<>();
+        private final Map<StatutAttraction, List<Attraction>> parStatut = new EnumMap<>(StatutAttraction.class);
+        private final Map<String, List<Attraction>> parType = new LinkedHashMap<>();
+
+        private Instantane(List<Attraction> attractions) {
+            this.toutes = attractions;
+            for (Attraction a : attractions) {
+                parId.put(a.getIdAttraction(), a);
+                if (a.getStatut() != null) {
+                    parStatut.computeIfAbsent(a.getStatut(), s -> new ArrayList<>()).add(a);
+                }
+                if (a.getType() != null) {
+                    parType.computeIfAbsent(a.getType(), t -> new ArrayList<>()).add(a);
+                }
+            }
+        }
+
+        private boolean estExpire(long ttlMs) {
+            return System.currentTimeMillis() - chargeLe >= ttlMs;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package DAO;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de requêtes préparées partagé par toutes les connexions d'un pool.
+ * Les requêtes sont indexées par connexion physique et par texte SQL ; chaque connexion garde
+ * au plus {@code capaciteParConnexion} requêtes et évince la moins récemment utilisée au-delà.
+ * <p>
+ * Les requêtes rendues aux DAO sont des mandataires : {@code close()} les remet dans le cache
+ * (paramètres effacés, résultat courant fermé) au lieu de les détruire. Chaque mandataire ne sert qu'un emprunt :
+ * une fois fermé, ou rendu avec sa connexion, il refuse tout appel, même si sa requête a été prêtée à nouveau. Une connexion n'étant
+ * utilisée que par un emprunteur à la fois, le cache d'une connexion n'est pas synchronisé.
+ */
+public class CacheRequetes {
+
+    private final int capaciteParConnexion;
+    private final Map<Connection, RequetesConnexion> parConnexion = new ConcurrentHashMap<>();
+
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Crée un cache.
+     * @param capaciteParConnexion Le nombre maximal de requêtes gardées ouvertes par connexion physique.
+     */
+    public CacheRequetes(int capaciteParConnexion) {
+        this.capaciteParConnexion = capaciteParConnexion;
+    }
+
+    /**
+     * Renvoie une requête préparée pour ce texte SQL, depuis le cache si elle y est libre.
+     * @param physique La connexion physique sur laquelle préparer la requête.
+     * @param logique La connexion empruntée au pool, renvoyée par {@code getConnection()} de la requête.
+     * @param sql Le texte SQL.
+     * @param clesGenerees {@link java.sql.Statement#RETURN_GENERATED_KEYS} ou {@link java.sql.Statement#NO_GENERATED_KEYS}.
+     * @return Une requête dont la fermeture la rend au cache.
+     * @throws SQLException Si la préparation échoue.
+     */
+    PreparedStatement preparer(Connection physique, Connection logique, String sql, int clesGenerees) throws SQLException {
+        RequetesConnexion requetes = parConnexion.computeIfAbsent(physique, c -> new RequetesConnexion());
+        Cle cle = new Cle(sql, clesGenerees);
+
+        Entree entree = requetes.get(cle);
+        if (entree != null && !entree.enUsage && !entree.physique.isClosed()) {
+            succes.increment();
+            entree.enUsage = true;
+            requetes.empruntees.add(entree);
+            return envelopper(entree, requetes, logique);
+        }
+
+        echecs.increment();
+        PreparedStatement ps = physique.prepareStatement(sql, clesGenerees);
+        Entree nouvelle = new Entree(ps);
+        nouvelle.enUsage = true;
+        if (entree == null || entree.physique.isClosed()) {
+            // La requête déjà présente (et occupée) garde sa place ; sinon on met la nouvelle en cache
+            requetes.put(cle, nouvelle);
+        } else {
+            nouvelle.horsCache = true;
+        }
+        requetes.empruntees.add(nouvelle);
+        return envelopper(nouvelle, requetes, logique);
+    }
+
+    /**
+     * Rend au cache toutes les requêtes que l'emprunteur de la connexion n'a pas fermées.
+     * Appelé quand la connexion retourne dans le pool.
+     * @param physique La connexion physique rendue.
+     */
+    void liberer(Connection physique) {
+        RequetesConnexion requetes = parConnexion.get(physique);
+        if (requetes == null) {
+            return;
+        }
+        for (Entree entree : new ArrayList<>(requetes.empruntees)) {
+            rendre(entree, requetes);
+        }
+    }
+
+    /**
+     * Ferme toutes les requêtes d'une connexion physique sur le point d'être fermée.
+     * @param physique La connexion physique.
+     */
+    void fermer(Connection physique) {
+        RequetesConnexion requetes = parConnexion.remove(physique);
+        if (requetes == null) {
+            return;
+        }
+        for (Entree entree : requetes.values()) {
+            fermerSilencieusement(entree.physique);
+        }
+        for (Entree entree : requetes.empruntees) {
+            fermerSilencieusement(entree.physique);
+        }
+    }
+
+    /** @return Le nombre de requêtes servies depuis le cache. */
+    public long getSucces() { return succes.sum(); }
+
+    /** @return Le nombre de requêtes qu'il a fallu préparer. */
+    public long getEchecs() { return echecs.sum(); }
+
+    /** @return Le nombre de requêtes évincées du cache. */
+    public long getEvictions() { return evictions.sum(); }
+
+    /** @return La part des requêtes servies depuis le cache, entre 0 et 1. */
+    public double getTauxSucces() {
+        long total = getSucces() + getEchecs();
+        return total == 0 ? 0 : (double) getSucces() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheRequetes[succès=%d, échecs=%d, évictions=%d, taux=%.1f%%]",
+                getSucces(), getEchecs(), getEvictions(), getTauxSucces() * 100);
+    }
+
+    /**
+     * Remet une requête empruntée à disposition : paramètres et lots effacés, résultat courant fermé.
+     * Les requêtes hors cache ou évincées pendant leur usage sont réellement fermées.
+     */
+    private void rendre(Entree entree, RequetesConnexion requetes) {
+        if (!requetes.empruntees.remove(entree)) {
+            return;
+        }
+        entree.enUsage = false;
+        entree.mandataire.ferme = true;
+        if (entree.horsCache || entree.evincee) {
+            fermerSilencieusement(entree.physique);
+            return;
+        }
+        try {
+            ResultSet rs = entree.physique.getResultSet();
+            if (rs != null) {
+                rs.close();
+            }
+            entree.physique.clearParameters();
+            entree.physique.clearBatch();
+        } catch (SQLException e) {
+            entree.evincee = true;
+            fermerSilencieusement(entree.physique);
+        }
+    }
+
+    private PreparedStatement envelopper(Entree entree, RequetesConnexion requetes, Connection logique) {
+        Mandataire mandataire = new Mandataire(entree, requetes, logique);
+        entree.mandataire = mandataire;
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, mandataire);
+    }
+
+    private static void fermerSilencieusement(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException ignored) {
+            // Requête abandonnée
+        }
+    }
+
+    /** Clé d'une requête dans le cache d'une connexion. */
+    private static final class Cle {
+        private final String sql;
+        private final int clesGenerees;
+
+        private Cle(String sql, int clesGenerees) {
+            this.sql = sql;
+            this.clesGenerees = clesGenerees;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Cle)) return false;
+            Cle autre = (Cle) o;
+            return clesGenerees == autre.clesGenerees && sql.equals(autre.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, clesGenerees);
+        }
+    }
+
+    /**
+     * Un emprunt d'une requête : fermé par {@code close()} ou quand la requête est rendue au cache,
+     * il ne transmet plus aucun appel à la requête physique. {@code getConnection()} renvoie la connexion
+     * empruntée au pool, jamais la connexion physique, que l'appelant pourrait fermer.
+     */
+    private final class Mandataire implements InvocationHandler {
+        private final Entree entree;
+        private final RequetesConnexion requetes;
+        private final Connection logique;
+        private boolean ferme;
+
+        private Mandataire(Entree entree, RequetesConnexion requetes, Connection logique) {
+            this.entree = entree;
+            this.requetes = requetes;
+            this.logique = logique;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!ferme) {
+                        rendre(entree, requetes);
+                    }
+                    return null;
+                case "isClosed":
+                    return ferme || entree.physique.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    if (ferme) {
+                        throw new SQLException("Requête déjà fermée.");
+                    }
+                    return logique;
+                default:
+                    if (ferme) {
+                        throw new SQLException("Requête déjà fermée.");
+                    }
+                    try {
+                        return method.invoke(entree.physique, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    /** Requête physique et son état d'emprunt. */
+    private static final class Entree {
+        private final PreparedStatement physique;
+        /** Le mandataire de l'emprunt en cours, ou du dernier emprunt */
+        private Mandataire mandataire;
+        private boolean enUsage;
+        private boolean horsCache;
+        private boolean evincee;
+
+        private Entree(PreparedStatement physique) {
+            this.physique = physique;
+        }
+    }
+
+    /** Cache LRU des requêtes d'une connexion physique. */
+    private final class RequetesConnexion extends LinkedHashMap<Cle, Entree> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Entree> empruntees = new ArrayList<>();
+
+        private RequetesConnexion() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Cle, Entree> eldest) {
+            if (size() <= capaciteParConnexion) {
+                return false;
+            }
+            Entree entree = eldest.getValue();
+            evictions.increment();
+            if (entree.enUsage) {
+                entree.evincee = true;
+            } else {
+                fermerSilencieusement(entree.physique);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package DAO;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Fournisseur de connexions à la base de données.
+ * Les DAO empruntent une connexion pour chaque opération et la ferment à la fin :
+ * la fermeture rend la connexion au fournisseur au lieu de couper le lien avec la base.
+ */
+public interface ConnectionProvider extends AutoCloseable {
+
+    /**
+     * Emprunte une connexion.
+     * @return Une connexion prête à l'emploi, à fermer (try-with-resources) après usage.
+     * @throws SQLException Si aucune connexion n'a pu être obtenue.
+     */
+    Connection getConnection() throws SQLException;
+
+    /**
+     * Enregistre une action exécutée à la fermeture du fournisseur, avant celle des connexions :
+     * les services partagés par base s'en servent pour s'arrêter et se retirer de leur registre.
+     * Les actions s'exécutent dans l'ordre inverse de leur enregistrement.
+     * @param action L'action à exécuter.
+     */
+    void aLaFermeture(Runnable action);
+
+    /**
+     * Libère toutes les ressources du fournisseur (connexions physiques, threads de maintenance).
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,179 @@
+package DAO;
+
+import Modele.Attraction;
+import Modele.EtatFileVirtuelle;
+import Modele.PassageFile;
+import Modele.Reservation;
+import Modele.User;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO des instantanés des files d'attente virtuelles.
+ * <p>
+ * Les files vivent en mémoire ; ce DAO en enregistre périodiquement l'état (compteurs et visiteurs en attente)
+ * et le relit au démarrage. Un instantané remplace entièrement le précédent pour chaque attraction concernée.
+ */
+public class FileVirtuelleDAO {
+
+    private ConnectionProvider fournisseur;
+
+    /**
+     * Constructeur du DAO des files virtuelles.
+     * @param fournisseur Le fournisseur de connexions utilisé pour exécuter les requêtes SQL.
+     */
+    public FileVirtuelleDAO(ConnectionProvider fournisseur) {
+        this.fournisseur = fournisseur;
+    }
+
+    /**
+     * Enregistre en une transaction l'état de plusieurs files et leurs visiteurs en attente.
+     * @param instantanes Les visiteurs en attente de chaque file, par état de file.
+     * @return true si l'instantané a été enregistré, false en cas d'erreur (rien n'est alors écrit).
+     */
+    public boolean enregistrer(Map<EtatFileVirtuelle, List<PassageFile>> instantanes) {
+        if (instantanes.isEmpty()) {
+            return true;
+        }
+        try (Connection connexion = fournisseur.getConnection()) {
+            connexion.setAutoCommit(false);
+            try (PreparedStatement supprimerFile = connexion.prepareStatement(
+                         "DELETE FROM file_virtuelle WHERE id_attraction = ?");
+                 PreparedStatement insererFile = connexion.prepareStatement(
+                         "INSERT INTO file_virtuelle (id_attraction, ouverture, dernier_numero, appeles, attente_cumulee_s) " +
+                                 "VALUES (?, ?, ?, ?, ?)");
+                 PreparedStatement supprimerPassages = connexion.prepareStatement(
+                         "DELETE FROM file_virtuelle_passage WHERE id_attraction = ?");
+                 PreparedStatement insererPassage = connexion.prepareStatement(
+                         "INSERT INTO file_virtuelle_passage (id_attraction, numero, id_reservation, id_user, invite_nom, " +
+                                 "invite_email, entree, retour_estime) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (Map.Entry<EtatFileVirtuelle, List<PassageFile>> instantane : instantanes.entrySet()) {
+                    EtatFileVirtuelle etat = instantane.getKey();
+                    supprimerFile.setInt(1, etat.getIdAttraction());
+                    supprimerFile.addBatch();
+                    supprimerPassages.setInt(1, etat.getIdAttraction());
+                    supprimerPassages.addBatch();
+
+                    insererFile.setInt(1, etat.getIdAttraction());
+                    insererFile.setTimestamp(2, Timestamp.valueOf(etat.getOuverture()));
+                    insererFile.setLong(3, etat.getDernierNumero());
+                    insererFile.setLong(4, etat.getAppeles());
+                    insererFile.setLong(5, etat.getAttenteCumuleeSecondes());
+                    insererFile.addBatch();
+
+                    for (PassageFile passage : instantane.getValue()) {
+                        lierPassage(insererPassage, etat.getIdAttraction(), passage);
+                        insererPassage.addBatch();
+                    }
+                }
+                supprimerFile.executeBatch();
+                supprimerPassages.executeBatch();
+                insererFile.executeBatch();
+                insererPassage.executeBatch();
+                connexion.commit();
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                connexion.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Relit l'état des files ouvertes ce jour-là ; les files des jours précédents sont supprimées.
+     * Seuls les compteurs enregistrés sont renseignés (ni nom d'attraction, ni visiteurs en attente, ni estimation).
+     * @param jour Le jour courant.
+     * @return L'état de chaque file du jour, vide en cas d'erreur.
+     */
+    public List<EtatFileVirtuelle> chargerEtats(LocalDate jour) {
+        List<EtatFileVirtuelle> etats = new ArrayList<>();
+        Timestamp debutJour = Timestamp.valueOf(jour.atStartOfDay());
+        try (Connection connexion = fournisseur.getConnection()) {
+            try (PreparedStatement stmt = connexion.prepareStatement("DELETE FROM file_virtuelle WHERE ouverture < ?")) {
+                stmt.setTimestamp(1, debutJour);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = connexion.prepareStatement("DELETE FROM file_virtuelle_passage WHERE entree < ?")) {
+                stmt.setTimestamp(1, debutJour);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = connexion.prepareStatement(
+                    "SELECT id_attraction, ouverture, dernier_numero, appeles, attente_cumulee_s FROM file_virtuelle");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    etats.add(new EtatFileVirtuelle(rs.getInt("id_attraction"), null,
+                            rs.getTimestamp("ouverture").toLocalDateTime(), rs.getLong("dernier_numero"),
+                            rs.getLong("appeles"), rs.getLong("attente_cumulee_s"), 0, 0, Duration.ZERO));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            etats.clear();
+        }
+        return etats;
+    }
+
+    /**
+     * Relit les visiteurs en attente, par attraction puis par numéro.
+     * Les réservations ne portent que les identifiants (réservation, attraction, utilisateur) et les informations d'invité.
+     * @return Les places en attente, vide en cas d'erreur.
+     */
+    public List<PassageFile> chargerPassages() {
+        List<PassageFile> passages = new ArrayList<>();
+        String sql = "SELECT id_attraction, numero, id_reservation, id_user, invite_nom, invite_email, entree, retour_estime " +
+                "FROM file_virtuelle_passage ORDER BY id_attraction, numero";
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Reservation reservation = new Reservation();
+                reservation.setIdReservation(rs.getInt("id_reservation"));
+                Attraction attraction = new Attraction();
+                attraction.setIdAttraction(rs.getInt("id_attraction"));
+                reservation.setAttraction(attraction);
+                int idUser = rs.getInt("id_user");
+                if (!rs.wasNull()) {
+                    User user = new User();
+                    user.setUserId(idUser);
+                    reservation.setUser(user);
+                }
+                reservation.setInviteNom(rs.getString("invite_nom"));
+                reservation.setInviteEmail(rs.getString("invite_email"));
+                passages.add(new PassageFile(rs.getLong("numero"), reservation,
+                        rs.getTimestamp("entree").toLocalDateTime(), rs.getTimestamp("retour_estime").toLocalDateTime()));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            passages.clear();
+        }
+        return passages;
+    }
+
+    private static void lierPassage(PreparedStatement stmt, int idAttraction, PassageFile passage) throws SQLException {
+        Reservation reservation = passage.getReservation();
+        stmt.setInt(1, idAttraction);
+        stmt.setLong(2, passage.getNumero());
+        if (reservation.getIdReservation() > 0) {
+            stmt.setInt(3, reservation.getIdReservation());
+        } else {
+            stmt.setNull(3, Types.INTEGER);
+        }
+        if (reservation.getUser() != null) {
+            stmt.setInt(4, reservation.getUser().getUserId());
+        } else {
+            stmt.setNull(4, Types.INTEGER);
+        }
+        stmt.setString(5, reservation.getInviteNom());
+        stmt.setString(6, reservation.getInviteEmail());
+        stmt.setTimestamp(7, Timestamp.valueOf(passage.getEntree()));
+        stmt.setTimestamp(8, Timestamp.valueOf(passage.getRetourEstime()));
+    }
+}
@@ -0,0 +1,50 @@
+package DAO;
+
+import Modele.Reservation.StatutReservation;
+
+import java.time.LocalDate;
+
+/**
+ * Critères de recherche des réservations, appliqués côté base par {@link ReservationDAO#recupererPage}.
+ * Un critère null n'est pas appliqué.
+ */
+public class FiltreReservations {
+
+    private final StatutReservation statut;
+    private final LocalDate dateDebut;
+    private final LocalDate dateFin;
+    private final Integer idAttraction;
+
+    /**
+     * Crée un filtre.
+     * @param statut Le statut recherché, ou null pour tous.
+     * @param dateDebut La première date de réservation incluse, ou null.
+     * @param dateFin La dernière date de réservation incluse, ou null.
+     * @param idAttraction L'ID de l'attraction, ou null pour toutes.
+     */
+    public FiltreReservations(StatutReservation statut, LocalDate dateDebut, LocalDate dateFin, Integer idAttraction) {
+        this.statut = statut;
+        this.dateDebut = dateDebut;
+        this.dateFin = dateFin;
+        this.idAttraction = idAttraction;
+    }
+
+    /**
+     * @return Un filtre qui ne restreint rien.
+     */
+    public static FiltreReservations aucun() {
+        return new FiltreReservations(null, null, null, null);
+    }
+
+    /** @return Le statut recherché, ou null. */
+    public StatutReservation getStatut() { return statut; }
+
+    /** @return La première date incluse, ou null. */
+    public LocalDate getDateDebut() { return dateDebut; }
+
+    /** @return La dernière date incluse, ou null. */
+    public LocalDate getDateFin() { return dateFin; }
+
+    /** @return L'ID de l'attraction, ou null. */
+    public Integer getIdAttraction() { return idAttraction; }
+}
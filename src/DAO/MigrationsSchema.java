@@ -0,0 +1,318 @@
+package DAO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Migrations versionnées du schéma de la base.
+ * <p>
+ * Les scripts sont des ressources du dossier `migrations`, appliqués dans l'ordre de {@link #SCRIPTS}.
+ * La table `schema_version` garde une ligne par script appliqué : au démarrage, seuls les scripts
+ * plus récents que la dernière version enregistrée sont exécutés. Un script déjà publié ne doit plus
+ * être modifié ; tout changement de schéma passe par un nouveau script ajouté en fin de liste.
+ * <p>
+ * Les scripts n'utilisent que la syntaxe commune à MySQL et à H2 en mode MySQL (pas d'instruction `SET`,
+ * noms d'index uniques dans toute la base) : la même suite s'applique aux deux profils de {@link ProfilBase}.
+ * <p>
+ * MySQL valide implicitement chaque instruction DDL : un script est donc exécuté instruction par instruction,
+ * et sa version n'est enregistrée que si toutes ont réussi. En cas d'échec, les scripts suivants ne sont pas appliqués.
+ * Un ajout de colonne dont la colonne existe déjà, ou une création d'index quand un index de même nature
+ * porte déjà sur les mêmes colonnes, est ignoré : un script peut ainsi compléter les bases anciennes
+ * sans échouer sur celles qui ont déjà le schéma complet. Une suppression d'index est ignorée si l'index n'existe plus,
+ * ce qui permet de reprendre un script interrompu entre deux instructions. Un changement de moteur de stockage n'est exécuté
+ * que sous MySQL, et seulement si la table n'a pas déjà ce moteur.
+ * <p>
+ * {@link #verifierPlans()} contrôle ensuite, avec `EXPLAIN`, que les requêtes des DAO utilisent bien
+ * les index prévus pour elles.
+ */
+public class MigrationsSchema {
+
+    /** Scripts de migration, dans l'ordre d'application (version = position dans la liste + 1) */
+    private static final String[] SCRIPTS = {
+            "V1__schema_initial.sql",
+            "V2__index_requetes.sql",
+            "V3__version_attraction.sql",
+            "V4__creneau_reservation.sql",
+            "V5__file_virtuelle.sql",
+            "V6__colonnes_paiement.sql",
+            "V7__moteur_innodb.sql",
+            "V8__version_cumul.sql"
+    };
+
+    private static final Pattern AJOUT_COLONNE =
+            Pattern.compile("(?is)ALTER\\s+TABLE\\s+`?(\\w+)`?\\s+ADD\\s+COLUMN\\s+`?(\\w+)`?.*");
+    private static final Pattern CHANGEMENT_MOTEUR =
+            Pattern.compile("(?is)ALTER\\s+TABLE\\s+`?(\\w+)`?\\s+ENGINE\\s*=\\s*(\\w+)\\s*");
+    private static final Pattern SUPPRESSION_INDEX =
+            Pattern.compile("(?is)ALTER\\s+TABLE\\s+`?(\\w+)`?\\s+DROP\\s+INDEX\\s+`?(\\w+)`?\\s*");
+    private static final Pattern CREATION_INDEX =
+            Pattern.compile("(?is)CREATE\\s+(UNIQUE\\s+)?INDEX\\s+`?\\w+`?\\s+ON\\s+`?(\\w+)`?\\s*\\(([^)]*)\\).*");
+
+    /** Requêtes des DAO et index qu'elles doivent utiliser : { description, requête EXPLAIN, index attendu } */
+    private static final String[][] PLANS_ATTENDUS = {
+            {"historique invité",
+                    "EXPLAIN SELECT r.date_reservation, a.nom FROM reservation r " +
+                            "JOIN attraction a ON r.id_attraction = a.id_attraction WHERE r.invite_email = 'x'",
+                    "idx_reservation_invite"},
+            {"historique client",
+                    "EXPLAIN SELECT r.id_reservation, r.id_attraction, r.date_reservation, r.statut, a.nom FROM reservation r " +
+                            "JOIN attraction a ON r.id_attraction = a.id_attraction WHERE r.id_user = 0",
+                    "idx_reservation_user"},
+            {"places occupées",
+                    "EXPLAIN SELECT COUNT(*) FROM reservation WHERE id_attraction = 0 " +
+                            "AND date_reservation = DATE '2000-01-01' AND creneau IS NULL AND statut IN ('confirmee','en_attente')",
+                    "idx_reservation_occupation"},
+            {"places par créneau",
+                    "EXPLAIN SELECT creneau, COUNT(*) FROM reservation WHERE id_attraction = 0 " +
+                            "AND date_reservation = DATE '2000-01-01' AND creneau IS NOT NULL " +
+                            "AND statut IN ('confirmee','en_attente') GROUP BY creneau",
+                    "idx_reservation_occupation"},
+            {"connexion",
+                    "EXPLAIN SELECT * FROM user WHERE email = 'x'",
+                    "email"}
+    };
+
+    private ConnectionProvider fournisseur;
+
+    /**
+     * Constructeur.
+     * @param fournisseur Le fournisseur de connexions de la base à migrer.
+     */
+    public MigrationsSchema(ConnectionProvider fournisseur) {
+        this.fournisseur = fournisseur;
+    }
+
+    /**
+     * Applique les scripts de migration qui ne l'ont pas encore été.
+     * @return true si la base est à la dernière version.
+     */
+    public boolean migrer() {
+        try (Connection connexion = fournisseur.getConnection()) {
+            try (Statement stmt = connexion.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version (" +
+                        "version int NOT NULL, " +
+                        "script varchar(100) NOT NULL, " +
+                        "date_application timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                        "PRIMARY KEY (version))");
+            }
+            int version = versionActuelle(connexion);
+            for (int i = version; i < SCRIPTS.length; i++) {
+                appliquer(connexion, i + 1, SCRIPTS[i]);
+            }
+            System.out.println("Schéma de la base à jour (version " + SCRIPTS.length + ").");
+            return true;
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Remplit une base qui vient d'être créée (aucune attraction) avec un script de données, en une transaction.
+     * @param ressource Le chemin du script dans les ressources (par exemple « /donnees/demo.sql »).
+     * @return true si les données ont été chargées, false si la base n'était pas vide ou en cas d'erreur.
+     */
+    public boolean chargerDonnees(String ressource) {
+        try (Connection connexion = fournisseur.getConnection()) {
+            try (Statement stmt = connexion.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT EXISTS(SELECT 1 FROM attraction)")) {
+                if (rs.next() && rs.getBoolean(1)) {
+                    return false;
+                }
+            }
+            connexion.setAutoCommit(false);
+            try (Statement stmt = connexion.createStatement()) {
+                for (String instruction : lireInstructions(ressource)) {
+                    stmt.executeUpdate(instruction);
+                }
+                connexion.commit();
+                System.out.println("Données " + ressource + " chargées.");
+                return true;
+            } catch (SQLException e) {
+                connexion.rollback();
+                throw e;
+            }
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Vérifie avec `EXPLAIN` que chaque requête surveillée utilise son index, et signale les régressions.
+     * Sur une table presque vide, l'optimiseur peut préférer un parcours complet : l'avertissement est alors sans gravité.
+     * @return Les avertissements (vide si tous les plans sont conformes).
+     */
+    public List<String> verifierPlans() {
+        List<String> avertissements = new ArrayList<>();
+        try (Connection connexion = fournisseur.getConnection();
+             Statement stmt = connexion.createStatement()) {
+            for (String[] plan : PLANS_ATTENDUS) {
+                try (ResultSet rs = stmt.executeQuery(plan[1])) {
+                    if (!utiliseIndex(rs, plan[2])) {
+                        avertissements.add("Requête « " + plan[0] + " » : l'index " + plan[2] + " n'est pas utilisé.");
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            avertissements.add("Vérification des plans impossible : " + e.getMessage());
+        }
+        for (String avertissement : avertissements) {
+            System.out.println("Attention : " + avertissement);
+        }
+        return avertissements;
+    }
+
+    private int versionActuelle(Connection connexion) throws SQLException {
+        try (Statement stmt = connexion.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void appliquer(Connection connexion, int version, String script) throws SQLException, IOException {
+        try (Statement stmt = connexion.createStatement()) {
+            for (String instruction : lireInstructions("/migrations/" + script)) {
+                if (!dejaAppliquee(connexion, instruction)) {
+                    stmt.execute(instruction);
+                }
+            }
+        }
+        try (PreparedStatement stmt = connexion.prepareStatement("INSERT INTO schema_version (version, script) VALUES (?, ?)")) {
+            stmt.setInt(1, version);
+            stmt.setString(2, script);
+            stmt.executeUpdate();
+        }
+        System.out.println("Migration " + script + " appliquée.");
+    }
+
+    /**
+     * Indique si une instruction d'ajout de colonne, de changement de moteur, de suppression ou de création d'index
+     * n'a rien à faire : la colonne existe déjà, la table a déjà ce moteur (ou la base n'est pas MySQL),
+     * l'index à supprimer n'existe plus, ou un index (unique si demandé) porte déjà exactement sur les mêmes colonnes.
+     */
+    private static boolean dejaAppliquee(Connection connexion, String instruction) throws SQLException {
+        DatabaseMetaData meta = connexion.getMetaData();
+        Matcher colonne = AJOUT_COLONNE.matcher(instruction.strip());
+        if (colonne.matches()) {
+            try (ResultSet rs = meta.getColumns(connexion.getCatalog(), null, colonne.group(1), colonne.group(2))) {
+                return rs.next();
+            }
+        }
+        Matcher moteur = CHANGEMENT_MOTEUR.matcher(instruction.strip());
+        if (moteur.matches()) {
+            if (!"MySQL".equalsIgnoreCase(meta.getDatabaseProductName())) {
+                return true;
+            }
+            try (PreparedStatement stmt = connexion.prepareStatement(
+                    "SELECT ENGINE FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?")) {
+                stmt.setString(1, moteur.group(1));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return !rs.next() || moteur.group(2).equalsIgnoreCase(rs.getString(1));
+                }
+            }
+        }
+        Matcher suppression = SUPPRESSION_INDEX.matcher(instruction.strip());
+        if (suppression.matches()) {
+            try (ResultSet rs = meta.getIndexInfo(connexion.getCatalog(), null, suppression.group(1), false, false)) {
+                while (rs.next()) {
+                    if (suppression.group(2).equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        Matcher index = CREATION_INDEX.matcher(instruction.strip());
+        if (!index.matches()) {
+            return false;
+        }
+        boolean unique = index.group(1) != null;
+        List<String> colonnes = new ArrayList<>();
+        for (String nom : index.group(3).split(",")) {
+            colonnes.add(nom.replace("`", "").strip().toLowerCase(Locale.ROOT));
+        }
+        // Colonnes de chaque index existant, dans l'ordre (getIndexInfo trie par index puis par position)
+        Map<String, List<String>> existants = new HashMap<>();
+        try (ResultSet rs = meta.getIndexInfo(connexion.getCatalog(), null, index.group(2), unique, false)) {
+            while (rs.next()) {
+                if (rs.getString("COLUMN_NAME") != null) {
+                    existants.computeIfAbsent(rs.getString("INDEX_NAME"), n -> new ArrayList<>())
+                            .add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return existants.containsValue(colonnes);
+    }
+
+    /**
+     * Découpe un script en instructions : une instruction se termine par un point-virgule en fin de ligne,
+     * les lignes de commentaire (`--`) sont ignorées.
+     */
+    static List<String> lireInstructions(String ressource) throws IOException {
+        String contenu;
+        try (InputStream in = MigrationsSchema.class.getResourceAsStream(ressource)) {
+            if (in == null) {
+                throw new IOException("Script introuvable : " + ressource);
+            }
+            contenu = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> instructions = new ArrayList<>();
+        StringBuilder courante = new StringBuilder();
+        for (String ligne : contenu.split("\\R")) {
+            String nette = ligne.strip();
+            if (nette.isEmpty() || nette.startsWith("--")) {
+                continue;
+            }
+            if (nette.endsWith(";")) {
+                courante.append(nette, 0, nette.length() - 1);
+                instructions.add(courante.toString());
+                courante.setLength(0);
+            } else {
+                courante.append(nette).append('\n');
+            }
+        }
+        if (!courante.toString().isBlank()) {
+            instructions.add(courante.toString());
+        }
+        return instructions;
+    }
+
+    /**
+     * Cherche l'index dans le résultat d'un `EXPLAIN` : colonne `key` sous MySQL,
+     * texte du plan sous les autres bases.
+     */
+    private static boolean utiliseIndex(ResultSet rs, String index) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int colonneCle = 0;
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if ("key".equalsIgnoreCase(meta.getColumnLabel(i))) {
+                colonneCle = i;
+            }
+        }
+        while (rs.next()) {
+            if (colonneCle > 0) {
+                if (index.equalsIgnoreCase(rs.getString(colonneCle))) {
+                    return true;
+                }
+            } else {
+                // Plan textuel : l'index y apparaît qualifié par son schéma (« public.idx_... »)
+                String plan = rs.getString(1);
+                if (plan != null && plan.toLowerCase(Locale.ROOT).contains("." + index)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
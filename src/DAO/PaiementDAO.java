@@ -0,0 +1,169 @@
+package DAO;
+
+import Modele.Evenement;
+import Modele.Paiement;
+import Modele.Reservation;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DAO pour la table `paiement`.
+ * Enregistre un paiement et les réservations qu'il couvre comme une seule unité de travail :
+ * soit tout est écrit, soit rien ne l'est.
+ */
+public class PaiementDAO {
+
+    /** Nombre maximal de tentatives quand la base signale un interblocage */
+    private static final int MAX_TENTATIVES = 3;
+
+    private ConnectionProvider fournisseur;
+    private ReservationDAO reservationDAO;
+    private BusEvenements bus;
+
+    /**
+     * Constructeur du DAO des paiements.
+     * @param fournisseur Le fournisseur de connexions utilisé pour exécuter les requêtes SQL.
+     */
+    public PaiementDAO(ConnectionProvider fournisseur) {
+        this.fournisseur = fournisseur;
+        this.reservationDAO = new ReservationDAO(fournisseur);
+        this.bus = BusEvenements.de(fournisseur);
+    }
+
+    /**
+     * Enregistre dans une même transaction un paiement et les réservations qu'il règle.
+     * <p>
+     * L'opération est idempotente : la clé fournie par le client (une par fenêtre de paiement) est unique
+     * en base ; si elle a déjà été enregistrée (double clic sur « Payer », nouvel essai après une erreur réseau),
+     * rien n'est écrit et les réservations existantes sont renvoyées.
+     * En cas d'interblocage, la transaction est rejouée jusqu'à {@value #MAX_TENTATIVES} fois.
+     * Un événement de création est publié pour chaque réservation nouvellement enregistrée.
+     *
+     * @param reservations Les réservations réglées par ce paiement ; leurs ID sont renseignés après insertion.
+     * @param paiement Le paiement ; son ID est renseigné après insertion.
+     * @param cleIdempotence La clé d'idempotence fournie par le client.
+     * @return Les ID des réservations (nouvelles ou déjà enregistrées avec cette clé), ou une liste vide en cas d'échec.
+     */
+    public List<Integer> enregistrerAvecReservations(List<Reservation> reservations, Paiement paiement, String cleIdempotence) {
+        for (int tentative = 1; tentative <= MAX_TENTATIVES; tentative++) {
+            try {
+                return enregistrer(reservations, paiement, cleIdempotence);
+            } catch (SQLIntegrityConstraintViolationException e) {
+                // La même clé vient d'être enregistrée par un autre appel : on renvoie son résultat
+                return trouverReservations(cleIdempotence);
+            } catch (SQLException e) {
+                if (!estInterblocage(e) || tentative == MAX_TENTATIVES) {
+                    e.printStackTrace();
+                    return new ArrayList<>();
+                }
+                attendre(tentative);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Une tentative de l'unité de travail : paiement, réservations, puis lien du paiement vers la réservation principale.
+     */
+    private List<Integer> enregistrer(List<Reservation> reservations, Paiement paiement, String cleIdempotence) throws SQLException {
+        int idPaiement;
+        List<Integer> ids;
+        List<Evenement.ReservationCreee> creations = new ArrayList<>();
+        try (Connection connexion = fournisseur.getConnection()) {
+            connexion.setAutoCommit(false);
+            try {
+                List<Integer> existantes = lireReservations(connexion, cleIdempotence);
+                if (!existantes.isEmpty()) {
+                    connexion.rollback();
+                    return existantes;
+                }
+
+                idPaiement = insererPaiement(connexion, paiement, cleIdempotence);
+                ids = reservationDAO.insererLot(connexion, reservations, idPaiement, creations);
+
+                try (PreparedStatement stmt = connexion.prepareStatement(
+                        "UPDATE paiement SET id_reservation = ? WHERE id_paiement = ?")) {
+                    stmt.setInt(1, ids.get(0));
+                    stmt.setInt(2, idPaiement);
+                    stmt.executeUpdate();
+                }
+                connexion.commit();
+            } catch (SQLException | RuntimeException e) {
+                connexion.rollback();
+                throw e;
+            }
+        }
+        // Publié une fois la connexion rendue au pool : les abonnés ne la retiennent pas
+        paiement.setIdPaiement(idPaiement);
+        paiement.setReservation(reservations.get(0));
+        System.out.println("Paiement " + idPaiement + " enregistré pour les réservations " + ids);
+        bus.publier(creations);
+        return ids;
+    }
+
+    private int insererPaiement(Connection connexion, Paiement paiement, String cleIdempotence) throws SQLException {
+        String sql = "INSERT INTO paiement (montant, statut, date_paiement, moyen_paiement, cle_idempotence) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = connexion.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setFloat(1, paiement.getMontant());
+            stmt.setString(2, paiement.getStatut().name().toLowerCase());
+            stmt.setDate(3, new java.sql.Date(paiement.getDatePaiement().getTime()));
+            stmt.setString(4, paiement.getMoyenPaiement());
+            stmt.setString(5, cleIdempotence);
+            stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (!rs.next()) {
+                    throw new SQLException("Échec lors de l'insertion du paiement : aucun ID généré retourné.");
+                }
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Cherche les réservations déjà payées avec une clé d'idempotence, pour répondre à un nouvel essai
+     * sans bloquer de places.
+     * @param cleIdempotence La clé d'idempotence fournie par le client.
+     * @return Les ID des réservations payées avec cette clé, vide si la clé est inconnue ou en cas d'erreur.
+     */
+    public List<Integer> trouverReservations(String cleIdempotence) {
+        try (Connection connexion = fournisseur.getConnection()) {
+            return lireReservations(connexion, cleIdempotence);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    private List<Integer> lireReservations(Connection connexion, String cleIdempotence) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        String sql = "SELECT r.id_reservation FROM reservation r " +
+                "JOIN paiement p ON r.id_paiement = p.id_paiement " +
+                "WHERE p.cle_idempotence = ? ORDER BY r.id_reservation";
+        try (PreparedStatement stmt = connexion.prepareStatement(sql)) {
+            stmt.setString(1, cleIdempotence);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Interblocage ou délai de verrou dépassé : SQLState 40001, codes MySQL 1213 et 1205.
+     */
+    private static boolean estInterblocage(SQLException e) {
+        return "40001".equals(e.getSQLState()) || e.getErrorCode() == 1213 || e.getErrorCode() == 1205;
+    }
+
+    private static void attendre(int tentative) {
+        try {
+            Thread.sleep(20L * tentative);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
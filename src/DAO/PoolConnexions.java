@@ -0,0 +1,309 @@
+package DAO;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pool de connexions JDBC borné et thread-safe.
+ * <ul>
+ *   <li>au plus {@code tailleMax} connexions sont empruntées en même temps ;</li>
+ *   <li>un emprunt attend au plus {@code delaiEmpruntMs} avant d'échouer ;</li>
+ *   <li>chaque connexion inactive est validée avant d'être prêtée ;</li>
+ *   <li>les connexions inactives depuis plus de {@code dureeInactiviteMaxMs} sont fermées ;</li>
+ *   <li>les requêtes préparées sont réutilisées d'un emprunt à l'autre via un {@link CacheRequetes}.</li>
+ * </ul>
+ * Les connexions prêtées sont des mandataires : {@code close()} rend la connexion physique au pool,
+ * en remettant dans le cache les requêtes que l'emprunteur aurait oublié de fermer.
+ */
+public class PoolConnexions implements ConnectionProvider {
+
+    /** Taille maximale par défaut du pool */
+    public static final int TAILLE_MAX_DEFAUT = 10;
+    /** Délai d'emprunt par défaut (ms) */
+    public static final long DELAI_EMPRUNT_DEFAUT_MS = 5_000;
+    /** Durée d'inactivité maximale par défaut (ms) */
+    public static final long DUREE_INACTIVITE_DEFAUT_MS = 5 * 60_000;
+    /** Nombre par défaut de requêtes préparées gardées par connexion */
+    public static final int TAILLE_CACHE_REQUETES_DEFAUT = 64;
+
+    /** Délai accordé à {@link Connection#isValid(int)} lors de la validation (s) */
+    private static final int DELAI_VALIDATION_S = 2;
+
+    private final String url;
+    private final String utilisateur;
+    private final String motDePasse;
+    private final long delaiEmpruntMs;
+    private final long dureeInactiviteMaxMs;
+
+    private final Semaphore permis;
+    private final CacheRequetes cacheRequetes;
+    private final LinkedBlockingDeque<ConnexionInactive> inactives = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService nettoyeur;
+    private final Deque<Runnable> actionsFermeture = new ConcurrentLinkedDeque<>();
+    private volatile boolean ferme;
+
+    /**
+     * Crée un pool avec les réglages par défaut.
+     * @param url L'URL JDBC de la base.
+     * @param utilisateur L'utilisateur de la base.
+     * @param motDePasse Le mot de passe de l'utilisateur.
+     */
+    public PoolConnexions(String url, String utilisateur, String motDePasse) {
+        this(url, utilisateur, motDePasse, TAILLE_MAX_DEFAUT, DELAI_EMPRUNT_DEFAUT_MS, DUREE_INACTIVITE_DEFAUT_MS,
+                TAILLE_CACHE_REQUETES_DEFAUT);
+    }
+
+    /**
+     * Crée un pool.
+     * @param url L'URL JDBC de la base (MySQL ou base embarquée).
+     * @param utilisateur L'utilisateur de la base.
+     * @param motDePasse Le mot de passe de l'utilisateur.
+     * @param tailleMax Le nombre maximal de connexions empruntées simultanément.
+     * @param delaiEmpruntMs Le temps d'attente maximal d'un emprunt, en millisecondes.
+     * @param dureeInactiviteMaxMs La durée au-delà de laquelle une connexion inactive est fermée, en millisecondes.
+     * @param tailleCacheRequetes Le nombre de requêtes préparées gardées par connexion (0 pour désactiver le cache).
+     */
+    public PoolConnexions(String url, String utilisateur, String motDePasse,
+                          int tailleMax, long delaiEmpruntMs, long dureeInactiviteMaxMs, int tailleCacheRequetes) {
+        if (tailleMax <= 0) {
+            throw new IllegalArgumentException("La taille du pool doit être positive : " + tailleMax);
+        }
+        this.url = url;
+        this.utilisateur = utilisateur;
+        this.motDePasse = motDePasse;
+        this.delaiEmpruntMs = delaiEmpruntMs;
+        this.dureeInactiviteMaxMs = dureeInactiviteMaxMs;
+        this.permis = new Semaphore(tailleMax, true);
+        this.cacheRequetes = new CacheRequetes(tailleCacheRequetes);
+
+        this.nettoyeur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-connexions-nettoyeur");
+            t.setDaemon(true);
+            return t;
+        });
+        long periode = Math.max(1_000, dureeInactiviteMaxMs / 2);
+        nettoyeur.scheduleWithFixedDelay(this::evincerInactives, periode, periode, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Emprunte une connexion, en attendant au plus le délai d'emprunt si le pool est saturé.
+     * @return Une connexion validée ; sa fermeture la rend au pool.
+     * @throws SQLTimeoutException Si aucune connexion ne s'est libérée à temps.
+     * @throws SQLException Si le pool est fermé ou si la base est injoignable.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ferme) {
+            throw new SQLException("Le pool de connexions est fermé.");
+        }
+        try {
+            if (!permis.tryAcquire(delaiEmpruntMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Aucune connexion disponible après " + delaiEmpruntMs + " ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Emprunt de connexion interrompu.", e);
+        }
+
+        try {
+            return envelopper(prendreConnexionValide());
+        } catch (SQLException | RuntimeException e) {
+            permis.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void aLaFermeture(Runnable action) {
+        actionsFermeture.addFirst(action);
+    }
+
+    /**
+     * Ferme le pool : les actions de fermeture sont exécutées (elles peuvent encore emprunter des connexions),
+     * puis les connexions inactives sont fermées immédiatement, les connexions empruntées à leur restitution.
+     */
+    @Override
+    public void close() {
+        Runnable action;
+        while ((action = actionsFermeture.pollFirst()) != null) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        ferme = true;
+        nettoyeur.shutdownNow();
+        ConnexionInactive c;
+        while ((c = inactives.pollFirst()) != null) {
+            fermerSilencieusement(c.physique);
+        }
+    }
+
+    /**
+     * @return Le cache de requêtes préparées du pool (compteurs de succès et d'échecs).
+     */
+    public CacheRequetes getCacheRequetes() {
+        return cacheRequetes;
+    }
+
+    /**
+     * @return Le nombre de connexions inactives disponibles dans le pool.
+     */
+    public int getNombreInactives() {
+        return inactives.size();
+    }
+
+    /**
+     * @return Le nombre d'emprunts encore possibles avant saturation.
+     */
+    public int getNombreDisponibles() {
+        return permis.availablePermits();
+    }
+
+    /**
+     * Récupère la connexion inactive la plus récente encore valide, ou en ouvre une nouvelle.
+     */
+    private Connection prendreConnexionValide() throws SQLException {
+        ConnexionInactive c;
+        while ((c = inactives.pollFirst()) != null) {
+            if (estValide(c.physique)) {
+                return c.physique;
+            }
+            fermerSilencieusement(c.physique);
+        }
+        return DriverManager.getConnection(url, utilisateur, motDePasse);
+    }
+
+    /**
+     * Remet une connexion physique dans le pool après avoir restauré son état par défaut.
+     */
+    private void rendre(Connection physique) {
+        cacheRequetes.liberer(physique);
+        try {
+            if (ferme || physique.isClosed()) {
+                fermerSilencieusement(physique);
+                return;
+            }
+            if (!physique.getAutoCommit()) {
+                physique.rollback();
+                physique.setAutoCommit(true);
+            }
+            inactives.offerFirst(new ConnexionInactive(physique, System.currentTimeMillis()));
+        } catch (SQLException e) {
+            fermerSilencieusement(physique);
+        } finally {
+            permis.release();
+        }
+    }
+
+    /**
+     * Ferme les connexions restées inactives trop longtemps.
+     */
+    private void evincerInactives() {
+        long limite = System.currentTimeMillis() - dureeInactiviteMaxMs;
+        Iterator<ConnexionInactive> it = inactives.iterator();
+        while (it.hasNext()) {
+            ConnexionInactive c = it.next();
+            if (c.depuis < limite && inactives.remove(c)) {
+                fermerSilencieusement(c.physique);
+            }
+        }
+    }
+
+    private boolean estValide(Connection physique) {
+        try {
+            return physique.isValid(DELAI_VALIDATION_S);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void fermerSilencieusement(Connection physique) {
+        cacheRequetes.fermer(physique);
+        try {
+            physique.close();
+        } catch (SQLException ignored) {
+            // La connexion est abandonnée de toute façon
+        }
+    }
+
+    /**
+     * Crée le mandataire prêté à l'appelant : toutes les méthodes sont déléguées
+     * à la connexion physique, sauf {@code close()} qui la rend au pool (une seule fois).
+     */
+    private Connection envelopper(Connection physique) {
+        AtomicBoolean rendue = new AtomicBoolean(false);
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "close":
+                    if (rendue.compareAndSet(false, true)) {
+                        rendre(physique);
+                    }
+                    return null;
+                case "isClosed":
+                    return rendue.get() || physique.isClosed();
+                case "prepareStatement":
+                    if (rendue.get()) {
+                        throw new SQLException("Connexion déjà rendue au pool.");
+                    }
+                    if (args.length == 1) {
+                        return cacheRequetes.preparer(physique, (Connection) proxy, (String) args[0],
+                                Statement.NO_GENERATED_KEYS);
+                    }
+                    if (args.length == 2 && args[1] instanceof Integer) {
+                        return cacheRequetes.preparer(physique, (Connection) proxy, (String) args[0], (Integer) args[1]);
+                    }
+                    return deleguer(physique, method, args);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Connexion empruntée (" + physique + ")";
+                default:
+                    if (rendue.get()) {
+                        throw new SQLException("Connexion déjà rendue au pool.");
+                    }
+                    return deleguer(physique, method, args);
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static Object deleguer(Object cible, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(cible, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Connexion physique au repos, avec l'instant où elle a été rendue. */
+    private static final class ConnexionInactive {
+        private final Connection physique;
+        private final long depuis;
+
+        private ConnexionInactive(Connection physique, long depuis) {
+            this.physique = physique;
+            this.depuis = depuis;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package DAO;
+
+/**
+ * Profil de base de données de l'application.
+ * - `MYSQL` : le serveur MySQL local (par défaut).
+ * - `H2` : une base H2 embarquée en mémoire, en mode de compatibilité MySQL, créée par les migrations
+ *   et remplie avec les données de démonstration. Elle ne demande aucun serveur (tests de charge, mesures),
+ *   seulement le pilote H2 dans le classpath.
+ */
+public enum ProfilBase {
+    MYSQL("jdbc:mysql://localhost:3306/attraction", "root", false),
+    H2("jdbc:h2:mem:attraction;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1", "sa", true);
+
+    private final String url;
+    private final String utilisateur;
+    private final boolean donneesDemo;
+
+    ProfilBase(String url, String utilisateur, boolean donneesDemo) {
+        this.url = url;
+        this.utilisateur = utilisateur;
+        this.donneesDemo = donneesDemo;
+    }
+
+    /**
+     * Retrouve un profil par son nom, sans tenir compte de la casse.
+     * @param nom Le nom du profil (« mysql », « h2 »).
+     * @return Le profil correspondant.
+     * @throws IllegalArgumentException Si le profil est inconnu.
+     */
+    public static ProfilBase depuisNom(String nom) {
+        for (ProfilBase profil : values()) {
+            if (profil.name().equalsIgnoreCase(nom)) {
+                return profil;
+            }
+        }
+        throw new IllegalArgumentException("Profil de base inconnu : " + nom);
+    }
+
+    /** @return L'URL JDBC par défaut du profil. */
+    public String getUrl() { return url; }
+
+    /** @return L'utilisateur par défaut du profil. */
+    public String getUtilisateur() { return utilisateur; }
+
+    /** @return true si la base doit être remplie avec les données de démonstration lorsqu'elle est vide. */
+    public boolean isDonneesDemo() { return donneesDemo; }
+}
@@ -4,80 +4,202 @@ import Modele.*;
 import Modele.Reservation.StatutReservation;
 
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
 
 /**
  * DAO pour la gestion des réservations.
  * Fournit des méthodes pour créer, récupérer et mettre à jour les réservations.
  */
 public class ReservationDAO {
-    private Connection connexion;
+    private ConnectionProvider fournisseur;
+    private BusEvenements bus;
 
     /**Constructeur*/
-    public ReservationDAO(Connection connexion) {
-        this.connexion = connexion;
+    public ReservationDAO(ConnectionProvider fournisseur) {
+        this.fournisseur = fournisseur;
+        this.bus = BusEvenements.de(fournisseur);
     }
 
-    /** Création d'une réservation (avant paiement)*/
-    public void creationReservation(Reservation reservation) {
-        String sql = "INSERT INTO reservation (id_user, id_attraction, date_reservation, statut) VALUES (?, ?, ?, ?)";
+    /**
+     * Création d'une réservation (avant paiement).
+     * @param reservation La réservation à insérer ; son ID est renseigné après insertion.
+     * @return L'ID généré, ou -1 en cas d'échec.
+     */
+    public int creationReservation(Reservation reservation) {
+        List<Integer> ids = creationReservationsBatch(List.of(reservation));
+        return ids.isEmpty() ? -1 : ids.get(0);
+    }
 
-        /** Préparation de la requête SQL avec récupération de la clé générée (id de réservation)*/
-        try (PreparedStatement stmt = connexion.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setInt(1, reservation.getUser().getUserId());
-            stmt.setInt(2, reservation.getAttraction().getIdAttraction());
-            stmt.setDate(3, new java.sql.Date(reservation.getDateReservation().getTime()));
-            stmt.setString(4, reservation.getStatut().name());
-
-            /**Exécution de la requête*/
-            int affectedRows = stmt.executeUpdate();
-            // Si la réservation a bien été insérée, on récupère l'ID généré automatiquement
-            if (affectedRows > 0) {
-                ResultSet rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    int id = rs.getInt(1);
-                    System.out.println("Réservation créée avec succès. ID = " + id);
-                }
+    /**
+     * Création d'une réservation pour invité.
+     * @param reservation La réservation à insérer (nom et email de l'invité renseignés) ; son ID est renseigné après insertion.
+     * @return L'ID généré, ou -1 en cas d'échec.
+     */
+    public int creationReservationInvite(Reservation reservation) {
+        List<Integer> ids = creationReservationsBatch(List.of(reservation));
+        return ids.isEmpty() ? -1 : ids.get(0);
+    }
+
+    /**
+     * Crée plusieurs réservations (réservation de groupe) en un seul aller-retour et une seule transaction.
+     * Chaque réservation peut appartenir à un utilisateur ou à un invité.
+     * Si une insertion échoue, aucune réservation du lot n'est conservée.
+     * Les statistiques de réservation sont mises à jour dans la même transaction,
+     * puis un événement {@link Evenement.ReservationCreee} est publié par réservation.
+     * @param reservations Les réservations à insérer ; leurs ID sont renseignés après insertion.
+     * @return Les ID générés, dans l'ordre de la liste, ou une liste vide en cas d'échec.
+     */
+    public List<Integer> creationReservationsBatch(List<Reservation> reservations) {
+        List<Integer> ids = new ArrayList<>();
+        if (reservations.isEmpty()) {
+            return ids;
+        }
+        List<Evenement.ReservationCreee> creations = new ArrayList<>();
+        try (Connection connexion = fournisseur.getConnection()) {
+            connexion.setAutoCommit(false);
+            try {
+                ids = insererLot(connexion, reservations, 0, creations);
+                connexion.commit();
+                System.out.println(ids.size() + " réservation(s) créée(s). ID = " + ids);
+            } catch (SQLException e) {
+                connexion.rollback();
+                ids.clear();
+                throw e;
             }
-        } catch (SQLException e) { /**Message erreur si fail*/
+        } catch (SQLException e) {
             e.printStackTrace();
         }
+        if (!ids.isEmpty()) {
+            bus.publier(creations);
+        }
+        return ids;
     }
 
-    /** Création d'une réservation pour invité */
-    public void creationReservationInvite(Reservation reservation) {
-        String sql = "INSERT INTO reservation (invite_nom, invite_email, id_attraction, date_reservation, statut) VALUES (?, ?, ?, ?, ?)";
+    /**
+     * Insère un lot de réservations sur une connexion fournie, sans valider la transaction,
+     * et l'ajoute aux statistiques de réservation.
+     * @param connexion La connexion (en général hors auto-commit) sur laquelle insérer.
+     * @param reservations Les réservations à insérer ; leurs ID sont renseignés après insertion.
+     * @param idPaiement L'ID du paiement couvrant le lot, ou 0 s'il n'y en a pas.
+     * @param creations Reçoit les événements de création, à publier une fois la transaction validée.
+     * @return Les ID générés, dans l'ordre de la liste.
+     * @throws SQLException En cas d'erreur SQL, ou si le pilote ne renvoie pas un ID par réservation :
+     *         l'appelant doit alors annuler la transaction.
+     */
+    List<Integer> insererLot(Connection connexion, List<Reservation> reservations, int idPaiement,
+                             List<Evenement.ReservationCreee> creations) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        String sql = "INSERT INTO reservation (id_user, invite_nom, invite_email, id_attraction, date_reservation, statut, id_paiement, creneau) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (PreparedStatement stmt = connexion.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setString(1, reservation.getInviteNom());
-            stmt.setString(2, reservation.getInviteEmail());
-            stmt.setInt(3, reservation.getAttraction().getIdAttraction());
-            stmt.setDate(4, new java.sql.Date(reservation.getDateReservation().getTime()));
-            stmt.setString(5, reservation.getStatut().name());
-
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
-                ResultSet rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
+            for (Reservation reservation : reservations) {
+                if (reservation.getUser() != null) {
+                    stmt.setInt(1, reservation.getUser().getUserId());
+                } else {
+                    stmt.setNull(1, Types.INTEGER);
+                }
+                stmt.setString(2, reservation.getInviteNom());
+                stmt.setString(3, reservation.getInviteEmail());
+                stmt.setInt(4, reservation.getAttraction().getIdAttraction());
+                stmt.setDate(5, new java.sql.Date(reservation.getDateReservation().getTime()));
+                stmt.setString(6, reservation.getStatut().name());
+                if (idPaiement > 0) {
+                    stmt.setInt(7, idPaiement);
+                } else {
+                    stmt.setNull(7, Types.INTEGER);
+                }
+                if (reservation.getCreneau() != null) {
+                    stmt.setTime(8, Time.valueOf(reservation.getCreneau()));
+                } else {
+                    stmt.setNull(8, Types.TIME);
+                }
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                int i = 0;
+                while (rs.next() && i < reservations.size()) {
                     int id = rs.getInt(1);
-                    System.out.println("Réservation invitée créée avec succès. ID = " + id);
+                    reservations.get(i++).setIdReservation(id);
+                    ids.add(id);
+                }
+            }
+        }
+        if (ids.size() != reservations.size()) {
+            throw new SQLException(ids.size() + " ID générés pour " + reservations.size() + " réservations.");
+        }
+        creations.addAll(StatistiquesDAO.enregistrerLot(connexion, reservations));
+        return ids;
+    }
+
+    /**
+     * Compte les billets à la journée (hors créneau) qui occupent une place (confirmés ou en attente)
+     * pour une attraction et un jour.
+     * @param idAttraction L'ID de l'attraction
+     * @param jour Le jour de réservation
+     * @return Le nombre de places occupées, vide en cas d'erreur (l'occupation est alors inconnue, pas nulle)
+     */
+    public OptionalInt compterReservationsActives(int idAttraction, LocalDate jour) {
+        String sql = "SELECT COUNT(*) FROM reservation " +
+                "WHERE id_attraction = ? AND date_reservation = ? AND creneau IS NULL AND statut IN ('confirmee','en_attente')";
+
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql)) {
+            stmt.setInt(1, idAttraction);
+            stmt.setDate(2, java.sql.Date.valueOf(jour));
+            try (ResultSet rs = stmt.executeQuery()) {
+                return OptionalInt.of(rs.next() ? rs.getInt(1) : 0);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return OptionalInt.empty();
+        }
+    }
+
+    /**
+     * Compte, créneau par créneau, les réservations qui occupent une place (confirmées ou en attente)
+     * pour une attraction et un jour.
+     * @param idAttraction L'ID de l'attraction
+     * @param jour Le jour de réservation
+     * @return Le nombre de places occupées par heure de début de créneau, ou rien en cas d'erreur
+     */
+    public Optional<Map<LocalTime, Integer>> compterParCreneau(int idAttraction, LocalDate jour) {
+        String sql = "SELECT creneau, COUNT(*) FROM reservation " +
+                "WHERE id_attraction = ? AND date_reservation = ? AND creneau IS NOT NULL " +
+                "AND statut IN ('confirmee','en_attente') GROUP BY creneau";
+        Map<LocalTime, Integer> occupation = new HashMap<>();
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql)) {
+            stmt.setInt(1, idAttraction);
+            stmt.setDate(2, java.sql.Date.valueOf(jour));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    occupation.put(rs.getTime(1).toLocalTime(), rs.getInt(2));
                 }
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return Optional.empty();
         }
+        return Optional.of(occupation);
     }
 
     /** Récupérer les réservations d'un utilisateur (avec reconstruction des objets User et Attraction partiels)*/
     public List<Reservation> getReservations(User user) {
         List<Reservation> reservations = new ArrayList<>();
-        String sql = "SELECT r.*, a.nom as nom_attraction FROM reservation r " + "JOIN attraction a ON r.id_attraction = a.id_attraction " + "WHERE r.id_user = ?";
+        String sql = "SELECT r.id_reservation, r.id_attraction, r.date_reservation, r.statut, a.nom as nom_attraction FROM reservation r " + "JOIN attraction a ON r.id_attraction = a.id_attraction " + "WHERE r.id_user = ?";
 
         /**Préparation et exécution de la requête*/
-        try (PreparedStatement stmt = connexion.prepareStatement(sql)) {
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql)) {
             stmt.setInt(1, user.getUserId());
             ResultSet rs = stmt.executeQuery();
 
@@ -112,6 +234,26 @@ public class ReservationDAO {
         return reservations;
     }
 
+    /**
+     * Récupère une réservation par son ID (attraction et utilisateur réduits à leur ID).
+     * @param idReservation L'ID de la réservation
+     * @return La réservation, ou null si elle est introuvable ou en cas d'erreur
+     */
+    public Reservation findById(int idReservation) {
+        String sql = "SELECT id_reservation, id_user, id_attraction, date_reservation, statut, invite_nom, invite_email " +
+                "FROM reservation WHERE id_reservation = ?";
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql)) {
+            stmt.setInt(1, idReservation);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapResultSetToReservation(rs) : null;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     /**
      * Récupère l'historique des réservations pour un invité par son email.
      * @param email L'email de l'invité
@@ -123,7 +265,8 @@ public class ReservationDAO {
                 "JOIN attraction a ON r.id_attraction = a.id_attraction " +
                 "WHERE r.invite_email = ?";
 
-        try (PreparedStatement stmt = connexion.prepareStatement(sql)) {
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql)) {
             stmt.setString(1, email);
             ResultSet rs = stmt.executeQuery();
 
@@ -138,28 +281,6 @@ public class ReservationDAO {
         return historique;
     }
 
-    /**
-     * Récupère les statistiques des réservations par attraction.
-     * @return Map contenant le nom de l'attraction et le nombre de réservations
-     */
-    public Map<String, Integer> getReservationsParAttraction() {
-        Map<String, Integer> stats = new HashMap<>();
-        String sql = "SELECT a.nom, COUNT(*) AS total FROM reservation r " +
-                "JOIN attraction a ON r.id_attraction = a.id_attraction " +
-                "WHERE r.statut IN ('confirmee','en_attente') " +
-                "GROUP BY a.nom ORDER BY total DESC";
-
-        try (PreparedStatement stmt = connexion.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                stats.put(rs.getString("nom"), rs.getInt("total"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return stats;
-    }
-
     /**
      * Convertit un ResultSet en objet Reservation.
      * @param rs Le ResultSet à convertir
@@ -207,9 +328,9 @@ public class ReservationDAO {
                 "FROM reservation r " +
                 "LEFT JOIN user u ON r.id_user = u.id_user " +
                 "JOIN attraction a ON r.id_attraction = a.id_attraction";
-        try {
-            PreparedStatement stmt = connexion.prepareStatement(sql);
-            ResultSet rs = stmt.executeQuery();
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
                 Reservation res = mapResultSetToReservation(rs);
                 // Complétons les noms
@@ -226,16 +347,139 @@ public class ReservationDAO {
         return reservations;
     }
 
-    // Mettre à jour le statut d'une réservation
-    public void mettreAJourStatut(Reservation reservation) {
-        try {
-            String sql = "UPDATE Reservation SET statut = ? WHERE id_reservation = ?";
-            PreparedStatement stmt = connexion.prepareStatement(sql);
-            stmt.setString(1, reservation.getStatut().name());
-            stmt.setInt(2, reservation.getIdReservation());
-            stmt.executeUpdate();
+    /**
+     * Récupère une page de réservations, triées par ID, pour un affichage défilant.
+     * La pagination se fait par clé ({@code id_reservation > ?}) et non par décalage :
+     * chaque page coûte le même prix, quelle que soit sa position dans la table.
+     * @param filtre Les critères de recherche, appliqués par la base.
+     * @param apresId L'ID de la dernière réservation de la page précédente (0 pour la première page).
+     * @param taille Le nombre maximal de réservations de la page.
+     * @return Les réservations de la page, avec les noms du client et de l'attraction ; moins de taille si c'est la dernière.
+     *         null en cas d'erreur, pour ne pas la confondre avec la fin des réservations.
+     */
+    public List<Reservation> recupererPage(FiltreReservations filtre, int apresId, int taille) {
+        List<Reservation> reservations = new ArrayList<>();
+        List<Object> parametres = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+                "SELECT r.id_reservation, r.id_user, r.id_attraction, r.date_reservation, r.statut, " +
+                "r.invite_nom, r.invite_email, u.nom AS user_nom, a.nom AS attraction_nom " +
+                "FROM reservation r " +
+                "LEFT JOIN user u ON r.id_user = u.id_user " +
+                "JOIN attraction a ON r.id_attraction = a.id_attraction " +
+                "WHERE r.id_reservation > ?");
+        parametres.add(apresId);
+        if (filtre.getStatut() != null) {
+            sql.append(" AND r.statut = ?");
+            parametres.add(filtre.getStatut().name());
+        }
+        if (filtre.getDateDebut() != null) {
+            sql.append(" AND r.date_reservation >= ?");
+            parametres.add(Date.valueOf(filtre.getDateDebut()));
+        }
+        if (filtre.getDateFin() != null) {
+            sql.append(" AND r.date_reservation <= ?");
+            parametres.add(Date.valueOf(filtre.getDateFin()));
+        }
+        if (filtre.getIdAttraction() != null) {
+            sql.append(" AND r.id_attraction = ?");
+            parametres.add(filtre.getIdAttraction());
+        }
+        sql.append(" ORDER BY r.id_reservation LIMIT ?");
+        parametres.add(taille);
+
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql.toString())) {
+            for (int i = 0; i < parametres.size(); i++) {
+                stmt.setObject(i + 1, parametres.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Reservation res = mapResultSetToReservation(rs);
+                    if (res.getUser() != null) {
+                        res.getUser().setUserNom(rs.getString("user_nom"));
+                    }
+                    res.getAttraction().setNom(rs.getString("attraction_nom"));
+                    reservations.add(res);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return reservations;
+    }
+
+    /**
+     * Met à jour le statut d'une réservation, et les statistiques si elle est annulée ou réactivée,
+     * puis publie un événement {@link Evenement.StatutModifie}.
+     * Le créneau lu en base est recopié dans la réservation.
+     * <p>
+     * La mise à jour n'a lieu que si le statut en base est encore celui qui vient d'être lu : si un autre
+     * administrateur l'a changé entre-temps, rien n'est écrit et les statistiques ne sont pas touchées,
+     * pour ne pas compter deux fois la même annulation.
+     * @param reservation La réservation portant le nouveau statut
+     * @return Le statut qu'avait la réservation en base avant la mise à jour, ou null si elle est introuvable,
+     * modifiée en même temps ou en cas d'erreur
+     */
+    public StatutReservation mettreAJourStatut(Reservation reservation) {
+        String select = "SELECT r.statut, r.id_attraction, r.date_reservation, r.creneau, " +
+                "CASE WHEN p.id_paiement IS NULL THEN a.prix " +
+                "ELSE p.montant / (SELECT COUNT(*) FROM reservation r2 WHERE r2.id_paiement = r.id_paiement) END AS montant " +
+                "FROM reservation r " +
+                "JOIN attraction a ON r.id_attraction = a.id_attraction " +
+                "LEFT JOIN paiement p ON r.id_paiement = p.id_paiement " +
+                "WHERE r.id_reservation = ?";
+        String sql = "UPDATE reservation SET statut = ? WHERE id_reservation = ? AND statut = ?";
+        StatutReservation ancien = null;
+        int idAttraction = 0;
+        LocalDate jour = null;
+        double montant = 0;
+        long version = 0;
+        try (Connection connexion = fournisseur.getConnection()) {
+            connexion.setAutoCommit(false);
+            try (PreparedStatement lecture = connexion.prepareStatement(select);
+                 PreparedStatement stmt = connexion.prepareStatement(sql)) {
+                lecture.setInt(1, reservation.getIdReservation());
+                try (ResultSet rs = lecture.executeQuery()) {
+                    if (rs.next()) {
+                        ancien = StatutReservation.valueOf(rs.getString("statut"));
+                        idAttraction = rs.getInt("id_attraction");
+                        jour = rs.getDate("date_reservation").toLocalDate();
+                        montant = rs.getDouble("montant");
+                        Time creneau = rs.getTime("creneau");
+                        reservation.setCreneau(creneau == null ? null : creneau.toLocalTime());
+                    }
+                }
+                if (ancien == null) {
+                    connexion.rollback();
+                    return null;
+                }
+                stmt.setString(1, reservation.getStatut().name());
+                stmt.setInt(2, reservation.getIdReservation());
+                stmt.setString(3, ancien.name());
+                if (stmt.executeUpdate() != 1) {
+                    // Statut changé par un autre administrateur depuis la lecture : ses deltas sont déjà appliqués
+                    connexion.rollback();
+                    return null;
+                }
+                boolean comptait = ancien != StatutReservation.annulee;
+                boolean compte = reservation.getStatut() != StatutReservation.annulee;
+                if (comptait != compte) {
+                    int sens = compte ? 1 : -1;
+                    version = StatistiquesDAO.ajouter(connexion, idAttraction, jour, sens, sens * montant);
+                }
+                connexion.commit();
+            } catch (SQLException e) {
+                connexion.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
+        // Publié une fois la connexion rendue au pool : les abonnés ne la retiennent pas
+        bus.publier(new Evenement.StatutModifie(reservation.getIdReservation(), idAttraction, jour,
+                ancien, reservation.getStatut(), montant, version));
+        return ancien;
     }
 }
\ No newline at end of file
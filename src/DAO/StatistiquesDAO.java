@@ -0,0 +1,387 @@
+package DAO;
+
+import Modele.Evenement;
+import Modele.Paiement;
+import Modele.Reservation;
+import Modele.StatistiqueAttraction;
+import Modele.StatistiqueAttraction.Periode;
+
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * DAO des statistiques de réservation.
+ * <p>
+ * Les statistiques sont lues dans la table de cumul `stat_reservation_jour` (une ligne par attraction et par jour),
+ * tenue à jour dans la même transaction que chaque écriture sur `reservation` : les tableaux de bord
+ * ne parcourent jamais la table des réservations. Seule {@link #reconstruire()} la relit entièrement.
+ * <p>
+ * Chaque écriture incrémente la version de la ligne qu'elle modifie. Le verrou de ligne ordonne les écritures
+ * d'une même ligne : un lecteur qui a vu la version n d'une ligne a vu l'effet de toutes les écritures
+ * de version inférieure ou égale, et d'aucune autre.
+ * <p>
+ * Le montant d'une réservation est sa part du paiement qui la couvre, ou le prix de l'attraction
+ * si elle n'a pas de paiement.
+ */
+public class StatistiquesDAO {
+
+    private ConnectionProvider fournisseur;
+
+    /**
+     * Constructeur du DAO des statistiques.
+     * @param fournisseur Le fournisseur de connexions utilisé pour exécuter les requêtes SQL.
+     */
+    public StatistiquesDAO(ConnectionProvider fournisseur) {
+        this.fournisseur = fournisseur;
+    }
+
+    /**
+     * Calcule les statistiques de chaque attraction sur une période, découpée par jour, semaine ou mois.
+     * @param debut Le premier jour inclus.
+     * @param fin Le dernier jour inclus.
+     * @param periode La granularité du découpage.
+     * @return Une ligne par attraction et par période contenant au moins une réservation,
+     *         triées par nom d'attraction puis par date.
+     */
+    public List<StatistiqueAttraction> statistiques(LocalDate debut, LocalDate fin, Periode periode) {
+        String sql = "SELECT s.id_attraction, a.nom, a.capacite, s.jour, s.nb_reservations, s.chiffre_affaires " +
+                "FROM stat_reservation_jour s " +
+                "JOIN attraction a ON s.id_attraction = a.id_attraction " +
+                "WHERE s.jour BETWEEN ? AND ? AND s.nb_reservations > 0 " +
+                "ORDER BY a.nom, s.id_attraction, s.jour";
+
+        // L'ordre de la requête est conservé : une période n'est créée qu'à sa première ligne
+        Map<Cumul, Cumul> cumuls = new LinkedHashMap<>();
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(debut));
+            stmt.setDate(2, Date.valueOf(fin));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate jour = rs.getDate("jour").toLocalDate();
+                    Cumul cle = new Cumul(rs.getInt("id_attraction"), debutPeriode(jour, periode));
+                    Cumul cumul = cumuls.computeIfAbsent(cle, c -> c);
+                    cumul.nom = rs.getString("nom");
+                    cumul.capacite = rs.getInt("capacite");
+                    cumul.nombre += rs.getInt("nb_reservations");
+                    cumul.montant += rs.getDouble("chiffre_affaires");
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+
+        List<StatistiqueAttraction> statistiques = new ArrayList<>(cumuls.size());
+        for (Cumul c : cumuls.values()) {
+            long jours = joursCouverts(c.debutPeriode, periode, debut, fin);
+            double taux = c.capacite > 0 ? (double) c.nombre / (c.capacite * jours) : 0;
+            statistiques.add(new StatistiqueAttraction(c.idAttraction, c.nom, c.debutPeriode, c.nombre, c.montant, taux));
+        }
+        return statistiques;
+    }
+
+    /**
+     * Remplit la table de cumul si elle est vide alors que des réservations existent
+     * (première mise en service, base importée).
+     * @return true si la table a été reconstruite.
+     */
+    public boolean initialiser() {
+        String sql = "SELECT EXISTS(SELECT 1 FROM stat_reservation_jour), EXISTS(SELECT 1 FROM reservation)";
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next() && !rs.getBoolean(1) && rs.getBoolean(2)) {
+                return reconstruire();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Recalcule entièrement la table de cumul depuis les réservations.
+     * À utiliser si la table `reservation` a été modifiée en dehors de l'application.
+     * Les lignes existantes sont remises à zéro plutôt que supprimées : leur version continue d'augmenter,
+     * et un événement antérieur au recalcul reste reconnu comme déjà compris.
+     * @return true si la reconstruction a réussi.
+     */
+    public boolean reconstruire() {
+        String raz = "UPDATE stat_reservation_jour SET nb_reservations = 0, chiffre_affaires = 0, version = version + 1";
+        String insert = "INSERT INTO stat_reservation_jour (id_attraction, jour, nb_reservations, chiffre_affaires, version) " +
+                "SELECT r.id_attraction, r.date_reservation, COUNT(*), " +
+                "SUM(CASE WHEN p.id_paiement IS NULL THEN a.prix ELSE p.montant / n.nb END), 1 " +
+                "FROM reservation r " +
+                "JOIN attraction a ON r.id_attraction = a.id_attraction " +
+                "LEFT JOIN paiement p ON r.id_paiement = p.id_paiement " +
+                "LEFT JOIN (SELECT id_paiement, COUNT(*) AS nb FROM reservation " +
+                "WHERE id_paiement IS NOT NULL GROUP BY id_paiement) n ON n.id_paiement = r.id_paiement " +
+                "WHERE r.statut <> 'annulee' " +
+                "GROUP BY r.id_attraction, r.date_reservation " +
+                "ON DUPLICATE KEY UPDATE nb_reservations = VALUES(nb_reservations), " +
+                "chiffre_affaires = VALUES(chiffre_affaires)";
+        try (Connection connexion = fournisseur.getConnection()) {
+            connexion.setAutoCommit(false);
+            try (Statement stmt = connexion.createStatement()) {
+                stmt.executeUpdate(raz);
+                stmt.executeUpdate(insert);
+                int lignes = 0;
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM stat_reservation_jour WHERE nb_reservations > 0")) {
+                    if (rs.next()) {
+                        lignes = rs.getInt(1);
+                    }
+                }
+                connexion.commit();
+                System.out.println("Statistiques reconstruites : " + lignes + " jours.");
+                return true;
+            } catch (SQLException e) {
+                connexion.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Calcule les totaux de chaque attraction, toutes dates confondues, en une seule requête sur la table de cumul.
+     * @return Une ligne par attraction (y compris sans réservation), triées par nom ;
+     *         la période et le taux de remplissage n'y ont pas de sens et valent null et 0.
+     * @throws SQLException En cas d'erreur SQL
+     */
+    public List<StatistiqueAttraction> totaux() throws SQLException {
+        return instantane().getTotaux();
+    }
+
+    /**
+     * Lit en une seule requête, donc dans un même état de la base, les lignes de cumul de chaque attraction
+     * avec leur version. Sert d'instantané de départ aux compteurs en mémoire.
+     * @return L'instantané des totaux.
+     * @throws SQLException En cas d'erreur SQL
+     */
+    public Instantane instantane() throws SQLException {
+        String sql = "SELECT a.id_attraction, a.nom, s.jour, s.nb_reservations, s.chiffre_affaires, s.version " +
+                "FROM attraction a " +
+                "LEFT JOIN stat_reservation_jour s ON s.id_attraction = a.id_attraction " +
+                "ORDER BY a.nom, a.id_attraction";
+        Map<Cumul, Cumul> cumuls = new LinkedHashMap<>();
+        Map<Integer, Map<LocalDate, Long>> versions = new HashMap<>();
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                int idAttraction = rs.getInt("id_attraction");
+                Cumul cumul = cumuls.computeIfAbsent(new Cumul(idAttraction, null), c -> c);
+                cumul.nom = rs.getString("nom");
+                Date jour = rs.getDate("jour");
+                if (jour != null) {
+                    cumul.nombre += rs.getInt("nb_reservations");
+                    cumul.montant += rs.getDouble("chiffre_affaires");
+                    versions.computeIfAbsent(idAttraction, id -> new HashMap<>())
+                            .put(jour.toLocalDate(), rs.getLong("version"));
+                }
+            }
+        }
+        List<StatistiqueAttraction> totaux = new ArrayList<>(cumuls.size());
+        for (Cumul c : cumuls.values()) {
+            totaux.add(new StatistiqueAttraction(c.idAttraction, c.nom, null, c.nombre, c.montant, 0));
+        }
+        return new Instantane(totaux, versions);
+    }
+
+    /**
+     * Répercute dans la table de cumul la création d'un lot de réservations, sur la connexion de l'insertion,
+     * avec la part de paiement de chacune. Les réservations annulées dès leur création ne comptent pas
+     * et ne produisent pas d'événement.
+     * @param connexion La connexion portant la transaction d'insertion.
+     * @param reservations Les réservations insérées (ID renseignés).
+     * @return Un événement par réservation comptée, dans l'ordre du lot, à publier après la validation.
+     * @throws SQLException En cas d'erreur SQL
+     */
+    static List<Evenement.ReservationCreee> enregistrerLot(Connection connexion, List<Reservation> reservations)
+            throws SQLException {
+        // Nombre de réservations couvertes par chaque paiement, pour en répartir le montant
+        Map<Paiement, Integer> parPaiement = new IdentityHashMap<>();
+        for (Reservation r : reservations) {
+            if (r.getPaiement() != null) {
+                parPaiement.merge(r.getPaiement(), 1, Integer::sum);
+            }
+        }
+
+        Map<Reservation, Double> montants = new IdentityHashMap<>();
+        Map<Cumul, Cumul> cumuls = new LinkedHashMap<>();
+        for (Reservation r : reservations) {
+            if (r.getStatut() == Reservation.StatutReservation.annulee) {
+                continue;
+            }
+            double montant = r.getPaiement() != null
+                    ? (double) r.getPaiement().getMontant() / parPaiement.get(r.getPaiement())
+                    : r.getAttraction().getPrix();
+            montants.put(r, montant);
+            Cumul cumul = cumuls.computeIfAbsent(
+                    new Cumul(r.getAttraction().getIdAttraction(), jour(r.getDateReservation())), c -> c);
+            cumul.nombre++;
+            cumul.montant += montant;
+        }
+        for (Cumul c : cumuls.values()) {
+            c.version = ajouter(connexion, c.idAttraction, c.debutPeriode, c.nombre, c.montant);
+        }
+
+        List<Evenement.ReservationCreee> creations = new ArrayList<>(montants.size());
+        for (Reservation r : reservations) {
+            if (!montants.containsKey(r)) {
+                continue;
+            }
+            LocalDate jour = jour(r.getDateReservation());
+            long version = cumuls.get(new Cumul(r.getAttraction().getIdAttraction(), jour)).version;
+            creations.add(new Evenement.ReservationCreee(r.getIdReservation(), r.getAttraction().getIdAttraction(),
+                    r.getAttraction().getNom(), jour, montants.get(r), version));
+        }
+        return creations;
+    }
+
+    /**
+     * Ajoute (ou retire, avec des valeurs négatives) des réservations au cumul d'un jour.
+     * @param connexion La connexion portant la transaction de l'écriture d'origine.
+     * @param idAttraction L'ID de l'attraction.
+     * @param jour Le jour des réservations.
+     * @param nombre Le nombre de réservations à ajouter.
+     * @param montant Le montant à ajouter.
+     * @return La version de la ligne après l'écriture, lue sous le verrou de la transaction.
+     * @throws SQLException En cas d'erreur SQL
+     */
+    static long ajouter(Connection connexion, int idAttraction, LocalDate jour, int nombre, double montant) throws SQLException {
+        String sql = "INSERT INTO stat_reservation_jour (id_attraction, jour, nb_reservations, chiffre_affaires, version) " +
+                "VALUES (?, ?, ?, ?, 1) ON DUPLICATE KEY UPDATE " +
+                "nb_reservations = nb_reservations + VALUES(nb_reservations), " +
+                "chiffre_affaires = chiffre_affaires + VALUES(chiffre_affaires), " +
+                "version = version + 1";
+        try (PreparedStatement stmt = connexion.prepareStatement(sql)) {
+            stmt.setInt(1, idAttraction);
+            stmt.setDate(2, Date.valueOf(jour));
+            stmt.setInt(3, nombre);
+            stmt.setDouble(4, montant);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = connexion.prepareStatement(
+                "SELECT version FROM stat_reservation_jour WHERE id_attraction = ? AND jour = ?")) {
+            stmt.setInt(1, idAttraction);
+            stmt.setDate(2, Date.valueOf(jour));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Ligne de cumul introuvable après écriture : " + idAttraction + ", " + jour);
+                }
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    static LocalDate jour(java.util.Date date) {
+        if (date instanceof Date) {
+            return ((Date) date).toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static LocalDate debutPeriode(LocalDate jour, Periode periode) {
+        switch (periode) {
+            case SEMAINE:
+                return jour.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MOIS:
+                return jour.withDayOfMonth(1);
+            default:
+                return jour;
+        }
+    }
+
+    /**
+     * Nombre de jours d'une période compris dans l'intervalle demandé (les périodes aux bords sont tronquées).
+     */
+    private static long joursCouverts(LocalDate debutPeriode, Periode periode, LocalDate debut, LocalDate fin) {
+        LocalDate finPeriode;
+        switch (periode) {
+            case SEMAINE:
+                finPeriode = debutPeriode.plusDays(6);
+                break;
+            case MOIS:
+                finPeriode = debutPeriode.with(TemporalAdjusters.lastDayOfMonth());
+                break;
+            default:
+                finPeriode = debutPeriode;
+        }
+        LocalDate de = debutPeriode.isBefore(debut) ? debut : debutPeriode;
+        LocalDate a = finPeriode.isAfter(fin) ? fin : finPeriode;
+        return Math.max(1, ChronoUnit.DAYS.between(de, a) + 1);
+    }
+
+    /**
+     * Totaux de chaque attraction, avec la version de chaque ligne de cumul qu'ils comprennent.
+     */
+    public static final class Instantane {
+        private final List<StatistiqueAttraction> totaux;
+        private final Map<Integer, Map<LocalDate, Long>> versions;
+
+        private Instantane(List<StatistiqueAttraction> totaux, Map<Integer, Map<LocalDate, Long>> versions) {
+            this.totaux = totaux;
+            this.versions = versions;
+        }
+
+        /** @return Une ligne par attraction, triées par nom. */
+        public List<StatistiqueAttraction> getTotaux() { return totaux; }
+
+        /**
+         * @param idAttraction L'ID de l'attraction.
+         * @param jour Le jour.
+         * @return La version de la ligne de cumul comprise dans les totaux, 0 si la ligne n'existait pas.
+         */
+        public long getVersion(int idAttraction, LocalDate jour) {
+            Map<LocalDate, Long> parJour = versions.get(idAttraction);
+            Long version = parJour == null ? null : parJour.get(jour);
+            return version == null ? 0 : version;
+        }
+    }
+
+    /**
+     * Cumul d'une attraction sur une période, identifié par l'attraction et le premier jour de la période
+     * (null pour toutes dates confondues).
+     */
+    private static final class Cumul {
+        private final int idAttraction;
+        private final LocalDate debutPeriode;
+        private String nom;
+        private int capacite;
+        private int nombre;
+        private double montant;
+        private long version;
+
+        private Cumul(int idAttraction, LocalDate debutPeriode) {
+            this.idAttraction = idAttraction;
+            this.debutPeriode = debutPeriode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Cumul)) return false;
+            Cumul autre = (Cumul) o;
+            return idAttraction == autre.idAttraction && Objects.equals(debutPeriode, autre.debutPeriode);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idAttraction, debutPeriode);
+        }
+    }
+}
@@ -2,23 +2,24 @@ package DAO;
 
 import java.util.*;
 import Modele.User;
+import Modele.User.Champ;
 import Modele.User.Role;
 import java.sql.*;
 
 /**
  * Classe `UserDAO` qui permet d'interagir avec la table `user` de la base de données.
- * Elle fournit des méthodes pour enregistrer un utilisateur, retrouver un utilisateur par email et mot de passe,
+ * Elle fournit des méthodes pour enregistrer un utilisateur, retrouver un utilisateur par email ou par ID,
  * récupérer tous les clients et effectuer des mises à jour sur un utilisateur.
  */
 public class UserDAO {
-    private Connection connexion;
+    private ConnectionProvider fournisseur;
 
     /**
      * Constructeur de la classe `UserDAO`.
-     * @param connexion La connexion à la base de données utilisée pour exécuter les requêtes SQL.
+     * @param fournisseur Le fournisseur de connexions utilisé pour exécuter les requêtes SQL.
      */
-    public UserDAO(Connection connexion) {
-        this.connexion = connexion;
+    public UserDAO(ConnectionProvider fournisseur) {
+        this.fournisseur = fournisseur;
     }
 
     /**
@@ -30,7 +31,8 @@ public class UserDAO {
     public boolean save(User user) {
         String sql = "INSERT INTO user (nom, prenom, email, tel, mdp, date_naissance, type_client, reduction, role) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement statement = connexion.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement statement = connexion.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             statement.setString(1, user.getUserNom());
             statement.setString(2, user.getUserPrenom());
             statement.setString(3, user.getUserEmail());
@@ -66,35 +68,61 @@ public class UserDAO {
     }
 
     /**
-     * Recherche un utilisateur par son email et son mot de passe.
+     * Recherche un utilisateur par son email, avec l'empreinte de son mot de passe.
+     * La vérification du mot de passe est faite par le service, jamais en SQL.
      * @param email L'email de l'utilisateur.
-     * @param password Le mot de passe de l'utilisateur.
      * @return L'objet `User` correspondant, ou `null` si aucun utilisateur n'est trouvé.
      */
-    public User findByEmailAndPassword(String email, String password) {
-        String query = "SELECT * FROM user WHERE email = ? AND mdp = ?";
-
-        try (PreparedStatement stmt = connexion.prepareStatement(query)) {
+    public User findByEmail(String email) {
+        return trouver("SELECT * FROM user WHERE email = ?", stmt -> stmt.setString(1, email));
+    }
 
-            stmt.setString(1, email);
-            stmt.setString(2, password);
+    /**
+     * Recherche un utilisateur par son ID.
+     * @param id L'ID de l'utilisateur.
+     * @return L'objet `User` correspondant, ou `null` si aucun utilisateur n'est trouvé.
+     */
+    public User findById(int id) {
+        return trouver("SELECT * FROM user WHERE id_user = ?", stmt -> stmt.setInt(1, id));
+    }
 
-            ResultSet rs = stmt.executeQuery();
+    /**
+     * Remplace l'empreinte du mot de passe d'un utilisateur.
+     * @param id L'ID de l'utilisateur.
+     * @param empreinte La nouvelle empreinte (jamais un mot de passe en clair).
+     * @return `true` si l'empreinte a été enregistrée, `false` sinon.
+     */
+    public boolean mettreAJourMotDePasse(int id, String empreinte) {
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement("UPDATE user SET mdp = ? WHERE id_user = ?")) {
+            stmt.setString(1, empreinte);
+            stmt.setInt(2, id);
+            return stmt.executeUpdate() == 1;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-            if (rs.next()) {
-                User user = new User(
-                        rs.getString("nom"),
-                        rs.getString("prenom"),
-                        rs.getDate("date_naissance").toLocalDate(),
-                        rs.getString("email"),
-                        rs.getString("tel"),
-                        rs.getString("mdp"),
-                        Role.valueOf(rs.getString("role").toUpperCase())
-                );
-                user.setUserId(rs.getInt("id_user"));
-                return user;
+    private User trouver(String query, Parametres parametres) {
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(query)) {
+            parametres.lier(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    User user = new User(
+                            rs.getString("nom"),
+                            rs.getString("prenom"),
+                            rs.getDate("date_naissance").toLocalDate(),
+                            rs.getString("email"),
+                            rs.getString("tel"),
+                            rs.getString("mdp"),
+                            Role.valueOf(rs.getString("role").toUpperCase())
+                    );
+                    user.setUserId(rs.getInt("id_user"));
+                    return user;
+                }
             }
-
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -110,7 +138,8 @@ public class UserDAO {
         List<User> clients = new ArrayList<>();
         String query = "SELECT * FROM user WHERE role = 'client'";
 
-        try (PreparedStatement stmt = connexion.prepareStatement(query)) {
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(query)) {
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
@@ -123,7 +152,7 @@ public class UserDAO {
                         rs.getDate("date_naissance").toLocalDate(),
                         rs.getString("email"),
                         rs.getString("tel"),
-                        rs.getString("mdp"),
+                        null, // L'empreinte du mot de passe ne quitte pas la connexion
                         role,
                         type,
                         rs.getFloat("reduction")
@@ -139,25 +168,26 @@ public class UserDAO {
     }
 
     /**
-     * Met à jour les informations d'un utilisateur dans la base de données.
+     * Met à jour les informations d'un utilisateur dans la base de données, sauf le mot de passe
+     * ({@link #mettreAJourMotDePasse}).
      * @param user L'utilisateur avec les nouvelles informations.
      * @return `true` si l'utilisateur a été mis à jour avec succès, `false` sinon.
      */
     public boolean update(User user) {
         user.calculerTypeEtReduction();
-        String sql = "UPDATE user SET nom = ?, prenom = ?, email = ?, date_naissance = ?, tel = ?, mdp = ?, reduction = ?, type_client = ?, role = ? WHERE id_user = ?";
+        String sql = "UPDATE user SET nom = ?, prenom = ?, email = ?, date_naissance = ?, tel = ?, reduction = ?, type_client = ?, role = ? WHERE id_user = ?";
 
-        try (PreparedStatement stmt = connexion.prepareStatement(sql)) {
+        try (Connection connexion = fournisseur.getConnection();
+             PreparedStatement stmt = connexion.prepareStatement(sql)) {
             stmt.setString(1, user.getUserNom());
             stmt.setString(2, user.getUserPrenom());
             stmt.setString(3, user.getUserEmail());
             stmt.setDate(4, java.sql.Date.valueOf(user.getDateNaissance()));
             stmt.setString(5, user.getUserTel());
-            stmt.setString(6, user.getUserPassword());
-            stmt.setDouble(7, user.getReduction());
-            stmt.setString(8, user.getTypeClient().toString());
-            stmt.setString(9, user.getRole().name().toLowerCase());
-            stmt.setInt(10, user.getUserId());
+            stmt.setDouble(6, user.getReduction());
+            stmt.setString(7, user.getTypeClient().toString());
+            stmt.setString(8, user.getRole().name().toLowerCase());
+            stmt.setInt(9, user.getUserId());
             stmt.executeUpdate();
             return true;
         } catch (SQLException e) {
@@ -165,4 +195,103 @@ public class UserDAO {
             return false;
         }
     }
+
+    /**
+     * Met à jour en une transaction les champs modifiés de plusieurs utilisateurs.
+     * <p>
+     * Les utilisateurs sont regroupés par ensemble de champs modifiés : une requête préparée par ensemble,
+     * exécutée en lot, qui n'écrit que ces colonnes. Le type de client et la réduction sont recalculés
+     * et écrits quand la date de naissance ou le rôle change.
+     * @param modifications Les champs modifiés de chaque utilisateur ; les utilisateurs sans champ sont ignorés.
+     * @return `true` si toutes les mises à jour ont été enregistrées, `false` sinon (rien n'est alors écrit).
+     */
+    public boolean updateBatch(Map<User, Set<Champ>> modifications) {
+        Map<Set<Champ>, List<User>> groupes = new LinkedHashMap<>();
+        for (Map.Entry<User, Set<Champ>> entree : modifications.entrySet()) {
+            if (!entree.getValue().isEmpty()) {
+                groupes.computeIfAbsent(EnumSet.copyOf(entree.getValue()), c -> new ArrayList<>()).add(entree.getKey());
+            }
+        }
+        if (groupes.isEmpty()) {
+            return true;
+        }
+
+        try (Connection connexion = fournisseur.getConnection()) {
+            connexion.setAutoCommit(false);
+            try {
+                for (Map.Entry<Set<Champ>, List<User>> groupe : groupes.entrySet()) {
+                    Set<Champ> champs = groupe.getKey();
+                    boolean recalcul = champs.contains(Champ.DATE_NAISSANCE) || champs.contains(Champ.ROLE);
+                    try (PreparedStatement stmt = connexion.prepareStatement(requeteMiseAJour(champs, recalcul))) {
+                        for (User user : groupe.getValue()) {
+                            int indice = 1;
+                            for (Champ champ : champs) {
+                                lierChamp(stmt, indice++, user, champ);
+                            }
+                            if (recalcul) {
+                                user.calculerTypeEtReduction();
+                                stmt.setString(indice++, user.getTypeClient().toString());
+                                stmt.setDouble(indice++, user.getReduction());
+                            }
+                            stmt.setInt(indice, user.getUserId());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                connexion.commit();
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                connexion.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Requête de mise à jour des seules colonnes données (et des colonnes recalculées si besoin).
+     */
+    private static String requeteMiseAJour(Set<Champ> champs, boolean recalcul) {
+        StringJoiner colonnes = new StringJoiner(", ");
+        for (Champ champ : champs) {
+            colonnes.add(colonne(champ) + " = ?");
+        }
+        if (recalcul) {
+            colonnes.add("type_client = ?").add("reduction = ?");
+        }
+        return "UPDATE user SET " + colonnes + " WHERE id_user = ?";
+    }
+
+    private static String colonne(Champ champ) {
+        switch (champ) {
+            case NOM: return "nom";
+            case PRENOM: return "prenom";
+            case DATE_NAISSANCE: return "date_naissance";
+            case EMAIL: return "email";
+            case TEL: return "tel";
+            case ROLE: return "role";
+            default: throw new IllegalArgumentException("Champ inconnu : " + champ);
+        }
+    }
+
+    private static void lierChamp(PreparedStatement stmt, int indice, User user, Champ champ) throws SQLException {
+        switch (champ) {
+            case NOM: stmt.setString(indice, user.getUserNom()); break;
+            case PRENOM: stmt.setString(indice, user.getUserPrenom()); break;
+            case DATE_NAISSANCE: stmt.setDate(indice, java.sql.Date.valueOf(user.getDateNaissance())); break;
+            case EMAIL: stmt.setString(indice, user.getUserEmail()); break;
+            case TEL: stmt.setString(indice, user.getUserTel()); break;
+            case ROLE: stmt.setString(indice, user.getRole().name().toLowerCase()); break;
+            default: throw new IllegalArgumentException("Champ inconnu : " + champ);
+        }
+    }
+
+    /** Liaison des paramètres d'une requête de recherche. */
+    @FunctionalInterface
+    private interface Parametres {
+        void lier(PreparedStatement stmt) throws SQLException;
+    }
 }
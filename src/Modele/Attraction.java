@@ -1,5 +1,10 @@
 package Modele;
 
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * Classe `Attraction` qui représente une attraction dans le système.
  * Chaque attraction possède des informations comme son nom, type, description, capacité, durée, prix et statut.
@@ -16,6 +21,25 @@ public class Attraction {
         inactive
     }
 
+    /**
+     * Enumération `Champ` des informations modifiables d'une attraction,
+     * utilisée pour n'enregistrer que les champs modifiés.
+     */
+    public enum Champ {
+        NOM,
+        TYPE,
+        DESCRIPTION,
+        CAPACITE,
+        DUREE,
+        PRIX,
+        STATUT
+    }
+
+    /** Durée en heures et minutes : « 1h30 », « 1 h », « 45 min », « 45 » (minutes) */
+    private static final Pattern DUREE_TEXTE = Pattern.compile("(?:(\\d+)\\s*h)?\\s*(?:(\\d+)\\s*(?:min|mn|m)?)?");
+    /** Durée au format de la colonne TIME : « 01:30:00 » ou « 01:30 » */
+    private static final Pattern DUREE_HORAIRE = Pattern.compile("(\\d{1,3}):(\\d{2})(?::(\\d{2}))?");
+
     private int idAttraction;
     private String nom;
     private String type;
@@ -24,6 +48,7 @@ public class Attraction {
     private String duree;
     private float prix;
     private StatutAttraction statut;
+    private int version;
 
     /**
      * Constructeur de la classe `Attraction`.
@@ -149,6 +174,78 @@ public class Attraction {
         this.duree = duree;
     }
 
+    /**
+     * Retourne la durée d'un tour de l'attraction, lue depuis le texte de la durée.
+     * @return La durée d'un tour, ou null si le texte n'est pas une durée reconnue.
+     */
+    public Duration getDureeTour() {
+        return lireDuree(duree);
+    }
+
+    /**
+     * Lit une durée saisie ou lue en base : « 01:30:00 » (colonne TIME), « 1h30 », « 45 min », « 45 » (minutes)
+     * ou ISO-8601 (« PT45M »).
+     * <p>
+     * La colonne `duree` est de type TIME : une durée saisie en minutes (« 22 ») y a été enregistrée comme
+     * 22 secondes (« 00:00:22 »). Une valeur TIME de moins d'une minute est donc lue comme un nombre de minutes.
+     * @param texte Le texte de la durée.
+     * @return La durée, ou null si le texte est vide ou n'est pas une durée reconnue.
+     */
+    public static Duration lireDuree(String texte) {
+        if (texte == null || texte.isBlank()) {
+            return null;
+        }
+        String t = texte.trim().toLowerCase();
+        if (t.startsWith("pt")) {
+            try {
+                return Duration.parse(t.toUpperCase());
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        Matcher horaire = DUREE_HORAIRE.matcher(t);
+        if (horaire.matches()) {
+            int heures = Integer.parseInt(horaire.group(1));
+            int minutes = Integer.parseInt(horaire.group(2));
+            int secondes = horaire.group(3) == null ? 0 : Integer.parseInt(horaire.group(3));
+            if (heures == 0 && minutes == 0) {
+                return Duration.ofMinutes(secondes);
+            }
+            return Duration.ofHours(heures).plusMinutes(minutes).plusSeconds(secondes);
+        }
+        Matcher libre = DUREE_TEXTE.matcher(t);
+        if (libre.matches() && (libre.group(1) != null || libre.group(2) != null)) {
+            long heures = libre.group(1) == null ? 0 : Long.parseLong(libre.group(1));
+            long minutes = libre.group(2) == null ? 0 : Long.parseLong(libre.group(2));
+            return Duration.ofHours(heures).plusMinutes(minutes);
+        }
+        return null;
+    }
+
+    /**
+     * Écrit une durée au format de la colonne TIME (« 01:30:00 »).
+     * @param d La durée.
+     * @return Le texte de la durée.
+     */
+    public static String formaterDuree(Duration d) {
+        return String.format("%02d:%02d:%02d", d.toHours(), d.toMinutesPart(), d.toSecondsPart());
+    }
+
+    /**
+     * Écrit une durée pour l'affichage (« 45 min », « 1 h 30 »).
+     * @param d La durée, ou null.
+     * @return Le libellé de la durée, ou « ? » si elle est inconnue.
+     */
+    public static String libelleDuree(Duration d) {
+        if (d == null) {
+            return "?";
+        }
+        if (d.toHours() == 0) {
+            return d.toMinutes() + " min";
+        }
+        return d.toHours() + " h" + (d.toMinutesPart() == 0 ? "" : String.format(" %02d", d.toMinutesPart()));
+    }
+
     /**
      * Retourne le prix de l'attraction.
      * @return Le prix de l'attraction.
@@ -196,4 +293,20 @@ public class Attraction {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    /**
+     * Retourne la version de l'attraction lue en base (verrouillage optimiste).
+     * @return Le numéro de version.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Définit la version de l'attraction.
+     * @param version Le numéro de version.
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,89 @@
+package Modele;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * État et indicateurs de la file d'attente virtuelle d'une attraction à un instant donné.
+ * Les compteurs (numéros, appelés, attente cumulée) sont enregistrés en base à chaque instantané ;
+ * les indicateurs de débit et d'attente en sont déduits.
+ */
+public class EtatFileVirtuelle {
+
+    private final int idAttraction;
+    private final String nomAttraction;
+    private final LocalDateTime ouverture;
+    private final long dernierNumero;
+    private final long appeles;
+    private final long attenteCumuleeSecondes;
+    private final int enAttente;
+    private final int debitTheorique;
+    private final Duration attenteEstimee;
+
+    /**
+     * Constructeur.
+     * @param idAttraction L'ID de l'attraction.
+     * @param nomAttraction Le nom de l'attraction.
+     * @param ouverture L'heure d'ouverture de la file.
+     * @param dernierNumero Le dernier numéro distribué.
+     * @param appeles Le nombre de visiteurs appelés depuis l'ouverture.
+     * @param attenteCumuleeSecondes L'attente cumulée des visiteurs appelés, en secondes.
+     * @param enAttente Le nombre de visiteurs en attente.
+     * @param debitTheorique Le débit de l'attraction, en places par heure (capacité × tours par heure).
+     * @param attenteEstimee L'attente estimée d'un visiteur qui entrerait maintenant dans la file.
+     */
+    public EtatFileVirtuelle(int idAttraction, String nomAttraction, LocalDateTime ouverture, long dernierNumero,
+                             long appeles, long attenteCumuleeSecondes, int enAttente, int debitTheorique,
+                             Duration attenteEstimee) {
+        this.idAttraction = idAttraction;
+        this.nomAttraction = nomAttraction;
+        this.ouverture = ouverture;
+        this.dernierNumero = dernierNumero;
+        this.appeles = appeles;
+        this.attenteCumuleeSecondes = attenteCumuleeSecondes;
+        this.enAttente = enAttente;
+        this.debitTheorique = debitTheorique;
+        this.attenteEstimee = attenteEstimee;
+    }
+
+    /** @return L'ID de l'attraction. */
+    public int getIdAttraction() { return idAttraction; }
+
+    /** @return Le nom de l'attraction. */
+    public String getNomAttraction() { return nomAttraction; }
+
+    /** @return L'heure d'ouverture de la file. */
+    public LocalDateTime getOuverture() { return ouverture; }
+
+    /** @return Le dernier numéro distribué. */
+    public long getDernierNumero() { return dernierNumero; }
+
+    /** @return Le nombre de visiteurs appelés depuis l'ouverture de la file. */
+    public long getAppeles() { return appeles; }
+
+    /** @return L'attente cumulée des visiteurs appelés, en secondes. */
+    public long getAttenteCumuleeSecondes() { return attenteCumuleeSecondes; }
+
+    /** @return Le nombre de visiteurs en attente. */
+    public int getEnAttente() { return enAttente; }
+
+    /** @return Le débit théorique de l'attraction, en places par heure. */
+    public int getDebitTheorique() { return debitTheorique; }
+
+    /** @return L'attente estimée d'un visiteur qui entrerait maintenant dans la file. */
+    public Duration getAttenteEstimee() { return attenteEstimee; }
+
+    /**
+     * @param maintenant L'heure de calcul.
+     * @return Le débit mesuré depuis l'ouverture de la file, en visiteurs appelés par heure.
+     */
+    public double getDebitMesure(LocalDateTime maintenant) {
+        long secondes = Duration.between(ouverture, maintenant).getSeconds();
+        return secondes <= 0 ? 0 : appeles * 3600.0 / secondes;
+    }
+
+    /** @return L'attente moyenne des visiteurs appelés (zéro si personne n'a encore été appelé). */
+    public Duration getAttenteMoyenne() {
+        return appeles == 0 ? Duration.ZERO : Duration.ofSeconds(attenteCumuleeSecondes / appeles);
+    }
+}
@@ -0,0 +1,140 @@
+package Modele;
+
+import Modele.Reservation.StatutReservation;
+
+import java.time.LocalDate;
+
+/**
+ * Événement du domaine, publié après la validation d'une écriture en base.
+ * Les événements qui modifient les statistiques portent la version de la ligne de cumul (attraction, jour)
+ * écrite dans la même transaction : un lecteur de la table sait ainsi s'il a déjà vu leur effet.
+ * - `ReservationCreee` : une réservation a été enregistrée.
+ * - `StatutModifie` : le statut d'une réservation a changé.
+ * - `AttractionSupprimee` : une attraction a été supprimée.
+ */
+public abstract class Evenement {
+
+    private Evenement() {}
+
+    /**
+     * Une réservation a été enregistrée.
+     */
+    public static final class ReservationCreee extends Evenement {
+        private final int idReservation;
+        private final int idAttraction;
+        private final String nomAttraction;
+        private final LocalDate jour;
+        private final double montant;
+        private final long version;
+
+        /**
+         * Constructeur.
+         * @param idReservation L'ID de la réservation.
+         * @param idAttraction L'ID de l'attraction réservée.
+         * @param nomAttraction Le nom de l'attraction, ou null s'il n'est pas connu de l'écrivain.
+         * @param jour Le jour réservé.
+         * @param montant Le montant de la réservation (sa part du paiement).
+         * @param version La version de la ligne de cumul après l'écriture.
+         */
+        public ReservationCreee(int idReservation, int idAttraction, String nomAttraction, LocalDate jour, double montant,
+                                long version) {
+            this.idReservation = idReservation;
+            this.idAttraction = idAttraction;
+            this.nomAttraction = nomAttraction;
+            this.jour = jour;
+            this.montant = montant;
+            this.version = version;
+        }
+
+        /** @return L'ID de la réservation. */
+        public int getIdReservation() { return idReservation; }
+
+        /** @return L'ID de l'attraction réservée. */
+        public int getIdAttraction() { return idAttraction; }
+
+        /** @return Le nom de l'attraction, ou null. */
+        public String getNomAttraction() { return nomAttraction; }
+
+        /** @return Le jour réservé. */
+        public LocalDate getJour() { return jour; }
+
+        /** @return Le montant de la réservation. */
+        public double getMontant() { return montant; }
+
+        /** @return La version de la ligne de cumul (attraction, jour) après l'écriture. */
+        public long getVersion() { return version; }
+    }
+
+    /**
+     * Le statut d'une réservation a changé.
+     */
+    public static final class StatutModifie extends Evenement {
+        private final int idReservation;
+        private final int idAttraction;
+        private final LocalDate jour;
+        private final StatutReservation ancien;
+        private final StatutReservation nouveau;
+        private final double montant;
+        private final long version;
+
+        /**
+         * Constructeur.
+         * @param idReservation L'ID de la réservation.
+         * @param idAttraction L'ID de l'attraction réservée.
+         * @param jour Le jour réservé.
+         * @param ancien Le statut avant la modification.
+         * @param nouveau Le statut après la modification.
+         * @param montant Le montant de la réservation (sa part du paiement).
+         * @param version La version de la ligne de cumul après l'écriture, 0 si le changement ne la modifie pas.
+         */
+        public StatutModifie(int idReservation, int idAttraction, LocalDate jour,
+                             StatutReservation ancien, StatutReservation nouveau, double montant, long version) {
+            this.idReservation = idReservation;
+            this.idAttraction = idAttraction;
+            this.jour = jour;
+            this.ancien = ancien;
+            this.nouveau = nouveau;
+            this.montant = montant;
+            this.version = version;
+        }
+
+        /** @return L'ID de la réservation. */
+        public int getIdReservation() { return idReservation; }
+
+        /** @return L'ID de l'attraction réservée. */
+        public int getIdAttraction() { return idAttraction; }
+
+        /** @return Le jour réservé. */
+        public LocalDate getJour() { return jour; }
+
+        /** @return Le statut avant la modification. */
+        public StatutReservation getAncien() { return ancien; }
+
+        /** @return Le statut après la modification. */
+        public StatutReservation getNouveau() { return nouveau; }
+
+        /** @return Le montant de la réservation. */
+        public double getMontant() { return montant; }
+
+        /** @return La version de la ligne de cumul (attraction, jour) après l'écriture, 0 si elle n'a pas changé. */
+        public long getVersion() { return version; }
+    }
+
+    /**
+     * Une attraction a été supprimée.
+     */
+    public static final class AttractionSupprimee extends Evenement {
+        private final int idAttraction;
+
+        /**
+         * Constructeur.
+         * @param idAttraction L'ID de l'attraction supprimée.
+         */
+        public AttractionSupprimee(int idAttraction) {
+            this.idAttraction = idAttraction;
+        }
+
+        /** @return L'ID de l'attraction supprimée. */
+        public int getIdAttraction() { return idAttraction; }
+    }
+}
@@ -0,0 +1,89 @@
+package Modele;
+
+import java.time.LocalDateTime;
+
+/**
+ * Classe représentant la place d'un visiteur dans la file d'attente virtuelle d'une attraction.
+ * Le visiteur est identifié par sa réservation (utilisateur connecté ou invité), comme dans {@link Reservation}.
+ */
+public class PassageFile {
+
+    /**
+     * Enumération des états d'une place dans la file.
+     */
+    public enum StatutPassage {
+        /** Le visiteur attend son tour */
+        en_attente,
+        /** Le visiteur a été appelé pour un tour de l'attraction */
+        appele,
+        /** Le visiteur a quitté la file */
+        annule
+    }
+
+    private final long numero;
+    private final Reservation reservation;
+    private final LocalDateTime entree;
+    private final LocalDateTime retourEstime;
+    private volatile StatutPassage statut = StatutPassage.en_attente;
+
+    /**
+     * Constructeur.
+     * @param numero Le numéro de passage, croissant dans la file de l'attraction.
+     * @param reservation La réservation du visiteur (attraction et titulaire renseignés).
+     * @param entree L'heure d'entrée dans la file.
+     * @param retourEstime L'heure estimée à laquelle le visiteur sera appelé.
+     */
+    public PassageFile(long numero, Reservation reservation, LocalDateTime entree, LocalDateTime retourEstime) {
+        this.numero = numero;
+        this.reservation = reservation;
+        this.entree = entree;
+        this.retourEstime = retourEstime;
+    }
+
+    /**
+     * @return Le numéro de passage
+     */
+    public long getNumero() { return numero; }
+
+    /**
+     * @return La réservation du visiteur
+     */
+    public Reservation getReservation() { return reservation; }
+
+    /**
+     * @return L'attraction de la file
+     */
+    public Attraction getAttraction() { return reservation.getAttraction(); }
+
+    /**
+     * @return L'heure d'entrée dans la file
+     */
+    public LocalDateTime getEntree() { return entree; }
+
+    /**
+     * @return L'heure estimée de l'appel, à l'entrée dans la file
+     */
+    public LocalDateTime getRetourEstime() { return retourEstime; }
+
+    /**
+     * @return L'état de la place
+     */
+    public StatutPassage getStatut() { return statut; }
+
+    /**
+     * @param statut Le nouvel état de la place
+     */
+    public void setStatut(StatutPassage statut) { this.statut = statut; }
+
+    /**
+     * Retourne une représentation textuelle de la place.
+     * @return Une chaîne de caractères décrivant la place
+     */
+    @Override
+    public String toString() {
+        return "Passage n°" + numero +
+                " - Attraction: " + (getAttraction() != null ? getAttraction().getNom() : "null") +
+                " - Retour estimé: " + retourEstime +
+                " - Statut: " + statut;
+    }
+}
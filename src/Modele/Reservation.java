@@ -1,4 +1,5 @@
 package Modele;
+import java.time.LocalTime;
 import java.util.*;
 
 /**
@@ -18,10 +19,16 @@ public class Reservation {
         annulee
     }
 
+    /** Taille maximale du nom d'un invité (colonne `invite_nom`) */
+    public static final int TAILLE_NOM_INVITE = 20;
+    /** Taille maximale de l'email d'un invité (colonne `invite_email`) */
+    public static final int TAILLE_EMAIL_INVITE = 20;
+
     private int idReservation;    // Clé primaire
     private User user;            // Clé étrangère vers User
     private Attraction attraction; // Clé étrangère vers Attraction
     private Date dateReservation;
+    private LocalTime creneau;    // Début du créneau horaire, null pour un billet à la journée
     private StatutReservation statut;  // Utilisation de l'enum StatutReservation
     private Paiement paiement;
 
@@ -58,6 +65,11 @@ public class Reservation {
         this.paiement = paiement;
     }
 
+    /**
+     * @return Le paiement associé à la réservation, ou null
+     */
+    public Paiement getPaiement() { return paiement; }
+
     /**
      * Retourne une représentation textuelle de la réservation.
      * @return Une chaîne de caractères décrivant la réservation
@@ -93,6 +105,16 @@ public class Reservation {
      */
     public Date getDateReservation() { return dateReservation; }
 
+    /**
+     * @return L'heure de début du créneau réservé, ou null pour un billet à la journée
+     */
+    public LocalTime getCreneau() { return creneau; }
+
+    /**
+     * @param creneau L'heure de début du créneau réservé, ou null pour un billet à la journée
+     */
+    public void setCreneau(LocalTime creneau) { this.creneau = creneau; }
+
     /**
      * @return Le statut actuel de la réservation
      */
@@ -0,0 +1,65 @@
+package Modele;
+
+import java.time.LocalDate;
+
+/**
+ * Statistiques de réservation d'une attraction sur une période (jour, semaine ou mois).
+ */
+public class StatistiqueAttraction {
+
+    /**
+     * Granularité des statistiques.
+     * - `JOUR` : une ligne par jour.
+     * - `SEMAINE` : une ligne par semaine, commençant le lundi.
+     * - `MOIS` : une ligne par mois calendaire.
+     */
+    public enum Periode {
+        JOUR,
+        SEMAINE,
+        MOIS
+    }
+
+    private final int idAttraction;
+    private final String nomAttraction;
+    private final LocalDate debutPeriode;
+    private final int nombreReservations;
+    private final double chiffreAffaires;
+    private final double tauxRemplissage;
+
+    /**
+     * Constructeur.
+     * @param idAttraction L'ID de l'attraction.
+     * @param nomAttraction Le nom de l'attraction.
+     * @param debutPeriode Le premier jour de la période.
+     * @param nombreReservations Le nombre de réservations actives (non annulées) sur la période.
+     * @param chiffreAffaires Le montant encaissé pour ces réservations.
+     * @param tauxRemplissage Le nombre de réservations rapporté à la capacité cumulée sur les jours de la période, entre 0 et 1.
+     */
+    public StatistiqueAttraction(int idAttraction, String nomAttraction, LocalDate debutPeriode,
+                                 int nombreReservations, double chiffreAffaires, double tauxRemplissage) {
+        this.idAttraction = idAttraction;
+        this.nomAttraction = nomAttraction;
+        this.debutPeriode = debutPeriode;
+        this.nombreReservations = nombreReservations;
+        this.chiffreAffaires = chiffreAffaires;
+        this.tauxRemplissage = tauxRemplissage;
+    }
+
+    /** @return L'ID de l'attraction. */
+    public int getIdAttraction() { return idAttraction; }
+
+    /** @return Le nom de l'attraction. */
+    public String getNomAttraction() { return nomAttraction; }
+
+    /** @return Le premier jour de la période. */
+    public LocalDate getDebutPeriode() { return debutPeriode; }
+
+    /** @return Le nombre de réservations actives sur la période. */
+    public int getNombreReservations() { return nombreReservations; }
+
+    /** @return Le chiffre d'affaires de la période. */
+    public double getChiffreAffaires() { return chiffreAffaires; }
+
+    /** @return Le taux de remplissage de la période, entre 0 et 1. */
+    public double getTauxRemplissage() { return tauxRemplissage; }
+}
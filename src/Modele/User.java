@@ -32,6 +32,21 @@ public class User {
         INVITE
     }
 
+    /**
+     * Enumération des informations modifiables d'un utilisateur,
+     * utilisée pour n'enregistrer que les champs modifiés.
+     */
+    public enum Champ {
+        NOM,
+        PRENOM,
+        /** Modifie aussi le type de client et la réduction */
+        DATE_NAISSANCE,
+        EMAIL,
+        TEL,
+        /** Modifie aussi le type de client et la réduction */
+        ROLE
+    }
+
     private int userId;
     private String userNom;
     private String userPrenom;
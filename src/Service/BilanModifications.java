@@ -0,0 +1,66 @@
+package Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat de l'enregistrement des attractions modifiées dans la grille d'administration.
+ * <p>
+ * L'enregistrement est tout ou rien : s'il y a des attractions invalides ou en conflit, rien n'est écrit.
+ */
+public final class BilanModifications {
+
+    private final List<Integer> invalides;
+    private final List<Integer> conflits;
+    private final boolean erreur;
+
+    private BilanModifications(List<Integer> invalides, List<Integer> conflits, boolean erreur) {
+        this.invalides = invalides;
+        this.conflits = conflits;
+        this.erreur = erreur;
+    }
+
+    static BilanModifications reussi() {
+        return new BilanModifications(new ArrayList<>(), new ArrayList<>(), false);
+    }
+
+    static BilanModifications invalides(List<Integer> ids) {
+        return new BilanModifications(ids, new ArrayList<>(), false);
+    }
+
+    static BilanModifications conflits(List<Integer> ids) {
+        return new BilanModifications(new ArrayList<>(), ids, false);
+    }
+
+    static BilanModifications erreur() {
+        return new BilanModifications(new ArrayList<>(), new ArrayList<>(), true);
+    }
+
+    /**
+     * @return true si toutes les modifications ont été enregistrées.
+     */
+    public boolean estReussi() {
+        return !erreur && invalides.isEmpty() && conflits.isEmpty();
+    }
+
+    /**
+     * @return Les ID des attractions dont les valeurs sont invalides (nom vide, capacité, durée ou prix incorrect).
+     */
+    public List<Integer> getInvalides() {
+        return invalides;
+    }
+
+    /**
+     * @return Les ID des attractions modifiées ou supprimées par un autre administrateur depuis leur lecture.
+     */
+    public List<Integer> getConflits() {
+        return conflits;
+    }
+
+    /**
+     * @return true si l'enregistrement a échoué sur une erreur de la base.
+     */
+    public boolean isErreur() {
+        return erreur;
+    }
+}
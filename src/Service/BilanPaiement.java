@@ -0,0 +1,67 @@
+package Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat de l'enregistrement d'un paiement de réservation.
+ * <p>
+ * Distingue un devis refusé (il faut en demander un nouveau) d'un échec de l'enregistrement
+ * (on peut réessayer avec la même clé d'idempotence sans risquer de débiter deux fois).
+ */
+public final class BilanPaiement {
+
+    private final List<Integer> ids;
+    private final boolean devisRefuse;
+    private final boolean complet;
+
+    private BilanPaiement(List<Integer> ids, boolean devisRefuse, boolean complet) {
+        this.ids = ids;
+        this.devisRefuse = devisRefuse;
+        this.complet = complet;
+    }
+
+    static BilanPaiement enregistre(List<Integer> ids) {
+        return new BilanPaiement(ids, false, false);
+    }
+
+    static BilanPaiement devisRefuse() {
+        return new BilanPaiement(new ArrayList<>(), true, false);
+    }
+
+    static BilanPaiement complet() {
+        return new BilanPaiement(new ArrayList<>(), false, true);
+    }
+
+    static BilanPaiement erreur() {
+        return new BilanPaiement(new ArrayList<>(), false, false);
+    }
+
+    /**
+     * @return true si le paiement et ses réservations sont enregistrés.
+     */
+    public boolean estEnregistre() {
+        return !ids.isEmpty();
+    }
+
+    /**
+     * @return Les ID des réservations enregistrées, vide si le paiement ne l'est pas.
+     */
+    public List<Integer> getIds() {
+        return ids;
+    }
+
+    /**
+     * @return true si le devis a expiré, a été modifié ou n'a pas été payé à son total.
+     */
+    public boolean isDevisRefuse() {
+        return devisRefuse;
+    }
+
+    /**
+     * @return true si les places n'ont pas pu être bloquées de nouveau lors d'une reprise.
+     */
+    public boolean isComplet() {
+        return complet;
+    }
+}
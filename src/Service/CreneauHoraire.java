@@ -0,0 +1,59 @@
+package Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Créneau horaire d'une attraction, tel que proposé à la réservation : début, fin, capacité
+ * (places de tous les tours du créneau) et places encore libres au moment de la lecture.
+ */
+public final class CreneauHoraire {
+
+    private final int idAttraction;
+    private final LocalDate jour;
+    private final LocalTime debut;
+    private final LocalTime fin;
+    private final int capacite;
+    private final int placesRestantes;
+
+    CreneauHoraire(int idAttraction, LocalDate jour, LocalTime debut, LocalTime fin, int capacite, int placesRestantes) {
+        this.idAttraction = idAttraction;
+        this.jour = jour;
+        this.debut = debut;
+        this.fin = fin;
+        this.capacite = capacite;
+        this.placesRestantes = placesRestantes;
+    }
+
+    public int getIdAttraction() {
+        return idAttraction;
+    }
+
+    public LocalDate getJour() {
+        return jour;
+    }
+
+    public LocalTime getDebut() {
+        return debut;
+    }
+
+    public LocalTime getFin() {
+        return fin;
+    }
+
+    public int getCapacite() {
+        return capacite;
+    }
+
+    public int getPlacesRestantes() {
+        return placesRestantes;
+    }
+
+    /**
+     * @return Le libellé du créneau (« 14:30 - 14:45 (12 places) »).
+     */
+    @Override
+    public String toString() {
+        return debut + " - " + fin + " (" + placesRestantes + " place" + (placesRestantes > 1 ? "s" : "") + ")";
+    }
+}
@@ -0,0 +1,148 @@
+package Service;
+
+import Modele.Attraction;
+import Modele.Reservation;
+import Modele.User;
+
+import java.time.LocalTime;
+import java.util.Date;
+
+/**
+ * Demande de réservation saisie dans un formulaire : le titulaire (utilisateur connecté ou invité),
+ * l'attraction, le jour, éventuellement le créneau horaire, et le nombre de places.
+ * <p>
+ * Objet de transfert sans logique d'affichage, passé aux méthodes de {@link ServiceReservation}.
+ */
+public final class DemandeReservation {
+
+    private final User user;
+    private final String inviteNom;
+    private final String inviteEmail;
+    private final Attraction attraction;
+    private final Date date;
+    private final int places;
+    private final LocalTime creneau;
+    /** Devis établi par le {@link ServiceDevis}, ou null tant que la demande n'est pas tarifée */
+    private final Devis devis;
+
+    private DemandeReservation(User user, String inviteNom, String inviteEmail, Attraction attraction, Date date,
+                               int places, LocalTime creneau, Devis devis) {
+        this.user = user;
+        this.inviteNom = inviteNom;
+        this.inviteEmail = inviteEmail;
+        this.attraction = attraction;
+        this.date = date;
+        this.places = places;
+        this.creneau = creneau;
+        this.devis = devis;
+    }
+
+    /**
+     * Demande d'un utilisateur connecté.
+     * @param user L'utilisateur qui réserve.
+     * @param attraction L'attraction réservée.
+     * @param date Le jour de la réservation.
+     * @param places Le nombre de places.
+     * @return La demande.
+     */
+    public static DemandeReservation pourUtilisateur(User user, Attraction attraction, Date date, int places) {
+        return new DemandeReservation(user, null, null, attraction, date, places, null, null);
+    }
+
+    /**
+     * Demande d'un invité, sans compte.
+     * @param nom Le nom de l'invité.
+     * @param email L'email de l'invité.
+     * @param attraction L'attraction réservée.
+     * @param date Le jour de la réservation.
+     * @param places Le nombre de places.
+     * @return La demande.
+     */
+    public static DemandeReservation pourInvite(String nom, String email, Attraction attraction, Date date, int places) {
+        return new DemandeReservation(null, nom, email, attraction, date, places, null, null);
+    }
+
+    /**
+     * Même demande, sur un créneau horaire ({@link PlanificateurCreneaux}) plutôt qu'à la journée.
+     * Le prix dépendant du créneau, la nouvelle demande n'a pas de devis.
+     * @param debut L'heure de début du créneau, ou null pour un billet à la journée.
+     * @return La nouvelle demande.
+     */
+    public DemandeReservation surCreneau(LocalTime debut) {
+        return new DemandeReservation(user, inviteNom, inviteEmail, attraction, date, places, debut, null);
+    }
+
+    /**
+     * Même demande, avec son devis.
+     * @param devis Le devis établi par le {@link ServiceDevis}.
+     * @return La nouvelle demande.
+     */
+    DemandeReservation avecDevis(Devis devis) {
+        return new DemandeReservation(user, inviteNom, inviteEmail, attraction, date, places, creneau, devis);
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public String getInviteNom() {
+        return inviteNom;
+    }
+
+    public String getInviteEmail() {
+        return inviteEmail;
+    }
+
+    public Attraction getAttraction() {
+        return attraction;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public int getPlaces() {
+        return places;
+    }
+
+    /**
+     * @return L'heure de début du créneau réservé, ou null pour un billet à la journée.
+     */
+    public LocalTime getCreneau() {
+        return creneau;
+    }
+
+    /**
+     * @return Le devis établi par {@link ServiceReservation#tarifer}, ou null si la demande n'est pas tarifée.
+     */
+    public Devis getDevis() {
+        return devis;
+    }
+
+    /**
+     * @return Le montant à payer pour toutes les places : le total du devis, sinon le prix de l'attraction
+     * avec la réduction du client.
+     */
+    public float getMontant() {
+        if (devis != null) {
+            return devis.getTotal();
+        }
+        return Math.round(attraction.getPrixAvecReduction(user) * places * 100) / 100f;
+    }
+
+    /**
+     * Crée une réservation (une place) avec le titulaire et le créneau de la demande renseignés.
+     * @return La nouvelle réservation.
+     */
+    Reservation creerReservation() {
+        Reservation reservation = new Reservation();
+        reservation.setCreneau(creneau);
+        if (user != null) {
+            reservation.setUser(user);
+        } else {
+            reservation.setInviteNom(inviteNom);
+            reservation.setInviteEmail(inviteEmail);
+        }
+        return reservation;
+    }
+}
@@ -0,0 +1,131 @@
+package Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Devis d'une réservation : prix d'une place au remplissage du moment, réduction du client et total,
+ * garantis jusqu'à l'expiration. Le devis est signé par le {@link ServiceDevis} ; l'étape de paiement
+ * l'encaisse tel quel, sans recalculer le prix.
+ */
+public final class Devis {
+
+    private final int idAttraction;
+    private final LocalDate jour;
+    private final LocalTime creneau;
+    private final int places;
+    private final String titulaire;
+    private final float prixUnitaire;
+    private final double reduction;
+    private final float total;
+    private final Instant expiration;
+    private final String signature;
+
+    Devis(int idAttraction, LocalDate jour, LocalTime creneau, int places, String titulaire, float prixUnitaire,
+          double reduction, float total, Instant expiration, String signature) {
+        this.idAttraction = idAttraction;
+        this.jour = jour;
+        this.creneau = creneau;
+        this.places = places;
+        this.titulaire = titulaire;
+        this.prixUnitaire = prixUnitaire;
+        this.reduction = reduction;
+        this.total = total;
+        this.expiration = expiration;
+        this.signature = signature;
+    }
+
+    public int getIdAttraction() {
+        return idAttraction;
+    }
+
+    public LocalDate getJour() {
+        return jour;
+    }
+
+    /**
+     * @return L'heure de début du créneau, ou null pour un billet à la journée.
+     */
+    public LocalTime getCreneau() {
+        return creneau;
+    }
+
+    public int getPlaces() {
+        return places;
+    }
+
+    /**
+     * @return Le titulaire du devis (« user:ID » ou « invite:email »).
+     */
+    public String getTitulaire() {
+        return titulaire;
+    }
+
+    /**
+     * @return Le prix d'une place avant réduction.
+     */
+    public float getPrixUnitaire() {
+        return prixUnitaire;
+    }
+
+    /**
+     * @return Le taux de réduction du client (0.15 pour 15 %).
+     */
+    public double getReduction() {
+        return reduction;
+    }
+
+    /**
+     * @return Le montant avant réduction, pour toutes les places.
+     */
+    public float getMontantBrut() {
+        return Math.round(prixUnitaire * places * 100) / 100f;
+    }
+
+    /**
+     * @return Le montant de la réduction, pour toutes les places.
+     */
+    public float getMontantReduction() {
+        return Math.round((getMontantBrut() - total) * 100) / 100f;
+    }
+
+    /**
+     * @return Le montant à payer.
+     */
+    public float getTotal() {
+        return total;
+    }
+
+    /**
+     * @return L'instant jusqu'auquel le prix est garanti.
+     */
+    public Instant getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * @return La signature du devis.
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * @param maintenant L'instant de la vérification.
+     * @return true si le prix n'est plus garanti.
+     */
+    public boolean isExpire(Instant maintenant) {
+        return !maintenant.isBefore(expiration);
+    }
+
+    /**
+     * @return Le détail du devis (« 2 × 8.5€ - 15 % = 14.45€ »).
+     */
+    @Override
+    public String toString() {
+        return places + " × " + prixUnitaire + "€" +
+                (reduction > 0 ? " - " + Math.round(reduction * 100) + " %" : "") +
+                " = " + total + "€";
+    }
+}
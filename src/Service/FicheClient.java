@@ -0,0 +1,109 @@
+package Service;
+
+import Modele.User;
+import Modele.User.Role;
+import Modele.User.TypeClient;
+
+import java.time.LocalDate;
+
+/**
+ * Ligne de la liste des clients, telle qu'affichée et saisie par l'administrateur.
+ * <p>
+ * Objet de transfert sans dépendance vers Swing ou JavaFX : la vue recopie ses lignes modifiées dans des fiches
+ * et {@link ServiceUtilisateur#enregistrerClients} renvoie les fiches avec le type et la réduction recalculés.
+ */
+public final class FicheClient {
+
+    private final int id;
+    private final String nom;
+    private final String prenom;
+    private final LocalDate dateNaissance;
+    private final String email;
+    private final String tel;
+    private final Role role;
+    private final TypeClient typeClient;
+    private final double reduction;
+
+    /**
+     * Constructeur.
+     * @param id L'ID du client.
+     * @param nom Le nom.
+     * @param prenom Le prénom.
+     * @param dateNaissance La date de naissance.
+     * @param email L'email.
+     * @param tel Le téléphone.
+     * @param role Le rôle.
+     * @param typeClient Le type de client (recalculé à l'enregistrement).
+     * @param reduction La réduction en pourcentage (recalculée à l'enregistrement).
+     */
+    public FicheClient(int id, String nom, String prenom, LocalDate dateNaissance, String email, String tel,
+                       Role role, TypeClient typeClient, double reduction) {
+        this.id = id;
+        this.nom = nom;
+        this.prenom = prenom;
+        this.dateNaissance = dateNaissance;
+        this.email = email;
+        this.tel = tel;
+        this.role = role;
+        this.typeClient = typeClient;
+        this.reduction = reduction;
+    }
+
+    /**
+     * Crée la fiche d'un utilisateur.
+     * @param user L'utilisateur.
+     * @return La fiche.
+     */
+    public static FicheClient de(User user) {
+        return new FicheClient(user.getUserId(), user.getUserNom(), user.getUserPrenom(), user.getDateNaissance(),
+                user.getUserEmail(), user.getUserTel(), user.getRole(),
+                user.getTypeClient(), user.getReduction());
+    }
+
+    /**
+     * Crée l'utilisateur correspondant à la fiche, avec son type et sa réduction calculés d'après son âge.
+     * Le mot de passe n'est ni affiché ni modifiable depuis la liste : il reste null.
+     * @return L'utilisateur.
+     */
+    User versUser() {
+        User user = new User(nom, prenom, dateNaissance, email, tel, null, role);
+        user.setUserId(id);
+        return user;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public String getPrenom() {
+        return prenom;
+    }
+
+    public LocalDate getDateNaissance() {
+        return dateNaissance;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getTel() {
+        return tel;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public TypeClient getTypeClient() {
+        return typeClient;
+    }
+
+    public double getReduction() {
+        return reduction;
+    }
+}
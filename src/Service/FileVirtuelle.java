@@ -0,0 +1,209 @@
+package Service;
+
+import Modele.Attraction;
+import Modele.EtatFileVirtuelle;
+import Modele.PassageFile;
+import Modele.PassageFile.StatutPassage;
+import Modele.Reservation;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * File d'attente virtuelle d'une attraction, sans verrou.
+ * <p>
+ * Les places sont rangées dans une {@link ConcurrentLinkedQueue} dans l'ordre d'arrivée ; la sortie d'une place
+ * (appel ou départ du visiteur) est un compare-and-set sur son drapeau, si bien qu'un visiteur qui quitte la file
+ * au moment où son tour arrive n'est jamais à la fois appelé et annulé. Les places sorties restent dans la queue
+ * jusqu'à ce qu'un cycle les retire.
+ * <p>
+ * Les visiteurs rejoignent la file depuis n'importe quel thread ; les cycles ({@link #cycler}) ne sont exécutés
+ * que par le thread du {@link GestionnaireFiles}.
+ */
+final class FileVirtuelle {
+
+    /** Retard maximal (en cycles) rattrapé après une interruption ; au-delà, le prochain cycle repart de maintenant */
+    private static final int CYCLES_RATTRAPES_MAX = 100;
+
+    private final int idAttraction;
+    private final LocalDateTime ouverture;
+    private final AtomicLong dernierNumero;
+    private final LongAdder appeles = new LongAdder();
+    private final LongAdder attenteCumuleeSecondes = new LongAdder();
+    private final AtomicInteger enAttente = new AtomicInteger();
+    private final AtomicLong version = new AtomicLong();
+    private final ConcurrentLinkedQueue<Place> ordre = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Place> parNumero = new ConcurrentHashMap<>();
+    /** Réservations ayant une place en attente : une seule place par réservation */
+    private final Set<Integer> reservations = ConcurrentHashMap.newKeySet();
+    private volatile LocalDateTime prochainCycle;
+
+    FileVirtuelle(int idAttraction, LocalDateTime ouverture, long dernierNumero, long appeles,
+                  long attenteCumuleeSecondes, LocalDateTime prochainCycle) {
+        this.idAttraction = idAttraction;
+        this.ouverture = ouverture;
+        this.dernierNumero = new AtomicLong(dernierNumero);
+        this.appeles.add(appeles);
+        this.attenteCumuleeSecondes.add(attenteCumuleeSecondes);
+        this.prochainCycle = prochainCycle;
+    }
+
+    /**
+     * Ajoute un visiteur en fin de file. L'heure de retour estimée suppose que chaque cycle appelle
+     * {@code capacite} visiteurs : le visiteur passe au cycle suivant ceux de tous les visiteurs devant lui.
+     * @return La place, ou null si la réservation a déjà une place en attente dans cette file.
+     */
+    PassageFile rejoindre(Reservation reservation, Attraction attraction, LocalDateTime maintenant) {
+        if (!reservations.add(reservation.getIdReservation())) {
+            return null;
+        }
+        long numero = dernierNumero.incrementAndGet();
+        int devant = enAttente.getAndIncrement();
+        LocalDateTime retour = prochainCycle.plus(tour(attraction).multipliedBy(devant / capacite(attraction)));
+        Place place = new Place(new PassageFile(numero, reservation, maintenant, retour));
+        parNumero.put(numero, place);
+        ordre.add(place);
+        version.incrementAndGet();
+        return place.passage;
+    }
+
+    /**
+     * Retire un visiteur de la file, s'il n'a pas encore été appelé.
+     * @return true si le visiteur attendait encore.
+     */
+    boolean quitter(long numero) {
+        Place place = parNumero.get(numero);
+        if (place == null || !place.sortie.compareAndSet(false, true)) {
+            return false;
+        }
+        place.passage.setStatut(StatutPassage.annule);
+        parNumero.remove(numero);
+        reservations.remove(place.passage.getReservation().getIdReservation());
+        enAttente.decrementAndGet();
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return La place en attente portant ce numéro, ou null si elle n'est plus dans la file.
+     */
+    PassageFile passage(long numero) {
+        Place place = parNumero.get(numero);
+        return place == null ? null : place.passage;
+    }
+
+    /**
+     * Exécute les cycles de l'attraction arrivés à échéance : chacun appelle au plus {@code capacite} visiteurs.
+     * @return Le nombre de visiteurs appelés.
+     */
+    int cycler(Attraction attraction, LocalDateTime maintenant) {
+        Duration tour = tour(attraction);
+        if (prochainCycle.plus(tour.multipliedBy(CYCLES_RATTRAPES_MAX)).isBefore(maintenant)) {
+            prochainCycle = maintenant;
+        }
+        int total = 0;
+        while (!maintenant.isBefore(prochainCycle)) {
+            total += appeler(attraction.getCapacite(), prochainCycle);
+            prochainCycle = prochainCycle.plus(tour);
+        }
+        return total;
+    }
+
+    private int appeler(int capacite, LocalDateTime heure) {
+        int appelesCycle = 0;
+        while (appelesCycle < capacite) {
+            Place place = ordre.poll();
+            if (place == null) {
+                break;
+            }
+            if (place.sortie.compareAndSet(false, true)) {
+                place.passage.setStatut(StatutPassage.appele);
+                parNumero.remove(place.passage.getNumero());
+                reservations.remove(place.passage.getReservation().getIdReservation());
+                enAttente.decrementAndGet();
+                appeles.increment();
+                attenteCumuleeSecondes.add(Math.max(0, Duration.between(place.passage.getEntree(), heure).getSeconds()));
+                appelesCycle++;
+            }
+        }
+        if (appelesCycle > 0) {
+            version.incrementAndGet();
+        }
+        return appelesCycle;
+    }
+
+    /**
+     * Remet en file une place relue depuis un instantané (au démarrage, avant tout cycle).
+     */
+    void restaurer(PassageFile passage) {
+        Place place = new Place(passage);
+        parNumero.put(passage.getNumero(), place);
+        reservations.add(passage.getReservation().getIdReservation());
+        ordre.add(place);
+        enAttente.incrementAndGet();
+    }
+
+    /**
+     * @return L'état et les indicateurs de la file.
+     */
+    EtatFileVirtuelle etat(Attraction attraction, LocalDateTime maintenant) {
+        int attente = enAttente.get();
+        LocalDateTime retour = prochainCycle.plus(tour(attraction).multipliedBy(attente / capacite(attraction)));
+        return new EtatFileVirtuelle(idAttraction, attraction.getNom(), ouverture, dernierNumero.get(),
+                appeles.sum(), attenteCumuleeSecondes.sum(), attente, PlanificateurCreneaux.debitHoraire(attraction),
+                retour.isAfter(maintenant) ? Duration.between(maintenant, retour) : Duration.ZERO);
+    }
+
+    /**
+     * @return Les places encore en attente, dans l'ordre de la file.
+     */
+    List<PassageFile> enAttente() {
+        List<PassageFile> passages = new ArrayList<>();
+        for (Place place : ordre) {
+            if (!place.sortie.get()) {
+                passages.add(place.passage);
+            }
+        }
+        return passages;
+    }
+
+    /**
+     * @return Un numéro incrémenté à chaque changement de la file, pour n'enregistrer que les files modifiées.
+     */
+    long version() {
+        return version.get();
+    }
+
+    /**
+     * @return La durée d'un tour de l'attraction, ou le pas par défaut des créneaux si elle n'est pas renseignée.
+     */
+    static Duration tour(Attraction attraction) {
+        Duration tour = attraction.getDureeTour();
+        return tour == null || tour.isZero() || tour.isNegative()
+                ? Duration.ofMinutes(PlanificateurCreneaux.PAS_DEFAUT_MINUTES) : tour;
+    }
+
+    private static int capacite(Attraction attraction) {
+        return Math.max(1, attraction.getCapacite());
+    }
+
+    /** Place de la file et drapeau de sortie (appel ou départ), positionné une seule fois. */
+    private static final class Place {
+        private final PassageFile passage;
+        private final AtomicBoolean sortie = new AtomicBoolean();
+
+        private Place(PassageFile passage) {
+            this.passage = passage;
+        }
+    }
+}
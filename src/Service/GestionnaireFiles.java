@@ -0,0 +1,282 @@
+package Service;
+
+import DAO.AttractionDAO;
+import DAO.ConnectionProvider;
+import DAO.FileVirtuelleDAO;
+import DAO.ReservationDAO;
+import DAO.UserDAO;
+import Modele.Attraction;
+import Modele.EtatFileVirtuelle;
+import Modele.PassageFile;
+import Modele.Reservation;
+import Modele.Reservation.StatutReservation;
+import Modele.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Files d'attente virtuelles des attractions (coupe-file) : un visiteur ayant une réservation confirmée
+ * de l'attraction pour le jour même rejoint sa file (une place en attente par réservation), reçoit une heure de retour estimée d'après la capacité et la durée d'un tour, puis est appelé
+ * avec les {@code capacite} visiteurs suivants à chaque tour de l'attraction.
+ * <p>
+ * Les files sont tenues en mémoire ({@link FileVirtuelle}, sans verrou) ; un thread unique exécute chaque seconde
+ * les tours arrivés à échéance et enregistre périodiquement un instantané des files modifiées
+ * (propriété système {@code attraction.files.instantane}, en secondes), relu au démarrage.
+ */
+public class GestionnaireFiles {
+
+    /** Période par défaut des instantanés (secondes) */
+    public static final long INSTANTANE_DEFAUT_S = 30;
+
+    private static final Map<ConnectionProvider, GestionnaireFiles> GESTIONNAIRES = new ConcurrentHashMap<>();
+
+    private final AttractionDAO attractionDAO;
+    private final FileVirtuelleDAO fileDAO;
+    private final ReservationDAO reservationDAO;
+    private final UserDAO userDAO;
+    private final long periodeInstantaneS;
+    private final Map<Integer, FileVirtuelle> files = new ConcurrentHashMap<>();
+    /** Version de chaque file au dernier instantané ; lue et écrite par le seul thread des files */
+    private final Map<Integer, Long> versionsEnregistrees = new HashMap<>();
+    private ScheduledExecutorService planification;
+
+    /**
+     * Renvoie le gestionnaire partagé par tous les contrôleurs d'une même base.
+     * À la fermeture du fournisseur, il est arrêté (dernier instantané compris) puis retiré.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     * @return Le gestionnaire associé.
+     */
+    public static GestionnaireFiles de(ConnectionProvider fournisseur) {
+        return GESTIONNAIRES.computeIfAbsent(fournisseur, f -> {
+            GestionnaireFiles gestionnaire = new GestionnaireFiles(f,
+                    Long.getLong("attraction.files.instantane", INSTANTANE_DEFAUT_S));
+            f.aLaFermeture(() -> {
+                gestionnaire.arreter();
+                GESTIONNAIRES.remove(f);
+            });
+            return gestionnaire;
+        });
+    }
+
+    private GestionnaireFiles(ConnectionProvider fournisseur, long periodeInstantaneS) {
+        this.attractionDAO = new AttractionDAO(fournisseur);
+        this.fileDAO = new FileVirtuelleDAO(fournisseur);
+        this.reservationDAO = new ReservationDAO(fournisseur);
+        this.userDAO = new UserDAO(fournisseur);
+        this.periodeInstantaneS = periodeInstantaneS;
+    }
+
+    /**
+     * Relit les files du jour depuis le dernier instantané, puis lance les tours et les instantanés.
+     * Sans effet si le gestionnaire est déjà démarré.
+     */
+    public synchronized void demarrer() {
+        if (planification != null) {
+            return;
+        }
+        restaurer();
+        planification = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("files-virtuelles").factory());
+        planification.scheduleAtFixedRate(() -> executer(() -> executerCycles(LocalDateTime.now())),
+                1, 1, TimeUnit.SECONDS);
+        planification.scheduleWithFixedDelay(() -> executer(this::enregistrerInstantane),
+                periodeInstantaneS, periodeInstantaneS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Arrête les tours et enregistre un dernier instantané.
+     */
+    public synchronized void arreter() {
+        if (planification == null) {
+            return;
+        }
+        planification.shutdown();
+        try {
+            planification.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        planification = null;
+        enregistrerInstantane();
+    }
+
+    /**
+     * Fait entrer le titulaire d'une réservation dans la file d'une attraction active.
+     * La réservation doit exister, être confirmée, porter sur cette attraction et sur aujourd'hui,
+     * et appartenir à l'email donné (invité, ou compte du client).
+     * @param idAttraction L'ID de l'attraction.
+     * @param idReservation L'ID de la réservation du visiteur.
+     * @param email L'email du titulaire de la réservation.
+     * @return La place du visiteur et son heure de retour estimée, ou null si l'attraction est inconnue ou fermée,
+     *         si la réservation ne donne pas accès à la file ou si elle y a déjà une place en attente.
+     */
+    public PassageFile rejoindre(int idAttraction, int idReservation, String email) {
+        Reservation reservation = reservationDAO.findById(idReservation);
+        if (reservation == null || reservation.getStatut() != StatutReservation.confirmee
+                || reservation.getAttraction().getIdAttraction() != idAttraction
+                || !MoteurCapacite.jour(reservation.getDateReservation()).equals(LocalDate.now())
+                || !email.equalsIgnoreCase(titulaire(reservation))) {
+            return null;
+        }
+        return rejoindre(reservation);
+    }
+
+    /**
+     * Fait entrer une réservation vérifiée dans la file de son attraction.
+     * @throws IllegalArgumentException Si le nom ou l'email de l'invité dépasse la taille des colonnes : la place
+     *         ne pourrait pas être enregistrée, et ferait échouer tous les instantanés suivants.
+     */
+    PassageFile rejoindre(Reservation reservation) {
+        if (trop(reservation.getInviteNom(), Reservation.TAILLE_NOM_INVITE)
+                || trop(reservation.getInviteEmail(), Reservation.TAILLE_EMAIL_INVITE)) {
+            throw new IllegalArgumentException("Le nom et l'email ne doivent pas dépasser "
+                    + Reservation.TAILLE_NOM_INVITE + " et " + Reservation.TAILLE_EMAIL_INVITE + " caractères");
+        }
+        Attraction attraction = attractionDAO.findById(reservation.getAttraction().getIdAttraction());
+        if (attraction == null || attraction.getStatut() != Attraction.StatutAttraction.active) {
+            return null;
+        }
+        reservation.setAttraction(attraction);
+        LocalDateTime maintenant = LocalDateTime.now();
+        FileVirtuelle file = files.computeIfAbsent(attraction.getIdAttraction(),
+                id -> new FileVirtuelle(id, maintenant, 0, 0, 0, maintenant.plus(FileVirtuelle.tour(attraction))));
+        return file.rejoindre(reservation, attraction, maintenant);
+    }
+
+    /**
+     * Retire un visiteur d'une file, s'il n'a pas encore été appelé.
+     * @param idAttraction L'ID de l'attraction.
+     * @param numero Le numéro de passage du visiteur.
+     * @return true si le visiteur a quitté la file, false s'il n'y était plus.
+     */
+    public boolean quitter(int idAttraction, long numero) {
+        FileVirtuelle file = files.get(idAttraction);
+        return file != null && file.quitter(numero);
+    }
+
+    /**
+     * @param idAttraction L'ID de l'attraction.
+     * @param numero Le numéro de passage.
+     * @return La place, si le visiteur attend encore, ou null s'il a été appelé, est parti ou est inconnu.
+     */
+    public PassageFile passage(int idAttraction, long numero) {
+        FileVirtuelle file = files.get(idAttraction);
+        return file == null ? null : file.passage(numero);
+    }
+
+    /**
+     * @return L'état et les indicateurs (attente, débits) de chaque file ouverte, par nom d'attraction.
+     */
+    public List<EtatFileVirtuelle> metriques() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<EtatFileVirtuelle> etats = new ArrayList<>();
+        for (Map.Entry<Integer, FileVirtuelle> entree : files.entrySet()) {
+            Attraction attraction = attractionDAO.findById(entree.getKey());
+            if (attraction != null) {
+                etats.add(entree.getValue().etat(attraction, maintenant));
+            }
+        }
+        etats.sort(Comparator.comparing(EtatFileVirtuelle::getNomAttraction));
+        return etats;
+    }
+
+    /**
+     * Exécute les tours arrivés à échéance de toutes les files.
+     * @param maintenant L'heure courante.
+     * @return Le nombre de visiteurs appelés.
+     */
+    int executerCycles(LocalDateTime maintenant) {
+        int appeles = 0;
+        for (Map.Entry<Integer, FileVirtuelle> entree : files.entrySet()) {
+            Attraction attraction = attractionDAO.findById(entree.getKey());
+            if (attraction != null) {
+                appeles += entree.getValue().cycler(attraction, maintenant);
+            }
+        }
+        return appeles;
+    }
+
+    /**
+     * Enregistre l'état des files modifiées depuis le dernier instantané.
+     * @return true si l'instantané a été enregistré (ou s'il n'y avait rien à enregistrer).
+     */
+    synchronized boolean enregistrerInstantane() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        Map<EtatFileVirtuelle, List<PassageFile>> instantanes = new LinkedHashMap<>();
+        Map<Integer, Long> versions = new HashMap<>();
+        for (Map.Entry<Integer, FileVirtuelle> entree : files.entrySet()) {
+            FileVirtuelle file = entree.getValue();
+            long version = file.version();
+            if (Long.valueOf(version).equals(versionsEnregistrees.get(entree.getKey()))) {
+                continue;
+            }
+            Attraction attraction = attractionDAO.findById(entree.getKey());
+            if (attraction != null) {
+                instantanes.put(file.etat(attraction, maintenant), file.enAttente());
+                versions.put(entree.getKey(), version);
+            }
+        }
+        if (!fileDAO.enregistrer(instantanes)) {
+            return false;
+        }
+        versionsEnregistrees.putAll(versions);
+        return true;
+    }
+
+    /**
+     * Recrée les files du jour et leurs visiteurs en attente depuis le dernier instantané.
+     */
+    private void restaurer() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        for (EtatFileVirtuelle etat : fileDAO.chargerEtats(LocalDate.now())) {
+            files.put(etat.getIdAttraction(), new FileVirtuelle(etat.getIdAttraction(), etat.getOuverture(),
+                    etat.getDernierNumero(), etat.getAppeles(), etat.getAttenteCumuleeSecondes(), maintenant));
+        }
+        int restaures = 0;
+        for (PassageFile passage : fileDAO.chargerPassages()) {
+            FileVirtuelle file = files.get(passage.getAttraction().getIdAttraction());
+            Attraction attraction = attractionDAO.findById(passage.getAttraction().getIdAttraction());
+            if (file != null && attraction != null) {
+                passage.getReservation().setAttraction(attraction);
+                file.restaurer(passage);
+                restaures++;
+            }
+        }
+        if (!files.isEmpty()) {
+            System.out.println(files.size() + " file(s) virtuelle(s) restaurée(s), " + restaures + " visiteur(s) en attente.");
+        }
+    }
+
+    /** Email du titulaire d'une réservation : celui de l'invité, ou celui du compte client */
+    private String titulaire(Reservation reservation) {
+        if (reservation.getUser() == null) {
+            return reservation.getInviteEmail();
+        }
+        User user = userDAO.findById(reservation.getUser().getUserId());
+        return user == null ? null : user.getUserEmail();
+    }
+
+    private static boolean trop(String valeur, int taille) {
+        return valeur != null && valeur.length() > taille;
+    }
+
+    /** Exécute une tâche planifiée sans laisser une exception interrompre les exécutions suivantes */
+    private static void executer(Runnable tache) {
+        try {
+            tache.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
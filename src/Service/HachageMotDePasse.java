@@ -0,0 +1,129 @@
+package Service;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Hachage des mots de passe avec PBKDF2-HMAC-SHA256 (JDK), sel aléatoire de 16 octets par mot de passe.
+ * <p>
+ * L'empreinte enregistrée dans la colonne {@code mdp} porte l'algorithme, le nombre d'itérations et le sel :
+ * {@code pbkdf2-sha256$310000$<sel>$<empreinte>} (Base64). Le nombre d'itérations (facteur de travail) peut donc
+ * évoluer : une empreinte calculée avec un autre nombre d'itérations, ou un mot de passe encore en clair
+ * (base antérieure), reste vérifiable et doit être renouvelée à la prochaine connexion réussie
+ * ({@link #aRenouveler}).
+ */
+public final class HachageMotDePasse {
+
+    /** Nombre d'itérations par défaut (recommandation OWASP pour PBKDF2-HMAC-SHA256) */
+    public static final int ITERATIONS_DEFAUT = 310_000;
+
+    private static final String ALGORITHME = "PBKDF2WithHmacSHA256";
+    private static final String PREFIXE = "pbkdf2-sha256";
+    private static final int OCTETS_SEL = 16;
+    private static final int BITS_EMPREINTE = 256;
+
+    private static final SecureRandom ALEA = new SecureRandom();
+
+    private final int iterations;
+
+    /**
+     * @param iterations Le nombre d'itérations des nouvelles empreintes.
+     */
+    public HachageMotDePasse(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Nombre d'itérations invalide : " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * @return Le nombre d'itérations des nouvelles empreintes.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Calcule l'empreinte d'un mot de passe, avec un nouveau sel.
+     * @param motDePasse Le mot de passe en clair.
+     * @return L'empreinte à enregistrer.
+     */
+    public String hacher(String motDePasse) {
+        byte[] sel = new byte[OCTETS_SEL];
+        ALEA.nextBytes(sel);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIXE + "$" + iterations + "$" + base64.encodeToString(sel) + "$" +
+                base64.encodeToString(deriver(motDePasse, sel, iterations));
+    }
+
+    /**
+     * Vérifie un mot de passe, en temps constant vis-à-vis de l'empreinte.
+     * @param motDePasse Le mot de passe saisi.
+     * @param empreinte L'empreinte enregistrée, déjà décodée.
+     * @return true si le mot de passe correspond.
+     */
+    public boolean verifier(String motDePasse, Empreinte empreinte) {
+        if (empreinte.sel == null) {
+            return MessageDigest.isEqual(motDePasse.getBytes(StandardCharsets.UTF_8), empreinte.valeur);
+        }
+        return MessageDigest.isEqual(deriver(motDePasse, empreinte.sel, empreinte.iterations), empreinte.valeur);
+    }
+
+    /**
+     * @param empreinte L'empreinte enregistrée.
+     * @return true si l'empreinte doit être recalculée (mot de passe en clair ou autre nombre d'itérations).
+     */
+    public boolean aRenouveler(Empreinte empreinte) {
+        return empreinte.sel == null || empreinte.iterations != iterations;
+    }
+
+    private static byte[] deriver(String motDePasse, byte[] sel, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(motDePasse.toCharArray(), sel, iterations, BITS_EMPREINTE);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHME).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Empreinte enregistrée, décodée une fois : nombre d'itérations, sel et valeur dérivée.
+     * Un mot de passe encore en clair n'a pas de sel.
+     */
+    public static final class Empreinte {
+        private final int iterations;
+        private final byte[] sel;
+        private final byte[] valeur;
+
+        private Empreinte(int iterations, byte[] sel, byte[] valeur) {
+            this.iterations = iterations;
+            this.sel = sel;
+            this.valeur = valeur;
+        }
+
+        /**
+         * Décode le contenu de la colonne {@code mdp}.
+         * @param texte L'empreinte enregistrée (ou un mot de passe en clair d'une base antérieure).
+         * @return L'empreinte décodée.
+         */
+        public static Empreinte lire(String texte) {
+            String[] parties = texte.split("\\$");
+            if (parties.length == 4 && parties[0].equals(PREFIXE)) {
+                try {
+                    Base64.Decoder base64 = Base64.getDecoder();
+                    return new Empreinte(Integer.parseInt(parties[1]), base64.decode(parties[2]), base64.decode(parties[3]));
+                } catch (IllegalArgumentException e) {
+                    // Empreinte illisible : traitée comme un mot de passe en clair
+                }
+            }
+            return new Empreinte(0, null, texte.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
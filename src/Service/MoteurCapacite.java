@@ -0,0 +1,195 @@
+package Service;
+
+import DAO.AttractionDAO;
+import DAO.ConnectionProvider;
+import DAO.ReservationDAO;
+import Modele.Attraction;
+import Modele.Reservation.StatutReservation;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moteur de capacité : garantit qu'on ne vend pas plus de places que {@code Attraction.capacite}
+ * pour une attraction et un jour donnés.
+ * <p>
+ * Chaque couple (attraction, jour) a un compteur des réservations confirmées ou en attente,
+ * initialisé depuis la base au premier accès puis tenu à jour en mémoire. Si la base ne peut pas être lue
+ * (pool saturé, panne), aucune place n'est vendue et aucun compteur n'est gardé : le prochain accès relit la base.
+ * La prise de places est une boucle compare-and-set sur ce compteur : des milliers de réservations
+ * simultanées ne se disputent aucun verrou, et deux jours ou deux attractions ne se gênent jamais.
+ * <p>
+ * Seuls les billets à la journée (sans créneau) sont comptés ici : les billets sur créneau ont leurs propres places,
+ * tenues par le {@link PlanificateurCreneaux}, et ne réduisent pas la capacité journalière.
+ */
+public class MoteurCapacite {
+
+    private static final Map<ConnectionProvider, MoteurCapacite> MOTEURS = new ConcurrentHashMap<>();
+
+    private final AttractionDAO attractionDAO;
+    private final ReservationDAO reservationDAO;
+    private final Map<Creneau, AtomicInteger> occupation = new ConcurrentHashMap<>();
+
+    /**
+     * Renvoie le moteur partagé par tous les contrôleurs d'une même base, retiré à la fermeture du fournisseur.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     * @return Le moteur de capacité associé.
+     */
+    public static MoteurCapacite de(ConnectionProvider fournisseur) {
+        return MOTEURS.computeIfAbsent(fournisseur, f -> {
+            f.aLaFermeture(() -> MOTEURS.remove(f));
+            return new MoteurCapacite(f);
+        });
+    }
+
+    private MoteurCapacite(ConnectionProvider fournisseur) {
+        this.attractionDAO = new AttractionDAO(fournisseur);
+        this.reservationDAO = new ReservationDAO(fournisseur);
+    }
+
+    /**
+     * Réserve atomiquement des places, avant le paiement.
+     * @param idAttraction L'ID de l'attraction.
+     * @param date Le jour de la réservation.
+     * @param places Le nombre de places demandées.
+     * @return true si les places ont été prises, false si l'attraction est complète, inconnue,
+     *         ou si son occupation n'a pas pu être lue.
+     */
+    public boolean reserver(int idAttraction, Date date, int places) {
+        Attraction attraction = attractionDAO.findById(idAttraction);
+        if (attraction == null || places <= 0) {
+            return false;
+        }
+        int capacite = attraction.getCapacite();
+        AtomicInteger compteur = compteur(idAttraction, jour(date));
+        if (compteur == null) {
+            return false;
+        }
+        while (true) {
+            int occupees = compteur.get();
+            if (occupees + places > capacite) {
+                return false;
+            }
+            if (compteur.compareAndSet(occupees, occupees + places)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Rend des places prises par {@link #reserver} (paiement abandonné, insertion échouée, annulation).
+     * @param idAttraction L'ID de l'attraction.
+     * @param date Le jour de la réservation.
+     * @param places Le nombre de places à rendre.
+     */
+    public void liberer(int idAttraction, Date date, int places) {
+        AtomicInteger compteur = occupation.get(new Creneau(idAttraction, jour(date)));
+        if (compteur != null) {
+            compteur.updateAndGet(n -> Math.max(0, n - places));
+        }
+    }
+
+    /**
+     * Répercute un changement de statut fait hors du parcours de réservation (administration).
+     * Une réservation annulée rend sa place ; une réservation réactivée la reprend même au-delà
+     * de la capacité, la décision de l'administrateur primant sur le contrôle.
+     * @param idAttraction L'ID de l'attraction.
+     * @param date Le jour de la réservation.
+     * @param ancien L'ancien statut.
+     * @param nouveau Le nouveau statut.
+     */
+    public void changerStatut(int idAttraction, Date date, StatutReservation ancien, StatutReservation nouveau) {
+        boolean comptait = ancien != null && ancien != StatutReservation.annulee;
+        boolean compte = nouveau != null && nouveau != StatutReservation.annulee;
+        if (comptait && !compte) {
+            liberer(idAttraction, date, 1);
+        } else if (!comptait && compte) {
+            // Sans compteur (base illisible), le changement déjà enregistré sera relu au prochain accès
+            AtomicInteger compteur = compteur(idAttraction, jour(date));
+            if (compteur != null) {
+                compteur.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @param idAttraction L'ID de l'attraction.
+     * @param date Le jour.
+     * @return Le nombre de places encore disponibles ce jour-là, 0 si l'occupation n'a pas pu être lue.
+     */
+    public int placesRestantes(int idAttraction, Date date) {
+        Attraction attraction = attractionDAO.findById(idAttraction);
+        AtomicInteger compteur = attraction == null ? null : compteur(idAttraction, jour(date));
+        if (compteur == null) {
+            return 0;
+        }
+        return Math.max(0, attraction.getCapacite() - compteur.get());
+    }
+
+    /**
+     * Oublie tous les compteurs : ils seront relus depuis la base au prochain accès.
+     * À appeler si la table `reservation` a été modifiée en dehors de l'application.
+     */
+    public void resynchroniser() {
+        occupation.clear();
+    }
+
+    /**
+     * Renvoie le compteur d'un créneau, en l'initialisant depuis la base au premier accès.
+     * La lecture en base se fait hors de la table de hachage pour ne pas bloquer les autres créneaux.
+     * @return Le compteur, ou null si la base n'a pas pu être lue (rien n'est alors gardé).
+     */
+    private AtomicInteger compteur(int idAttraction, LocalDate jour) {
+        Creneau creneau = new Creneau(idAttraction, jour);
+        AtomicInteger compteur = occupation.get(creneau);
+        if (compteur != null) {
+            return compteur;
+        }
+        OptionalInt enBase = reservationDAO.compterReservationsActives(idAttraction, jour);
+        if (enBase.isEmpty()) {
+            return null;
+        }
+        AtomicInteger nouveau = new AtomicInteger(enBase.getAsInt());
+        AtomicInteger existant = occupation.putIfAbsent(creneau, nouveau);
+        return existant != null ? existant : nouveau;
+    }
+
+    /**
+     * Convertit une date de réservation (java.sql.Date ou java.util.Date) en jour calendaire.
+     */
+    static LocalDate jour(Date date) {
+        if (date instanceof java.sql.Date) {
+            return ((java.sql.Date) date).toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /** Couple (attraction, jour) identifiant un compteur. */
+    private static final class Creneau {
+        private final int idAttraction;
+        private final LocalDate jour;
+
+        private Creneau(int idAttraction, LocalDate jour) {
+            this.idAttraction = idAttraction;
+            this.jour = jour;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Creneau)) return false;
+            Creneau autre = (Creneau) o;
+            return idAttraction == autre.idAttraction && jour.equals(autre.jour);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idAttraction, jour);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package Service;
+
+import DAO.ConnectionProvider;
+import Modele.Attraction;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moteur de tarification : le prix d'une place suit le taux de remplissage de l'attraction, pour un jour
+ * (billet à la journée, compteurs du {@link MoteurCapacite}) ou pour un créneau ({@link PlanificateurCreneaux}).
+ * <p>
+ * En dessous du seuil de remplissage, la place est au prix de l'attraction ; au-delà, le prix augmente
+ * linéairement jusqu'à la majoration maximale, atteinte quand l'attraction est complète. La réduction du client
+ * s'applique ensuite, dans le {@link Devis} établi par le {@link ServiceDevis}.
+ * <p>
+ * Les prix de base sont gardés quelques secondes par (attraction, jour, créneau) : les devis répétés
+ * (fenêtre de paiement, bornes) ne relisent ni l'attraction ni les compteurs. Le prix d'une entrée est recalculé
+ * dès que le prix de l'attraction change.
+ * <p>
+ * Propriétés système :
+ * - attraction.tarif.seuil : taux de remplissage à partir duquel le prix augmente (0.6)
+ * - attraction.tarif.majoration : majoration maximale, attraction complète (0.5, soit +50 %)
+ * - attraction.tarif.ttl : durée de validité d'un prix calculé, en millisecondes (2000)
+ */
+public class MoteurTarifaire {
+
+    /** Taux de remplissage par défaut à partir duquel le prix augmente */
+    public static final double SEUIL_DEFAUT = 0.6;
+    /** Majoration maximale par défaut */
+    public static final double MAJORATION_DEFAUT = 0.5;
+    /** Durée de validité par défaut d'un prix calculé (millisecondes) */
+    public static final long TTL_DEFAUT_MS = 2000;
+
+    /** Nombre d'entrées au-delà duquel les prix expirés sont purgés */
+    private static final int TAILLE_PURGE = 4096;
+
+    private static final Map<ConnectionProvider, MoteurTarifaire> MOTEURS = new ConcurrentHashMap<>();
+
+    private final MoteurCapacite moteurCapacite;
+    private final PlanificateurCreneaux planificateur;
+    private final double seuil;
+    private final double majoration;
+    private final long ttlNanos;
+    private final Map<Cle, Tarif> tarifs = new ConcurrentHashMap<>();
+
+    /**
+     * Renvoie le moteur partagé par tous les contrôleurs d'une même base, retiré à la fermeture du fournisseur.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     * @return Le moteur de tarification associé.
+     */
+    public static MoteurTarifaire de(ConnectionProvider fournisseur) {
+        return MOTEURS.computeIfAbsent(fournisseur, f -> {
+            f.aLaFermeture(() -> MOTEURS.remove(f));
+            return new MoteurTarifaire(f,
+                    Double.parseDouble(System.getProperty("attraction.tarif.seuil", String.valueOf(SEUIL_DEFAUT))),
+                    Double.parseDouble(System.getProperty("attraction.tarif.majoration", String.valueOf(MAJORATION_DEFAUT))),
+                    Long.getLong("attraction.tarif.ttl", TTL_DEFAUT_MS));
+        });
+    }
+
+    MoteurTarifaire(ConnectionProvider fournisseur, double seuil, double majoration, long ttlMs) {
+        this.moteurCapacite = MoteurCapacite.de(fournisseur);
+        this.planificateur = PlanificateurCreneaux.de(fournisseur);
+        this.seuil = seuil;
+        this.majoration = majoration;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    /**
+     * Prix d'une place avant réduction, selon le remplissage.
+     * @param attraction L'attraction.
+     * @param jour Le jour de la réservation.
+     * @param creneau L'heure de début du créneau, ou null pour un billet à la journée.
+     * @return Le prix d'une place, arrondi au centime.
+     */
+    public float prixBase(Attraction attraction, LocalDate jour, LocalTime creneau) {
+        Cle cle = new Cle(attraction.getIdAttraction(), jour, creneau);
+        long maintenant = System.nanoTime();
+        Tarif tarif = tarifs.get(cle);
+        if (tarif != null && tarif.expiration - maintenant > 0 && tarif.prixAttraction == attraction.getPrix()) {
+            return tarif.prix;
+        }
+        float prix = arrondir(attraction.getPrix() * (1 + majoration(tauxRemplissage(attraction, jour, creneau))));
+        if (tarifs.size() >= TAILLE_PURGE) {
+            tarifs.values().removeIf(t -> t.expiration - maintenant <= 0);
+        }
+        tarifs.put(cle, new Tarif(attraction.getPrix(), prix, maintenant + ttlNanos));
+        return prix;
+    }
+
+    /**
+     * @param attraction L'attraction.
+     * @param jour Le jour.
+     * @param creneau L'heure de début du créneau, ou null pour la journée.
+     * @return La part des places déjà prises (entre 0 et 1) ; 1 pour un créneau qui n'existe pas.
+     */
+    public double tauxRemplissage(Attraction attraction, LocalDate jour, LocalTime creneau) {
+        if (creneau != null) {
+            CreneauHoraire c = planificateur.creneau(attraction.getIdAttraction(), jour, creneau);
+            if (c == null || c.getCapacite() <= 0) {
+                return 1;
+            }
+            return 1 - (double) c.getPlacesRestantes() / c.getCapacite();
+        }
+        if (attraction.getCapacite() <= 0) {
+            return 1;
+        }
+        int restantes = moteurCapacite.placesRestantes(attraction.getIdAttraction(), Date.valueOf(jour));
+        return 1 - (double) restantes / attraction.getCapacite();
+    }
+
+    /** Majoration pour un taux de remplissage : nulle jusqu'au seuil, puis linéaire jusqu'au maximum. */
+    private double majoration(double remplissage) {
+        if (remplissage <= seuil || seuil >= 1) {
+            return 0;
+        }
+        return majoration * Math.min(1, (remplissage - seuil) / (1 - seuil));
+    }
+
+    private static float arrondir(double prix) {
+        return Math.round(prix * 100) / 100f;
+    }
+
+    /** Triplet (attraction, jour, créneau) identifiant un prix. */
+    private static final class Cle {
+        private final int idAttraction;
+        private final LocalDate jour;
+        private final LocalTime creneau;
+
+        private Cle(int idAttraction, LocalDate jour, LocalTime creneau) {
+            this.idAttraction = idAttraction;
+            this.jour = jour;
+            this.creneau = creneau;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Cle)) return false;
+            Cle autre = (Cle) o;
+            return idAttraction == autre.idAttraction && jour.equals(autre.jour) && Objects.equals(creneau, autre.creneau);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idAttraction, jour, creneau);
+        }
+    }
+
+    /** Prix calculé et son échéance (en {@link System#nanoTime()}). */
+    private static final class Tarif {
+        private final float prixAttraction;
+        private final float prix;
+        private final long expiration;
+
+        private Tarif(float prixAttraction, float prix, long expiration) {
+            this.prixAttraction = prixAttraction;
+            this.prix = prix;
+            this.expiration = expiration;
+        }
+    }
+}
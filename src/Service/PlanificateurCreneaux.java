@@ -0,0 +1,503 @@
+package Service;
+
+import DAO.AttractionDAO;
+import DAO.ConnectionProvider;
+import DAO.ReservationDAO;
+import Modele.Attraction;
+import Modele.Reservation.StatutReservation;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Planificateur des créneaux horaires : découpe la journée d'ouverture du parc en créneaux pour chaque attraction
+ * et tient à jour les places restantes de chaque créneau.
+ * <p>
+ * Les créneaux sont déduits de la durée d'un tour ({@link Attraction#getDureeTour()}) et de la capacité :
+ * une attraction dont le tour est plus court que le pas de la grille enchaîne plusieurs tours par créneau
+ * (capacité × tours), une attraction plus longue occupe un créneau arrondi au pas supérieur pour un seul tour.
+ * <p>
+ * Pour chaque couple (attraction, jour), les places restantes des créneaux sont rangées dans un arbre d'intervalles
+ * (maximum des places restantes de chaque intervalle de créneaux) : « premier créneau à partir de telle heure
+ * avec au moins n places » se résout en O(log n) sans parcourir la journée. Le plan d'un jour est initialisé
+ * depuis la base au premier accès, puis tenu à jour en mémoire ; il est reconstruit si la capacité ou la durée
+ * de l'attraction change. Un plan dont l'occupation n'a pas pu être lue n'est pas gardé : l'attraction est
+ * traitée comme inconnue (aucune place vendue) jusqu'à la prochaine lecture réussie.
+ * <p>
+ * Les places prises avant le paiement ne sont pas encore en base : elles sont aussi comptées à part
+ * (places retenues) jusqu'à leur {@link #confirmer confirmation} ou leur {@link #liberer libération},
+ * et un plan reconstruit les reprend en plus de l'occupation lue en base. Les modifications d'un plan
+ * et sa reconstruction se font sous le verrou des places retenues du couple (attraction, jour) :
+ * aucune prise de places ne se perd entre l'ancien plan et le nouveau. Un paiement validé pendant
+ * la lecture peut être compté deux fois (en base et retenu) jusqu'à la reconstruction suivante ;
+ * le plan est alors trop prudent, jamais trop généreux.
+ * <p>
+ * Les places des créneaux sont indépendantes de la capacité journalière du {@link MoteurCapacite} :
+ * un billet sur créneau n'est compté que dans son créneau, un billet à la journée que dans le moteur.
+ * <p>
+ * Propriétés système :
+ * - attraction.parc.ouverture : heure d'ouverture du parc (10:00)
+ * - attraction.parc.fermeture : heure de fermeture du parc (19:00)
+ * - attraction.creneau.minutes : pas de la grille des créneaux (15)
+ */
+public class PlanificateurCreneaux {
+
+    /** Heure d'ouverture par défaut du parc */
+    public static final LocalTime OUVERTURE_DEFAUT = LocalTime.of(10, 0);
+    /** Heure de fermeture par défaut du parc */
+    public static final LocalTime FERMETURE_DEFAUT = LocalTime.of(19, 0);
+    /** Pas par défaut de la grille des créneaux (minutes) */
+    public static final int PAS_DEFAUT_MINUTES = 15;
+
+    private static final Map<ConnectionProvider, PlanificateurCreneaux> PLANIFICATEURS = new ConcurrentHashMap<>();
+
+    private final AttractionDAO attractionDAO;
+    private final ReservationDAO reservationDAO;
+    private final LocalTime ouverture;
+    private final LocalTime fermeture;
+    private final Duration pas;
+    private final Map<Cle, Plan> plans = new ConcurrentHashMap<>();
+    private final Map<Cle, Retenues> retenues = new ConcurrentHashMap<>();
+
+    /**
+     * Renvoie le planificateur partagé par tous les contrôleurs d'une même base, retiré à la fermeture du fournisseur.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     * @return Le planificateur associé.
+     */
+    public static PlanificateurCreneaux de(ConnectionProvider fournisseur) {
+        return PLANIFICATEURS.computeIfAbsent(fournisseur, f -> {
+            f.aLaFermeture(() -> PLANIFICATEURS.remove(f));
+            return new PlanificateurCreneaux(f,
+                    LocalTime.parse(System.getProperty("attraction.parc.ouverture", OUVERTURE_DEFAUT.toString())),
+                    LocalTime.parse(System.getProperty("attraction.parc.fermeture", FERMETURE_DEFAUT.toString())),
+                    Duration.ofMinutes(Integer.getInteger("attraction.creneau.minutes", PAS_DEFAUT_MINUTES)));
+        });
+    }
+
+    PlanificateurCreneaux(ConnectionProvider fournisseur, LocalTime ouverture, LocalTime fermeture, Duration pas) {
+        this.attractionDAO = new AttractionDAO(fournisseur);
+        this.reservationDAO = new ReservationDAO(fournisseur);
+        this.ouverture = ouverture;
+        this.fermeture = fermeture;
+        this.pas = pas;
+    }
+
+    /**
+     * @param idAttraction L'ID de l'attraction.
+     * @param jour Le jour.
+     * @return Tous les créneaux de l'attraction ce jour-là, dans l'ordre, vide si l'attraction est inconnue.
+     */
+    public List<CreneauHoraire> creneaux(int idAttraction, LocalDate jour) {
+        List<CreneauHoraire> creneaux = new ArrayList<>();
+        Plan plan = plan(idAttraction, jour);
+        if (plan != null) {
+            for (int i = 0; i < plan.nombre; i++) {
+                creneaux.add(plan.creneau(idAttraction, jour, i));
+            }
+        }
+        return creneaux;
+    }
+
+    /**
+     * @param idAttraction L'ID de l'attraction.
+     * @param jour Le jour.
+     * @param debut L'heure de début du créneau.
+     * @return Le créneau commençant à cette heure, avec ses places restantes, ou null s'il n'existe pas.
+     */
+    public CreneauHoraire creneau(int idAttraction, LocalDate jour, LocalTime debut) {
+        Plan plan = plan(idAttraction, jour);
+        int i = plan == null ? -1 : plan.indice(debut);
+        return i < 0 ? null : plan.creneau(idAttraction, jour, i);
+    }
+
+    /**
+     * Cherche le premier créneau d'une attraction commençant à partir d'une heure et ayant assez de places.
+     * @param idAttraction L'ID de l'attraction.
+     * @param jour Le jour.
+     * @param apres L'heure à partir de laquelle chercher (null pour toute la journée).
+     * @param places Le nombre de places voulues.
+     * @return Le créneau, ou null s'il n'y en a plus ce jour-là.
+     */
+    public CreneauHoraire prochainCreneau(int idAttraction, LocalDate jour, LocalTime apres, int places) {
+        Plan plan = plan(idAttraction, jour);
+        if (plan == null) {
+            return null;
+        }
+        int i = plan.premierLibre(plan.indiceApres(apres), places);
+        return i < 0 ? null : plan.creneau(idAttraction, jour, i);
+    }
+
+    /**
+     * Cherche, pour chaque attraction active, le premier créneau libre à partir d'une heure.
+     * @param jour Le jour.
+     * @param apres L'heure à partir de laquelle chercher (null pour toute la journée).
+     * @param places Le nombre de places voulues.
+     * @return Un créneau par attraction en ayant encore un, triés par heure de début.
+     */
+    public List<CreneauHoraire> prochainsCreneaux(LocalDate jour, LocalTime apres, int places) {
+        List<CreneauHoraire> creneaux = new ArrayList<>();
+        for (Attraction attraction : attractionDAO.getAllActive()) {
+            Plan plan = plan(attraction, jour);
+            int i = plan == null ? -1 : plan.premierLibre(plan.indiceApres(apres), places);
+            if (i >= 0) {
+                creneaux.add(plan.creneau(attraction.getIdAttraction(), jour, i));
+            }
+        }
+        creneaux.sort(Comparator.comparing(CreneauHoraire::getDebut));
+        return creneaux;
+    }
+
+    /**
+     * Prend atomiquement des places sur un créneau, avant le paiement.
+     * @param idAttraction L'ID de l'attraction.
+     * @param jour Le jour.
+     * @param debut L'heure de début du créneau.
+     * @param places Le nombre de places.
+     * @return true si les places ont été prises, false si le créneau est complet ou n'existe pas.
+     */
+    public boolean reserver(int idAttraction, LocalDate jour, LocalTime debut, int places) {
+        Plan plan = plan(idAttraction, jour);
+        if (plan == null || places <= 0) {
+            return false;
+        }
+        Cle cle = new Cle(idAttraction, jour);
+        Retenues retenues = retenues(cle);
+        synchronized (retenues) {
+            // Le plan a pu être reconstruit depuis sa lecture
+            Plan courant = plans.getOrDefault(cle, plan);
+            int i = courant.indice(debut);
+            if (i < 0 || !courant.prendre(i, places, false)) {
+                return false;
+            }
+            retenues.ajouter(debut, places);
+            return true;
+        }
+    }
+
+    /**
+     * Rend des places prises par {@link #reserver} et pas encore payées (paiement abandonné, insertion échouée).
+     * @param idAttraction L'ID de l'attraction.
+     * @param jour Le jour.
+     * @param debut L'heure de début du créneau.
+     * @param places Le nombre de places.
+     */
+    public void liberer(int idAttraction, LocalDate jour, LocalTime debut, int places) {
+        Cle cle = new Cle(idAttraction, jour);
+        Retenues retenues = retenues(cle);
+        synchronized (retenues) {
+            retenues.ajouter(debut, -places);
+            rendre(cle, debut, places);
+        }
+    }
+
+    /**
+     * Signale que des places prises par {@link #reserver} sont enregistrées en base : elles restent prises,
+     * mais un plan reconstruit les retrouvera dans l'occupation lue en base.
+     * @param idAttraction L'ID de l'attraction.
+     * @param jour Le jour.
+     * @param debut L'heure de début du créneau.
+     * @param places Le nombre de places.
+     */
+    public void confirmer(int idAttraction, LocalDate jour, LocalTime debut, int places) {
+        Retenues retenues = retenues(new Cle(idAttraction, jour));
+        synchronized (retenues) {
+            retenues.ajouter(debut, -places);
+        }
+    }
+
+    /**
+     * Répercute un changement de statut fait par l'administration. Comme pour les billets à la journée,
+     * une réservation réactivée reprend sa place même si le créneau est complet.
+     * @param idAttraction L'ID de l'attraction.
+     * @param jour Le jour.
+     * @param debut L'heure de début du créneau.
+     * @param ancien L'ancien statut.
+     * @param nouveau Le nouveau statut.
+     */
+    public void changerStatut(int idAttraction, LocalDate jour, LocalTime debut,
+                              StatutReservation ancien, StatutReservation nouveau) {
+        boolean comptait = ancien != null && ancien != StatutReservation.annulee;
+        boolean compte = nouveau != null && nouveau != StatutReservation.annulee;
+        if (comptait == compte) {
+            return;
+        }
+        Cle cle = new Cle(idAttraction, jour);
+        if (compte && plan(idAttraction, jour) == null) {
+            return;
+        }
+        synchronized (retenues(cle)) {
+            if (!compte) {
+                rendre(cle, debut, 1);
+            } else {
+                Plan plan = plans.get(cle);
+                int i = plan == null ? -1 : plan.indice(debut);
+                if (i >= 0) {
+                    plan.prendre(i, 1, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Oublie tous les plans : ils seront relus depuis la base au prochain accès, avec les places retenues.
+     * À appeler si la table `reservation` a été modifiée en dehors de l'application.
+     */
+    public void resynchroniser() {
+        plans.clear();
+    }
+
+    /**
+     * @param attraction L'attraction.
+     * @return Le débit théorique de l'attraction, en places par heure (capacité × tours par heure).
+     */
+    public static int debitHoraire(Attraction attraction) {
+        Duration tour = attraction.getDureeTour();
+        if (tour == null || tour.isZero() || tour.isNegative()) {
+            return 0;
+        }
+        return (int) (attraction.getCapacite() * 3600L / tour.getSeconds());
+    }
+
+    private Plan plan(int idAttraction, LocalDate jour) {
+        Attraction attraction = attractionDAO.findById(idAttraction);
+        return attraction == null ? null : plan(attraction, jour);
+    }
+
+    private Retenues retenues(Cle cle) {
+        return retenues.computeIfAbsent(cle, c -> new Retenues());
+    }
+
+    /** Rend des places sur le plan courant ; à appeler sous le verrou des places retenues */
+    private void rendre(Cle cle, LocalTime debut, int places) {
+        Plan plan = plans.get(cle);
+        int i = plan == null ? -1 : plan.indice(debut);
+        if (i >= 0) {
+            plan.rendre(i, places);
+        }
+    }
+
+    /**
+     * Renvoie le plan d'une attraction pour un jour, en le construisant depuis la base au premier accès
+     * ou si l'attraction a changé de capacité ou de durée. La construction se fait hors de la table de hachage,
+     * sous le verrou des places retenues : aucune place ne peut être prise ou rendue sur l'ancien plan pendant ce temps.
+     * @return Le plan, ou null si l'occupation n'a pas pu être lue.
+     */
+    private Plan plan(Attraction attraction, LocalDate jour) {
+        Cle cle = new Cle(attraction.getIdAttraction(), jour);
+        Plan plan = plans.get(cle);
+        if (plan != null && plan.construitPour(attraction)) {
+            return plan;
+        }
+        Retenues retenues = retenues(cle);
+        synchronized (retenues) {
+            plan = plans.get(cle);
+            if (plan != null && plan.construitPour(attraction)) {
+                return plan; // Construit entre-temps par un autre thread
+            }
+            Plan nouveau = construire(attraction, jour, retenues);
+            if (nouveau != null) {
+                plans.put(cle, nouveau);
+            }
+            return nouveau;
+        }
+    }
+
+    /**
+     * Construit le plan d'un jour depuis la base, plus les places retenues et pas encore payées,
+     * ou renvoie null si l'occupation n'a pas pu être lue.
+     */
+    private Plan construire(Attraction attraction, LocalDate jour, Retenues retenues) {
+        Optional<Map<LocalTime, Integer>> occupation =
+                reservationDAO.compterParCreneau(attraction.getIdAttraction(), jour);
+        if (occupation.isEmpty()) {
+            return null;
+        }
+        Duration tour = attraction.getDureeTour();
+        Duration cycle = tour == null || tour.isZero() || tour.isNegative() ? pas : tour;
+        Duration longueur;
+        int capaciteCreneau;
+        if (cycle.compareTo(pas) <= 0) {
+            longueur = pas;
+            capaciteCreneau = attraction.getCapacite() * (int) (pas.getSeconds() / cycle.getSeconds());
+        } else {
+            long pasParTour = (cycle.getSeconds() + pas.getSeconds() - 1) / pas.getSeconds();
+            longueur = pas.multipliedBy(pasParTour);
+            capaciteCreneau = attraction.getCapacite();
+        }
+        int nombre = (int) Math.max(0, Duration.between(ouverture, fermeture).getSeconds() / longueur.getSeconds());
+        Plan plan = new Plan(ouverture, longueur, nombre, capaciteCreneau, attraction.getCapacite(), tour);
+        occupation.get().forEach((debut, occupees) -> {
+            int i = plan.indice(debut);
+            if (i >= 0) {
+                plan.prendre(i, occupees, true);
+            }
+        });
+        retenues.places.forEach((debut, retenuesCreneau) -> {
+            int i = plan.indice(debut);
+            if (i >= 0) {
+                plan.prendre(i, retenuesCreneau, true);
+            }
+        });
+        return plan;
+    }
+
+    /**
+     * Places prises avant le paiement et pas encore enregistrées, par heure de début de créneau,
+     * pour un couple (attraction, jour). Son moniteur protège aussi les modifications du plan du couple.
+     */
+    private static final class Retenues {
+        private final Map<LocalTime, Integer> places = new HashMap<>();
+
+        private void ajouter(LocalTime debut, int nombre) {
+            int total = places.getOrDefault(debut, 0) + nombre;
+            if (total > 0) {
+                places.put(debut, total);
+            } else {
+                places.remove(debut);
+            }
+        }
+    }
+
+    /** Couple (attraction, jour) identifiant un plan. */
+    private static final class Cle {
+        private final int idAttraction;
+        private final LocalDate jour;
+
+        private Cle(int idAttraction, LocalDate jour) {
+            this.idAttraction = idAttraction;
+            this.jour = jour;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Cle)) return false;
+            Cle autre = (Cle) o;
+            return idAttraction == autre.idAttraction && jour.equals(autre.jour);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idAttraction, jour);
+        }
+    }
+
+    /**
+     * Créneaux d'une attraction pour un jour et arbre d'intervalles de leurs places restantes :
+     * la feuille {@code taille + i} porte les places du créneau i, chaque nœud le maximum de ses deux fils.
+     */
+    private static final class Plan {
+        private final LocalTime premier;
+        private final Duration longueur;
+        private final int nombre;
+        private final int capaciteCreneau;
+        private final int capaciteAttraction;
+        private final Duration tour;
+        private final int taille;
+        private final int[] arbre;
+
+        private Plan(LocalTime premier, Duration longueur, int nombre, int capaciteCreneau,
+                     int capaciteAttraction, Duration tour) {
+            this.premier = premier;
+            this.longueur = longueur;
+            this.nombre = nombre;
+            this.capaciteCreneau = capaciteCreneau;
+            this.capaciteAttraction = capaciteAttraction;
+            this.tour = tour;
+            int t = 1;
+            while (t < Math.max(1, nombre)) {
+                t <<= 1;
+            }
+            this.taille = t;
+            this.arbre = new int[2 * t];
+            Arrays.fill(arbre, taille, taille + nombre, capaciteCreneau);
+            Arrays.fill(arbre, taille + nombre, 2 * taille, -1);
+            for (int n = taille - 1; n >= 1; n--) {
+                arbre[n] = Math.max(arbre[2 * n], arbre[2 * n + 1]);
+            }
+        }
+
+        /** true si le plan a été construit avec la capacité et la durée actuelles de l'attraction */
+        private boolean construitPour(Attraction attraction) {
+            return capaciteAttraction == attraction.getCapacite() && Objects.equals(tour, attraction.getDureeTour());
+        }
+
+        /** Indice du créneau commençant à cette heure, ou -1 si aucun créneau ne commence à cette heure */
+        private int indice(LocalTime debut) {
+            if (debut == null) {
+                return -1;
+            }
+            long secondes = Duration.between(premier, debut).getSeconds();
+            if (secondes < 0 || secondes % longueur.getSeconds() != 0) {
+                return -1;
+            }
+            long i = secondes / longueur.getSeconds();
+            return i < nombre ? (int) i : -1;
+        }
+
+        /** Indice du premier créneau commençant à cette heure ou après */
+        private int indiceApres(LocalTime apres) {
+            if (apres == null || !apres.isAfter(premier)) {
+                return 0;
+            }
+            long secondes = Duration.between(premier, apres).getSeconds();
+            return (int) Math.min(nombre, (secondes + longueur.getSeconds() - 1) / longueur.getSeconds());
+        }
+
+        private LocalTime debut(int i) {
+            return premier.plus(longueur.multipliedBy(i));
+        }
+
+        private synchronized CreneauHoraire creneau(int idAttraction, LocalDate jour, int i) {
+            return new CreneauHoraire(idAttraction, jour, debut(i), debut(i).plus(longueur), capaciteCreneau,
+                    Math.max(0, arbre[taille + i]));
+        }
+
+        /** Premier créneau d'indice au moins {@code depuis} ayant au moins {@code places} places, ou -1 */
+        private synchronized int premierLibre(int depuis, int places) {
+            return depuis >= nombre ? -1 : chercher(1, 0, taille - 1, depuis, places);
+        }
+
+        private int chercher(int noeud, int gauche, int droite, int depuis, int places) {
+            if (droite < depuis || arbre[noeud] < places) {
+                return -1;
+            }
+            if (gauche == droite) {
+                return gauche;
+            }
+            int milieu = (gauche + droite) >>> 1;
+            int trouve = chercher(2 * noeud, gauche, milieu, depuis, places);
+            return trouve >= 0 ? trouve : chercher(2 * noeud + 1, milieu + 1, droite, depuis, places);
+        }
+
+        /** Prend des places sur un créneau ; {@code forcer} les prend même au-delà de la capacité */
+        private synchronized boolean prendre(int i, int places, boolean forcer) {
+            if (!forcer && arbre[taille + i] < places) {
+                return false;
+            }
+            mettreAJour(i, arbre[taille + i] - places);
+            return true;
+        }
+
+        private synchronized void rendre(int i, int places) {
+            mettreAJour(i, Math.min(capaciteCreneau, arbre[taille + i] + places));
+        }
+
+        private void mettreAJour(int i, int restantes) {
+            int n = taille + i;
+            arbre[n] = restantes;
+            for (n >>= 1; n >= 1; n >>= 1) {
+                arbre[n] = Math.max(arbre[2 * n], arbre[2 * n + 1]);
+            }
+        }
+    }
+}
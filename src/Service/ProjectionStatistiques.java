@@ -0,0 +1,192 @@
+package Service;
+
+import DAO.AttractionDAO;
+import DAO.BusEvenements;
+import DAO.ConnectionProvider;
+import DAO.StatistiquesDAO;
+import Modele.Attraction;
+import Modele.Evenement;
+import Modele.Reservation.StatutReservation;
+import Modele.StatistiqueAttraction;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Projection des statistiques : nombre de réservations actives et chiffre d'affaires de chaque attraction,
+ * tenus en mémoire à partir des événements du {@link BusEvenements}.
+ * <p>
+ * Les compteurs sont chargés une fois depuis la table de cumul (une seule requête),
+ * puis mis à jour à chaque réservation créée, statut modifié ou attraction supprimée :
+ * les lectures ne touchent plus la base. Les observateurs reçoivent les nouveaux totaux après chaque changement.
+ * <p>
+ * Un événement est publié après la validation de son écriture : il peut arriver après un rechargement qui l'a déjà lue.
+ * Chaque événement porte la version de la ligne de cumul (attraction, jour) écrite dans sa transaction ;
+ * il est ignoré si l'instantané contenait déjà cette version de la ligne. Les versions d'une ligne suivent l'ordre
+ * de validation, alors que les ID de réservation (auto-incrément) ne le suivent pas.
+ */
+public class ProjectionStatistiques {
+
+    private static final Map<ConnectionProvider, ProjectionStatistiques> PROJECTIONS = new ConcurrentHashMap<>();
+
+    /** Ordre d'affichage des totaux, le même que celui de la requête de chargement */
+    private static final Comparator<StatistiqueAttraction> ORDRE =
+            Comparator.comparing(StatistiqueAttraction::getNomAttraction, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparingInt(StatistiqueAttraction::getIdAttraction);
+
+    private final StatistiquesDAO statistiquesDAO;
+    private final AttractionDAO attractionDAO;
+    private final Map<Integer, StatistiqueAttraction> totaux = new ConcurrentHashMap<>();
+    private final List<Consumer<List<StatistiqueAttraction>>> observateurs = new CopyOnWriteArrayList<>();
+    private volatile boolean chargee;
+    /** Dernier chargement : versions des lignes de cumul comprises dans les compteurs */
+    private StatistiquesDAO.Instantane instantane;
+
+    /**
+     * Renvoie la projection partagée par tous les contrôleurs d'une même base, retirée à la fermeture du fournisseur.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     * @return La projection associée.
+     */
+    public static ProjectionStatistiques de(ConnectionProvider fournisseur) {
+        return PROJECTIONS.computeIfAbsent(fournisseur, f -> {
+            f.aLaFermeture(() -> PROJECTIONS.remove(f));
+            return new ProjectionStatistiques(f);
+        });
+    }
+
+    private ProjectionStatistiques(ConnectionProvider fournisseur) {
+        this.statistiquesDAO = new StatistiquesDAO(fournisseur);
+        this.attractionDAO = new AttractionDAO(fournisseur);
+        BusEvenements.de(fournisseur).abonner(this::appliquer);
+    }
+
+    /**
+     * Recharge tous les compteurs depuis la table de cumul.
+     * Les événements publiés pendant le rechargement attendent qu'il soit terminé.
+     * @return true si le rechargement a réussi.
+     */
+    public synchronized boolean recharger() {
+        try {
+            StatistiquesDAO.Instantane instantane = statistiquesDAO.instantane();
+            totaux.clear();
+            for (StatistiqueAttraction s : instantane.getTotaux()) {
+                totaux.put(s.getIdAttraction(), s);
+            }
+            this.instantane = instantane;
+            chargee = true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+        notifier();
+        return true;
+    }
+
+    /**
+     * Renvoie les totaux de chaque attraction, chargés depuis la base au premier appel seulement.
+     * @return Une ligne par attraction, triées par nom.
+     */
+    public List<StatistiqueAttraction> totaux() {
+        if (!chargee) {
+            synchronized (this) {
+                if (!chargee) {
+                    recharger();
+                }
+            }
+        }
+        List<StatistiqueAttraction> liste = new ArrayList<>(totaux.values());
+        liste.sort(ORDRE);
+        return liste;
+    }
+
+    /**
+     * Abonne un observateur aux changements des totaux.
+     * Il est appelé sur le thread de l'écriture : une vue doit repasser sur son propre thread.
+     * @param observateur Reçoit les nouveaux totaux, triés par nom.
+     * @return Une action qui désabonne l'observateur.
+     */
+    public Runnable observer(Consumer<List<StatistiqueAttraction>> observateur) {
+        observateurs.add(observateur);
+        return () -> observateurs.remove(observateur);
+    }
+
+    /**
+     * Applique un événement aux compteurs. Le nom d'une attraction encore absente des compteurs
+     * est lu avant de prendre le verrou, pour ne pas bloquer les lecteurs pendant l'accès à la base.
+     */
+    private void appliquer(Evenement evenement) {
+        String nom = null;
+        int idAttraction = 0;
+        if (evenement instanceof Evenement.ReservationCreee) {
+            nom = ((Evenement.ReservationCreee) evenement).getNomAttraction();
+            idAttraction = ((Evenement.ReservationCreee) evenement).getIdAttraction();
+        } else if (evenement instanceof Evenement.StatutModifie) {
+            idAttraction = ((Evenement.StatutModifie) evenement).getIdAttraction();
+        }
+        if (chargee && nom == null && idAttraction != 0 && !totaux.containsKey(idAttraction)) {
+            // Attraction créée après le chargement
+            Attraction attraction = attractionDAO.findById(idAttraction);
+            nom = attraction != null ? attraction.getNom() : null;
+        }
+        appliquer(evenement, nom);
+    }
+
+    /**
+     * Applique un événement aux compteurs. Tant qu'ils ne sont pas chargés, l'événement est ignoré :
+     * l'écriture est déjà validée et sera comprise dans le chargement.
+     * @param nom Le nom de l'attraction, si elle n'est pas encore dans les compteurs.
+     */
+    private synchronized void appliquer(Evenement evenement, String nom) {
+        if (!chargee) {
+            return;
+        }
+        if (evenement instanceof Evenement.ReservationCreee) {
+            Evenement.ReservationCreee e = (Evenement.ReservationCreee) evenement;
+            if (e.getVersion() <= instantane.getVersion(e.getIdAttraction(), e.getJour())) {
+                return; // Déjà comprise dans l'instantané
+            }
+            ajouter(e.getIdAttraction(), nom, 1, e.getMontant());
+        } else if (evenement instanceof Evenement.StatutModifie) {
+            Evenement.StatutModifie e = (Evenement.StatutModifie) evenement;
+            boolean comptait = e.getAncien() != StatutReservation.annulee;
+            boolean compte = e.getNouveau() != StatutReservation.annulee;
+            if (comptait == compte || e.getVersion() <= instantane.getVersion(e.getIdAttraction(), e.getJour())) {
+                return;
+            }
+            int sens = compte ? 1 : -1;
+            ajouter(e.getIdAttraction(), nom, sens, sens * e.getMontant());
+        } else if (evenement instanceof Evenement.AttractionSupprimee) {
+            if (totaux.remove(((Evenement.AttractionSupprimee) evenement).getIdAttraction()) == null) {
+                return;
+            }
+        } else {
+            return;
+        }
+        notifier();
+    }
+
+    private void ajouter(int idAttraction, String nom, int nombre, double montant) {
+        StatistiqueAttraction actuel = totaux.get(idAttraction);
+        if (actuel == null) {
+            actuel = new StatistiqueAttraction(idAttraction, nom != null ? nom : "#" + idAttraction, null, 0, 0, 0);
+        }
+        totaux.put(idAttraction, new StatistiqueAttraction(idAttraction, actuel.getNomAttraction(), null,
+                actuel.getNombreReservations() + nombre, actuel.getChiffreAffaires() + montant, 0));
+    }
+
+    private void notifier() {
+        if (observateurs.isEmpty()) {
+            return;
+        }
+        List<StatistiqueAttraction> liste = totaux();
+        for (Consumer<List<StatistiqueAttraction>> observateur : observateurs) {
+            observateur.accept(liste);
+        }
+    }
+}
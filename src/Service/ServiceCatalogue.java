@@ -0,0 +1,133 @@
+package Service;
+
+import DAO.AttractionDAO;
+import DAO.ConnectionProvider;
+import Modele.Attraction;
+import Modele.Attraction.Champ;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Catalogue des attractions, sans interface : lecture (servie par le cache du catalogue),
+ * ajout, suppression et modification avec validation.
+ */
+public class ServiceCatalogue {
+
+    private AttractionDAO attractionDAO;
+
+    /**
+     * Constructeur.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     */
+    public ServiceCatalogue(ConnectionProvider fournisseur) {
+        this.attractionDAO = new AttractionDAO(fournisseur);
+    }
+
+    /**
+     * @return Toutes les attractions.
+     */
+    public List<Attraction> lister() {
+        return attractionDAO.findAll();
+    }
+
+    /**
+     * @return Les attractions actives.
+     */
+    public List<Attraction> listerActives() {
+        return attractionDAO.getAllActive();
+    }
+
+    /**
+     * @param idAttraction L'ID de l'attraction.
+     * @return L'attraction, ou null si elle n'existe pas.
+     */
+    public Attraction trouver(int idAttraction) {
+        return attractionDAO.findById(idAttraction);
+    }
+
+    /**
+     * Ajoute une attraction après validation.
+     * @param attraction L'attraction à ajouter.
+     * @return true si l'attraction a été ajoutée, false si elle est invalide ou en cas d'erreur.
+     */
+    public boolean ajouter(Attraction attraction) {
+        if (!valider(attraction)) {
+            return false;
+        }
+        normaliserDuree(attraction);
+        return attractionDAO.insert(attraction);
+    }
+
+    /**
+     * Supprime une attraction.
+     * @param idAttraction L'ID de l'attraction.
+     * @return true si l'attraction a été supprimée, false sinon.
+     */
+    public boolean supprimer(int idAttraction) {
+        return attractionDAO.deleteById(idAttraction);
+    }
+
+    /**
+     * Enregistre les champs modifiés des attractions, en une transaction et avec verrouillage optimiste
+     * ({@link DAO.AttractionDAO#mettreAJourLot}). Rien n'est écrit si une attraction est invalide.
+     * @param modifications Les champs modifiés de chaque attraction.
+     * @return Le bilan : réussi, attractions invalides, attractions en conflit ou erreur de la base.
+     */
+    public BilanModifications enregistrer(Map<Attraction, Set<Champ>> modifications) {
+        List<Integer> invalides = new ArrayList<>();
+        for (Attraction attraction : modifications.keySet()) {
+            if (!valider(attraction)) {
+                invalides.add(attraction.getIdAttraction());
+            }
+        }
+        if (!invalides.isEmpty()) {
+            return BilanModifications.invalides(invalides);
+        }
+        modifications.forEach((attraction, champs) -> {
+            if (champs.contains(Champ.DUREE)) {
+                normaliserDuree(attraction);
+            }
+        });
+
+        List<Integer> conflits = attractionDAO.mettreAJourLot(modifications);
+        if (conflits == null) {
+            return BilanModifications.erreur();
+        }
+        return conflits.isEmpty() ? BilanModifications.reussi() : BilanModifications.conflits(conflits);
+    }
+
+    /**
+     * Valide les informations d'une attraction avant son ajout ou modification :
+     * nom renseigné, capacité positive, prix non négatif et durée reconnue par {@link Attraction#lireDuree}.
+     * @param a L'attraction à valider.
+     * @return true si l'attraction est valide, false sinon.
+     */
+    public boolean valider(Attraction a) {
+        if (a.getNom() == null || a.getNom().trim().isEmpty()) {
+            return false;
+        }
+        if (a.getCapacite() <= 0) {
+            return false;
+        }
+        if (a.getPrix() < 0) {
+            return false;
+        }
+        Duration tour = a.getDureeTour();
+        if (tour == null || tour.isZero() || tour.isNegative()) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Réécrit la durée saisie (« 45 », « 1h30 »...) au format de la colonne TIME, pour qu'elle soit
+     * enregistrée telle quelle et non interprétée en secondes.
+     */
+    private static void normaliserDuree(Attraction a) {
+        a.setDuree(Attraction.formaterDuree(a.getDureeTour()));
+    }
+}
@@ -0,0 +1,184 @@
+package Service;
+
+import DAO.ConnectionProvider;
+import Modele.User;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service des devis : établit, pour un client et une demande, un {@link Devis} signé (HMAC-SHA256) dont le prix
+ * est garanti pendant une durée limitée, et vérifie au paiement qu'un devis n'a été ni modifié ni dépassé.
+ * <p>
+ * Le prix d'une place vient du {@link MoteurTarifaire} ; la réduction est celle du client au moment du devis.
+ * Les devis sont gardés par client (utilisateur connecté ou email d'invité) et par demande : tant qu'il reste
+ * au moins une minute de validité, le même devis est renvoyé sans recalcul ni signature.
+ * <p>
+ * Propriétés système :
+ * - attraction.devis.validite : durée de validité d'un devis, en secondes (900)
+ * - attraction.devis.cle : clé de signature partagée entre instances (par défaut, clé aléatoire tirée
+ *   au démarrage : les devis ne survivent pas au redémarrage)
+ */
+public class ServiceDevis {
+
+    /** Durée de validité par défaut d'un devis (secondes) */
+    public static final long VALIDITE_DEFAUT_S = 900;
+
+    /** Validité restante en dessous de laquelle un devis gardé n'est plus renvoyé */
+    private static final Duration MARGE = Duration.ofMinutes(1);
+    /** Nombre de devis gardés au-delà duquel les devis expirés sont purgés */
+    private static final int TAILLE_PURGE = 4096;
+    private static final String ALGORITHME = "HmacSHA256";
+
+    private static final Map<ConnectionProvider, ServiceDevis> SERVICES = new ConcurrentHashMap<>();
+
+    private final MoteurTarifaire moteurTarifaire;
+    private final Duration validite;
+    private final ThreadLocal<Mac> signataires;
+    private final Map<Cle, Devis> devis = new ConcurrentHashMap<>();
+
+    /**
+     * Renvoie le service partagé par tous les contrôleurs d'une même base, retiré à la fermeture du fournisseur.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     * @return Le service des devis associé.
+     */
+    public static ServiceDevis de(ConnectionProvider fournisseur) {
+        return SERVICES.computeIfAbsent(fournisseur, f -> {
+            f.aLaFermeture(() -> SERVICES.remove(f));
+            String cle = System.getProperty("attraction.devis.cle");
+            byte[] octets = cle != null ? cle.getBytes(StandardCharsets.UTF_8) : new byte[32];
+            if (cle == null) {
+                new SecureRandom().nextBytes(octets);
+            }
+            return new ServiceDevis(f, Duration.ofSeconds(Long.getLong("attraction.devis.validite", VALIDITE_DEFAUT_S)), octets);
+        });
+    }
+
+    ServiceDevis(ConnectionProvider fournisseur, Duration validite, byte[] cle) {
+        this.moteurTarifaire = MoteurTarifaire.de(fournisseur);
+        this.validite = validite;
+        SecretKeySpec cleSignature = new SecretKeySpec(cle, ALGORITHME);
+        this.signataires = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHME);
+                mac.init(cleSignature);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * Renvoie le devis d'une demande : celui déjà établi pour ce client s'il est encore valable, un nouveau sinon.
+     * @param demande La demande de réservation.
+     * @return Le devis signé.
+     */
+    public Devis devis(DemandeReservation demande) {
+        String titulaire = titulaire(demande);
+        LocalDate jour = MoteurCapacite.jour(demande.getDate());
+        Cle cleDevis = new Cle(titulaire, demande.getAttraction().getIdAttraction(), jour, demande.getCreneau(),
+                demande.getPlaces());
+        Instant maintenant = Instant.now();
+        Devis existant = devis.get(cleDevis);
+        if (existant != null && !existant.isExpire(maintenant.plus(MARGE))
+                && existant.getReduction() == reduction(demande.getUser())) {
+            return existant;
+        }
+
+        float prixUnitaire = moteurTarifaire.prixBase(demande.getAttraction(), jour, demande.getCreneau());
+        double reduction = reduction(demande.getUser());
+        float total = Math.round(prixUnitaire * (1 - reduction) * demande.getPlaces() * 100) / 100f;
+        Instant expiration = maintenant.plus(validite);
+        Devis nouveau = new Devis(cleDevis.idAttraction, jour, demande.getCreneau(), demande.getPlaces(), titulaire,
+                prixUnitaire, reduction, total, expiration,
+                signer(cleDevis.idAttraction, jour, demande.getCreneau(), demande.getPlaces(), titulaire,
+                        prixUnitaire, reduction, total, expiration));
+        if (devis.size() >= TAILLE_PURGE) {
+            devis.values().removeIf(d -> d.isExpire(maintenant));
+        }
+        devis.put(cleDevis, nouveau);
+        return nouveau;
+    }
+
+    /**
+     * Vérifie un devis au paiement : signature intacte, prix encore garanti et devis établi pour cette demande.
+     * @param devis Le devis présenté.
+     * @param demande La demande payée.
+     * @return true si le devis peut être encaissé tel quel.
+     */
+    public boolean verifier(Devis devis, DemandeReservation demande) {
+        if (devis == null || devis.isExpire(Instant.now())) {
+            return false;
+        }
+        String attendue = signer(devis.getIdAttraction(), devis.getJour(), devis.getCreneau(), devis.getPlaces(),
+                devis.getTitulaire(), devis.getPrixUnitaire(), devis.getReduction(), devis.getTotal(),
+                devis.getExpiration());
+        return MessageDigest.isEqual(attendue.getBytes(StandardCharsets.US_ASCII),
+                        devis.getSignature().getBytes(StandardCharsets.US_ASCII))
+                && devis.getIdAttraction() == demande.getAttraction().getIdAttraction()
+                && devis.getJour().equals(MoteurCapacite.jour(demande.getDate()))
+                && Objects.equals(devis.getCreneau(), demande.getCreneau())
+                && devis.getPlaces() == demande.getPlaces()
+                && devis.getTitulaire().equals(titulaire(demande));
+    }
+
+    private String signer(int idAttraction, LocalDate jour, LocalTime creneau, int places, String titulaire,
+                          float prixUnitaire, double reduction, float total, Instant expiration) {
+        String contenu = idAttraction + "|" + jour + "|" + creneau + "|" + places + "|" + titulaire + "|" +
+                prixUnitaire + "|" + reduction + "|" + total + "|" + expiration.toEpochMilli();
+        byte[] empreinte = signataires.get().doFinal(contenu.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(empreinte);
+    }
+
+    private static String titulaire(DemandeReservation demande) {
+        return demande.getUser() != null ? "user:" + demande.getUser().getUserId()
+                : "invite:" + demande.getInviteEmail();
+    }
+
+    private static double reduction(User user) {
+        return user == null ? 0 : user.getReduction();
+    }
+
+    /** Client et demande identifiant un devis gardé. */
+    private static final class Cle {
+        private final String titulaire;
+        private final int idAttraction;
+        private final LocalDate jour;
+        private final LocalTime creneau;
+        private final int places;
+
+        private Cle(String titulaire, int idAttraction, LocalDate jour, LocalTime creneau, int places) {
+            this.titulaire = titulaire;
+            this.idAttraction = idAttraction;
+            this.jour = jour;
+            this.creneau = creneau;
+            this.places = places;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Cle)) return false;
+            Cle autre = (Cle) o;
+            return idAttraction == autre.idAttraction && places == autre.places && titulaire.equals(autre.titulaire)
+                    && jour.equals(autre.jour) && Objects.equals(creneau, autre.creneau);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(titulaire, idAttraction, jour, creneau, places);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package Service;
+
+import DAO.ConnectionProvider;
+import DAO.FiltreReservations;
+import DAO.PaiementDAO;
+import DAO.ReservationDAO;
+import Modele.Attraction;
+import Modele.Paiement;
+import Modele.Reservation;
+import Modele.Reservation.StatutReservation;
+import Modele.User;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Parcours de réservation, sans interface : blocage des places dans le {@link MoteurCapacite}
+ * (billets à la journée) ou le {@link PlanificateurCreneaux} (billets sur créneau horaire),
+ * enregistrement du paiement et des réservations en une transaction, et restitution des places
+ * si l'enregistrement échoue ; consultation des réservations.
+ * <p>
+ * Les contrôleurs l'appellent hors du thread JavaFX ; les outils sans interface (générateur de charge)
+ * l'appellent directement.
+ */
+public class ServiceReservation {
+
+    private ReservationDAO reservationDAO;
+    private PaiementDAO paiementDAO;
+    private MoteurCapacite moteurCapacite;
+    private PlanificateurCreneaux planificateur;
+    private ServiceDevis serviceDevis;
+
+    /**
+     * Constructeur.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     */
+    public ServiceReservation(ConnectionProvider fournisseur) {
+        this.reservationDAO = new ReservationDAO(fournisseur);
+        this.paiementDAO = new PaiementDAO(fournisseur);
+        this.moteurCapacite = MoteurCapacite.de(fournisseur);
+        this.planificateur = PlanificateurCreneaux.de(fournisseur);
+        this.serviceDevis = ServiceDevis.de(fournisseur);
+    }
+
+    /**
+     * Bloque des places avant le paiement.
+     * @param attraction L'attraction réservée.
+     * @param date Le jour de la réservation.
+     * @param places Le nombre de places.
+     * @return true si les places sont bloquées, false s'il n'en reste pas assez.
+     */
+    public boolean bloquer(Attraction attraction, Date date, int places) {
+        return moteurCapacite.reserver(attraction.getIdAttraction(), date, places);
+    }
+
+    /**
+     * Rend des places bloquées par {@link #bloquer} (paiement abandonné).
+     * @param attraction L'attraction réservée.
+     * @param date Le jour de la réservation.
+     * @param places Le nombre de places.
+     */
+    public void liberer(Attraction attraction, Date date, int places) {
+        moteurCapacite.liberer(attraction.getIdAttraction(), date, places);
+    }
+
+    /**
+     * Enregistre le paiement de places déjà bloquées et les réservations confirmées qu'il couvre.
+     * Les places sont rendues si l'enregistrement échoue, ou si la clé d'idempotence était déjà enregistrée
+     * (le paiement garde alors un ID à 0 et les réservations existantes sont renvoyées).
+     * @param attraction L'attraction réservée.
+     * @param date Le jour de la réservation.
+     * @param places Le nombre de places bloquées.
+     * @param fabrique Crée une réservation avec son titulaire (utilisateur ou invité) renseigné.
+     * @param paiement Le paiement validé.
+     * @param cleIdempotence La clé d'idempotence du paiement.
+     * @return Les ID des réservations, ou une liste vide en cas d'échec.
+     */
+    public List<Integer> confirmer(Attraction attraction, Date date, int places, Supplier<Reservation> fabrique,
+                                   Paiement paiement, String cleIdempotence) {
+        return enregistrer(attraction, date, places, fabrique, paiement, cleIdempotence,
+                () -> moteurCapacite.liberer(attraction.getIdAttraction(), date, places));
+    }
+
+    /**
+     * Enregistre le paiement et les réservations de places déjà bloquées ; {@code rendre} restitue les places
+     * à l'endroit où elles ont été bloquées (journée ou créneau) si elles ne sont finalement pas utilisées.
+     */
+    private List<Integer> enregistrer(Attraction attraction, Date date, int places, Supplier<Reservation> fabrique,
+                                      Paiement paiement, String cleIdempotence, Runnable rendre) {
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < places; i++) {
+            Reservation reservation = fabrique.get();
+            reservation.setAttraction(attraction);
+            reservation.setDateReservation(date);
+            reservation.setStatut(StatutReservation.confirmee);
+            reservation.setPaiement(paiement);
+            reservations.add(reservation);
+        }
+        List<Integer> ids = paiementDAO.enregistrerAvecReservations(reservations, paiement, cleIdempotence);
+        if (ids.size() != places) {
+            rendre.run();
+            return new ArrayList<>();
+        }
+        if (paiement.getIdPaiement() == 0) {
+            // Clé déjà enregistrée (nouvel essai du client) : les places bloquées pour cet essai sont en trop
+            rendre.run();
+        }
+        return ids;
+    }
+
+    /**
+     * Joint à une demande son devis signé : prix selon le remplissage de l'attraction ce jour-là (ou sur son créneau),
+     * réduction du client et total. Le devis déjà établi pour ce client et cette demande est réutilisé s'il est encore valable.
+     * @param demande La demande de réservation.
+     * @return La même demande, avec son devis.
+     */
+    public DemandeReservation tarifer(DemandeReservation demande) {
+        return demande.avecDevis(serviceDevis.devis(demande));
+    }
+
+    /**
+     * Bloque les places d'une demande avant le paiement, sur son créneau s'il y en a un, à la journée sinon.
+     * @param demande La demande de réservation.
+     * @return true si les places sont bloquées, false s'il n'en reste pas assez.
+     */
+    public boolean bloquer(DemandeReservation demande) {
+        if (demande.getCreneau() != null) {
+            return planificateur.reserver(demande.getAttraction().getIdAttraction(),
+                    MoteurCapacite.jour(demande.getDate()), demande.getCreneau(), demande.getPlaces());
+        }
+        return bloquer(demande.getAttraction(), demande.getDate(), demande.getPlaces());
+    }
+
+    /**
+     * Rend les places d'une demande bloquées par {@link #bloquer(DemandeReservation)}.
+     * @param demande La demande de réservation.
+     */
+    public void liberer(DemandeReservation demande) {
+        if (demande.getCreneau() != null) {
+            planificateur.liberer(demande.getAttraction().getIdAttraction(),
+                    MoteurCapacite.jour(demande.getDate()), demande.getCreneau(), demande.getPlaces());
+        } else {
+            liberer(demande.getAttraction(), demande.getDate(), demande.getPlaces());
+        }
+    }
+
+    /**
+     * Enregistre le paiement d'une demande dont les places sont bloquées, avec ses réservations confirmées.
+     * Une demande tarifée n'est enregistrée que si son devis est intact, encore valable, et payé à son total ;
+     * sinon ses places sont rendues.
+     * @param demande La demande de réservation.
+     * @param paiement Le paiement validé.
+     * @param cleIdempotence La clé d'idempotence du paiement.
+     * @return Les ID des réservations, ou une liste vide en cas d'échec ou de devis refusé.
+     */
+    public List<Integer> confirmer(DemandeReservation demande, Paiement paiement, String cleIdempotence) {
+        return enregistrerPaiement(demande, paiement, cleIdempotence).getIds();
+    }
+
+    /**
+     * Comme {@link #confirmer(DemandeReservation, Paiement, String)}, en distinguant un devis refusé
+     * d'un échec de l'enregistrement.
+     * @param demande La demande de réservation, places bloquées.
+     * @param paiement Le paiement validé.
+     * @param cleIdempotence La clé d'idempotence du paiement.
+     * @return Le bilan de l'enregistrement.
+     */
+    public BilanPaiement enregistrerPaiement(DemandeReservation demande, Paiement paiement, String cleIdempotence) {
+        Devis devis = demande.getDevis();
+        if (devis != null && (!serviceDevis.verifier(devis, demande) || paiement.getMontant() != devis.getTotal())) {
+            liberer(demande);
+            return BilanPaiement.devisRefuse();
+        }
+        List<Integer> ids = enregistrer(demande.getAttraction(), demande.getDate(), demande.getPlaces(),
+                demande::creerReservation, paiement, cleIdempotence, () -> liberer(demande));
+        if (ids.isEmpty()) {
+            return BilanPaiement.erreur();
+        }
+        if (demande.getCreneau() != null && paiement.getIdPaiement() != 0) {
+            // Places maintenant en base : elles ne sont plus seulement retenues
+            planificateur.confirmer(demande.getAttraction().getIdAttraction(),
+                    MoteurCapacite.jour(demande.getDate()), demande.getCreneau(), demande.getPlaces());
+        }
+        return BilanPaiement.enregistre(ids);
+    }
+
+    /**
+     * Parcours complet, paiement déjà connu : blocage des places puis confirmation.
+     * Un nouvel essai avec une clé déjà payée renvoie ses réservations sans bloquer de places,
+     * même si l'attraction est devenue complète entre-temps.
+     * @param attraction L'attraction réservée.
+     * @param date Le jour de la réservation.
+     * @param places Le nombre de places.
+     * @param fabrique Crée une réservation avec son titulaire renseigné.
+     * @param paiement Le paiement.
+     * @param cleIdempotence La clé d'idempotence du paiement.
+     * @return Les ID des réservations, ou une liste vide si l'attraction est complète ou en cas d'échec.
+     */
+    public List<Integer> reserver(Attraction attraction, Date date, int places, Supplier<Reservation> fabrique,
+                                  Paiement paiement, String cleIdempotence) {
+        List<Integer> existantes = paiementDAO.trouverReservations(cleIdempotence);
+        if (!existantes.isEmpty()) {
+            return existantes;
+        }
+        if (!bloquer(attraction, date, places)) {
+            return new ArrayList<>();
+        }
+        return confirmer(attraction, date, places, fabrique, paiement, cleIdempotence);
+    }
+
+    /**
+     * Parcours complet d'une demande, paiement déjà connu : blocage des places puis confirmation.
+     * Comme pour {@link #reserver(Attraction, Date, int, Supplier, Paiement, String)}, une clé déjà payée
+     * renvoie ses réservations sans bloquer de places.
+     * @param demande La demande de réservation.
+     * @param paiement Le paiement.
+     * @param cleIdempotence La clé d'idempotence du paiement.
+     * @return Les ID des réservations, ou une liste vide si l'attraction est complète ou en cas d'échec.
+     */
+    public List<Integer> reserver(DemandeReservation demande, Paiement paiement, String cleIdempotence) {
+        return reprendrePaiement(demande, paiement, cleIdempotence).getIds();
+    }
+
+    /**
+     * Comme {@link #reserver(DemandeReservation, Paiement, String)}, en distinguant une attraction complète
+     * et un devis refusé d'un échec de l'enregistrement. Sert à reprendre un paiement dont on ignore
+     * s'il a été enregistré (délai dépassé) : la clé déjà payée renvoie ses réservations.
+     * @param demande La demande de réservation.
+     * @param paiement Le paiement.
+     * @param cleIdempotence La clé d'idempotence du premier essai.
+     * @return Le bilan de l'enregistrement.
+     */
+    public BilanPaiement reprendrePaiement(DemandeReservation demande, Paiement paiement, String cleIdempotence) {
+        List<Integer> existantes = paiementDAO.trouverReservations(cleIdempotence);
+        if (!existantes.isEmpty()) {
+            return BilanPaiement.enregistre(existantes);
+        }
+        if (!bloquer(demande)) {
+            return BilanPaiement.complet();
+        }
+        return enregistrerPaiement(demande, paiement, cleIdempotence);
+    }
+
+    /**
+     * Met à jour le statut d'une réservation et répercute le changement sur le moteur de capacité,
+     * ou sur le planificateur si la réservation porte sur un créneau.
+     * @param reservation La réservation portant le nouveau statut (attraction et date renseignées).
+     * @return L'ancien statut, ou null si la réservation est introuvable ou en cas d'erreur.
+     */
+    public StatutReservation changerStatut(Reservation reservation) {
+        StatutReservation ancien = reservationDAO.mettreAJourStatut(reservation);
+        if (ancien != null && reservation.getCreneau() != null) {
+            planificateur.changerStatut(reservation.getAttraction().getIdAttraction(),
+                    MoteurCapacite.jour(reservation.getDateReservation()), reservation.getCreneau(),
+                    ancien, reservation.getStatut());
+        } else if (ancien != null) {
+            moteurCapacite.changerStatut(reservation.getAttraction().getIdAttraction(),
+                    reservation.getDateReservation(), ancien, reservation.getStatut());
+        }
+        return ancien;
+    }
+
+    /**
+     * @param idAttraction L'ID de l'attraction.
+     * @param jour Le jour.
+     * @return Les créneaux de l'attraction ce jour-là, avec leurs places restantes.
+     */
+    public List<CreneauHoraire> creneaux(int idAttraction, LocalDate jour) {
+        return planificateur.creneaux(idAttraction, jour);
+    }
+
+    /**
+     * Cherche, pour chaque attraction active, le premier créneau ayant assez de places à partir d'une heure.
+     * @param jour Le jour.
+     * @param apres L'heure à partir de laquelle chercher (null pour toute la journée).
+     * @param places Le nombre de places voulues.
+     * @return Un créneau par attraction, triés par heure de début.
+     */
+    public List<CreneauHoraire> prochainsCreneaux(LocalDate jour, LocalTime apres, int places) {
+        return planificateur.prochainsCreneaux(jour, apres, places);
+    }
+
+    /**
+     * Récupère une page de réservations correspondant aux critères, triées par ID.
+     * @param filtre Les critères de recherche.
+     * @param apresId L'ID de la dernière réservation déjà lue (0 pour la première page).
+     * @param taille Le nombre maximal de réservations.
+     * @return La page de réservations, ou null en cas d'erreur.
+     */
+    public List<Reservation> page(FiltreReservations filtre, int apresId, int taille) {
+        return reservationDAO.recupererPage(filtre, apresId, taille);
+    }
+
+    /**
+     * @param user L'utilisateur.
+     * @return Les réservations de l'utilisateur.
+     */
+    public List<Reservation> reservationsUtilisateur(User user) {
+        return reservationDAO.getReservations(user);
+    }
+
+    /**
+     * @param email L'email de l'invité.
+     * @return Les réservations de l'invité, sous forme de chaînes de caractères.
+     */
+    public List<String> reservationsInvite(String email) {
+        return reservationDAO.getReservationsInvite(email);
+    }
+}
@@ -0,0 +1,74 @@
+package Service;
+
+import DAO.ConnectionProvider;
+import DAO.StatistiquesDAO;
+import Modele.StatistiqueAttraction;
+import Modele.StatistiqueAttraction.Periode;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Statistiques des réservations, sans interface.
+ * Les statistiques par période sont calculées sur la table de cumul ;
+ * les totaux par attraction sont lus dans la {@link ProjectionStatistiques} en mémoire, sans requête.
+ */
+public class ServiceStatistiques {
+
+    private StatistiquesDAO statistiquesDAO;
+    private ProjectionStatistiques projection;
+
+    /**
+     * Constructeur.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     */
+    public ServiceStatistiques(ConnectionProvider fournisseur) {
+        this.statistiquesDAO = new StatistiquesDAO(fournisseur);
+        this.projection = ProjectionStatistiques.de(fournisseur);
+    }
+
+    /**
+     * @return Les totaux par attraction, triés par nom (chargés depuis la base au premier appel seulement).
+     */
+    public List<StatistiqueAttraction> totaux() {
+        return projection.totaux();
+    }
+
+    /**
+     * Abonne un observateur aux changements des totaux par attraction.
+     * @param observateur Reçoit les nouveaux totaux, sur le thread qui a modifié les réservations.
+     * @return Une action qui désabonne l'observateur.
+     */
+    public Runnable observerTotaux(Consumer<List<StatistiqueAttraction>> observateur) {
+        return projection.observer(observateur);
+    }
+
+    /**
+     * Statistiques de chaque attraction par jour, semaine ou mois.
+     * @param debut Le premier jour inclus.
+     * @param fin Le dernier jour inclus.
+     * @param periode La granularité du découpage.
+     * @return Les statistiques, triées par attraction puis par période.
+     */
+    public List<StatistiqueAttraction> statistiques(LocalDate debut, LocalDate fin, Periode periode) {
+        return statistiquesDAO.statistiques(debut, fin, periode);
+    }
+
+    /**
+     * Remplit la table de cumul si elle est encore vide (premier démarrage), puis charge les totaux en mémoire.
+     * @return true si les totaux ont été chargés.
+     */
+    public boolean initialiser() {
+        statistiquesDAO.initialiser();
+        return projection.recharger();
+    }
+
+    /**
+     * Recalcule entièrement les statistiques depuis les réservations, puis recharge les totaux en mémoire.
+     * @return true si le recalcul a réussi.
+     */
+    public boolean recalculer() {
+        return statistiquesDAO.reconstruire() && projection.recharger();
+    }
+}
@@ -0,0 +1,106 @@
+package Service;
+
+import DAO.ConnectionProvider;
+import DAO.UserDAO;
+import Modele.User;
+import Modele.User.Champ;
+import Modele.User.Role;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Comptes utilisateurs, sans interface : connexion, inscription d'un client,
+ * liste et modification des clients par l'administrateur.
+ */
+public class ServiceUtilisateur {
+
+    private UserDAO userDAO;
+    private VerificateurIdentifiants verificateur;
+
+    /**
+     * Constructeur.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     */
+    public ServiceUtilisateur(ConnectionProvider fournisseur) {
+        this.userDAO = new UserDAO(fournisseur);
+        this.verificateur = VerificateurIdentifiants.de(fournisseur);
+    }
+
+    /**
+     * Vérifie les identifiants d'un utilisateur sur le pool de calcul du {@link VerificateurIdentifiants}.
+     * @param email L'email de l'utilisateur.
+     * @param motDePasse Le mot de passe de l'utilisateur.
+     * @return Un futur de l'utilisateur connecté, valant null si les informations sont incorrectes
+     *         ou si l'email est bloqué après trop d'échecs.
+     */
+    public CompletableFuture<User> connecter(String email, String motDePasse) {
+        return verificateur.connecter(email, motDePasse);
+    }
+
+    /**
+     * Inscrit un nouveau client ; seule l'empreinte du mot de passe est enregistrée.
+     * @param nom Le nom du client.
+     * @param prenom Le prénom du client.
+     * @param dateNaissance La date de naissance du client.
+     * @param tel Le numéro de téléphone du client.
+     * @param email L'email du client.
+     * @param motDePasse Le mot de passe du client.
+     * @return true si le client a été enregistré, false si un champ manque ou en cas d'erreur.
+     */
+    public boolean inscrire(String nom, String prenom, LocalDate dateNaissance, String tel, String email, String motDePasse) {
+        if (nom == null || prenom == null || dateNaissance == null || tel == null || email == null || motDePasse == null) {
+            return false;
+        }
+        String empreinte;
+        try {
+            empreinte = verificateur.hacher(motDePasse).join();
+        } catch (CompletionException e) {
+            e.printStackTrace();
+            return false;
+        }
+        return userDAO.save(new User(nom, prenom, dateNaissance, email, tel, empreinte, Role.CLIENT));
+    }
+
+    /**
+     * @return Les fiches de tous les clients.
+     */
+    public List<FicheClient> listerClients() {
+        List<FicheClient> fiches = new ArrayList<>();
+        for (User user : userDAO.getAllClients()) {
+            fiches.add(FicheClient.de(user));
+        }
+        return fiches;
+    }
+
+    /**
+     * Enregistre en une transaction les champs modifiés des fiches clients ;
+     * le type et la réduction sont recalculés d'après l'âge et le rôle.
+     * @param modifications Les champs modifiés de chaque fiche.
+     * @return Les fiches telles qu'enregistrées (type et réduction à jour), dans l'ordre des modifications,
+     *         ou null si l'enregistrement a échoué (rien n'est alors écrit).
+     */
+    public List<FicheClient> enregistrerClients(Map<FicheClient, Set<Champ>> modifications) {
+        Map<User, Set<Champ>> users = new LinkedHashMap<>();
+        modifications.forEach((fiche, champs) -> users.put(fiche.versUser(), champs));
+        if (!userDAO.updateBatch(users)) {
+            return null;
+        }
+        users.forEach((user, champs) -> {
+            if (champs.contains(Champ.EMAIL)) {
+                verificateur.oublier(user.getUserId());
+            }
+        });
+        List<FicheClient> enregistrees = new ArrayList<>();
+        for (User user : users.keySet()) {
+            enregistrees.add(FicheClient.de(user));
+        }
+        return enregistrees;
+    }
+}
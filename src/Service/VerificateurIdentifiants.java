@@ -0,0 +1,257 @@
+package Service;
+
+import DAO.ConnectionProvider;
+import DAO.UserDAO;
+import Modele.User;
+import Service.HachageMotDePasse.Empreinte;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Vérification des identifiants de connexion, dimensionnée pour les afflux de connexions (ouverture du parc).
+ * <p>
+ * Le calcul PBKDF2 ({@link HachageMotDePasse}) est volontairement coûteux : il tourne sur un pool borné de threads
+ * de calcul, avec une file d'attente bornée. Une connexion de trop est refusée tout de suite plutôt que d'empiler
+ * du travail ; ni le thread JavaFX ni la base n'attendent les calculs. Les empreintes décodées (sel compris)
+ * des utilisateurs connus sont gardées en mémoire : une connexion d'un utilisateur connu ne lit la base
+ * que pour charger son compte une fois le mot de passe vérifié.
+ * <p>
+ * Après trop d'échecs pour un même email, les tentatives suivantes sont refusées sans calcul jusqu'à la fin
+ * du délai de blocage. Un email inconnu coûte le même calcul qu'un email connu, pour ne pas révéler les comptes.
+ * Une empreinte en clair ou calculée avec un autre nombre d'itérations est renouvelée à la connexion réussie.
+ * <p>
+ * Propriétés système :
+ * - attraction.mdp.iterations : itérations PBKDF2 des nouvelles empreintes (310000), à régler avec Banc.BancConnexion
+ * - attraction.mdp.calculs : threads de calcul (nombre de processeurs)
+ * - attraction.mdp.file : vérifications en attente au-delà desquelles les connexions sont refusées (64)
+ * - attraction.mdp.echecs : échecs tolérés par email avant blocage (5)
+ * - attraction.mdp.blocage : durée du blocage, en secondes (300)
+ */
+public class VerificateurIdentifiants {
+
+    /** Vérifications en attente par défaut */
+    public static final int FILE_DEFAUT = 64;
+    /** Échecs tolérés par défaut avant blocage */
+    public static final int ECHECS_DEFAUT = 5;
+    /** Durée par défaut du blocage (secondes) */
+    public static final long BLOCAGE_DEFAUT_S = 300;
+
+    /** Nombre d'empreintes gardées, et d'emails suivis au-delà duquel les blocages terminés sont purgés */
+    private static final int TAILLE_MAX = 10_000;
+
+    private static final Map<ConnectionProvider, VerificateurIdentifiants> VERIFICATEURS = new ConcurrentHashMap<>();
+
+    private final UserDAO userDAO;
+    private final HachageMotDePasse hachage;
+    private final ThreadPoolExecutor calculs;
+    private final int echecsMax;
+    private final long blocageNanos;
+    /** Empreintes décodées par email, les moins récemment utilisées évincées en premier */
+    private final Map<String, Identifiants> identifiants = Collections.synchronizedMap(
+            new LinkedHashMap<String, Identifiants>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Identifiants> eldest) {
+                    return size() > TAILLE_MAX;
+                }
+            });
+    private final Map<String, Echecs> echecs = new ConcurrentHashMap<>();
+    /** Empreinte comparée quand l'email est inconnu, pour que la réponse prenne le même temps */
+    private final Empreinte leurre;
+
+    /**
+     * Renvoie le vérificateur partagé par tous les contrôleurs d'une même base.
+     * À la fermeture du fournisseur, il est retiré et son pool de calcul est arrêté.
+     * @param fournisseur Le fournisseur de connexions de la base.
+     * @return Le vérificateur associé.
+     */
+    public static VerificateurIdentifiants de(ConnectionProvider fournisseur) {
+        return VERIFICATEURS.computeIfAbsent(fournisseur, f -> {
+            VerificateurIdentifiants verificateur = new VerificateurIdentifiants(f,
+                    new HachageMotDePasse(Integer.getInteger("attraction.mdp.iterations", HachageMotDePasse.ITERATIONS_DEFAUT)),
+                    Integer.getInteger("attraction.mdp.calculs", Runtime.getRuntime().availableProcessors()),
+                    Integer.getInteger("attraction.mdp.file", FILE_DEFAUT),
+                    Integer.getInteger("attraction.mdp.echecs", ECHECS_DEFAUT),
+                    Long.getLong("attraction.mdp.blocage", BLOCAGE_DEFAUT_S));
+            f.aLaFermeture(() -> {
+                VERIFICATEURS.remove(f);
+                verificateur.arreter();
+            });
+            return verificateur;
+        });
+    }
+
+    VerificateurIdentifiants(ConnectionProvider fournisseur, HachageMotDePasse hachage, int threads, int file,
+                             int echecsMax, long blocageS) {
+        this.userDAO = new UserDAO(fournisseur);
+        this.hachage = hachage;
+        this.echecsMax = echecsMax;
+        this.blocageNanos = TimeUnit.SECONDS.toNanos(blocageS);
+        AtomicInteger numero = new AtomicInteger();
+        this.calculs = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(file),
+                tache -> Thread.ofPlatform().daemon().name("identifiants-" + numero.getAndIncrement()).unstarted(tache));
+        this.leurre = Empreinte.lire(hachage.hacher("leurre"));
+    }
+
+    /**
+     * Arrête le pool de calcul : les vérifications en cours se terminent, les suivantes sont rejetées.
+     */
+    void arreter() {
+        calculs.shutdown();
+    }
+
+    /**
+     * @return Le nombre d'itérations des nouvelles empreintes.
+     */
+    public int getIterations() {
+        return hachage.getIterations();
+    }
+
+    /**
+     * Vérifie les identifiants d'un utilisateur sur le pool de calcul.
+     * @param email L'email saisi.
+     * @param motDePasse Le mot de passe saisi.
+     * @return Un futur de l'utilisateur connecté, valant null si les identifiants sont incorrects ou si l'email
+     *         est bloqué ; en échec avec une {@link RejectedExecutionException} si trop de connexions sont en cours.
+     */
+    public CompletableFuture<User> connecter(String email, String motDePasse) {
+        if (email == null || motDePasse == null || estBloque(email)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return calculer(() -> verifier(email, motDePasse));
+    }
+
+    /**
+     * Calcule sur le pool de calcul l'empreinte d'un nouveau mot de passe.
+     * @param motDePasse Le mot de passe en clair.
+     * @return Un futur de l'empreinte à enregistrer.
+     */
+    public CompletableFuture<String> hacher(String motDePasse) {
+        return calculer(() -> hachage.hacher(motDePasse));
+    }
+
+    /**
+     * @param email L'email.
+     * @return true si les tentatives de connexion de cet email sont refusées (trop d'échecs récents).
+     */
+    public boolean estBloque(String email) {
+        Echecs e = echecs.get(cle(email));
+        return e != null && e.nombre >= echecsMax && !e.termine(System.nanoTime());
+    }
+
+    /**
+     * Oublie l'empreinte gardée d'un utilisateur (mot de passe ou email modifié).
+     * @param email L'email de l'utilisateur.
+     */
+    public void oublier(String email) {
+        identifiants.remove(email);
+    }
+
+    /**
+     * Oublie les empreintes gardées d'un utilisateur, sous tous les emails avec lesquels il s'est connecté.
+     * @param idUser L'ID de l'utilisateur.
+     */
+    public void oublier(int idUser) {
+        synchronized (identifiants) {
+            identifiants.values().removeIf(i -> i.idUser == idUser);
+        }
+    }
+
+    private User verifier(String email, String motDePasse) {
+        User charge = null;
+        Identifiants connus = identifiants.get(email);
+        if (connus == null) {
+            charge = userDAO.findByEmail(email);
+            if (charge != null) {
+                connus = new Identifiants(charge.getUserId(), Empreinte.lire(charge.getUserPassword()));
+                identifiants.put(email, connus);
+            }
+        }
+        if (connus == null) {
+            hachage.verifier(motDePasse, leurre);
+            echouer(email);
+            return null;
+        }
+        if (!hachage.verifier(motDePasse, connus.empreinte)) {
+            // Relue au prochain essai, au cas où le mot de passe aurait changé ailleurs
+            identifiants.remove(email);
+            echouer(email);
+            return null;
+        }
+
+        echecs.remove(cle(email));
+        User user = charge != null ? charge : userDAO.findById(connus.idUser);
+        if (user == null || !user.getUserEmail().equalsIgnoreCase(email)) {
+            // Compte supprimé ou email changé depuis la mise en cache : l'ancien email ne connecte plus
+            identifiants.remove(email);
+            echouer(email);
+            return null;
+        }
+        if (hachage.aRenouveler(connus.empreinte)) {
+            String empreinte = hachage.hacher(motDePasse);
+            if (userDAO.mettreAJourMotDePasse(user.getUserId(), empreinte)) {
+                identifiants.put(email, new Identifiants(user.getUserId(), Empreinte.lire(empreinte)));
+            }
+        }
+        user.setUserPassword(null); // L'empreinte ne sort pas du service
+        return user;
+    }
+
+    private void echouer(String email) {
+        long maintenant = System.nanoTime();
+        if (echecs.size() >= TAILLE_MAX) {
+            echecs.values().removeIf(e -> e.termine(maintenant));
+        }
+        echecs.compute(cle(email), (c, e) -> e == null || e.termine(maintenant)
+                ? new Echecs(1, maintenant + blocageNanos) : new Echecs(e.nombre + 1, e.fin));
+    }
+
+    private <T> CompletableFuture<T> calculer(Supplier<T> calcul) {
+        try {
+            return CompletableFuture.supplyAsync(calcul, calculs);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /** Clé de suivi des échecs : l'email sans casse ni espaces, pour qu'une variante ne contourne pas le blocage */
+    private static String cle(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Empreinte décodée d'un utilisateur connu. */
+    private static final class Identifiants {
+        private final int idUser;
+        private final Empreinte empreinte;
+
+        private Identifiants(int idUser, Empreinte empreinte) {
+            this.idUser = idUser;
+            this.empreinte = empreinte;
+        }
+    }
+
+    /** Échecs récents d'un email : nombre et fin de la fenêtre de blocage ({@link System#nanoTime()}). */
+    private static final class Echecs {
+        private final int nombre;
+        private final long fin;
+
+        private Echecs(int nombre, long fin) {
+            this.nombre = nombre;
+            this.fin = fin;
+        }
+
+        private boolean termine(long maintenant) {
+            return maintenant - fin >= 0;
+        }
+    }
+}
@@ -1,16 +1,15 @@
 package Vue;
 
+import DAO.ConnectionProvider;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
 
 /**
  * Classe représentant la vue d'accueil du parc d'attractions.
@@ -18,14 +17,19 @@ import java.sql.Connection;
  */
 public class AccueilVue {
 
-    private final Connection connexion;
+    /** Image de fond, décodée à la taille de la fenêtre */
+    static final String IMAGE_FOND = "/Vue/accueil.jpg";
+    static final double LARGEUR = 900;
+    static final double HAUTEUR = 700;
+
+    private final ConnectionProvider connexion;
 
     /**
      * Constructeur de la vue d'accueil.
      *
-     * @param connexion La connexion à la base de données utilisée pour les autres vues
+     * @param connexion Le fournisseur de connexions à la base de données utilisé pour les autres vues
      */
-    public AccueilVue(Connection connexion) {
+    public AccueilVue(ConnectionProvider connexion) {
         this.connexion = connexion;
         Platform.runLater(this::creerFenetreAccueil);
     }
@@ -64,7 +68,7 @@ public class AccueilVue {
         root.getChildren().addAll(backgroundImage, mainPane);
 
         // Configurer la scène
-        Scene scene = new Scene(root, 900, 700);
+        Scene scene = new Scene(root, LARGEUR, HAUTEUR);
         stage.setScene(scene);
         stage.show();
     }
@@ -115,19 +119,15 @@ public class AccueilVue {
     }
 
     /**
-     * Charge l'image de fond de l'accueil.
+     * Charge l'image de fond de l'accueil depuis le cache d'images partagé : elle n'est décodée
+     * qu'une fois, à la taille de la fenêtre, même si l'accueil est rouvert.
      *
-     * @return ImageView contenant l'image chargée ou une ImageView vide en cas d'erreur
+     * @return ImageView affichant l'image de fond, ou l'image d'attente tant qu'elle n'est pas chargée
      */
     private ImageView chargerImageAccueil() {
-        try {
-            Image image = new Image(getClass().getResource("/Vue/accueil.jpg").toExternalForm());
-            return new ImageView(image);
-        } catch (Exception e) {
-            System.out.println("Image non trouvée !");
-            e.printStackTrace();
-            return new ImageView();
-        }
+        ImageView vue = new ImageView();
+        CacheImages.partage().afficher(vue, IMAGE_FOND, LARGEUR, HAUTEUR);
+        return vue;
     }
 
     /**
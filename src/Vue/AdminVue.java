@@ -1,5 +1,6 @@
 package Vue;
 
+import DAO.ConnectionProvider;
 import Modele.User;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -8,7 +9,6 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
 
 /**
  * Interface graphique pour l'espace administrateur.
@@ -16,16 +16,16 @@ import java.sql.Connection;
  */
 public class AdminVue {
 
-    private final Connection connexion;
+    private final ConnectionProvider connexion;
 
     /**
      * Crée et affiche la fenêtre de l'espace administrateur.
      *
      * @param adminNom  Nom de l'administrateur connecté.
-     * @param connexion Connexion à la base de données.
+     * @param connexion Fournisseur de connexions à la base de données.
      * @param user      Informations de l'utilisateur connecté.
      */
-    public AdminVue(String adminNom, Connection connexion, User user) {
+    public AdminVue(String adminNom, ConnectionProvider connexion, User user) {
         this.connexion = connexion;
 
         // Initialisation de la fenêtre principale
@@ -1,5 +1,6 @@
 package Vue;
 
+import DAO.ConnectionProvider;
 import Controleur.AttractionControleur;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -8,7 +9,7 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Cette classe affiche une interface JavaFX permettant à un administrateur
@@ -19,9 +20,9 @@ public class AttractionAjoutVue {
     /**
      * Constructeur qui initialise et affiche la fenêtre d'ajout d'attraction.
      *
-     * @param connexion Connexion à la base de données MySQL
+     * @param connexion Fournisseur de connexions à la base de données
      */
-    public AttractionAjoutVue(Connection connexion) {
+    public AttractionAjoutVue(ConnectionProvider connexion) {
             Stage stage = new Stage();
             stage.setTitle("Ajouter une Attraction");
 
@@ -41,6 +42,7 @@ public class AttractionAjoutVue {
 
             TextField capaciteField = new TextField();
             TextField dureeField = new TextField();
+            dureeField.setPromptText("45 min, 1h30...");
             TextField prixField = new TextField();
             TextField descriptionField = new TextField();
 
@@ -70,7 +72,7 @@ public class AttractionAjoutVue {
             /** Action lors du clic sur "Ajouter" */
             ajouterBtn.setOnAction(e -> {
                 try {
-                    boolean success = controleur.ajouterAttraction(
+                    CompletableFuture<Boolean> ajout = controleur.ajouterAttraction(
                             nomField.getText(),
                             typeCombo.getValue(),
                             capaciteField.getText(),
@@ -80,13 +82,16 @@ public class AttractionAjoutVue {
                             descriptionField.getText()
                     );
 
-                    Alert alert = new Alert(success ? Alert.AlertType.INFORMATION : Alert.AlertType.ERROR);
-                    alert.setTitle(success ? "Ajout réussi" : "Erreur");
-                    alert.setHeaderText(null);
-                    alert.setContentText(success ? "Attraction ajoutée !" : "Erreur lors de l'ajout.");
-                    alert.showAndWait();
+                    Chargement.desactiverPendant(ajout, ajouterBtn);
+                    Chargement.quandPret(ajout, success -> {
+                        Alert alert = new Alert(success ? Alert.AlertType.INFORMATION : Alert.AlertType.ERROR);
+                        alert.setTitle(success ? "Ajout réussi" : "Erreur");
+                        alert.setHeaderText(null);
+                        alert.setContentText(success ? "Attraction ajoutée !" : "Erreur lors de l'ajout.");
+                        alert.showAndWait();
 
-                    if (success) stage.close();
+                        if (success) stage.close();
+                    });
 
                 } catch (Exception ex) {
                     Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -1,7 +1,10 @@
 package Vue;
 
+import DAO.ConnectionProvider;
 import Controleur.AttractionControleur;
 import Modele.Attraction;
+import Modele.Attraction.Champ;
+import Service.BilanModifications;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -13,20 +16,34 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.util.converter.IntegerStringConverter;
 import javafx.util.converter.FloatStringConverter;
-import java.sql.Connection;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 /**
  * Vue permettant de consulter, modifier, supprimer et enregistrer
  * les attractions du parc via une interface JavaFX.
  */
 public class AttractionsAdminVue {
+    /** Champs modifiés de chaque attraction depuis son chargement : seules ces lignes et colonnes sont enregistrées */
+    private final Map<Attraction, Set<Champ>> modifications = new LinkedHashMap<>();
+    /** Bouton d'enregistrement, actif seulement s'il y a des modifications */
+    private Button btnSauvegarder;
+
     /**
      * Constructeur de la vue d'administration des attractions.
      * Affiche une table modifiable avec options de sauvegarde, suppression et retour.
      *
-     * @param connexion Connexion active à la base de données
+     * @param connexion Fournisseur de connexions à la base de données
      */
-    public AttractionsAdminVue(Connection connexion) {
+    public AttractionsAdminVue(ConnectionProvider connexion) {
         Stage stage = new Stage();
         stage.setTitle("Modifier les attractions");
 
@@ -61,9 +78,12 @@ public class AttractionsAdminVue {
         TableView<Attraction> tableView = new TableView<>();
         tableView.setEditable(true);
 
-        ObservableList<Attraction> data = FXCollections.observableArrayList(
-                controleur.getAttractions()
-        );
+        ObservableList<Attraction> data = FXCollections.observableArrayList();
+        tableView.setPlaceholder(Chargement.indicateur("Chargement des attractions..."));
+        Chargement.quandPret(controleur.getAttractions(), attractions -> {
+            data.setAll(attractions);
+            tableView.setPlaceholder(new Label("Aucune attraction"));
+        });
 
         // Colonne ID - Non modifiable
         TableColumn<Attraction, Integer> colId = new TableColumn<>("ID");
@@ -74,49 +94,49 @@ public class AttractionsAdminVue {
         TableColumn<Attraction, String> colNom = new TableColumn<>("Nom");
         colNom.setCellValueFactory(new PropertyValueFactory<>("nom"));
         colNom.setCellFactory(TextFieldTableCell.forTableColumn());
-        colNom.setOnEditCommit(e -> e.getRowValue().setNom(e.getNewValue()));
+        colNom.setOnEditCommit(e -> modifier(e, Champ.NOM, Attraction::setNom));
         colNom.setEditable(true);
 
         // Colonne Type - Modifiable
         TableColumn<Attraction, String> colType = new TableColumn<>("Type");
         colType.setCellValueFactory(new PropertyValueFactory<>("type"));
         colType.setCellFactory(ComboBoxTableCell.forTableColumn("Manège", "Spectacle", "Parcours", "Aquatique"));
-        colType.setOnEditCommit(e -> e.getRowValue().setType(e.getNewValue()));
+        colType.setOnEditCommit(e -> modifier(e, Champ.TYPE, Attraction::setType));
         colType.setEditable(true);
 
         // Colonne Description - Modifiable
         TableColumn<Attraction, String> colDescription = new TableColumn<>("Description");
         colDescription.setCellValueFactory(new PropertyValueFactory<>("description"));
         colDescription.setCellFactory(TextFieldTableCell.forTableColumn());
-        colDescription.setOnEditCommit(e -> e.getRowValue().setDescription(e.getNewValue()));
+        colDescription.setOnEditCommit(e -> modifier(e, Champ.DESCRIPTION, Attraction::setDescription));
         colDescription.setEditable(true);
 
         // Colonne Capacité - Modifiable
         TableColumn<Attraction, Integer> colCapacite = new TableColumn<>("Capacité");
         colCapacite.setCellValueFactory(new PropertyValueFactory<>("capacite"));
         colCapacite.setCellFactory(TextFieldTableCell.forTableColumn(new IntegerStringConverter()));
-        colCapacite.setOnEditCommit(e -> e.getRowValue().setCapacite(e.getNewValue()));
+        colCapacite.setOnEditCommit(e -> modifier(e, Champ.CAPACITE, Attraction::setCapacite));
         colCapacite.setEditable(true);
 
         // Colonne Durée - Modifiable
         TableColumn<Attraction, String> colDuree = new TableColumn<>("Durée");
         colDuree.setCellValueFactory(new PropertyValueFactory<>("duree"));
         colDuree.setCellFactory(TextFieldTableCell.forTableColumn());
-        colDuree.setOnEditCommit(e -> e.getRowValue().setDuree(e.getNewValue()));
+        colDuree.setOnEditCommit(e -> modifier(e, Champ.DUREE, Attraction::setDuree));
         colDuree.setEditable(true);
 
         // Colonne Prix - Modifiable
         TableColumn<Attraction, Float> colPrix = new TableColumn<>("Prix");
         colPrix.setCellValueFactory(new PropertyValueFactory<>("prix"));
         colPrix.setCellFactory(TextFieldTableCell.forTableColumn(new FloatStringConverter()));
-        colPrix.setOnEditCommit(e -> e.getRowValue().setPrix(e.getNewValue()));
+        colPrix.setOnEditCommit(e -> modifier(e, Champ.PRIX, Attraction::setPrix));
         colPrix.setEditable(true);
 
         // Colonne Statut - Modifiable
         TableColumn<Attraction, Attraction.StatutAttraction> colStatut = new TableColumn<>("Statut");
         colStatut.setCellValueFactory(new PropertyValueFactory<>("statut"));
         colStatut.setCellFactory(ComboBoxTableCell.forTableColumn(Attraction.StatutAttraction.values()));
-        colStatut.setOnEditCommit(e -> e.getRowValue().setStatut(e.getNewValue()));
+        colStatut.setOnEditCommit(e -> modifier(e, Champ.STATUT, Attraction::setStatut));
         colStatut.setEditable(true);
 
         // Colonne Action - Suppression
@@ -129,11 +149,17 @@ public class AttractionsAdminVue {
                     Attraction attraction = getTableView().getItems().get(getIndex());
                     boolean confirmed = showConfirmationDialog("Supprimer l'attraction " + attraction.getNom() + " ?");
                     if (confirmed) {
-                        if (controleur.supprimerAttraction(attraction.getIdAttraction())) {
-                            data.remove(attraction);
-                        } else {
-                            showErrorDialog("Erreur lors de la suppression !");
-                        }
+                        CompletableFuture<Boolean> suppression = controleur.supprimerAttraction(attraction.getIdAttraction());
+                        Chargement.desactiverPendant(suppression, btnSupprimer);
+                        Chargement.quandPret(suppression, supprimee -> {
+                            if (supprimee) {
+                                data.remove(attraction);
+                                modifications.remove(attraction);
+                                btnSauvegarder.setDisable(modifications.isEmpty());
+                            } else {
+                                showErrorDialog("Erreur lors de la suppression !");
+                            }
+                        });
                     }
                 });
             }
@@ -149,12 +175,13 @@ public class AttractionsAdminVue {
             }
         });
 
-        tableView.getColumns().addAll(colId, colNom, colType, colDescription, colCapacite, colDuree, colPrix, colStatut, colSupprimer);
+        tableView.getColumns().addAll(List.of(colId, colNom, colType, colDescription, colCapacite, colDuree, colPrix, colStatut, colSupprimer));
         tableView.setItems(data);
-        tableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        tableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
 
         // Bouton Sauvegarde
-        Button btnSauvegarder = new Button("Enregistrer les modifications");
+        btnSauvegarder = new Button("Enregistrer les modifications");
+        btnSauvegarder.setDisable(true);
         btnSauvegarder.setStyle(
                 "-fx-background-color: #3498db;" +
                         "-fx-text-fill: white;" +
@@ -165,24 +192,9 @@ public class AttractionsAdminVue {
         );
         btnSauvegarder.setCursor(javafx.scene.Cursor.HAND);
         btnSauvegarder.setOnAction(e -> {
-            boolean success = controleur.sauvegarderModifications(data);
-
-            if (success) {
-                Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                alert.setTitle("Succès");
-                alert.setHeaderText(null);
-                alert.setContentText("Toutes les modifications ont été enregistrées !");
-                alert.showAndWait();
-
-                // Rafraîchir les données depuis la base
-                data.setAll(controleur.getAttractions());
-            } else {
-                Alert alert = new Alert(Alert.AlertType.WARNING);
-                alert.setTitle("Avertissement");
-                alert.setHeaderText(null);
-                alert.setContentText("Certaines modifications n'ont pas pu être enregistrées !");
-                alert.showAndWait();
-            }
+            CompletableFuture<BilanModifications> sauvegarde = controleur.sauvegarderModifications(modifications);
+            Chargement.desactiverPendant(sauvegarde, btnSauvegarder, tableView);
+            Chargement.quandPret(sauvegarde, bilan -> afficherBilan(bilan, controleur, data));
         });
 
         // Layout principal avec espacement de 15px
@@ -196,6 +208,95 @@ public class AttractionsAdminVue {
         stage.show();
     }
 
+    /**
+     * Applique une modification de cellule à l'attraction et note le champ modifié,
+     * sauf si la valeur saisie est identique à l'ancienne.
+     *
+     * @param e      Événement de validation de la cellule
+     * @param champ  Champ modifié
+     * @param setter Modificateur de l'attraction
+     * @param <T>    Type de la valeur
+     */
+    private <T> void modifier(TableColumn.CellEditEvent<Attraction, T> e, Champ champ, BiConsumer<Attraction, T> setter) {
+        if (Objects.equals(e.getOldValue(), e.getNewValue())) {
+            return;
+        }
+        setter.accept(e.getRowValue(), e.getNewValue());
+        modifications.computeIfAbsent(e.getRowValue(), a -> EnumSet.noneOf(Champ.class)).add(champ);
+        btnSauvegarder.setDisable(false);
+    }
+
+    /**
+     * Affiche le résultat de l'enregistrement.
+     * En cas de conflit, les attractions modifiées par un autre administrateur sont rechargées
+     * (leurs modifications locales sont abandonnées) ; les autres modifications restent à enregistrer.
+     *
+     * @param bilan      Bilan renvoyé par le contrôleur
+     * @param controleur Contrôleur des attractions
+     * @param data       Attractions affichées
+     */
+    private void afficherBilan(BilanModifications bilan, AttractionControleur controleur, ObservableList<Attraction> data) {
+        if (bilan.estReussi()) {
+            modifications.clear();
+            btnSauvegarder.setDisable(true);
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Succès");
+            alert.setHeaderText(null);
+            alert.setContentText("Toutes les modifications ont été enregistrées !");
+            alert.showAndWait();
+
+            // Rafraîchir les données depuis la base (nouvelles versions)
+            Chargement.quandPret(controleur.getAttractions(), data::setAll);
+        } else if (!bilan.getConflits().isEmpty()) {
+            showWarningDialog("Attractions modifiées entre-temps par un autre administrateur : " + noms(data, bilan.getConflits())
+                    + ".\nElles ont été rechargées ; aucune modification n'a été enregistrée, réessayez.");
+            Chargement.quandPret(controleur.getAttractions(), fraiches -> recharger(data, fraiches, bilan.getConflits()));
+        } else if (!bilan.getInvalides().isEmpty()) {
+            showWarningDialog("Valeurs invalides (nom vide, capacité, durée ou prix incorrect) pour : " + noms(data, bilan.getInvalides())
+                    + ".\nAucune modification n'a été enregistrée.");
+        } else {
+            showWarningDialog("Les modifications n'ont pas pu être enregistrées !");
+        }
+    }
+
+    /**
+     * Remplace les attractions en conflit par leur version en base (ou les retire si elles ont été supprimées).
+     */
+    private void recharger(ObservableList<Attraction> data, List<Attraction> fraiches, List<Integer> conflits) {
+        Map<Integer, Attraction> parId = fraiches.stream().collect(Collectors.toMap(Attraction::getIdAttraction, a -> a));
+        for (int i = data.size() - 1; i >= 0; i--) {
+            Attraction locale = data.get(i);
+            if (conflits.contains(locale.getIdAttraction())) {
+                modifications.remove(locale);
+                Attraction fraiche = parId.get(locale.getIdAttraction());
+                if (fraiche == null) {
+                    data.remove(i);
+                } else {
+                    data.set(i, fraiche);
+                }
+            }
+        }
+        btnSauvegarder.setDisable(modifications.isEmpty());
+    }
+
+    private static String noms(List<Attraction> data, List<Integer> ids) {
+        return data.stream().filter(a -> ids.contains(a.getIdAttraction()))
+                .map(Attraction::getNom).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Affiche une boîte de dialogue d'avertissement.
+     *
+     * @param message Message à afficher
+     */
+    private void showWarningDialog(String message) {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle("Avertissement");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+
     /**
      * Affiche une boîte de confirmation.
      *
@@ -1,5 +1,6 @@
 package Vue;
 
+import DAO.ConnectionProvider;
 import Controleur.ReservationControleur;
 import Controleur.AttractionControleur;
 import Modele.Attraction;
@@ -8,36 +9,48 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
 import java.util.*;
 
 /**
  * Classe représentant la vue de la liste des attractions disponibles.
  * Affiche les attractions sous forme de cartes avec images et informations détaillées.
  * Permet la réservation et la consultation des réservations existantes.
+ * <p>
+ * La liste est virtualisée ({@link ListView}) : seules les cartes visibles existent, et elles sont
+ * réutilisées au défilement ; l'image d'une carte n'est demandée à {@link CacheImages} que lorsqu'elle devient visible.
  */
 public class AttractionsListeVue {
 
-    private final Connection connexion;
+    private final ConnectionProvider connexion;
     private final User user;
-    private final List<Attraction> attractions;
-    private static final Map<String, Image> IMAGE_CACHE = new HashMap<>();
+
+    /** Images des attractions, par nom d'attraction (chemins dans les ressources) */
+    static final Map<String, String> IMAGES = Map.of(
+            "Att1", "/Vue/Att1.jpg",
+            "Att2", "/Vue/Att2.jpg",
+            "Att3", "/Vue/Att3.jpg",
+            "Att4", "/Vue/Att4.jpg"
+    );
+
+    /** Taille d'affichage des images des cartes */
+    static final double LARGEUR_IMAGE = 300;
+    static final double HAUTEUR_IMAGE = 200;
+    /** Hauteur fixe d'une cellule : image, marges de la carte et espacement entre cartes */
+    private static final double HAUTEUR_CELLULE = HAUTEUR_IMAGE + 2 * 15 + 16;
 
     /**
      * Constructeur de la vue des attractions.
      *
-     * @param connexion La connexion à la base de données
+     * @param connexion Le fournisseur de connexions à la base de données
      * @param user L'utilisateur connecté (null si mode invité)
      */
-    public AttractionsListeVue(Connection connexion, User user) {
+    public AttractionsListeVue(ConnectionProvider connexion, User user) {
         this.connexion = connexion;
         this.user = user;
-        this.attractions = new AttractionControleur(connexion).getAttractionsActives();
         afficher();
     }
 
@@ -46,26 +59,25 @@ public class AttractionsListeVue {
      */
     private void afficher() {
         Stage stage = new Stage();
-        VBox content = new VBox(15);
-        content.setPadding(new Insets(20));
-        content.setAlignment(Pos.TOP_CENTER);
 
         // Top section
         VBox topBox = createTopSection();
 
-        // Attractions list
-        if (attractions.isEmpty()) {
-            content.getChildren().add(new Label("Aucune attraction disponible"));
-        } else {
-            attractions.forEach(a -> content.getChildren().add(createAttractionCard(a, stage)));
-        }
-
-        ScrollPane scrollPane = new ScrollPane(content);
-        scrollPane.setFitToWidth(true);
+        // Attractions list, chargée en arrière-plan ; une cellule (carte) par attraction visible
+        ListView<Attraction> liste = new ListView<>();
+        liste.setCellFactory(l -> new CarteAttraction(stage));
+        liste.setFixedCellSize(HAUTEUR_CELLULE);
+        liste.setFocusTraversable(false);
+        liste.setPlaceholder(Chargement.indicateur("Chargement des attractions..."));
+        Chargement.quandPret(new AttractionControleur(connexion).getAttractionsActives(), attractions -> {
+            liste.setPlaceholder(new Label("Aucune attraction disponible"));
+            liste.getItems().setAll(attractions);
+        });
 
         BorderPane root = new BorderPane();
         root.setTop(topBox);
-        root.setCenter(scrollPane);
+        root.setCenter(liste);
+        BorderPane.setMargin(liste, new Insets(10, 20, 20, 20));
 
         stage.setScene(new Scene(root, 900, 700));
         stage.show();
@@ -96,105 +108,100 @@ public class AttractionsListeVue {
     }
 
     /**
-     * Crée une carte représentant une attraction.
-     *
-     * @param attraction L'attraction à afficher
-     * @param stage La fenêtre parente
-     * @return HBox contenant la carte de l'attraction
+     * Cellule de la liste : une carte d'attraction, construite une fois puis réutilisée
+     * pour les attractions qui défilent à sa place.
      */
-    private HBox createAttractionCard(Attraction attraction, Stage stage) {
-        HBox card = new HBox(20);
-        card.setPadding(new Insets(15));
-        card.setStyle("-fx-background-color: #f8f8f8; -fx-border-color: #ddd; -fx-border-radius: 10;");
-        card.setAlignment(Pos.CENTER_LEFT);
-
-        // Image à gauche
-        ImageView imageView = getAttractionImage(attraction);
-        imageView.setFitWidth(300);
-        imageView.setFitHeight(200);
-
-        // Conteneur pour les informations à droite
-        VBox infoBox = new VBox(10);
-        infoBox.setPadding(new Insets(0, 0, 0, 20));
-
-        // Nom de l'attraction
-        Label nameLabel = new Label(attraction.getNom());
-        nameLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold;");
-
-        // Détails
-        VBox detailsBox = new VBox(5);
-        detailsBox.getChildren().addAll(
-                createDetailRow("Type: ", attraction.getType()),
-                createDetailRow("Durée: ", attraction.getDuree() + " min"),
-                createDetailRow("Capacité: ", String.valueOf(attraction.getCapacite())),
-                createDetailRow("Prix: ", String.format("%.2f€", attraction.getPrixAvecReduction(user)))
-        );
-
-        // Description
-        Label description = new Label(attraction.getDescription() != null ? attraction.getDescription() : "Pas de description");
-        description.setWrapText(true);
-        description.setMaxWidth(400);
-
-        // Bouton Réserver
-        Button reserveBtn = new Button("Réserver");
-        reserveBtn.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-font-weight: bold;");
-        reserveBtn.setOnAction(e -> new ReservationFormVue(user, attraction, connexion, stage));
-
-        infoBox.getChildren().addAll(nameLabel, detailsBox, description, reserveBtn);
-        card.getChildren().addAll(imageView, infoBox);
+    private final class CarteAttraction extends ListCell<Attraction> {
+        private final HBox card = new HBox(20);
+        private final ImageView imageView = new ImageView();
+        private final Label nameLabel = new Label();
+        private final Label typeLabel = new Label();
+        private final Label dureeLabel = new Label();
+        private final Label capaciteLabel = new Label();
+        private final Label prixLabel = new Label();
+        private final Label description = new Label();
+
+        /**
+         * @param stage La fenêtre parente, fermée à l'ouverture du formulaire de réservation
+         */
+        CarteAttraction(Stage stage) {
+            setStyle("-fx-background-color: transparent; -fx-padding: 8 0 8 0;");
+
+            card.setPadding(new Insets(15));
+            card.setStyle("-fx-background-color: #f8f8f8; -fx-border-color: #ddd; -fx-border-radius: 10;");
+            card.setAlignment(Pos.CENTER_LEFT);
+
+            // Image à gauche
+            imageView.setFitWidth(LARGEUR_IMAGE);
+            imageView.setFitHeight(HAUTEUR_IMAGE);
+            imageView.setPreserveRatio(false);
+            imageView.setStyle("-fx-border-radius: 5; -fx-background-radius: 5;");
+
+            // Conteneur pour les informations à droite
+            VBox infoBox = new VBox(10);
+            infoBox.setPadding(new Insets(0, 0, 0, 20));
+
+            // Nom de l'attraction
+            nameLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+
+            // Détails
+            VBox detailsBox = new VBox(5);
+            detailsBox.getChildren().addAll(
+                    createDetailRow("Type: ", typeLabel),
+                    createDetailRow("Durée: ", dureeLabel),
+                    createDetailRow("Capacité: ", capaciteLabel),
+                    createDetailRow("Prix: ", prixLabel)
+            );
+
+            // Description
+            description.setWrapText(true);
+            description.setMaxWidth(400);
+            description.setStyle("-fx-text-fill: #333;");
+
+            // Bouton Réserver
+            Button reserveBtn = new Button("Réserver");
+            reserveBtn.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-font-weight: bold;");
+            reserveBtn.setOnAction(e -> new ReservationFormVue(user, getItem(), connexion, stage));
+
+            infoBox.getChildren().addAll(nameLabel, detailsBox, description, reserveBtn);
+            card.getChildren().addAll(imageView, infoBox);
+        }
 
-        return card;
+        @Override
+        protected void updateItem(Attraction attraction, boolean empty) {
+            super.updateItem(attraction, empty);
+            if (empty || attraction == null) {
+                CacheImages.partage().afficher(imageView, null, LARGEUR_IMAGE, HAUTEUR_IMAGE);
+                setGraphic(null);
+                return;
+            }
+            nameLabel.setText(attraction.getNom());
+            typeLabel.setText(attraction.getType());
+            dureeLabel.setText(Attraction.libelleDuree(attraction.getDureeTour()));
+            capaciteLabel.setText(String.valueOf(attraction.getCapacite()));
+            prixLabel.setText(String.format("%.2f€", attraction.getPrixAvecReduction(user)));
+            description.setText(attraction.getDescription() != null ? attraction.getDescription() : "Pas de description");
+            CacheImages.partage().afficher(imageView, IMAGES.get(attraction.getNom()), LARGEUR_IMAGE, HAUTEUR_IMAGE);
+            setGraphic(card);
+        }
     }
 
     /**
      * Crée une ligne de détail avec un libellé et une valeur.
      *
      * @param label Le libellé du détail
-     * @param value La valeur du détail
+     * @param value Le label de la valeur, mis à jour par la carte
      * @return HBox contenant la ligne de détail formatée
      */
-    private HBox createDetailRow(String label, String value) {
+    private static HBox createDetailRow(String label, Label value) {
         HBox row = new HBox(5);
         Label lbl = new Label(label);
-        lbl.setStyle("-fx-font-weight: bold;");
-        Label val = new Label(value);
-        row.getChildren().addAll(lbl, val);
+        lbl.setStyle("-fx-font-weight: bold; -fx-text-fill: #333;");
+        value.setStyle("-fx-text-fill: #333;");
+        row.getChildren().addAll(lbl, value);
         return row;
     }
 
-    /**
-     * Récupère l'image associée à une attraction.
-     *
-     * @param attraction L'attraction dont on veut l'image
-     * @return ImageView contenant l'image de l'attraction
-     */
-    private ImageView getAttractionImage(Attraction attraction) {
-        Map<String, String> imageMap = Map.of(
-                "Att1", "Att1.jpg",
-                "Att2", "Att2.jpg",
-                "Att3", "Att3.jpg",
-                "Att4", "Att4.jpg"
-        );
-
-        // Récupère le nom du fichier image correspondant ou utilise une image par défaut
-        String imageName = imageMap.getOrDefault(attraction.getNom(), "default.jpg");
-
-        // Chemin relatif depuis les ressources
-        String imagePath = "/Vue/" + imageName; // Adaptez ce chemin
-
-        // Charge l'image depuis les ressources
-        Image image = new Image(getClass().getResourceAsStream(imagePath));
-
-        // Crée et configure l'ImageView
-        ImageView imageView = new ImageView(image);
-        imageView.setFitWidth(300);
-        imageView.setFitHeight(200);
-        imageView.setPreserveRatio(false);
-        imageView.setStyle("-fx-border-radius: 5; -fx-background-radius: 5;");
-
-        return imageView;
-    }
-
     /**
      * Configure la vue pour le mode invité.
      *
@@ -242,12 +249,9 @@ public class AttractionsListeVue {
      * Affiche l'historique des réservations pour l'utilisateur connecté.
      */
     private void showReservations() {
-        List<String> reservations = new AttractionControleur(connexion)
-                .getReservationsUser(user)
-                .stream()
-                .map(Object::toString)
-                .toList();
-        new ReservationHistoriqueVue(user.getUserNom(), reservations, false);
+        Chargement.quandPret(new AttractionControleur(connexion).getReservationsUser(user), reservations ->
+                new ReservationHistoriqueVue(user.getUserNom(),
+                        reservations.stream().map(Object::toString).toList(), false));
     }
 
     /**
@@ -260,8 +264,7 @@ public class AttractionsListeVue {
             new Alert(Alert.AlertType.ERROR, "Veuillez entrer votre email").showAndWait();
             return;
         }
-        List<String> reservations = new ReservationControleur(connexion)
-                .recupererReservationsInvite(email);
-        new ReservationHistoriqueVue(email, reservations, true);
+        Chargement.quandPret(new ReservationControleur(connexion).recupererReservationsInvite(email), reservations ->
+                new ReservationHistoriqueVue(email, reservations, true));
     }
 }
\ No newline at end of file
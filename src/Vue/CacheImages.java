@@ -0,0 +1,173 @@
+package Vue;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache des images des vues, partagé par toutes les fenêtres.
+ * <p>
+ * Les images sont décodées en arrière-plan, directement à leur taille d'affichage, et gardées
+ * dans un cache LRU borné par la taille des images décodées (4 octets par pixel) : au-delà du budget
+ * (propriété système {@code attraction.images.cache}, en Mo), les images les moins récemment
+ * demandées sont oubliées. Pendant le chargement, les vues affichent une image d'attente.
+ */
+public final class CacheImages {
+
+    /** Budget par défaut du cache (Mo) */
+    public static final int BUDGET_DEFAUT_MO = 32;
+
+    private static final CacheImages PARTAGE = new CacheImages(
+            Integer.getInteger("attraction.images.cache", BUDGET_DEFAUT_MO) * 1024L * 1024L);
+
+    /** Clé, dans les propriétés d'une ImageView, de l'image qu'elle attend */
+    private static final String IMAGE_ATTENDUE = "CacheImages.attendue";
+
+    private final Map<String, Entree> images = new LinkedHashMap<>(16, 0.75f, true);
+    private final long budget;
+    private long octets;
+    private Image attente;
+
+    /**
+     * @return Le cache partagé par les vues.
+     */
+    public static CacheImages partage() {
+        return PARTAGE;
+    }
+
+    CacheImages(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Lance en arrière-plan le décodage des images affichées dès l'ouverture de l'application
+     * (fond de l'accueil, cartes des attractions), pour qu'elles soient prêtes à la première ouverture.
+     * Doit être appelé une fois la plateforme JavaFX démarrée.
+     */
+    public void prechauffer() {
+        charger(AccueilVue.IMAGE_FOND, AccueilVue.LARGEUR, AccueilVue.HAUTEUR);
+        for (String chemin : AttractionsListeVue.IMAGES.values()) {
+            charger(chemin, AttractionsListeVue.LARGEUR_IMAGE, AttractionsListeVue.HAUTEUR_IMAGE);
+        }
+    }
+
+    /**
+     * Affiche une image dans une vue : directement si elle est déjà décodée, sinon l'image d'attente
+     * jusqu'à la fin de son chargement. Une vue réutilisée (cellule de liste) n'affiche que la dernière
+     * image demandée. À appeler sur le thread JavaFX.
+     *
+     * @param vue     La vue où afficher l'image
+     * @param chemin  Le chemin de l'image dans les ressources (/Vue/Att1.jpg), ou null pour l'image d'attente
+     * @param largeur La largeur d'affichage
+     * @param hauteur La hauteur d'affichage
+     */
+    void afficher(ImageView vue, String chemin, double largeur, double hauteur) {
+        Image image = chemin == null ? null : charger(chemin, largeur, hauteur);
+        vue.getProperties().put(IMAGE_ATTENDUE, image);
+        if (image != null && image.getProgress() >= 1 && !image.isError()) {
+            vue.setImage(image);
+            return;
+        }
+        vue.setImage(attente());
+        if (image == null || image.isError()) {
+            return;
+        }
+        image.progressProperty().addListener(new ChangeListener<Number>() {
+            @Override
+            public void changed(ObservableValue<? extends Number> progression, Number avant, Number apres) {
+                if (apres.doubleValue() < 1) {
+                    return;
+                }
+                progression.removeListener(this);
+                if (vue.getProperties().get(IMAGE_ATTENDUE) == image && !image.isError()) {
+                    vue.setImage(image);
+                }
+            }
+        });
+    }
+
+    /**
+     * Renvoie l'image demandée, depuis le cache ou en lançant son décodage en arrière-plan.
+     *
+     * @param chemin  Le chemin de l'image dans les ressources
+     * @param largeur La largeur de décodage
+     * @param hauteur La hauteur de décodage
+     * @return L'image (éventuellement encore en chargement), ou null si la ressource n'existe pas
+     */
+    synchronized Image charger(String chemin, double largeur, double hauteur) {
+        String cle = chemin + "@" + (int) largeur + "x" + (int) hauteur;
+        Entree entree = images.get(cle);
+        if (entree != null) {
+            return entree.image;
+        }
+        URL url = CacheImages.class.getResource(chemin);
+        if (url == null) {
+            return null;
+        }
+        Image image = new Image(url.toExternalForm(), largeur, hauteur, false, true, true);
+        entree = new Entree(image, (long) Math.ceil(largeur) * (long) Math.ceil(hauteur) * 4);
+        images.put(cle, entree);
+        octets += entree.octets;
+        image.errorProperty().addListener((o, avant, erreur) -> {
+            if (erreur) {
+                oublier(cle, image);
+            }
+        });
+        liberer();
+        return image;
+    }
+
+    /**
+     * @return La taille des images décodées gardées en cache, en octets.
+     */
+    public synchronized long getOctets() {
+        return octets;
+    }
+
+    /** Retire une image du cache (décodage en échec), si elle n'a pas déjà été remplacée */
+    private synchronized void oublier(String cle, Image image) {
+        Entree entree = images.get(cle);
+        if (entree != null && entree.image == image) {
+            images.remove(cle);
+            octets -= entree.octets;
+        }
+    }
+
+    /** Oublie les images les moins récemment demandées jusqu'à revenir sous le budget ; garde toujours la dernière */
+    private void liberer() {
+        Iterator<Entree> it = images.values().iterator();
+        while (octets > budget && images.size() > 1 && it.hasNext()) {
+            octets -= it.next().octets;
+            it.remove();
+        }
+    }
+
+    /** Image d'attente : un pixel gris étiré à la taille de la vue */
+    private Image attente() {
+        if (attente == null) {
+            WritableImage pixel = new WritableImage(1, 1);
+            pixel.getPixelWriter().setColor(0, 0, Color.web("#e0e0e0"));
+            attente = pixel;
+        }
+        return attente;
+    }
+
+    /** Image gardée en cache et sa taille décodée */
+    private static final class Entree {
+        private final Image image;
+        private final long octets;
+
+        private Entree(Image image, long octets) {
+            this.image = image;
+            this.octets = octets;
+        }
+    }
+}
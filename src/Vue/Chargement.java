@@ -0,0 +1,99 @@
+package Vue;
+
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.HBox;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Outils communs aux vues JavaFX pour afficher des données chargées en arrière-plan.
+ */
+final class Chargement {
+
+    private Chargement() {
+    }
+
+    /**
+     * Crée l'indicateur affiché à la place des données pendant leur chargement.
+     *
+     * @param message Texte affiché à côté de l'indicateur
+     * @return Le nœud à afficher
+     */
+    static HBox indicateur(String message) {
+        ProgressIndicator progression = new ProgressIndicator();
+        progression.setPrefSize(24, 24);
+        HBox box = new HBox(10, progression, new Label(message));
+        box.setAlignment(Pos.CENTER);
+        return box;
+    }
+
+    /**
+     * Désactive des contrôles (boutons...) jusqu'à la fin d'un accès aux données, réussi ou non.
+     *
+     * @param futur   Le futur renvoyé par un contrôleur
+     * @param noeuds  Les contrôles à désactiver
+     */
+    static void desactiverPendant(CompletableFuture<?> futur, Node... noeuds) {
+        for (Node noeud : noeuds) {
+            noeud.setDisable(true);
+        }
+        futur.whenComplete((resultat, erreur) -> Platform.runLater(() -> {
+            for (Node noeud : noeuds) {
+                noeud.setDisable(false);
+            }
+        }));
+    }
+
+    /**
+     * Exécute une action sur le thread JavaFX quand le futur se termine,
+     * ou affiche une alerte d'erreur s'il a échoué (base injoignable, délai dépassé).
+     *
+     * @param futur  Le futur renvoyé par un contrôleur
+     * @param succes L'action à exécuter avec le résultat
+     * @param <T>    Le type du résultat
+     */
+    static <T> void quandPret(CompletableFuture<T> futur, Consumer<T> succes) {
+        futur.whenComplete((resultat, erreur) -> Platform.runLater(() -> {
+            if (erreur == null) {
+                succes.accept(resultat);
+            } else {
+                afficherErreur(erreur);
+            }
+        }));
+    }
+
+    /**
+     * Affiche une alerte correspondant à l'échec d'un accès aux données.
+     *
+     * @param erreur L'exception ayant terminé le futur
+     */
+    static void afficherErreur(Throwable erreur) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Erreur");
+        alert.setHeaderText(null);
+        alert.setContentText(message(erreur) + ". Veuillez réessayer.");
+        alert.show();
+    }
+
+    /**
+     * Trace l'échec d'un accès aux données et le décrit pour l'utilisateur.
+     *
+     * @param erreur L'exception ayant terminé le futur
+     * @return Le message à afficher, sans ponctuation finale
+     */
+    static String message(Throwable erreur) {
+        Throwable cause = erreur instanceof CompletionException && erreur.getCause() != null ? erreur.getCause() : erreur;
+        cause.printStackTrace();
+        return cause instanceof TimeoutException
+                ? "La base de données ne répond pas"
+                : "Erreur lors de l'accès aux données";
+    }
+}
@@ -1,30 +1,48 @@
 package Vue;
 
+import DAO.ConnectionProvider;
 import Controleur.ClientControleur;
 import Modele.User;
+import Modele.User.Champ;
+import Service.FicheClient;
 
 import javax.swing.*;
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 
 
 /**
  * Vue Swing pour la gestion des clients.
  * Permet d'afficher, modifier et sauvegarder les informations des clients dans un tableau interactif.
+ * Les cellules modifiées sont suivies ligne par ligne : seules les colonnes modifiées des lignes modifiées
+ * sont enregistrées, en une seule transaction.
  */
 public class ClientListeVue extends JFrame {
 
     private JTable table;
     private JButton btnSauvegarder;
     private ClientControleur controleur;
+    /** Valeurs chargées (ou dernières enregistrées) de chaque ligne, pour reconnaître une cellule revenue à sa valeur */
+    private final transient List<Object[]> originaux = new ArrayList<>();
+    /** Champs modifiés de chaque ligne (indice dans le modèle) */
+    private final transient Map<Integer, Set<Champ>> modifications = new TreeMap<>();
     /**
      * Constructeur : crée et affiche la fenêtre de gestion des clients.
      *
-     * @param connexion Connexion à la base de données
+     * @param connexion Fournisseur de connexions à la base de données
      */
-    public ClientListeVue(Connection connexion) {
+    public ClientListeVue(ConnectionProvider connexion) {
         this.controleur = new ClientControleur(connexion);
 
         setTitle("Gestion des clients");
@@ -33,57 +51,181 @@ public class ClientListeVue extends JFrame {
         setLayout(new BorderLayout());
 
         // Colonnes du tableau
-        String[] colonnes = {"ID", "Nom", "Prénom", "Date de naissance", "Email", "Type", "Réduction (%)", "Téléphone", "Mot de passe", "Rôle"};
+        String[] colonnes = {"ID", "Nom", "Prénom", "Date de naissance", "Email", "Type", "Réduction (%)", "Téléphone", "Rôle"};
 
         // Modèle du tableau
         DefaultTableModel model = new DefaultTableModel(colonnes, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
-                return column != 0; // L'ID ne doit pas être modifiable
+                // L'ID ne doit pas être modifiable ; le type et la réduction sont recalculés à l'enregistrement
+                return column != 0 && column != 5 && column != 6;
             }
         };
 
-        // Charger les clients via le contrôleur
-        List<User> clients = controleur.getAllClients();
-        for (User c : clients) {
-            model.addRow(new Object[]{
-                    c.getUserId(),
-                    c.getUserNom(),
-                    c.getUserPrenom(),
-                    c.getDateNaissance(),
-                    c.getUserEmail(),
-                    c.getTypeClient().toString(),
-                    c.getReduction(),
-                    c.getUserTel(),
-                    c.getUserPassword(),
-                    c.getRole().toString()
-            });
-        }
+        // Charger les clients via le contrôleur, en arrière-plan
+        controleur.getAllClients().whenComplete((clients, erreur) -> SwingUtilities.invokeLater(() -> {
+            if (erreur != null) {
+                erreur.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Erreur lors du chargement des clients.", "Erreur", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            for (FicheClient c : clients) {
+                model.addRow(new Object[]{
+                        c.getId(),
+                        c.getNom(),
+                        c.getPrenom(),
+                        c.getDateNaissance(),
+                        c.getEmail(),
+                        c.getTypeClient().toString(),
+                        c.getReduction(),
+                        c.getTel(),
+                        c.getRole().toString()
+                });
+                originaux.add(ligne(model, model.getRowCount() - 1));
+            }
+        }));
+        model.addTableModelListener(e -> suivreModification(model, e));
 
         // Créer le tableau
         table = new JTable(model);
 
-        // Combobox pour Type de Client
-        String[] typesClient = {"ENFANT", "ADULTE", "SENIOR", "INVITE"};
-        JComboBox<String> typeCombo = new JComboBox<>(typesClient);
-        table.getColumnModel().getColumn(5).setCellEditor(new DefaultCellEditor(typeCombo));
-
         // Combobox pour Rôle
         String[] roles = {"CLIENT", "ADMIN"};
         JComboBox<String> roleCombo = new JComboBox<>(roles);
-        table.getColumnModel().getColumn(9).setCellEditor(new DefaultCellEditor(roleCombo));
+        table.getColumnModel().getColumn(8).setCellEditor(new DefaultCellEditor(roleCombo));
 
         JScrollPane scrollPane = new JScrollPane(table);
         add(scrollPane, BorderLayout.CENTER);
 
         // Bouton pour enregistrer
         btnSauvegarder = new JButton("Enregistrer les modifications");
+        btnSauvegarder.setEnabled(false);
         btnSauvegarder.addActionListener(e -> {
-            controleur.sauvegarderModifications(model);
-            JOptionPane.showMessageDialog(this, "Modifications enregistrées avec succès !");
+            if (table.isEditing()) {
+                table.getCellEditor().stopCellEditing();
+            }
+            Map<Integer, FicheClient> lignes;
+            try {
+                lignes = lireFiches(model);
+            } catch (DateTimeParseException ex) {
+                JOptionPane.showMessageDialog(this, "Date de naissance invalide (format AAAA-MM-JJ) : " + ex.getParsedString(),
+                        "Erreur", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            Map<FicheClient, Set<Champ>> aEnregistrer = new LinkedHashMap<>();
+            lignes.forEach((ligne, fiche) -> aEnregistrer.put(fiche, modifications.get(ligne)));
+
+            btnSauvegarder.setEnabled(false);
+            table.setEnabled(false);
+            controleur.sauvegarderModifications(aEnregistrer).whenComplete((fiches, erreur) -> SwingUtilities.invokeLater(() -> {
+                table.setEnabled(true);
+                if (erreur != null || fiches == null) {
+                    if (erreur != null) erreur.printStackTrace();
+                    btnSauvegarder.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Erreur lors de l'enregistrement.", "Erreur", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    afficherColonnesRecalculees(model, new ArrayList<>(lignes.keySet()), fiches);
+                    JOptionPane.showMessageDialog(this, fiches.size() + " client(s) enregistré(s) avec succès !");
+                }
+            }));
         });
         add(btnSauvegarder, BorderLayout.SOUTH);
 
         setVisible(true);
     }
+
+    /**
+     * Note la cellule modifiée par l'administrateur, ou l'oublie si elle a retrouvé sa valeur d'origine.
+     * Les ajouts de lignes (chargement) et les colonnes recalculées ne sont pas suivis.
+     *
+     * @param model Modèle du tableau des clients
+     * @param e     Événement de modification du modèle
+     */
+    private void suivreModification(DefaultTableModel model, TableModelEvent e) {
+        if (e.getType() != TableModelEvent.UPDATE || e.getColumn() == TableModelEvent.ALL_COLUMNS) {
+            return;
+        }
+        Champ champ = champ(e.getColumn());
+        if (champ == null) {
+            return;
+        }
+        for (int ligne = e.getFirstRow(); ligne <= e.getLastRow() && ligne < originaux.size(); ligne++) {
+            Object valeur = model.getValueAt(ligne, e.getColumn());
+            Object origine = originaux.get(ligne)[e.getColumn()];
+            if (Objects.equals(String.valueOf(valeur), String.valueOf(origine))) {
+                Set<Champ> champs = modifications.get(ligne);
+                if (champs != null && champs.remove(champ) && champs.isEmpty()) {
+                    modifications.remove(ligne);
+                }
+            } else {
+                modifications.computeIfAbsent(ligne, l -> EnumSet.noneOf(Champ.class)).add(champ);
+            }
+        }
+        btnSauvegarder.setEnabled(!modifications.isEmpty());
+    }
+
+    /**
+     * @param colonne Indice de colonne du tableau
+     * @return Le champ modifiable affiché dans cette colonne, ou null (ID, type, réduction)
+     */
+    private static Champ champ(int colonne) {
+        switch (colonne) {
+            case 1: return Champ.NOM;
+            case 2: return Champ.PRENOM;
+            case 3: return Champ.DATE_NAISSANCE;
+            case 4: return Champ.EMAIL;
+            case 7: return Champ.TEL;
+            case 8: return Champ.ROLE;
+            default: return null;
+        }
+    }
+
+    private static Object[] ligne(DefaultTableModel model, int ligne) {
+        Object[] valeurs = new Object[model.getColumnCount()];
+        for (int c = 0; c < valeurs.length; c++) {
+            valeurs[c] = model.getValueAt(ligne, c);
+        }
+        return valeurs;
+    }
+
+    /**
+     * Lit les lignes modifiées du tableau sous forme de fiches clients.
+     *
+     * @param model Modèle du tableau des clients
+     * @return Les fiches, par indice de ligne
+     * @throws DateTimeParseException Si une date de naissance saisie est invalide
+     */
+    private Map<Integer, FicheClient> lireFiches(DefaultTableModel model) {
+        Map<Integer, FicheClient> fiches = new LinkedHashMap<>();
+        for (int i : modifications.keySet()) {
+            fiches.put(i, new FicheClient(
+                    (int) model.getValueAt(i, 0),
+                    (String) model.getValueAt(i, 1),
+                    (String) model.getValueAt(i, 2),
+                    LocalDate.parse(model.getValueAt(i, 3).toString()),
+                    (String) model.getValueAt(i, 4),
+                    (String) model.getValueAt(i, 7),
+                    User.Role.valueOf((String) model.getValueAt(i, 8)),
+                    null, 0)); // Type et réduction recalculés à l'enregistrement
+        }
+        return fiches;
+    }
+
+    /**
+     * Recopie le type et la réduction recalculés dans le tableau, puis marque les lignes comme enregistrées.
+     *
+     * @param model  Modèle du tableau des clients
+     * @param lignes Indices des lignes enregistrées
+     * @param fiches Fiches enregistrées, dans l'ordre des lignes
+     */
+    private void afficherColonnesRecalculees(DefaultTableModel model, List<Integer> lignes, List<FicheClient> fiches) {
+        for (int k = 0; k < fiches.size() && k < lignes.size(); k++) {
+            int i = lignes.get(k);
+            model.setValueAt(fiches.get(k).getTypeClient().toString(), i, 5);
+            model.setValueAt(fiches.get(k).getReduction(), i, 6);
+            originaux.set(i, ligne(model, i));
+            modifications.remove(i);
+        }
+        btnSauvegarder.setEnabled(!modifications.isEmpty());
+    }
 }
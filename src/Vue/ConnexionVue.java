@@ -1,5 +1,6 @@
 package Vue;
 
+import DAO.ConnectionProvider;
 import Controleur.ConnexionControleur;
 import Modele.User;
 import javafx.application.Platform;
@@ -10,7 +11,8 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Vue JavaFX permettant à un utilisateur (client ou administrateur) de se connecter à son compte.
  * Affiche un formulaire de connexion et un bouton retour vers l'accueil.
@@ -20,9 +22,9 @@ public class ConnexionVue {
     /**
      * Constructeur de la fenêtre de connexion.
      *
-     * @param connexion Connexion à la base de données
+     * @param connexion Fournisseur de connexions à la base de données
      */
-    public ConnexionVue(Connection connexion) {
+    public ConnexionVue(ConnectionProvider connexion) {
         this.controleur = new ConnexionControleur(connexion);
         Platform.runLater(this::creerEtAfficher);
     }
@@ -98,21 +100,47 @@ public class ConnexionVue {
         styleButton(btn);
 
         btn.setOnAction(e -> {
-            User utilisateur = controleur.connecterUtilisateur(
+            CompletableFuture<User> connexionUtilisateur = controleur.connecterUtilisateur(
                     emailField.getText(),
                     mdpField.getText()
             );
 
-            if (utilisateur != null) {
-                controleur.gererConnexionReussie(utilisateur); // Retirez le deuxième paramètre
-                stage.close();
-            } else {
-                controleur.afficherErreurConnexion();
-            }
+            Chargement.desactiverPendant(connexionUtilisateur, btn);
+            Chargement.quandPret(connexionUtilisateur, utilisateur -> {
+                if (utilisateur != null) {
+                    ouvrirEspace(utilisateur);
+                    stage.close();
+                } else {
+                    afficherErreurConnexion();
+                }
+            });
         });
 
         return btn;
     }
+    /**
+     * Ouvre l'espace correspondant au rôle de l'utilisateur connecté :
+     * la vue administrateur pour un administrateur, la vue utilisateur sinon.
+     *
+     * @param utilisateur Utilisateur connecté
+     */
+    private void ouvrirEspace(User utilisateur) {
+        if (utilisateur.getRole() == User.Role.ADMIN) {
+            new AdminVue(utilisateur.getUserNom(), controleur.getConnexion(), utilisateur);
+        } else {
+            new UserVue(utilisateur.getUserNom(), controleur.getConnexion(), utilisateur);
+        }
+    }
+    /**
+     * Affiche une alerte lorsque les informations d'identification sont incorrectes.
+     */
+    private void afficherErreurConnexion() {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("La connexion a échouée");
+        alert.setHeaderText(null);
+        alert.setContentText("Email ou mot de passe incorrect.\nAprès plusieurs échecs, la connexion est bloquée quelques minutes.");
+        alert.showAndWait();
+    }
     /**
      * Crée un bouton de retour vers l'accueil.
      *
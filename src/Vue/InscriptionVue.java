@@ -1,5 +1,6 @@
 package Vue;
 
+import DAO.ConnectionProvider;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -8,7 +9,8 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
 import Controleur.InscriptionControleur;
-import java.sql.Connection;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Fenêtre d'inscription d'un client.
@@ -17,7 +19,7 @@ import java.sql.Connection;
 public class InscriptionVue {
 
     /** Connexion à la base de données */
-    private Connection connexion;
+    private ConnectionProvider connexion;
 
     /**
      * Initialise l'interface d'inscription pour un client.
@@ -25,9 +27,9 @@ public class InscriptionVue {
      * Cette méthode crée l'interface graphique, incluant des champs pour l'inscription du client,
      * un bouton pour soumettre les informations et un bouton pour revenir à la page d'accueil.
      *
-     * @param connexion Connexion à la base de données.
+     * @param connexion Fournisseur de connexions à la base de données.
      */
-    public InscriptionVue(Connection connexion) {
+    public InscriptionVue(ConnectionProvider connexion) {
         this.connexion = connexion;
 
         // Lancement de l'interface JavaFX dans le thread approprié
@@ -56,7 +58,7 @@ public class InscriptionVue {
             // Action du bouton d'inscription
             inscriptionBtn.setOnAction(e -> {
                 // Appel au contrôleur pour inscrire le client
-                boolean success = InscriptionControleur.inscrireClient(
+                CompletableFuture<Boolean> inscription = InscriptionControleur.inscrireClient(
                         connexion,
                         ((TextField) formGrid.getChildren().get(1)).getText(),
                         ((TextField) formGrid.getChildren().get(3)).getText(),
@@ -67,14 +69,17 @@ public class InscriptionVue {
                 );
 
                 // Affichage du résultat de l'inscription
-                Alert alert = new Alert(success ? Alert.AlertType.INFORMATION : Alert.AlertType.ERROR);
-                alert.setTitle(success ? "Inscription réussie" : "Erreur");
-                alert.setHeaderText(null);
-                alert.setContentText(success ? "Client inscrit avec succès !" : "Erreur lors de l'inscription.");
-                alert.showAndWait();
-
-                // Si l'inscription est réussie, retour à l'accueil
-                if (success) new AccueilVue(connexion);
+                Chargement.desactiverPendant(inscription, inscriptionBtn);
+                Chargement.quandPret(inscription, success -> {
+                    Alert alert = new Alert(success ? Alert.AlertType.INFORMATION : Alert.AlertType.ERROR);
+                    alert.setTitle(success ? "Inscription réussie" : "Erreur");
+                    alert.setHeaderText(null);
+                    alert.setContentText(success ? "Client inscrit avec succès !" : "Erreur lors de l'inscription.");
+                    alert.showAndWait();
+
+                    // Si l'inscription est réussie, retour à l'accueil
+                    if (success) new AccueilVue(connexion);
+                });
             });
 
             // Mise en page de l'interface
@@ -2,6 +2,7 @@ package Vue;
 
 import Modele.Paiement;
 import Modele.User;
+import Service.Devis;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -15,23 +16,28 @@ import java.util.function.Consumer;
 
 /**
  * Cette classe représente une fenêtre de paiement.
- * L'utilisateur saisit ses informations de carte pour effectuer un paiement.
+ * L'utilisateur saisit ses informations de carte pour payer le total d'un devis, sans que le prix soit recalculé.
  */
 public class PaiementVue {
 
     /**
      * Affiche la fenêtre de paiement et exécute une action après paiement réussi.
      *
-     * @param montant            Montant à payer
+     * @param devis              Devis à payer (prix, réduction et total)
      * @param onPaiementEffectue Callback à exécuter une fois le paiement validé
      * @param user               Utilisateur effectuant le paiement (peut être null pour un invité)
      */
-    public void afficher(float montant, Consumer<Paiement> onPaiementEffectue, User user) {
+    public void afficher(Devis devis, Consumer<Paiement> onPaiementEffectue, User user) {
         Stage paiementStage = new Stage();
         paiementStage.initModality(Modality.APPLICATION_MODAL);
         paiementStage.setTitle("Paiement");
 
-        Label montantLabel = new Label("Montant à payer: " + montant + "€");
+        float montant = devis.getTotal();
+        Label detailLabel = new Label(devis.getPlaces() + " × " + String.format("%.2f€", devis.getPrixUnitaire()) +
+                (devis.getReduction() > 0
+                        ? "   Réduction " + Math.round(devis.getReduction() * 100) + " % : -" + String.format("%.2f€", devis.getMontantReduction())
+                        : ""));
+        Label montantLabel = new Label("Montant à payer: " + String.format("%.2f€", montant));
         montantLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 16px;");
 
         Label numeroCarteLabel = new Label("Numéro de carte :");
@@ -128,6 +134,7 @@ public class PaiementVue {
         boutonsLayout.setAlignment(Pos.CENTER);
 
         VBox root = new VBox(15,
+                detailLabel,
                 montantLabel,
                 numeroCarteLabel, numeroCarteField,
                 expirationLabel, expirationField,
@@ -137,7 +144,7 @@ public class PaiementVue {
         root.setPadding(new Insets(20));
         root.setAlignment(Pos.CENTER);
 
-        paiementStage.setScene(new Scene(root, 350, 300));
+        paiementStage.setScene(new Scene(root, 350, 340));
         paiementStage.showAndWait();
     }
 
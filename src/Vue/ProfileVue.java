@@ -1,5 +1,6 @@
 package Vue;
 
+import DAO.ConnectionProvider;
 import Modele.User;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -12,7 +13,6 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
 
 /**
  * Cette classe affiche la vue du profil d'un utilisateur connecté.
@@ -20,15 +20,15 @@ import java.sql.Connection;
  */
 public class ProfileVue {
 
-    private final Connection connexion;
+    private final ConnectionProvider connexion;
 
     /**
      * Constructeur de la vue du profil.
      *
-     * @param connexion la connexion à la base de données (non utilisée ici mais pourrait servir pour modifier le profil).
+     * @param connexion le fournisseur de connexions à la base de données (non utilisé ici mais pourrait servir pour modifier le profil).
      * @param user l'utilisateur dont on veut afficher les informations.
      */
-    public ProfileVue(Connection connexion, User user) {
+    public ProfileVue(ConnectionProvider connexion, User user) {
         this.connexion = connexion;
 
         // Création d'une nouvelle fenêtre (Stage)
@@ -1,36 +1,73 @@
 package Vue;
 
+import DAO.ConnectionProvider;
+import DAO.FiltreReservations;
+import Controleur.AttractionControleur;
 import Controleur.ReservationControleur;
+import Modele.Attraction;
 import Modele.Reservation;
 
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.control.cell.ComboBoxTableCell;
+import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import javafx.util.StringConverter;
 
-import java.sql.Connection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 /**
  * Classe représentant l'interface de gestion des réservations pour l'administrateur.
- * Permet de visualiser toutes les réservations et de modifier leur statut.
+ * Permet de filtrer les réservations, de les parcourir et de modifier leur statut.
+ * <p>
+ * Les réservations sont chargées par pages au fil du défilement : seules les lignes visibles
+ * de la table sont des nœuds JavaFX, et seules les pages parcourues sont en mémoire.
  */
 public class ReservationAdminVue {
+    /** Nombre de réservations chargées à chaque page */
+    private static final int TAILLE_PAGE = 100;
+    /** Nombre de lignes restant à afficher en dessous duquel la page suivante est chargée */
+    private static final int SEUIL_CHARGEMENT = 20;
+
     /** Contrôleur permettant la gestion des réservations */
     private final ReservationControleur controleur;
+    /** Contrôleur donnant la liste des attractions pour le filtre */
+    private final AttractionControleur attractionControleur;
+
+    /** Réservations chargées jusqu'ici */
+    private final ObservableList<Reservation> donnees = FXCollections.observableArrayList();
+    private final TableView<Reservation> tableView = new TableView<>();
+    private final Label compteur = new Label();
+
+    /** État du défilement, modifié uniquement sur le thread JavaFX */
+    private FiltreReservations filtre = FiltreReservations.aucun();
+    private int dernierId;
+    private boolean chargementEnCours;
+    private boolean finAtteinte;
+    /** Incrémenté à chaque changement de filtre pour ignorer les pages d'une recherche précédente */
+    private int generation;
+
     /**
      * Constructeur qui initialise et affiche la vue des réservations administrateur.
      *
-     * @param connexion Connexion active à la base de données
+     * @param connexion Fournisseur de connexions à la base de données
      */
-    public ReservationAdminVue(Connection connexion) {
+    public ReservationAdminVue(ConnectionProvider connexion) {
         this.controleur = new ReservationControleur(connexion);
+        this.attractionControleur = new AttractionControleur(connexion);
         afficher();
     }
 
     /**
-     * Affiche la fenêtre principale listant toutes les réservations existantes.
+     * Affiche la fenêtre principale listant les réservations.
      */
     public void afficher() {
             Stage stage = new Stage();
@@ -42,49 +79,204 @@ public class ReservationAdminVue {
             Label titre = new Label("Liste des réservations");
             titre.setStyle("-fx-font-size: 20px; -fx-font-weight: bold;");
 
-            List<Reservation> reservations = controleur.recupererToutesReservations(); // méthode à ajouter
-
-            VBox reservationList = new VBox(10);
-            for (Reservation res : reservations) {
-                HBox ligne = new HBox(10);
-                ligne.setPadding(new Insets(10));
-                ligne.setStyle("-fx-background-color: #f0f0f0; -fx-background-radius: 8;");
-                ligne.setSpacing(10);
-
-                Label infos = new Label(
-                        "ID: " + res.getIdReservation() +
-                                " | Client: " + (res.getUser() != null
-                                ? res.getUser().getUserNom()
-                                : res.getInviteNom() + " (invité)") +
-                                " | Attraction: " + res.getAttraction().getNom() +
-                                " | Date: " + res.getDateReservation()
-                );
-                infos.setPrefWidth(400);
-
-                ComboBox<Reservation.StatutReservation> statutCombo = new ComboBox<>();
-                statutCombo.setItems(FXCollections.observableArrayList(Reservation.StatutReservation.values()));
-                statutCombo.setValue(res.getStatut());
-
-                Button modifierBtn = new Button("Modifier");
-                modifierBtn.setOnAction(e -> {
-                    Reservation.StatutReservation nouveauStatut = statutCombo.getValue();
-                    res.setStatut(nouveauStatut);
-                    controleur.mettreAJourStatut(res); // méthode à ajouter
-                    showAlert("Succès", "Statut mis à jour !");
-                });
-
-                ligne.getChildren().addAll(infos, statutCombo, modifierBtn);
-                reservationList.getChildren().add(ligne);
-            }
-
-            ScrollPane scrollPane = new ScrollPane(reservationList);
-            scrollPane.setFitToWidth(true);
+            configurerTable();
+            VBox.setVgrow(tableView, Priority.ALWAYS);
 
-            root.getChildren().addAll(titre, scrollPane);
+            root.getChildren().addAll(titre, creerFiltres(), tableView, compteur);
 
-            Scene scene = new Scene(root, 700, 500);
+            Scene scene = new Scene(root, 900, 600);
             stage.setScene(scene);
             stage.show();
+
+            appliquerFiltre(FiltreReservations.aucun());
+    }
+
+    /**
+     * Crée la barre de filtres (statut, période, attraction).
+     *
+     * @return La barre de filtres
+     */
+    private HBox creerFiltres() {
+        ComboBox<Reservation.StatutReservation> statutCombo = new ComboBox<>();
+        statutCombo.getItems().add(null);
+        statutCombo.getItems().addAll(Reservation.StatutReservation.values());
+        statutCombo.setConverter(convertisseur("Tous les statuts", Enum::name));
+        statutCombo.setValue(null);
+
+        DatePicker debutPicker = new DatePicker();
+        debutPicker.setPromptText("Du");
+        debutPicker.setPrefWidth(130);
+        DatePicker finPicker = new DatePicker();
+        finPicker.setPromptText("Au");
+        finPicker.setPrefWidth(130);
+
+        ComboBox<Attraction> attractionCombo = new ComboBox<>();
+        attractionCombo.getItems().add(null);
+        attractionCombo.setConverter(convertisseur("Toutes les attractions", Attraction::getNom));
+        attractionCombo.setValue(null);
+        Chargement.quandPret(attractionControleur.getAttractions(), attractionCombo.getItems()::addAll);
+
+        Button filtrerBtn = new Button("Filtrer");
+        filtrerBtn.setStyle("-fx-background-color: #3498db; -fx-text-fill: white;");
+        filtrerBtn.setOnAction(e -> {
+            Attraction attraction = attractionCombo.getValue();
+            appliquerFiltre(new FiltreReservations(
+                    statutCombo.getValue(),
+                    debutPicker.getValue(),
+                    finPicker.getValue(),
+                    attraction == null ? null : attraction.getIdAttraction()));
+        });
+
+        Button effacerBtn = new Button("Effacer");
+        effacerBtn.setOnAction(e -> {
+            statutCombo.setValue(null);
+            debutPicker.setValue(null);
+            finPicker.setValue(null);
+            attractionCombo.setValue(null);
+            appliquerFiltre(FiltreReservations.aucun());
+        });
+
+        HBox filtres = new HBox(10, statutCombo, debutPicker, finPicker, attractionCombo, filtrerBtn, effacerBtn);
+        filtres.setAlignment(Pos.CENTER_LEFT);
+        return filtres;
+    }
+
+    /**
+     * Configure les colonnes de la table et le chargement des pages au défilement.
+     */
+    private void configurerTable() {
+        TableColumn<Reservation, Integer> colId = new TableColumn<>("ID");
+        colId.setCellValueFactory(new PropertyValueFactory<>("idReservation"));
+
+        TableColumn<Reservation, String> colClient = new TableColumn<>("Client");
+        colClient.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getUser() != null
+                ? c.getValue().getUser().getUserNom()
+                : c.getValue().getInviteNom() + " (invité)"));
+
+        TableColumn<Reservation, String> colAttraction = new TableColumn<>("Attraction");
+        colAttraction.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getAttraction().getNom()));
+
+        TableColumn<Reservation, String> colDate = new TableColumn<>("Date");
+        colDate.setCellValueFactory(c -> new SimpleStringProperty(String.valueOf(c.getValue().getDateReservation())));
+
+        // Colonne Statut - Modifiable
+        TableColumn<Reservation, Reservation.StatutReservation> colStatut = new TableColumn<>("Statut");
+        colStatut.setCellValueFactory(new PropertyValueFactory<>("statut"));
+        colStatut.setCellFactory(ComboBoxTableCell.forTableColumn(Reservation.StatutReservation.values()));
+        colStatut.setOnEditCommit(e -> modifierStatut(e.getRowValue(), e.getOldValue(), e.getNewValue()));
+        colStatut.setEditable(true);
+
+        tableView.getColumns().addAll(List.of(colId, colClient, colAttraction, colDate, colStatut));
+        tableView.setItems(donnees);
+        tableView.setEditable(true);
+        tableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+
+        // Une ligne proche de la fin de ce qui est chargé devient visible : on charge la page suivante
+        tableView.setRowFactory(tv -> new TableRow<>() {
+            @Override
+            protected void updateItem(Reservation item, boolean empty) {
+                super.updateItem(item, empty);
+                if (!empty && getIndex() >= donnees.size() - SEUIL_CHARGEMENT) {
+                    chargerPageSuivante();
+                }
+            }
+        });
+    }
+
+    /**
+     * Repart de la première page avec de nouveaux critères.
+     *
+     * @param nouveauFiltre Les critères de recherche
+     */
+    private void appliquerFiltre(FiltreReservations nouveauFiltre) {
+        generation++;
+        filtre = nouveauFiltre;
+        dernierId = 0;
+        finAtteinte = false;
+        chargementEnCours = false;
+        donnees.clear();
+        tableView.setPlaceholder(Chargement.indicateur("Chargement des réservations..."));
+        chargerPageSuivante();
+    }
+
+    /**
+     * Charge en arrière-plan la page suivant la dernière réservation affichée.
+     */
+    private void chargerPageSuivante() {
+        if (chargementEnCours || finAtteinte) {
+            return;
+        }
+        chargementEnCours = true;
+        int generationDemandee = generation;
+        controleur.recupererPage(filtre, dernierId, TAILLE_PAGE).whenComplete((page, erreur) -> Platform.runLater(() -> {
+            if (generationDemandee != generation) {
+                return; // Page d'une recherche abandonnée
+            }
+            chargementEnCours = false;
+            if (erreur != null) {
+                tableView.setPlaceholder(new Label("Erreur lors du chargement des réservations."));
+                Chargement.afficherErreur(erreur);
+                return;
+            }
+            if (page == null) {
+                tableView.setPlaceholder(new Label("Erreur lors du chargement des réservations."));
+                showAlert("Erreur", "Les réservations n'ont pas pu être lues. Relancez la recherche.");
+                return;
+            }
+            afficherPage(page);
+        }));
+    }
+
+    private void afficherPage(List<Reservation> page) {
+        finAtteinte = page.size() < TAILLE_PAGE;
+        if (!page.isEmpty()) {
+            dernierId = page.get(page.size() - 1).getIdReservation();
+            donnees.addAll(page);
+        }
+        tableView.setPlaceholder(new Label("Aucune réservation"));
+        compteur.setText(donnees.size() + (finAtteinte ? "" : "+") + " réservation(s)");
+    }
+
+    /**
+     * Enregistre le nouveau statut d'une réservation ; la table reprend l'ancien statut en cas d'échec.
+     */
+    private void modifierStatut(Reservation res, Reservation.StatutReservation ancien, Reservation.StatutReservation nouveau) {
+        if (nouveau == null || nouveau == ancien) {
+            return;
+        }
+        res.setStatut(nouveau);
+        CompletableFuture<Boolean> miseAJour = controleur.mettreAJourStatut(res);
+        miseAJour.whenComplete((ok, erreur) -> Platform.runLater(() -> {
+            if (erreur != null || !ok) {
+                res.setStatut(ancien);
+                tableView.refresh();
+                if (erreur != null) {
+                    Chargement.afficherErreur(erreur);
+                } else {
+                    showAlert("Erreur", "Le statut n'a pas pu être mis à jour (réservation introuvable "
+                            + "ou modifiée entre-temps par un autre administrateur).");
+                }
+            } else {
+                showAlert("Succès", "Statut mis à jour !");
+            }
+        }));
+    }
+
+    /**
+     * Crée un convertisseur d'affichage pour les listes de filtres, où null signifie « pas de filtre ».
+     */
+    private static <T> StringConverter<T> convertisseur(String libelleAucun, Function<T, String> libelle) {
+        return new StringConverter<>() {
+            @Override
+            public String toString(T valeur) {
+                return valeur == null ? libelleAucun : libelle.apply(valeur);
+            }
+
+            @Override
+            public T fromString(String texte) {
+                return null;
+            }
+        };
     }
 
     /**
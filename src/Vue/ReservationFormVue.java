@@ -1,9 +1,15 @@
 package Vue;
 
+import DAO.ConnectionProvider;
 import Controleur.ReservationControleur;
 import Modele.Attraction;
+import Modele.Paiement;
 import Modele.User;
+import Service.BilanPaiement;
+import Service.CreneauHoraire;
+import Service.DemandeReservation;
 
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -11,8 +17,12 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
 import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 /**
  * Classe représentant le formulaire de réservation d'une attraction,
  * que ce soit pour un utilisateur connecté ou un invité.
@@ -26,9 +36,9 @@ public class ReservationFormVue {
      *
      * @param user       Utilisateur connecté, ou null si mode invité
      * @param attraction Attraction à réserver
-     * @param connexion  Connexion active à la base de données
+     * @param connexion  Fournisseur de connexions à la base de données
      */
-    public ReservationFormVue(User user, Attraction attraction, Connection connexion, Stage previousStage) {
+    public ReservationFormVue(User user, Attraction attraction, ConnectionProvider connexion, Stage previousStage) {
         this.reservationControleur = new ReservationControleur(connexion); // On prépare le contrôleur
          Stage stage = new Stage();
         if (previousStage != null) {
@@ -63,6 +73,24 @@ public class ReservationFormVue {
             datePicker.setPromptText("Choisir une date de réservation");
             datePicker.setMaxWidth(300);
 
+            // Créneau horaire facultatif : sans choix, le billet vaut pour toute la journée
+            ComboBox<CreneauHoraire> creneauCombo = new ComboBox<>();
+            creneauCombo.setPromptText("Toute la journée");
+            creneauCombo.setMaxWidth(300);
+            creneauCombo.setCellFactory(l -> new ListCell<CreneauHoraire>() {
+                @Override
+                protected void updateItem(CreneauHoraire creneau, boolean empty) {
+                    super.updateItem(creneau, empty);
+                    setText(empty ? null : creneau == null ? "Toute la journée" : creneau.toString());
+                }
+            });
+            datePicker.valueProperty().addListener((obs, ancien, jour) -> chargerCreneaux(attraction, datePicker, creneauCombo));
+
+            Spinner<Integer> nombreSpinner = new Spinner<>(1, Math.max(1, attraction.getCapacite()), 1);
+            nombreSpinner.setEditable(true);
+            nombreSpinner.setMaxWidth(300);
+            Label nombreLabel = new Label("Nombre de personnes :");
+
             TextField nomField = new TextField();
             nomField.setPromptText("Nom complet");
             nomField.setMaxWidth(300);
@@ -96,31 +124,154 @@ public class ReservationFormVue {
                     }
 
                     Date selectedDate = Date.valueOf(datePicker.getValue());
-
-                    // Appel du contrôleur
-                    reservationControleur.creerReservationInviteAvecPaiement(nom, email, attraction, selectedDate, () -> {
+                    Runnable onSuccess = () -> {
                         showAlert("Succès", "Réservation et paiement effectués !");
                         new AccueilVue(connexion);
-                    });
+                    };
+
+                    reserver(DemandeReservation.pourInvite(nom, email, attraction, selectedDate, nombreSpinner.getValue())
+                                    .surCreneau(debut(creneauCombo)), onSuccess, reserverBtn);
 
                 } else { // Utilisateur connecté
                     Date selectedDate = Date.valueOf(datePicker.getValue());
-
-                    reservationControleur.creerReservationAvecPaiement(user, attraction, selectedDate, () -> {
+                    Runnable onSuccess = () -> {
                         showAlert("Succès", "Réservation et paiement effectués !");
                         stage.close();
-                    });
+                    };
+
+                    reserver(DemandeReservation.pourUtilisateur(user, attraction, selectedDate, nombreSpinner.getValue())
+                                    .surCreneau(debut(creneauCombo)), onSuccess, reserverBtn);
                 }
             });
 
         root.getChildren().addAll(retourBar, titre);
         if (user == null) root.getChildren().addAll(nomField, emailField); // Ajout des champs invités seulement
-        root.getChildren().addAll(datePicker, reserverBtn);
+        root.getChildren().addAll(datePicker, creneauCombo, nombreLabel, nombreSpinner, reserverBtn);
 
-            stage.setScene(new Scene(root, 400, user == null ? 400 : 300));
+            stage.setScene(new Scene(root, 400, user == null ? 500 : 400));
             stage.show();
 
     }
+    /**
+     * Charge en arrière-plan les créneaux du jour choisi ayant encore des places
+     * (et, pour aujourd'hui, pas encore commencés).
+     *
+     * @param attraction   Attraction à réserver
+     * @param datePicker   Sélecteur du jour
+     * @param creneauCombo Liste des créneaux à remplir
+     */
+    private void chargerCreneaux(Attraction attraction, DatePicker datePicker, ComboBox<CreneauHoraire> creneauCombo) {
+        creneauCombo.getItems().clear();
+        LocalDate jour = datePicker.getValue();
+        if (jour == null) {
+            return;
+        }
+        Chargement.quandPret(reservationControleur.recupererCreneaux(attraction.getIdAttraction(), jour), creneaux -> {
+            if (!jour.equals(datePicker.getValue())) {
+                return; // Un autre jour a été choisi entre-temps
+            }
+            LocalTime maintenant = jour.equals(LocalDate.now()) ? LocalTime.now() : null;
+            creneauCombo.getItems().add(null);
+            for (CreneauHoraire creneau : creneaux) {
+                if (creneau.getPlacesRestantes() > 0 && (maintenant == null || creneau.getDebut().isAfter(maintenant))) {
+                    creneauCombo.getItems().add(creneau);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param creneauCombo Liste des créneaux
+     * @return L'heure de début du créneau choisi, ou null pour toute la journée
+     */
+    private static LocalTime debut(ComboBox<CreneauHoraire> creneauCombo) {
+        CreneauHoraire creneau = creneauCombo.getValue();
+        return creneau == null ? null : creneau.getDebut();
+    }
+
+    /**
+     * Tarife la demande et bloque les places demandées (le bouton est désactivé le temps de la vérification),
+     * puis ouvre la fenêtre de paiement, ou prévient l'utilisateur si l'attraction est complète.
+     *
+     * @param demande     Demande de réservation saisie
+     * @param onSuccess   Action exécutée après l'enregistrement du paiement
+     * @param reserverBtn Bouton de réservation
+     */
+    private void reserver(DemandeReservation demande, Runnable onSuccess, Button reserverBtn) {
+        CompletableFuture<DemandeReservation> placeDisponible = reservationControleur.bloquerPlaces(demande);
+        Chargement.desactiverPendant(placeDisponible, reserverBtn);
+        Chargement.quandPret(placeDisponible, tarifee -> {
+            if (tarifee != null) {
+                payer(tarifee, onSuccess, reserverBtn);
+            } else {
+                showAlert("Complet", demande.getCreneau() == null
+                        ? "Il n'y a plus assez de places pour cette attraction à cette date."
+                        : "Il n'y a plus assez de places sur ce créneau.");
+            }
+        });
+    }
+
+    /**
+     * Ouvre la fenêtre de paiement pour des places déjà bloquées, puis enregistre le paiement en arrière-plan.
+     * <p>
+     * Une clé d'idempotence est tirée pour chaque fenêtre, et seule sa première validation est enregistrée.
+     * Les places sont rendues si la fenêtre est fermée sans payer.
+     *
+     * @param demande     Demande tarifée dont les places sont bloquées
+     * @param onSuccess   Action exécutée après l'enregistrement du paiement
+     * @param reserverBtn Bouton de réservation, désactivé pendant un nouveau devis
+     */
+    private void payer(DemandeReservation demande, Runnable onSuccess, Button reserverBtn) {
+        String cleIdempotence = UUID.randomUUID().toString();
+        AtomicBoolean payee = new AtomicBoolean(false);
+        try {
+            new PaiementVue().afficher(demande.getDevis(), paiement -> {
+                if (!payee.compareAndSet(false, true)) {
+                    return;
+                }
+                suivrePaiement(reservationControleur.confirmerPaiement(demande, paiement, cleIdempotence),
+                        demande, paiement, cleIdempotence, onSuccess, reserverBtn);
+            }, demande.getUser());
+        } finally {
+            if (!payee.get()) {
+                reservationControleur.libererPlaces(demande);
+            }
+        }
+    }
+
+    /**
+     * Attend l'enregistrement d'un paiement et propose la suite à l'utilisateur, en une seule boîte de dialogue :
+     * un nouveau devis seulement si le devis a été refusé ; si l'enregistrement n'a pas abouti (délai dépassé,
+     * erreur), une reprise avec la même clé d'idempotence, qui retrouve le paiement s'il a bien été enregistré.
+     *
+     * @param enregistrement Futur du bilan de l'enregistrement
+     * @param demande        Demande tarifée
+     * @param paiement       Paiement validé dans la fenêtre
+     * @param cleIdempotence Clé d'idempotence de la fenêtre de paiement
+     * @param onSuccess      Action exécutée après l'enregistrement du paiement
+     * @param reserverBtn    Bouton de réservation
+     */
+    private void suivrePaiement(CompletableFuture<BilanPaiement> enregistrement, DemandeReservation demande,
+                                Paiement paiement, String cleIdempotence, Runnable onSuccess, Button reserverBtn) {
+        enregistrement.whenComplete((bilan, erreur) -> Platform.runLater(() -> {
+            if (erreur == null && bilan.estEnregistre()) {
+                onSuccess.run();
+            } else if (erreur == null && bilan.isDevisRefuse()) {
+                if (showConfirmationDialog("Le devis a expiré ou a changé : le paiement n'a pas été enregistré. "
+                        + "Demander un nouveau devis ?")) {
+                    reserver(demande, onSuccess, reserverBtn);
+                }
+            } else if (erreur == null && bilan.isComplet()) {
+                showAlert("Complet", "Le paiement n'a pas été enregistré : il n'y a plus assez de places.");
+            } else if (showConfirmationDialog("L'enregistrement du paiement n'a pas abouti"
+                    + (erreur == null ? "" : " (" + Chargement.message(erreur) + ")")
+                    + ". Réessayer ? Le paiement ne sera pas débité deux fois.")) {
+                suivrePaiement(reservationControleur.reprendrePaiement(demande, paiement, cleIdempotence),
+                        demande, paiement, cleIdempotence, onSuccess, reserverBtn);
+            }
+        }));
+    }
+
     /**
      * Affiche une alerte simple d'information.
      *
@@ -135,6 +286,21 @@ public class ReservationFormVue {
         alert.showAndWait();
     }
 
+    /**
+     * Affiche une boîte de confirmation.
+     *
+     * @param message Message de confirmation
+     * @return true si l'utilisateur confirme, false sinon
+     */
+    private boolean showConfirmationDialog(String message) {
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Paiement non enregistré");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+
+        return alert.showAndWait().filter(response -> response == ButtonType.OK).isPresent();
+    }
+
     /**
      * Applique un style spécial pour les petits boutons (bouton retour).
      *
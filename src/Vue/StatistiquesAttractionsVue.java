@@ -1,31 +1,67 @@
 package Vue;
 
+import DAO.ConnectionProvider;
 import Controleur.StatistiquesControleur;
+import Modele.StatistiqueAttraction;
+import Modele.StatistiqueAttraction.Periode;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.chart.*;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Cette classe affiche une fenêtre avec un graphique
- * montrant la popularité des attractions (nombre de réservations).
+ * montrant la popularité des attractions (nombre total de réservations), mis à jour en direct,
+ * et un tableau détaillant réservations, chiffre d'affaires et taux de remplissage par jour, semaine ou mois.
  */
 public class StatistiquesAttractionsVue {
 
+    private static final DateTimeFormatter FORMAT_JOUR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter FORMAT_MOIS = DateTimeFormatter.ofPattern("MM/yyyy");
+
     /**
      * Affiche la fenêtre avec le graphique des statistiques.
      *
-     * @param connexion la connexion à la base de données utilisée pour récupérer les statistiques.
+     * @param connexion le fournisseur de connexions à la base de données utilisé pour récupérer les statistiques.
      */
-    public void afficher(Connection connexion) {
+    public void afficher(ConnectionProvider connexion) {
         // Création de la fenêtre (Stage)
         Stage stage = new Stage();
         stage.setTitle("Attractions les plus populaires");
 
+        StatistiquesControleur controleur = new StatistiquesControleur(connexion);
+
+        // Choix de la période et de la granularité
+        DatePicker debutPicker = new DatePicker(LocalDate.now().minusMonths(1));
+        DatePicker finPicker = new DatePicker(LocalDate.now().plusMonths(2));
+        ComboBox<Periode> periodeCombo = new ComboBox<>(FXCollections.observableArrayList(Periode.values()));
+        periodeCombo.setValue(Periode.SEMAINE);
+        Button afficherBtn = new Button("Afficher");
+        afficherBtn.setStyle("-fx-background-color: #3498db; -fx-text-fill: white;");
+        Button recalculerBtn = new Button("Recalculer");
+
+        HBox filtres = new HBox(10, new Label("Du"), debutPicker, new Label("au"), finPicker,
+                new Label("par"), periodeCombo, afficherBtn, recalculerBtn);
+        filtres.setAlignment(Pos.CENTER_LEFT);
+
         // Création des axes du graphique
         CategoryAxis xAxis = new CategoryAxis(); // Axe horizontal : noms des attractions
         NumberAxis yAxis = new NumberAxis();      // Axe vertical : nombre de réservations
@@ -35,31 +71,127 @@ public class StatistiquesAttractionsVue {
 
         // Création du graphique en barres
         BarChart<String, Number> barChart = new BarChart<>(xAxis, yAxis);
-        barChart.setTitle("Nombre de Réservations par Attraction");
+        barChart.setTitle("Nombre total de Réservations par Attraction");
+        barChart.setLegendVisible(false);
 
         // Série de données pour le graphique
         XYChart.Series<String, Number> dataSeries= new XYChart.Series<>();
         dataSeries.setName("Popularité");
 
-        // Récupération des données via le contrôleur
-        StatistiquesControleur controleur = new StatistiquesControleur(connexion);
-        Map<String, Integer> stats = controleur.getReservationsParAttraction();
-
-        // Remplissage de la série avec les données
-        for (Map.Entry<String, Integer> entry : stats.entrySet()) {
-            dataSeries.getData().add(new XYChart.Data<>(entry.getKey(), entry.getValue()));
-        }
-
         // Ajout de la série au graphique
         barChart.getData().add(dataSeries);
 
+        // Totaux en mémoire, puis mise à jour à chaque réservation créée ou annulée
+        Chargement.quandPret(controleur.getTotaux(), totaux -> afficherTotaux(dataSeries, totaux));
+        Runnable desabonner = controleur.observerTotaux(totaux ->
+                Platform.runLater(() -> afficherTotaux(dataSeries, totaux)));
+        stage.setOnHidden(e -> desabonner.run());
+
+        // Tableau détaillé par période
+        TableView<StatistiqueAttraction> tableau = creerTableau(periodeCombo);
+        VBox.setVgrow(tableau, Priority.ALWAYS);
+
+        // Récupération des données via le contrôleur, en arrière-plan
+        Runnable charger = () -> {
+            LocalDate debut = debutPicker.getValue();
+            LocalDate fin = finPicker.getValue();
+            if (debut == null || fin == null || fin.isBefore(debut)) {
+                new Alert(Alert.AlertType.ERROR, "Veuillez choisir une période valide.").showAndWait();
+                return;
+            }
+            tableau.setPlaceholder(Chargement.indicateur("Chargement des statistiques..."));
+            CompletableFuture<List<StatistiqueAttraction>> statistiques =
+                    controleur.getStatistiques(debut, fin, periodeCombo.getValue());
+            Chargement.desactiverPendant(statistiques, afficherBtn);
+            Chargement.quandPret(statistiques, stats -> {
+                tableau.getItems().setAll(stats);
+                tableau.setPlaceholder(new Label("Aucune réservation sur cette période"));
+            });
+        };
+        afficherBtn.setOnAction(e -> charger.run());
+        recalculerBtn.setOnAction(e -> {
+            CompletableFuture<Boolean> recalcul = controleur.recalculer();
+            Chargement.desactiverPendant(recalcul, recalculerBtn, afficherBtn);
+            Chargement.quandPret(recalcul, ok -> charger.run());
+        });
+
         // Organisation de la mise en page
-        VBox root =new VBox(barChart);
+        VBox root =new VBox(15, filtres, barChart, tableau);
         root.setPadding(new Insets(20));
 
         // Création et affichage de la scène
-        Scene scene = new Scene(root, 800, 600);
+        Scene scene = new Scene(root, 900, 800);
         stage.setScene(scene);
         stage.show();
+
+        charger.run();
+    }
+
+    /**
+     * Met à jour les barres du graphique : les valeurs existantes sont modifiées sur place,
+     * les attractions nouvelles ajoutées et les attractions supprimées retirées.
+     *
+     * @param dataSeries la série du graphique
+     * @param totaux les totaux par attraction, triés par nom
+     */
+    private void afficherTotaux(XYChart.Series<String, Number> dataSeries, List<StatistiqueAttraction> totaux) {
+        Map<String, XYChart.Data<String, Number>> barres = new HashMap<>();
+        for (XYChart.Data<String, Number> barre : dataSeries.getData()) {
+            barres.put(barre.getXValue(), barre);
+        }
+        Set<String> noms = new HashSet<>();
+        for (StatistiqueAttraction total : totaux) {
+            noms.add(total.getNomAttraction());
+            XYChart.Data<String, Number> barre = barres.get(total.getNomAttraction());
+            if (barre == null) {
+                dataSeries.getData().add(new XYChart.Data<>(total.getNomAttraction(), total.getNombreReservations()));
+            } else if (barre.getYValue().intValue() != total.getNombreReservations()) {
+                barre.setYValue(total.getNombreReservations());
+            }
+        }
+        dataSeries.getData().removeIf(barre -> !noms.contains(barre.getXValue()));
+    }
+
+    /**
+     * Crée le tableau des statistiques par attraction et par période.
+     *
+     * @param periodeCombo le choix de granularité, pour le libellé des périodes
+     * @return le tableau
+     */
+    private TableView<StatistiqueAttraction> creerTableau(ComboBox<Periode> periodeCombo) {
+        TableView<StatistiqueAttraction> tableau = new TableView<>();
+
+        TableColumn<StatistiqueAttraction, String> colAttraction = new TableColumn<>("Attraction");
+        colAttraction.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getNomAttraction()));
+
+        TableColumn<StatistiqueAttraction, String> colPeriode = new TableColumn<>("Période");
+        colPeriode.setCellValueFactory(c -> new SimpleStringProperty(
+                libellePeriode(c.getValue().getDebutPeriode(), periodeCombo.getValue())));
+
+        TableColumn<StatistiqueAttraction, Integer> colReservations = new TableColumn<>("Réservations");
+        colReservations.setCellValueFactory(c -> new SimpleObjectProperty<>(c.getValue().getNombreReservations()));
+
+        TableColumn<StatistiqueAttraction, String> colCA = new TableColumn<>("Chiffre d'affaires");
+        colCA.setCellValueFactory(c -> new SimpleStringProperty(String.format("%.2f€", c.getValue().getChiffreAffaires())));
+
+        TableColumn<StatistiqueAttraction, String> colTaux = new TableColumn<>("Taux de remplissage");
+        colTaux.setCellValueFactory(c -> new SimpleStringProperty(String.format("%.1f%%", c.getValue().getTauxRemplissage() * 100)));
+
+        tableau.getColumns().addAll(List.of(colAttraction, colPeriode, colReservations, colCA, colTaux));
+        tableau.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        return tableau;
+    }
+
+    /**
+     * Libellé d'une période à partir de son premier jour.
+     */
+    private static String libellePeriode(LocalDate debut, Periode periode) {
+        if (periode == Periode.MOIS) {
+            return debut.format(FORMAT_MOIS);
+        }
+        if (periode == Periode.SEMAINE) {
+            return "Semaine du " + debut.format(FORMAT_JOUR);
+        }
+        return debut.format(FORMAT_JOUR);
     }
 }
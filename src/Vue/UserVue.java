@@ -1,5 +1,6 @@
 package Vue;
 
+import DAO.ConnectionProvider;
 import Modele.User;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -8,7 +9,6 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
 
 /**
  * Interface graphique pour l'espace client.
@@ -16,16 +16,16 @@ import java.sql.Connection;
  */
 public class UserVue {
 
-    private final Connection connexion;
+    private final ConnectionProvider connexion;
 
     /**
      * Crée et affiche la fenêtre de l'espace client.
      *
      * @param nomClient Nom du client connecté.
-     * @param connexion Connexion à la base de données.
+     * @param connexion Fournisseur de connexions à la base de données.
      * @param client    Informations du client connecté.
      */
-    public UserVue(String nomClient, Connection connexion,User client) {
+    public UserVue(String nomClient, ConnectionProvider connexion,User client) {
         this.connexion = connexion;
 
             Stage stage = new Stage();
@@ -37,8 +37,9 @@ CREATE TABLE IF NOT EXISTS `attraction` (
   `duree` time NOT NULL,
   `prix` int(10) NOT NULL,
   `statut` enum('active','inactive') DEFAULT 'active',
+  `version` int(11) NOT NULL DEFAULT '0',
   PRIMARY KEY (`id_attraction`)
-) ENGINE=MyISAM AUTO_INCREMENT=6 DEFAULT CHARSET=utf8;
+) ENGINE=InnoDB AUTO_INCREMENT=6 DEFAULT CHARSET=utf8;
 
 --
 -- Déchargement des données de la table `attraction`
@@ -64,7 +65,7 @@ CREATE TABLE IF NOT EXISTS `billet` (
   `statut` enum('valide','utilise','expire') DEFAULT 'valide',
   PRIMARY KEY (`id_billet`),
   KEY `id_reservation` (`id_reservation`)
-) ENGINE=MyISAM DEFAULT CHARSET=utf8;
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 -- --------------------------------------------------------
 
@@ -81,7 +82,7 @@ CREATE TABLE IF NOT EXISTS `historique` (
   PRIMARY KEY (`id_historique`),
   KEY `id_user` (`id_user`),
   KEY `id_reservation` (`id_reservation`)
-) ENGINE=MyISAM DEFAULT CHARSET=utf8;
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 -- --------------------------------------------------------
 
@@ -96,9 +97,12 @@ CREATE TABLE IF NOT EXISTS `paiement` (
   `montant` decimal(10,2) DEFAULT NULL,
   `statut` enum('en_attente','effectue','refuse') DEFAULT 'en_attente',
   `date_paiement` date DEFAULT NULL,
+  `moyen_paiement` varchar(20) DEFAULT NULL,
+  `cle_idempotence` varchar(64) DEFAULT NULL,
   PRIMARY KEY (`id_paiement`),
+  UNIQUE KEY `cle_idempotence` (`cle_idempotence`),
   KEY `id_reservation` (`id_reservation`)
-) ENGINE=MyISAM DEFAULT CHARSET=utf8;
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 -- --------------------------------------------------------
 
@@ -114,7 +118,7 @@ CREATE TABLE IF NOT EXISTS `reduction` (
   `raison` varchar(100) DEFAULT NULL,
   PRIMARY KEY (`id_reduction`),
   KEY `id_user` (`id_user`)
-) ENGINE=MyISAM DEFAULT CHARSET=utf8;
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 -- --------------------------------------------------------
 
@@ -131,10 +135,14 @@ CREATE TABLE IF NOT EXISTS `reservation` (
   `statut` enum('en_attente','confirmee','annulee') DEFAULT 'en_attente',
   `invite_nom` varchar(20) DEFAULT NULL,
   `invite_email` varchar(20) DEFAULT NULL,
+  `id_paiement` int(11) DEFAULT NULL,
+  `creneau` time DEFAULT NULL,
   PRIMARY KEY (`id_reservation`),
-  KEY `id_user` (`id_user`),
-  KEY `id_attraction` (`id_attraction`)
-) ENGINE=MyISAM AUTO_INCREMENT=26 DEFAULT CHARSET=utf8;
+  KEY `id_paiement` (`id_paiement`),
+  KEY `idx_reservation_invite` (`invite_email`,`id_attraction`,`date_reservation`),
+  KEY `idx_reservation_user` (`id_user`,`id_attraction`,`date_reservation`,`statut`),
+  KEY `idx_reservation_occupation` (`id_attraction`,`date_reservation`,`creneau`,`statut`)
+) ENGINE=InnoDB AUTO_INCREMENT=26 DEFAULT CHARSET=utf8;
 
 --
 -- Déchargement des données de la table `reservation`
@@ -169,6 +177,85 @@ INSERT INTO `reservation` (`id_reservation`, `id_user`, `id_attraction`, `date_r
 
 -- --------------------------------------------------------
 
+--
+-- Structure de la table `file_virtuelle`
+-- (instantanés des files d'attente virtuelles, relus au démarrage de l'application)
+--
+
+DROP TABLE IF EXISTS `file_virtuelle`;
+CREATE TABLE IF NOT EXISTS `file_virtuelle` (
+  `id_attraction` int(11) NOT NULL,
+  `ouverture` datetime NOT NULL,
+  `dernier_numero` bigint NOT NULL,
+  `appeles` bigint NOT NULL,
+  `attente_cumulee_s` bigint NOT NULL,
+  PRIMARY KEY (`id_attraction`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- --------------------------------------------------------
+
+--
+-- Structure de la table `file_virtuelle_passage`
+--
+
+DROP TABLE IF EXISTS `file_virtuelle_passage`;
+CREATE TABLE IF NOT EXISTS `file_virtuelle_passage` (
+  `id_attraction` int(11) NOT NULL,
+  `numero` bigint NOT NULL,
+  `id_reservation` int(11) DEFAULT NULL,
+  `id_user` int(11) DEFAULT NULL,
+  `invite_nom` varchar(20) DEFAULT NULL,
+  `invite_email` varchar(100) DEFAULT NULL,
+  `entree` datetime NOT NULL,
+  `retour_estime` datetime NOT NULL,
+  PRIMARY KEY (`id_attraction`,`numero`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- --------------------------------------------------------
+
+--
+-- Structure de la table `schema_version`
+-- (migrations déjà comprises dans ce fichier : l'application n'applique que les suivantes)
+--
+
+DROP TABLE IF EXISTS `schema_version`;
+CREATE TABLE IF NOT EXISTS `schema_version` (
+  `version` int(11) NOT NULL,
+  `script` varchar(100) NOT NULL,
+  `date_application` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`version`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+INSERT INTO `schema_version` (`version`, `script`) VALUES
+(1, 'V1__schema_initial.sql'),
+(2, 'V2__index_requetes.sql'),
+(3, 'V3__version_attraction.sql'),
+(4, 'V4__creneau_reservation.sql'),
+(5, 'V5__file_virtuelle.sql'),
+(6, 'V6__colonnes_paiement.sql'),
+(7, 'V7__moteur_innodb.sql'),
+(8, 'V8__version_cumul.sql');
+
+-- --------------------------------------------------------
+
+--
+-- Structure de la table `stat_reservation_jour`
+-- (cumul des réservations actives par attraction et par jour, tenu à jour par l'application)
+--
+
+DROP TABLE IF EXISTS `stat_reservation_jour`;
+CREATE TABLE IF NOT EXISTS `stat_reservation_jour` (
+  `id_attraction` int(11) NOT NULL,
+  `jour` date NOT NULL,
+  `nb_reservations` int(11) NOT NULL DEFAULT '0',
+  `chiffre_affaires` decimal(12,2) NOT NULL DEFAULT '0.00',
+  `version` bigint(20) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`id_attraction`,`jour`),
+  KEY `jour` (`jour`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- --------------------------------------------------------
+
 --
 -- Structure de la table `user`
 --
@@ -187,7 +274,7 @@ CREATE TABLE IF NOT EXISTS `user` (
   `reduction` float DEFAULT NULL,
   PRIMARY KEY (`id_user`),
   UNIQUE KEY `email` (`email`)
-) ENGINE=MyISAM AUTO_INCREMENT=12 DEFAULT CHARSET=utf8;
+) ENGINE=InnoDB AUTO_INCREMENT=12 DEFAULT CHARSET=utf8;
 
 --
 -- Déchargement des données de la table `user`